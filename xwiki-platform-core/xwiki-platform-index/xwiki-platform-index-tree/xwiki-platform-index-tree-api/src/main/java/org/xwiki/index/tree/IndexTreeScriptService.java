@@ -26,14 +26,23 @@
 import javax.inject.Singleton;
 
 import org.apache.commons.lang3.Strings;
+import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
+import org.xwiki.index.tree.internal.nestedpages.hierarchy.NestedPagesHierarchyIndexJob;
+import org.xwiki.index.tree.internal.nestedpages.hierarchy.NestedPagesHierarchyIndexRequest;
 import org.xwiki.index.tree.internal.nestedpages.pinned.PinnedChildPagesManager;
+import org.xwiki.job.Job;
+import org.xwiki.job.JobException;
+import org.xwiki.job.JobExecutor;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.properties.converter.Converter;
 import org.xwiki.script.service.ScriptService;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 import org.xwiki.stability.Unstable;
 
 /**
@@ -73,6 +82,12 @@ public class IndexTreeScriptService implements ScriptService
     @Named("entityTreeNodeId")
     private Converter<EntityReference> entityTreeNodeIdConverter;
 
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
+    @Inject
+    private JobExecutor jobExecutor;
+
     /**
      * Retrieve the list of pinned child pages of the given parent.
      * 
@@ -123,6 +138,36 @@ public String normalizeEntityTreeNodeId(String nodeId)
         return nodeId;
     }
 
+    /**
+     * Starts a job that compares the nested pages hierarchy index of the specified wiki with the database, and rebuilds
+     * the index when they don't match. Requires administration right on the specified wiki.
+     *
+     * @param wiki the identifier of the wiki whose hierarchy index should be checked
+     * @param checkOnly {@code true} to only log the differences, {@code false} to also rebuild the index
+     * @return the started job, or {@code null} if the current user is not allowed to check the index or if the job
+     *         couldn't be started
+     * @since 18.8.0RC1
+     */
+    @Unstable
+    public Job checkHierarchyIndex(String wiki, boolean checkOnly)
+    {
+        if (!this.authorization.hasAccess(Right.ADMIN, new WikiReference(wiki))) {
+            return null;
+        }
+
+        NestedPagesHierarchyIndexRequest request = new NestedPagesHierarchyIndexRequest();
+        request.setId(List.of("index", "tree", "hierarchyIndex", wiki));
+        request.setWikis(List.of(wiki));
+        request.setCheckOnly(checkOnly);
+        try {
+            return this.jobExecutor.execute(NestedPagesHierarchyIndexJob.JOBTYPE, request);
+        } catch (JobException e) {
+            this.logger.warn("Failed to start the check of the nested pages hierarchy index of wiki [{}]. "
+                + "Root cause is [{}].", wiki, ExceptionUtils.getRootCauseMessage(e));
+            return null;
+        }
+    }
+
     private String findPrefix(String value, List<String> prefixes)
     {
         return prefixes.stream().filter(prefix -> Strings.CI.startsWith(value, prefix)).findFirst().orElse(null);
@@ -20,6 +20,7 @@
 package org.xwiki.index.tree.internal.nestedpages;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +35,8 @@
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
 import org.xwiki.index.tree.internal.AbstractChildDocumentsTreeNodeGroup;
 import org.xwiki.index.tree.internal.macro.DocumentSort;
+import org.xwiki.index.tree.internal.nestedpages.hierarchy.NestedPagesHierarchyFilter;
+import org.xwiki.index.tree.internal.nestedpages.hierarchy.NestedPagesHierarchyIndex;
 import org.xwiki.localization.LocalizationContext;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
@@ -59,6 +62,8 @@ public class ChildDocumentsTreeNodeGroup extends AbstractChildDocumentsTreeNodeG
      */
     public static final String HINT = "childDocuments";
 
+    private static final String FIELD_NAME = "name";
+
     private static final String FIELD_TITLE = "title";
 
     private static final String PARAMETER_LOCALE = "locale";
@@ -103,6 +108,9 @@ public class ChildDocumentsTreeNodeGroup extends AbstractChildDocumentsTreeNodeG
     @Inject
     private Converter<DocumentSort> documentSortConverter;
 
+    @Inject
+    private NestedPagesHierarchyIndex hierarchyIndex;
+
     /**
      * Default constructor.
      */
@@ -115,7 +123,13 @@ public ChildDocumentsTreeNodeGroup()
     protected List<DocumentReference> getChildDocuments(EntityReference parentReference, int offset, int limit)
         throws QueryException
     {
-        Query query = getChildDocumentsQuery(parentReference);
+        DocumentSort sort = this.documentSortConverter.convert(DocumentSort.class, getOrderBy());
+        if (canUseHierarchyIndex(sort)) {
+            return this.hierarchyIndex.getChildDocuments(parentReference, getHierarchyFilter(parentReference),
+                isAscending(sort), offset, limit);
+        }
+
+        Query query = getChildDocumentsQuery(parentReference, sort);
         query.setWiki(parentReference.extractReference(EntityType.WIKI).getName());
         query.setOffset(offset);
         query.setLimit(limit);
@@ -142,9 +156,8 @@ protected List<DocumentReference> getChildDocuments(EntityReference parentRefere
         return query.addFilter(this.documentReferenceResolverFilter).execute();
     }
 
-    private Query getChildDocumentsQuery(EntityReference parentReference) throws QueryException
+    private Query getChildDocumentsQuery(EntityReference parentReference, DocumentSort sort) throws QueryException
     {
-        DocumentSort sort = this.documentSortConverter.convert(DocumentSort.class, getOrderBy());
         Query query;
         if (canHaveTerminalChildDocuments(parentReference)) {
             query = getChildDocumentsQueryOrderedBy("nestedPagesOrderedBy", sort);
@@ -163,7 +176,7 @@ private Query getChildDocumentsQueryOrderedBy(String namedQueryPrefix, DocumentS
     {
         String fieldName = sort != null ? sort.getField() : null;
         if (fieldName == null) {
-            fieldName = "name";
+            fieldName = FIELD_NAME;
         }
         fieldName = fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
 
@@ -179,7 +192,19 @@ private String getOrder(DocumentSort sort)
     {
         // TODO: The default order could depend on the sort field (e.g. titles are normally sorted in ascending order
         // while dates are normally sorted in descending order, e.g. most recent documents first).
-        return sort != null && Boolean.FALSE.equals(sort.isAscending()) ? "Desc" : "Asc";
+        return isAscending(sort) ? "Asc" : "Desc";
+    }
+
+    private boolean isAscending(DocumentSort sort)
+    {
+        return sort == null || !Boolean.FALSE.equals(sort.isAscending());
+    }
+
+    private boolean canUseHierarchyIndex(DocumentSort sort)
+    {
+        // The hierarchy index keeps the child pages sorted only by name.
+        String fieldName = sort != null ? sort.getField() : null;
+        return this.hierarchyIndex.isEnabled() && (fieldName == null || FIELD_NAME.equals(fieldName));
     }
 
     private Query getNonTerminalChildDocumentsQuery(DocumentSort sort) throws QueryException
@@ -211,6 +236,10 @@ private Query getNonTerminalChildDocumentsQuery(DocumentSort sort) throws QueryE
     @Override
     protected int getChildDocumentsCount(EntityReference parentReference) throws QueryException
     {
+        if (this.hierarchyIndex.isEnabled()) {
+            return this.hierarchyIndex.getChildDocumentsCount(parentReference, getHierarchyFilter(parentReference));
+        }
+
         int count = getChildSpacesCount(parentReference);
         if (canHaveTerminalChildDocuments(parentReference)) {
             count += getChildTerminalPagesCount(new DocumentReference(parentReference));
@@ -230,6 +259,19 @@ private boolean canHaveTerminalChildDocuments(EntityReference parentReference)
         return parentReference.getType() == EntityType.DOCUMENT && areTerminalDocumentsShown();
     }
 
+    private NestedPagesHierarchyFilter getHierarchyFilter(EntityReference parentReference)
+    {
+        // Same exclusions as the queries.
+        EntityReference parentSpaceReference = parentReference.extractReference(EntityType.SPACE);
+        Set<String> excludedSpaces =
+            getExcludedSpaces(parentSpaceReference != null ? parentSpaceReference : parentReference);
+        boolean terminalPages = canHaveTerminalChildDocuments(parentReference);
+        Set<String> excludedDocuments =
+            terminalPages ? getExcludedDocuments(parentReference.getParent()) : Collections.emptySet();
+        return new NestedPagesHierarchyFilter(terminalPages, areHiddenEntitiesShown(), excludedSpaces,
+            excludedDocuments);
+    }
+
     private int getChildTerminalPagesCount(DocumentReference documentReference) throws QueryException
     {
         List<String> constraints = new ArrayList<>();
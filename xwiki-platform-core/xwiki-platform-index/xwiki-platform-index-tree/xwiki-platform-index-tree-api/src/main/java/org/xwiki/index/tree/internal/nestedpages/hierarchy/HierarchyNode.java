@@ -0,0 +1,35 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal.nestedpages.hierarchy;
+
+/**
+ * A node of the nested pages hierarchy index: either a space (i.e. a nested page) or a terminal page.
+ *
+ * @param reference the local reference of the space, or the full name of the terminal page
+ * @param parent the local reference of the parent space, or {@code null} for a top level space
+ * @param name the name of the space or of the terminal page, used to sort the node among its siblings
+ * @param terminal {@code true} if the node is a terminal page, {@code false} if it's a space
+ * @param hidden {@code true} if the node is hidden, {@code false} otherwise
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+record HierarchyNode(String reference, String parent, String name, boolean terminal, boolean hidden)
+{
+}
@@ -0,0 +1,48 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal.nestedpages.hierarchy;
+
+import java.util.Set;
+
+/**
+ * Specifies which child nodes are returned and counted by the {@link NestedPagesHierarchyIndex}.
+ *
+ * @param terminalPages {@code true} to include the terminal child pages, {@code false} to include only the child
+ *            spaces (nested pages)
+ * @param hiddenPages {@code true} to include the hidden child pages, {@code false} otherwise
+ * @param excludedSpaces the local references of the child spaces to exclude
+ * @param excludedDocuments the full names of the terminal child pages to exclude
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public record NestedPagesHierarchyFilter(boolean terminalPages, boolean hiddenPages, Set<String> excludedSpaces,
+    Set<String> excludedDocuments)
+{
+    boolean accept(HierarchyNode node)
+    {
+        if (node.hidden() && !this.hiddenPages) {
+            return false;
+        } else if (node.terminal()) {
+            return this.terminalPages && !this.excludedDocuments.contains(node.reference());
+        } else {
+            return !this.excludedSpaces.contains(node.reference());
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal.nestedpages.hierarchy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceProvider;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.SpaceReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+
+/**
+ * Keeps in memory the nested pages hierarchy of each wiki (the child spaces and terminal pages of each space, sorted
+ * by name, with their hidden flag and counts) so that the nested pages tree doesn't have to query the database each
+ * time a node is expanded. The hierarchy of a wiki is loaded the first time it is needed and is then updated from the
+ * document events (see {@link NestedPagesHierarchyIndexListener}).
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = NestedPagesHierarchyIndex.class)
+@Singleton
+public class NestedPagesHierarchyIndex
+{
+    private static final String SPACES_STATEMENT =
+        "select space.reference, space.parent, space.name, space.hidden from XWikiSpace space";
+
+    private static final String PAGES_STATEMENT = "select doc.fullName, doc.space, doc.name, doc.hidden "
+        + "from XWikiDocument doc where doc.translation = 0 and doc.name <> :defaultDocName";
+
+    private static final String PAGE_STATEMENT =
+        "select doc.hidden from XWikiDocument doc where doc.fullName = :fullName and doc.translation = 0";
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private EntityReferenceProvider defaultEntityReferenceProvider;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<String> currentDocumentReferenceResolver;
+
+    @Inject
+    @Named("current")
+    private SpaceReferenceResolver<String> currentSpaceReferenceResolver;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localEntityReferenceSerializer;
+
+    @Inject
+    private Logger logger;
+
+    private final Map<String, WikiHierarchy> hierarchies = new ConcurrentHashMap<>();
+
+    /**
+     * The index sorts the child pages by name ignoring the case, which matches the database sort only when no
+     * collation is configured for the index trees.
+     *
+     * @return {@code true} if the nested pages tree should use this index, {@code false} otherwise
+     */
+    public boolean isEnabled()
+    {
+        return this.configuration.getProperty("index.tree.hierarchyIndex.enabled", false)
+            && StringUtils.isEmpty(this.configuration.getProperty("index.sortCollation", ""));
+    }
+
+    /**
+     * @param parentReference the parent wiki or nested page
+     * @param filter specifies which child pages to return
+     * @param ascending {@code true} to sort the child pages by name in ascending order, {@code false} for descending
+     *            order
+     * @param offset the number of child pages to skip
+     * @param limit the maximum number of child pages to return, zero or negative for no limit
+     * @return the references of the child pages
+     * @throws QueryException if loading the hierarchy of the wiki fails
+     */
+    public List<DocumentReference> getChildDocuments(EntityReference parentReference,
+        NestedPagesHierarchyFilter filter, boolean ascending, int offset, int limit) throws QueryException
+    {
+        WikiReference wikiReference = new WikiReference(parentReference.extractReference(EntityType.WIKI));
+        String defaultDocumentName = getDefaultDocumentName();
+
+        List<DocumentReference> childDocuments = new ArrayList<>();
+        for (HierarchyNode node : getHierarchy(wikiReference.getName()).getChildren(getParent(parentReference),
+            filter, ascending, offset, limit)) {
+            if (node.terminal()) {
+                childDocuments.add(this.currentDocumentReferenceResolver.resolve(node.reference(), wikiReference));
+            } else {
+                SpaceReference spaceReference =
+                    this.currentSpaceReferenceResolver.resolve(node.reference(), wikiReference);
+                childDocuments.add(new DocumentReference(defaultDocumentName, spaceReference));
+            }
+        }
+        return childDocuments;
+    }
+
+    /**
+     * @param parentReference the parent wiki or nested page
+     * @param filter specifies which child pages to count
+     * @return the number of child pages
+     * @throws QueryException if loading the hierarchy of the wiki fails
+     */
+    public int getChildDocumentsCount(EntityReference parentReference, NestedPagesHierarchyFilter filter)
+        throws QueryException
+    {
+        String wiki = parentReference.extractReference(EntityType.WIKI).getName();
+        return getHierarchy(wiki).getChildCount(getParent(parentReference), filter);
+    }
+
+    /**
+     * Updates the index after the specified document has been created, deleted or modified, by reading again from the
+     * database the document and its ancestor spaces. Nothing is done if the hierarchy of the wiki is not loaded yet.
+     *
+     * @param documentReference the reference of the document that was created, deleted or modified
+     * @throws QueryException if reading the document or its spaces from the database fails
+     */
+    public void update(DocumentReference documentReference) throws QueryException
+    {
+        String wiki = documentReference.getWikiReference().getName();
+        WikiHierarchy hierarchy = this.hierarchies.get(wiki);
+        if (hierarchy != null) {
+            hierarchy.getLock().writeLock().lock();
+            try {
+                if (!getDefaultDocumentName().equals(documentReference.getName())) {
+                    updatePage(documentReference, hierarchy);
+                }
+                updateSpaces(documentReference, hierarchy);
+            } finally {
+                hierarchy.getLock().writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * @param wiki the wiki identifier
+     * @return {@code true} if the hierarchy of the specified wiki is loaded in memory, {@code false} otherwise
+     */
+    public boolean isLoaded(String wiki)
+    {
+        return this.hierarchies.containsKey(wiki);
+    }
+
+    /**
+     * Drops the hierarchy of the specified wiki (e.g. when the wiki is deleted).
+     *
+     * @param wiki the wiki identifier
+     */
+    public void remove(String wiki)
+    {
+        this.hierarchies.remove(wiki);
+    }
+
+    /**
+     * Reloads the hierarchy of the specified wiki from the database. The tree requests targeting this wiki wait for
+     * the hierarchy to be reloaded.
+     *
+     * @param wiki the wiki identifier
+     * @return the number of nodes (spaces and terminal pages) in the reloaded hierarchy
+     * @throws QueryException if loading the hierarchy fails
+     */
+    public int rebuild(String wiki) throws QueryException
+    {
+        WikiHierarchy hierarchy = this.hierarchies.get(wiki);
+        if (hierarchy == null) {
+            hierarchy = getHierarchy(wiki);
+        } else {
+            hierarchy.getLock().writeLock().lock();
+            try {
+                hierarchy.clear();
+                load(wiki, hierarchy);
+            } finally {
+                hierarchy.getLock().writeLock().unlock();
+            }
+        }
+        return hierarchy.size();
+    }
+
+    /**
+     * Compares the hierarchy of the specified wiki with the database. Note that the pages modified while the check is
+     * running can be reported as differences.
+     *
+     * @param wiki the wiki identifier
+     * @return the differences between the index and the database, empty if the hierarchy of the wiki is consistent or
+     *         not loaded
+     * @throws QueryException if loading the hierarchy from the database fails
+     */
+    public List<String> check(String wiki) throws QueryException
+    {
+        WikiHierarchy hierarchy = this.hierarchies.get(wiki);
+        if (hierarchy == null) {
+            return List.of();
+        }
+
+        WikiHierarchy expected = new WikiHierarchy();
+        load(wiki, expected);
+        return hierarchy.diff(expected);
+    }
+
+    private WikiHierarchy getHierarchy(String wiki) throws QueryException
+    {
+        WikiHierarchy hierarchy = this.hierarchies.get(wiki);
+        if (hierarchy == null) {
+            WikiHierarchy newHierarchy = new WikiHierarchy();
+            // Make the readers and the updates wait until the hierarchy is loaded.
+            newHierarchy.getLock().writeLock().lock();
+            try {
+                hierarchy = this.hierarchies.putIfAbsent(wiki, newHierarchy);
+                if (hierarchy == null) {
+                    hierarchy = newHierarchy;
+                    load(wiki, newHierarchy);
+                }
+            } catch (QueryException e) {
+                this.hierarchies.remove(wiki, newHierarchy);
+                throw e;
+            } finally {
+                newHierarchy.getLock().writeLock().unlock();
+            }
+        }
+        return hierarchy;
+    }
+
+    private void load(String wiki, WikiHierarchy hierarchy) throws QueryException
+    {
+        long start = System.currentTimeMillis();
+
+        List<Object[]> spaces = this.queryManager.createQuery(SPACES_STATEMENT, Query.HQL).setWiki(wiki).execute();
+        for (Object[] space : spaces) {
+            hierarchy.put(new HierarchyNode((String) space[0], (String) space[1], (String) space[2], false,
+                Boolean.TRUE.equals(space[3])));
+        }
+
+        List<Object[]> pages = this.queryManager.createQuery(PAGES_STATEMENT, Query.HQL).setWiki(wiki)
+            .bindValue("defaultDocName", getDefaultDocumentName()).execute();
+        for (Object[] page : pages) {
+            hierarchy.put(new HierarchyNode((String) page[0], (String) page[1], (String) page[2], true,
+                Boolean.TRUE.equals(page[3])));
+        }
+
+        this.logger.info(
+            "Loaded the nested pages hierarchy of wiki [{}] ([{}] spaces and [{}] terminal pages) in [{}] ms", wiki,
+            spaces.size(), pages.size(), System.currentTimeMillis() - start);
+    }
+
+    private void updatePage(DocumentReference documentReference, WikiHierarchy hierarchy) throws QueryException
+    {
+        String fullName = this.localEntityReferenceSerializer.serialize(documentReference);
+        List<Object> result = this.queryManager.createQuery(PAGE_STATEMENT, Query.HQL)
+            .setWiki(documentReference.getWikiReference().getName()).bindValue("fullName", fullName).execute();
+        if (result.isEmpty()) {
+            hierarchy.remove(fullName, true);
+        } else {
+            String space = this.localEntityReferenceSerializer.serialize(documentReference.getLastSpaceReference());
+            hierarchy.put(new HierarchyNode(fullName, space, documentReference.getName(), true,
+                Boolean.TRUE.equals(result.get(0))));
+        }
+    }
+
+    private void updateSpaces(DocumentReference documentReference, WikiHierarchy hierarchy) throws QueryException
+    {
+        // The hidden flag and the existence of the ancestor spaces depend on the pages they contain.
+        Set<String> references = new HashSet<>();
+        for (SpaceReference spaceReference : documentReference.getSpaceReferences()) {
+            references.add(this.localEntityReferenceSerializer.serialize(spaceReference));
+        }
+
+        List<Object[]> spaces = this.queryManager.createQuery(SPACES_STATEMENT + " where space.reference in (:spaces)",
+            Query.HQL).setWiki(documentReference.getWikiReference().getName()).bindValue("spaces", references)
+            .execute();
+        for (Object[] space : spaces) {
+            references.remove(space[0]);
+            hierarchy.put(new HierarchyNode((String) space[0], (String) space[1], (String) space[2], false,
+                Boolean.TRUE.equals(space[3])));
+        }
+
+        // The remaining spaces don't exist anymore.
+        references.forEach(reference -> hierarchy.remove(reference, false));
+    }
+
+    private String getParent(EntityReference parentReference)
+    {
+        EntityReference parentSpaceReference = parentReference.extractReference(EntityType.SPACE);
+        return parentSpaceReference != null ? this.localEntityReferenceSerializer.serialize(parentSpaceReference)
+            : null;
+    }
+
+    private String getDefaultDocumentName()
+    {
+        return this.defaultEntityReferenceProvider.getDefaultReference(EntityType.DOCUMENT).getName();
+    }
+}
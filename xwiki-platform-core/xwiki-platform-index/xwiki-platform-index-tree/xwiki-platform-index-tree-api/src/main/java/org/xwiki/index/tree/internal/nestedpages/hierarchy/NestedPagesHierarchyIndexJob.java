@@ -0,0 +1,113 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal.nestedpages.hierarchy;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.annotation.InstantiationStrategy;
+import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
+import org.xwiki.job.AbstractJob;
+import org.xwiki.job.DefaultJobStatus;
+import org.xwiki.job.GroupedJob;
+import org.xwiki.job.JobGroupPath;
+
+/**
+ * Checks the nested pages hierarchy index of the requested wikis against the database, and rebuilds it when they
+ * don't match (unless only a check is requested).
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component
+@InstantiationStrategy(ComponentInstantiationStrategy.PER_LOOKUP)
+@Named(NestedPagesHierarchyIndexJob.JOBTYPE)
+public class NestedPagesHierarchyIndexJob
+    extends AbstractJob<NestedPagesHierarchyIndexRequest, DefaultJobStatus<NestedPagesHierarchyIndexRequest>>
+    implements GroupedJob
+{
+    /**
+     * The id of the job.
+     */
+    public static final String JOBTYPE = "index.tree.hierarchyIndex";
+
+    /**
+     * All the checks run in the same thread.
+     */
+    private static final JobGroupPath GROUP = new JobGroupPath(List.of("index", "tree", "hierarchyIndex"));
+
+    @Inject
+    private NestedPagesHierarchyIndex hierarchyIndex;
+
+    @Override
+    public String getType()
+    {
+        return JOBTYPE;
+    }
+
+    @Override
+    public JobGroupPath getGroupPath()
+    {
+        return GROUP;
+    }
+
+    @Override
+    protected void runInternal() throws Exception
+    {
+        List<String> wikis = getRequest().getWikis();
+        this.progressManager.pushLevelProgress(wikis.size(), this);
+
+        try {
+            for (String wiki : wikis) {
+                this.progressManager.startStep(this);
+                check(wiki);
+                this.progressManager.endStep(this);
+            }
+        } finally {
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    private void check(String wiki) throws Exception
+    {
+        if (!this.hierarchyIndex.isLoaded(wiki)) {
+            // The index is loaded from the database the first time it's needed.
+            this.logger.info("The nested pages hierarchy index of wiki [{}] is not loaded.", wiki);
+            return;
+        }
+
+        List<String> differences = this.hierarchyIndex.check(wiki);
+        if (differences.isEmpty()) {
+            this.logger.info("The nested pages hierarchy index of wiki [{}] is consistent with the database.", wiki);
+        } else {
+            this.logger.warn("Found [{}] differences between the nested pages hierarchy index of wiki [{}] and the "
+                + "database.", differences.size(), wiki);
+            differences.forEach(difference -> this.logger.warn("{}", difference));
+
+            if (!getRequest().isCheckOnly()) {
+                int size = this.hierarchyIndex.rebuild(wiki);
+                this.logger.info("Rebuilt the nested pages hierarchy index of wiki [{}] ([{}] nodes).", wiki, size);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal.nestedpages.hierarchy;
+
+import java.util.Locale;
+import java.util.Objects;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.bridge.event.WikiDeletedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.observation.AbstractEventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.query.QueryException;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Updates the {@link NestedPagesHierarchyIndex} when a page is created, deleted or (un)hidden. A rename is notified as
+ * a delete followed by a create. The remote events are handled too because each cluster node has its own index.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component
+@Singleton
+@Named(NestedPagesHierarchyIndexListener.NAME)
+public class NestedPagesHierarchyIndexListener extends AbstractEventListener
+{
+    /**
+     * The name of this event listener.
+     */
+    public static final String NAME = "NestedPagesHierarchyIndexListener";
+
+    @Inject
+    private NestedPagesHierarchyIndex hierarchyIndex;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Default constructor.
+     */
+    public NestedPagesHierarchyIndexListener()
+    {
+        super(NAME, new DocumentCreatedEvent(), new DocumentDeletedEvent(), new DocumentUpdatedEvent(),
+            new WikiDeletedEvent());
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        if (event instanceof WikiDeletedEvent wikiDeletedEvent) {
+            this.hierarchyIndex.remove(wikiDeletedEvent.getWikiId());
+        } else if (source instanceof XWikiDocument document && Locale.ROOT.equals(document.getLocale())
+            && (!(event instanceof DocumentUpdatedEvent) || isHiddenFlagModified(document))) {
+            // The translations are not part of the hierarchy and only the hidden flag matters for the updates.
+            try {
+                this.hierarchyIndex.update(document.getDocumentReference());
+            } catch (QueryException e) {
+                this.logger.warn("Failed to update the nested pages hierarchy index for page [{}]. Root cause is [{}].",
+                    document.getDocumentReference(), ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+    }
+
+    private boolean isHiddenFlagModified(XWikiDocument document)
+    {
+        XWikiDocument originalDocument = document.getOriginalDocument();
+        return originalDocument == null || !Objects.equals(originalDocument.isHidden(), document.isHidden());
+    }
+}
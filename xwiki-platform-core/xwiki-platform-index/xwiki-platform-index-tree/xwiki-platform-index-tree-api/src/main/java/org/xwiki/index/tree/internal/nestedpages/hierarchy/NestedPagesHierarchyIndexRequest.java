@@ -0,0 +1,99 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal.nestedpages.hierarchy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xwiki.job.AbstractRequest;
+import org.xwiki.job.Request;
+
+/**
+ * The request of the {@link NestedPagesHierarchyIndexJob}.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class NestedPagesHierarchyIndexRequest extends AbstractRequest
+{
+    /**
+     * Serialization identifier.
+     */
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @see #getWikis()
+     */
+    private List<String> wikis = new ArrayList<>();
+
+    /**
+     * @see #isCheckOnly()
+     */
+    private boolean checkOnly;
+
+    /**
+     * The default constructor.
+     */
+    public NestedPagesHierarchyIndexRequest()
+    {
+    }
+
+    /**
+     * @param request the request to copy
+     */
+    public NestedPagesHierarchyIndexRequest(Request request)
+    {
+        super(request);
+    }
+
+    /**
+     * @return the identifiers of the wikis whose hierarchy index should be checked
+     */
+    public List<String> getWikis()
+    {
+        return this.wikis;
+    }
+
+    /**
+     * @param wikis the identifiers of the wikis whose hierarchy index should be checked
+     */
+    public void setWikis(List<String> wikis)
+    {
+        this.wikis = wikis;
+    }
+
+    /**
+     * @return {@code true} to only log the differences between the index and the database, {@code false} to also
+     *         rebuild the index when differences are found
+     */
+    public boolean isCheckOnly()
+    {
+        return this.checkOnly;
+    }
+
+    /**
+     * @param checkOnly {@code true} to only log the differences between the index and the database, {@code false} to
+     *            also rebuild the index when differences are found
+     */
+    public void setCheckOnly(boolean checkOnly)
+    {
+        this.checkOnly = checkOnly;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal.nestedpages.hierarchy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The nested pages hierarchy of a wiki: maps each space to its child spaces and terminal pages, sorted by name, and
+ * keeps the number of (hidden) children of each space. The top level spaces are the children of the {@code null}
+ * parent.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+final class WikiHierarchy
+{
+    /**
+     * Same order as the {@code nestedPagesOrderedByName} named query when no collation is configured: lower case name
+     * first, then name. The remaining criteria only make the order deterministic.
+     */
+    private static final Comparator<HierarchyNode> ORDER =
+        Comparator.comparing(HierarchyNode::name, String.CASE_INSENSITIVE_ORDER).thenComparing(HierarchyNode::name)
+            .thenComparing(HierarchyNode::terminal).thenComparing(HierarchyNode::reference);
+
+    /**
+     * The children of a space.
+     *
+     * @version $Id$
+     */
+    private static final class Children
+    {
+        private final NavigableSet<HierarchyNode> nodes = new TreeSet<>(ORDER);
+
+        private int spaces;
+
+        private int hiddenSpaces;
+
+        private int pages;
+
+        private int hiddenPages;
+
+        void add(HierarchyNode node)
+        {
+            if (this.nodes.add(node)) {
+                count(node, 1);
+            }
+        }
+
+        void remove(HierarchyNode node)
+        {
+            if (this.nodes.remove(node)) {
+                count(node, -1);
+            }
+        }
+
+        private void count(HierarchyNode node, int delta)
+        {
+            if (node.terminal()) {
+                this.pages += delta;
+                this.hiddenPages += node.hidden() ? delta : 0;
+            } else {
+                this.spaces += delta;
+                this.hiddenSpaces += node.hidden() ? delta : 0;
+            }
+        }
+
+        int count(NestedPagesHierarchyFilter filter)
+        {
+            int count = filter.hiddenPages() ? this.spaces : this.spaces - this.hiddenSpaces;
+            if (filter.terminalPages()) {
+                count += filter.hiddenPages() ? this.pages : this.pages - this.hiddenPages;
+            }
+            return count;
+        }
+    }
+
+    private final Map<String, HierarchyNode> spaces = new HashMap<>();
+
+    private final Map<String, HierarchyNode> pages = new HashMap<>();
+
+    private final Map<String, Children> children = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @return the lock protecting this hierarchy; the write lock is reentrant so it can be held while calling the
+     *         methods that modify the hierarchy
+     */
+    ReadWriteLock getLock()
+    {
+        return this.lock;
+    }
+
+    /**
+     * Adds or replaces a node.
+     *
+     * @param node the node to add or replace
+     */
+    void put(HierarchyNode node)
+    {
+        this.lock.writeLock().lock();
+        try {
+            HierarchyNode previous = getNodes(node.terminal()).put(node.reference(), node);
+            if (previous != null) {
+                removeChild(previous);
+            }
+            this.children.computeIfAbsent(node.parent(), key -> new Children()).add(node);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes a node, if present. The children of a removed space are not removed.
+     *
+     * @param reference the local reference of the space or the full name of the terminal page to remove
+     * @param terminal {@code true} to remove a terminal page, {@code false} to remove a space
+     */
+    void remove(String reference, boolean terminal)
+    {
+        this.lock.writeLock().lock();
+        try {
+            HierarchyNode previous = getNodes(terminal).remove(reference);
+            if (previous != null) {
+                removeChild(previous);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes all the nodes.
+     */
+    void clear()
+    {
+        this.lock.writeLock().lock();
+        try {
+            this.spaces.clear();
+            this.pages.clear();
+            this.children.clear();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of nodes (spaces and terminal pages)
+     */
+    int size()
+    {
+        this.lock.readLock().lock();
+        try {
+            return this.spaces.size() + this.pages.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param parent the local reference of the parent space, {@code null} for the top level spaces
+     * @param filter specifies which children to return
+     * @param ascending {@code true} to sort the children by name in ascending order, {@code false} for descending order
+     * @param offset the number of children to skip
+     * @param limit the maximum number of children to return, zero or negative for no limit
+     * @return the requested children
+     */
+    List<HierarchyNode> getChildren(String parent, NestedPagesHierarchyFilter filter, boolean ascending, int offset,
+        int limit)
+    {
+        this.lock.readLock().lock();
+        try {
+            List<HierarchyNode> result = new ArrayList<>();
+            Children parentChildren = this.children.get(parent);
+            if (parentChildren != null) {
+                int skipped = 0;
+                for (HierarchyNode node : ascending ? parentChildren.nodes : parentChildren.nodes.descendingSet()) {
+                    if (limit > 0 && result.size() >= limit) {
+                        break;
+                    } else if (filter.accept(node)) {
+                        if (skipped < offset) {
+                            skipped++;
+                        } else {
+                            result.add(node);
+                        }
+                    }
+                }
+            }
+            return result;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param parent the local reference of the parent space, {@code null} for the top level spaces
+     * @param filter specifies which children to count
+     * @return the number of children
+     */
+    int getChildCount(String parent, NestedPagesHierarchyFilter filter)
+    {
+        this.lock.readLock().lock();
+        try {
+            Children parentChildren = this.children.get(parent);
+            if (parentChildren == null) {
+                return 0;
+            }
+
+            // The counters are maintained for each parent so we only have to look at the excluded children.
+            int count = parentChildren.count(filter);
+            count -= countExcluded(this.spaces, filter.excludedSpaces(), parent, filter);
+            if (filter.terminalPages()) {
+                count -= countExcluded(this.pages, filter.excludedDocuments(), parent, filter);
+            }
+            return count;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Compares this hierarchy with the expected one.
+     *
+     * @param expected the expected hierarchy (e.g. loaded from the database)
+     * @return the differences, empty if the two hierarchies have the same nodes
+     */
+    List<String> diff(WikiHierarchy expected)
+    {
+        this.lock.readLock().lock();
+        try {
+            List<String> differences = new ArrayList<>();
+            diff(this.spaces, expected.spaces, differences);
+            diff(this.pages, expected.pages, differences);
+            return differences;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, HierarchyNode> getNodes(boolean terminal)
+    {
+        return terminal ? this.pages : this.spaces;
+    }
+
+    private void removeChild(HierarchyNode node)
+    {
+        Children parentChildren = this.children.get(node.parent());
+        if (parentChildren != null) {
+            parentChildren.remove(node);
+            if (parentChildren.nodes.isEmpty()) {
+                this.children.remove(node.parent());
+            }
+        }
+    }
+
+    private int countExcluded(Map<String, HierarchyNode> nodes, Set<String> excluded, String parent,
+        NestedPagesHierarchyFilter filter)
+    {
+        int count = 0;
+        for (String reference : excluded) {
+            HierarchyNode node = nodes.get(reference);
+            if (node != null && Objects.equals(node.parent(), parent) && (filter.hiddenPages() || !node.hidden())) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void diff(Map<String, HierarchyNode> actual, Map<String, HierarchyNode> expected,
+        List<String> differences)
+    {
+        for (HierarchyNode expectedNode : expected.values()) {
+            HierarchyNode actualNode = actual.get(expectedNode.reference());
+            if (actualNode == null) {
+                differences.add(String.format("Missing %s", expectedNode));
+            } else if (!actualNode.equals(expectedNode)) {
+                differences.add(String.format("Expected %s but got %s", expectedNode, actualNode));
+            }
+        }
+        for (HierarchyNode actualNode : actual.values()) {
+            if (!expected.containsKey(actualNode.reference())) {
+                differences.add(String.format("Unexpected %s", actualNode));
+            }
+        }
+    }
+}
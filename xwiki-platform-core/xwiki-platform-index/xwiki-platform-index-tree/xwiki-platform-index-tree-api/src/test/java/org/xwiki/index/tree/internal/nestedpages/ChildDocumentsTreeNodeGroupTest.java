@@ -23,6 +23,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -32,6 +33,8 @@
 import org.mockito.Mock;
 import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.index.tree.internal.macro.DocumentSort;
+import org.xwiki.index.tree.internal.nestedpages.hierarchy.NestedPagesHierarchyFilter;
+import org.xwiki.index.tree.internal.nestedpages.hierarchy.NestedPagesHierarchyIndex;
 import org.xwiki.localization.LocalizationContext;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
@@ -127,6 +130,9 @@
     @MockComponent
     private Converter<DocumentSort> documentSortConverter;
 
+    @MockComponent
+    private NestedPagesHierarchyIndex hierarchyIndex;
+
     @Mock
     private Query query;
 
@@ -317,6 +323,48 @@ void getChildCount() throws Exception
         assertEquals(2L, this.childDocumentsTreeNodeGroup.getChildCount("document:wiki:Path.To.Page.WebHome"));
     }
 
+    @Test
+    void getChildrenAndCountFromHierarchyIndex() throws Exception
+    {
+        when(this.hierarchyIndex.isEnabled()).thenReturn(true);
+        this.childDocumentsTreeNodeGroup.getProperties().put("exclusions",
+            new HashSet<>(List.of("document:wiki:Path.To.Page.Alice")));
+
+        DocumentReference alice = new DocumentReference("Alice", this.documentReference.getLastSpaceReference());
+        when(this.entityTreeNodeIdConverter.convert(EntityReference.class, "document:wiki:Path.To.Page.Alice"))
+            .thenReturn(alice);
+        when(this.localEntityReferenceSerializer.serialize(alice)).thenReturn("Path.To.Page.Alice");
+
+        NestedPagesHierarchyFilter filter =
+            new NestedPagesHierarchyFilter(true, true, Collections.emptySet(), Set.of("Path.To.Page.Alice"));
+        DocumentReference child = new DocumentReference("Child", this.documentReference.getLastSpaceReference());
+        when(this.hierarchyIndex.getChildDocuments(this.documentReference, filter, true, 5, 10))
+            .thenReturn(List.of(child));
+        when(this.entityTreeNodeIdConverter.convert(String.class, child))
+            .thenReturn("document:wiki:Path.To.Page.Child");
+        when(this.hierarchyIndex.getChildDocumentsCount(this.documentReference, filter)).thenReturn(7);
+
+        assertEquals(List.of("document:wiki:Path.To.Page.Child"),
+            this.childDocumentsTreeNodeGroup.getChildren("document:wiki:Path.To.Page.WebHome", 5, 10));
+        assertEquals(7, this.childDocumentsTreeNodeGroup.getChildCount("document:wiki:Path.To.Page.WebHome"));
+
+        // The hierarchy index is not used when sorting by title.
+        this.childDocumentsTreeNodeGroup.getProperties().put("orderBy", "title");
+        when(this.documentSortConverter.convert(DocumentSort.class, "title"))
+            .thenReturn(new DocumentSort("title", true));
+        Query queryByTitle = mock(Query.class, "nestedPagesOrderedByTitleAsc");
+        when(this.queryManager.getNamedQuery("nestedPagesOrderedByTitleAsc")).thenReturn(queryByTitle);
+        when(queryByTitle.addFilter(any(QueryFilter.class))).thenReturn(queryByTitle);
+        when(queryByTitle.execute()).thenReturn(List.of(child));
+        when(this.localizationContext.getCurrentLocale()).thenReturn(Locale.ENGLISH);
+
+        assertEquals(List.of("document:wiki:Path.To.Page.Child"),
+            this.childDocumentsTreeNodeGroup.getChildren("document:wiki:Path.To.Page.WebHome", 0, 10));
+
+        verify(this.queryManager, never()).getNamedQuery("nestedPagesOrderedByNameAsc");
+        verify(queryByTitle).bindValue("excludedDocuments", Set.of("Path.To.Page.Alice"));
+    }
+
     @Test
     void getChildCountForWiki() throws Exception
     {
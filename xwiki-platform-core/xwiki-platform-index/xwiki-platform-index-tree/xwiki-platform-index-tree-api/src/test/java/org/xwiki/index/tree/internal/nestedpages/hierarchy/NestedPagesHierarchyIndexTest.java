@@ -0,0 +1,280 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.index.tree.internal.nestedpages.hierarchy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceProvider;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.SpaceReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link NestedPagesHierarchyIndex}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class NestedPagesHierarchyIndexTest
+{
+    private static final String SPACES_STATEMENT =
+        "select space.reference, space.parent, space.name, space.hidden from XWikiSpace space";
+
+    private static final String PAGES_STATEMENT = "select doc.fullName, doc.space, doc.name, doc.hidden "
+        + "from XWikiDocument doc where doc.translation = 0 and doc.name <> :defaultDocName";
+
+    private static final String PAGE_STATEMENT =
+        "select doc.hidden from XWikiDocument doc where doc.fullName = :fullName and doc.translation = 0";
+
+    private static final WikiReference WIKI = new WikiReference("wiki");
+
+    private static final NestedPagesHierarchyFilter ALL =
+        new NestedPagesHierarchyFilter(true, true, Set.of(), Set.of());
+
+    @InjectMockComponents
+    private NestedPagesHierarchyIndex hierarchyIndex;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    private EntityReferenceProvider defaultEntityReferenceProvider;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<String> currentDocumentReferenceResolver;
+
+    @MockComponent
+    @Named("current")
+    private SpaceReferenceResolver<String> currentSpaceReferenceResolver;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localEntityReferenceSerializer;
+
+    private List<Object[]> spaces = new ArrayList<>();
+
+    private List<Object[]> pages = new ArrayList<>();
+
+    private DocumentReference alice = new DocumentReference("wiki", "Alice", "WebHome");
+
+    @BeforeEach
+    void configure() throws Exception
+    {
+        when(this.defaultEntityReferenceProvider.getDefaultReference(EntityType.DOCUMENT))
+            .thenReturn(new EntityReference("WebHome", EntityType.DOCUMENT));
+        when(this.localEntityReferenceSerializer.serialize(any())).then(invocation -> {
+            EntityReference reference = invocation.getArgument(0);
+            return reference.getType() == EntityType.DOCUMENT
+                ? this.localEntityReferenceSerializer.serialize(reference.getParent()) + '.' + reference.getName()
+                : reference.getReversedReferenceChain().stream().skip(1).map(EntityReference::getName)
+                    .reduce((left, right) -> left + '.' + right).orElse("");
+        });
+        when(this.currentSpaceReferenceResolver.resolve(anyString(), any())).then(
+            invocation -> new SpaceReference("wiki", List.of(((String) invocation.getArgument(0)).split("\\."))));
+        when(this.currentDocumentReferenceResolver.resolve(anyString(), any())).then(invocation -> {
+            String fullName = invocation.getArgument(0);
+            int separator = fullName.lastIndexOf('.');
+            return new DocumentReference(fullName.substring(separator + 1),
+                new SpaceReference("wiki", List.of(fullName.substring(0, separator).split("\\."))));
+        });
+
+        mockQuery(SPACES_STATEMENT, this.spaces);
+        mockQuery(PAGES_STATEMENT, this.pages);
+
+        this.spaces.add(new Object[] {"Alice", null, "Alice", false});
+        this.spaces.add(new Object[] {"Alice.bob", "Alice", "bob", false});
+        this.spaces.add(new Object[] {"Alice.Carol", "Alice", "Carol", true});
+        this.spaces.add(new Object[] {"Denis", null, "Denis", true});
+        this.pages.add(new Object[] {"Alice.alice", "Alice", "alice", false});
+        this.pages.add(new Object[] {"Alice.Eve", "Alice", "Eve", true});
+    }
+
+    private Query mockQuery(String statement, List<?> results) throws Exception
+    {
+        Query query = mock(Query.class, statement);
+        when(this.queryManager.createQuery(statement, Query.HQL)).thenReturn(query);
+        when(query.setWiki(anyString())).thenReturn(query);
+        when(query.bindValue(anyString(), any())).thenReturn(query);
+        when(query.execute()).then(invocation -> new ArrayList<>(results));
+        return query;
+    }
+
+    private List<String> getChildDocuments(EntityReference parentReference, NestedPagesHierarchyFilter filter,
+        boolean ascending, int offset, int limit) throws Exception
+    {
+        return this.hierarchyIndex.getChildDocuments(parentReference, filter, ascending, offset, limit).stream()
+            .map(documentReference -> this.localEntityReferenceSerializer.serialize(documentReference)).toList();
+    }
+
+    @Test
+    void isEnabled()
+    {
+        when(this.configuration.getProperty("index.tree.hierarchyIndex.enabled", false)).thenReturn(false);
+        when(this.configuration.getProperty("index.sortCollation", "")).thenReturn("");
+        assertFalse(this.hierarchyIndex.isEnabled());
+
+        when(this.configuration.getProperty("index.tree.hierarchyIndex.enabled", false)).thenReturn(true);
+        assertTrue(this.hierarchyIndex.isEnabled());
+
+        // The index doesn't support the database collations.
+        when(this.configuration.getProperty("index.sortCollation", "")).thenReturn("utf8mb4_general_ci");
+        assertFalse(this.hierarchyIndex.isEnabled());
+    }
+
+    @Test
+    void getChildDocuments() throws Exception
+    {
+        assertFalse(this.hierarchyIndex.isLoaded("wiki"));
+
+        // Same order as the database: case insensitive name, the terminal pages mixed with the nested pages.
+        assertEquals(List.of("Alice.alice", "Alice.bob.WebHome", "Alice.Carol.WebHome", "Alice.Eve"),
+            getChildDocuments(this.alice, ALL, true, 0, 0));
+        assertTrue(this.hierarchyIndex.isLoaded("wiki"));
+
+        assertEquals(List.of("Alice.Carol.WebHome", "Alice.bob.WebHome"),
+            getChildDocuments(this.alice, ALL, false, 1, 2));
+
+        NestedPagesHierarchyFilter filter = new NestedPagesHierarchyFilter(true, false, Set.of(), Set.of());
+        assertEquals(List.of("Alice.alice", "Alice.bob.WebHome"), getChildDocuments(this.alice, filter, true, 0, 10));
+
+        filter = new NestedPagesHierarchyFilter(false, true, Set.of("Alice.bob"), Set.of());
+        assertEquals(List.of("Alice.Carol.WebHome"), getChildDocuments(this.alice, filter, true, 0, 10));
+
+        filter = new NestedPagesHierarchyFilter(true, true, Set.of(), Set.of("Alice.alice"));
+        assertEquals(List.of("Alice.bob.WebHome"), getChildDocuments(this.alice, filter, true, 0, 1));
+
+        assertEquals(List.of("Alice.WebHome", "Denis.WebHome"), getChildDocuments(WIKI, ALL, true, 0, 10));
+        assertEquals(List.of(), getChildDocuments(new DocumentReference("wiki", "Denis", "WebHome"), ALL, true, 0, 10));
+    }
+
+    @Test
+    void getChildDocumentsCount() throws Exception
+    {
+        assertEquals(4, this.hierarchyIndex.getChildDocumentsCount(this.alice, ALL));
+        assertEquals(2, this.hierarchyIndex.getChildDocumentsCount(this.alice,
+            new NestedPagesHierarchyFilter(true, false, Set.of(), Set.of())));
+        assertEquals(1, this.hierarchyIndex.getChildDocumentsCount(this.alice,
+            new NestedPagesHierarchyFilter(false, true, Set.of("Alice.Carol", "Denis"), Set.of())));
+        // The excluded pages that are hidden are not counted twice.
+        assertEquals(1, this.hierarchyIndex.getChildDocumentsCount(this.alice,
+            new NestedPagesHierarchyFilter(true, false, Set.of("Alice.Carol"), Set.of("Alice.alice", "Alice.Eve"))));
+
+        assertEquals(1, this.hierarchyIndex.getChildDocumentsCount(WIKI,
+            new NestedPagesHierarchyFilter(false, false, Set.of(), Set.of())));
+    }
+
+    @Test
+    void update() throws Exception
+    {
+        // Nothing to update before the hierarchy is loaded.
+        this.hierarchyIndex.update(new DocumentReference("wiki", "Alice", "Frank"));
+        assertFalse(this.hierarchyIndex.isLoaded("wiki"));
+
+        assertEquals(4, this.hierarchyIndex.getChildDocumentsCount(this.alice, ALL));
+
+        // Create a terminal page.
+        List<Object> page = new ArrayList<>();
+        mockQuery(PAGE_STATEMENT, page);
+        List<Object[]> updatedSpaces = new ArrayList<>();
+        mockQuery(SPACES_STATEMENT + " where space.reference in (:spaces)", updatedSpaces);
+        page.add(false);
+        updatedSpaces.add(new Object[] {"Alice", null, "Alice", false});
+
+        this.hierarchyIndex.update(new DocumentReference("wiki", "Alice", "Frank"));
+        assertEquals(List.of("Alice.alice", "Alice.bob.WebHome", "Alice.Carol.WebHome", "Alice.Eve", "Alice.Frank"),
+            getChildDocuments(this.alice, ALL, true, 0, 0));
+
+        // Hide the space home page: only the space hidden flag changes.
+        updatedSpaces.clear();
+        updatedSpaces.add(new Object[] {"Alice", null, "Alice", false});
+        updatedSpaces.add(new Object[] {"Alice.bob", "Alice", "bob", true});
+        this.hierarchyIndex.update(new DocumentReference("wiki", List.of("Alice", "bob"), "WebHome"));
+        assertEquals(List.of("Alice.alice", "Alice.Frank"),
+            getChildDocuments(this.alice, new NestedPagesHierarchyFilter(true, false, Set.of(), Set.of()), true, 0,
+                0));
+
+        // Delete the last page of a space.
+        updatedSpaces.clear();
+        this.hierarchyIndex.update(new DocumentReference("wiki", "Denis", "WebHome"));
+        assertEquals(List.of("Alice.WebHome"), getChildDocuments(WIKI, ALL, true, 0, 0));
+
+        // Delete a terminal page.
+        page.clear();
+        updatedSpaces.add(new Object[] {"Alice", null, "Alice", false});
+        this.hierarchyIndex.update(new DocumentReference("wiki", "Alice", "alice"));
+        assertEquals(4, this.hierarchyIndex.getChildDocumentsCount(this.alice, ALL));
+    }
+
+    @Test
+    void checkAndRebuild() throws Exception
+    {
+        // Nothing to check before the hierarchy is loaded.
+        assertEquals(List.of(), this.hierarchyIndex.check("wiki"));
+
+        assertEquals(4, this.hierarchyIndex.getChildDocumentsCount(this.alice, ALL));
+        assertEquals(List.of(), this.hierarchyIndex.check("wiki"));
+
+        // Modify the database without notifying the index.
+        this.spaces.remove(3);
+        this.pages.set(1, new Object[] {"Alice.Eve", "Alice", "Eve", false});
+        this.pages.add(new Object[] {"Alice.Frank", "Alice", "Frank", false});
+
+        assertEquals(List.of(
+            "Expected HierarchyNode[reference=Alice.Eve, parent=Alice, name=Eve, terminal=true, hidden=false] "
+                + "but got HierarchyNode[reference=Alice.Eve, parent=Alice, name=Eve, terminal=true, hidden=true]",
+            "Missing HierarchyNode[reference=Alice.Frank, parent=Alice, name=Frank, terminal=true, hidden=false]",
+            "Unexpected HierarchyNode[reference=Denis, parent=null, name=Denis, terminal=false, hidden=true]"),
+            this.hierarchyIndex.check("wiki").stream().sorted().toList());
+
+        assertEquals(6, this.hierarchyIndex.rebuild("wiki"));
+        assertEquals(List.of(), this.hierarchyIndex.check("wiki"));
+        assertEquals(List.of("Alice.WebHome"), getChildDocuments(WIKI, ALL, true, 0, 0));
+    }
+}
@@ -37,6 +37,7 @@
 
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.test.MockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
@@ -65,7 +66,7 @@
  */
 @OldcoreTest
 @ReferenceComponentList
-@ComponentList(DefaultWikiMacro.class)
+@ComponentList({ DefaultWikiMacro.class, RequestProfiler.class })
 class DefaultWikiMacroFactoryAspectTest
 {
     private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("xwiki", "Macros", "Test");
@@ -19,10 +19,9 @@
  */
 package org.xwiki.lesscss.internal.cache;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.inject.Inject;
 
@@ -56,27 +55,27 @@
     protected Cache<T> cache;
 
     /**
-     * This map stores the list of the cached files keys corresponding to a skin, in order to clear the corresponding
+     * This map stores the set of the cached files keys corresponding to a skin, in order to clear the corresponding
      * cache when a skin is saved.
      */
-    private Map<Object, List<String>> cachedFilesKeysMapPerSkin = new HashMap<>();
+    private Map<Object, Set<String>> cachedFilesKeysMapPerSkin = new ConcurrentHashMap<>();
 
     /**
-     * This map stores the list of the cached files keys corresponding to a color theme, in order to clear the
+     * This map stores the set of the cached files keys corresponding to a color theme, in order to clear the
      * corresponding cache when a color theme is saved.
      */
-    private Map<Object, List<String>> cachedFilesKeysMapPerColorTheme = new HashMap<>();
+    private Map<Object, Set<String>> cachedFilesKeysMapPerColorTheme = new ConcurrentHashMap<>();
 
     /**
-     * This map stores the list of the cached files keys corresponding to a LESS resource, in order to clear the
+     * This map stores the set of the cached files keys corresponding to a LESS resource, in order to clear the
      * corresponding cache when a LESS resource is saved.
      */
-    private Map<Object, List<String>> cachedFilesKeysMapPerLESSResource = new HashMap<>();
+    private Map<Object, Set<String>> cachedFilesKeysMapPerLESSResource = new ConcurrentHashMap<>();
 
     @Inject
     private CacheKeyFactory cacheKeyFactory;
 
-    private Map<String, String> mutexList = new HashMap<>();
+    private Map<String, String> mutexList = new ConcurrentHashMap<>();
 
     @Override
     public T get(LESSResourceReference lessResourceReference, SkinReference skin, ColorThemeReference colorTheme)
@@ -106,15 +105,11 @@ public void set(LESSResourceReference lessResourceReference, SkinReference skin,
      * @param cacheKey the cache key to register
      * @param reference name of the skin or of the color theme
      */
-    private void registerCacheKey(Map<Object, List<String>> cachedFilesKeysMap, String cacheKey, Object reference)
+    private void registerCacheKey(Map<Object, Set<String>> cachedFilesKeysMap, String cacheKey, Object reference)
     {
-        // if the list of cached files keys corresponding to the skin/colortheme name does not exist, we
+        // if the set of cached files keys corresponding to the skin/colortheme name does not exist, we
         // create it
-        List<String> cachedFilesKeys =
-            cachedFilesKeysMap.computeIfAbsent(reference, key -> new ArrayList<>());
-        if (!cachedFilesKeys.contains(cacheKey)) {
-            cachedFilesKeys.add(cacheKey);
-        }
+        cachedFilesKeysMap.computeIfAbsent(reference, key -> ConcurrentHashMap.newKeySet()).add(cacheKey);
     }
 
     @Override
@@ -126,10 +121,10 @@ public void clear()
         cachedFilesKeysMapPerLESSResource.clear();
     }
 
-    private void clearFromCriteria(Map<Object, List<String>> cachedFilesKeysMap, Object criteria)
+    private void clearFromCriteria(Map<Object, Set<String>> cachedFilesKeysMap, Object criteria)
     {
-        // Get the list of cached files keys corresponding to the criteria
-        List<String> cachedFilesKeys = cachedFilesKeysMap.get(criteria);
+        // Get and remove the set of cached files keys corresponding to the criteria
+        Set<String> cachedFilesKeys = cachedFilesKeysMap.remove(criteria);
         if (cachedFilesKeys == null) {
             return;
         }
@@ -137,8 +132,6 @@ private void clearFromCriteria(Map<Object, List<String>> cachedFilesKeysMap, Obj
         for (String cachedFileKey : cachedFilesKeys) {
             cache.remove(cachedFileKey);
         }
-        // Remove the list of cached keys corresponding to the criteria
-        cachedFilesKeysMap.remove(criteria);
     }
 
     @Override
@@ -160,7 +153,7 @@ public void clearFromLESSResource(LESSResourceReference lessResourceReference)
     }
     
     @Override
-    public synchronized Object getMutex(LESSResourceReference lessResourceReference, SkinReference skin, 
+    public Object getMutex(LESSResourceReference lessResourceReference, SkinReference skin, 
         ColorThemeReference colorTheme)
     {
         // The mutex is a string (actually the cache key) to help debugging.
@@ -104,37 +104,46 @@ public T getResult(LESSResourceReference lessResourceReference, boolean includeS
             return compiler.compute(lessResourceReference, includeSkinStyle, useVelocity, true, skin);
         }
 
-        T result = null;
-
         SkinReference skinReference = skinReferenceFactory.createReference(skin);
         ColorThemeReference colorThemeReference = colorThemeReferenceFactory.createReference(
                 currentColorThemeGetter.getCurrentColorTheme(true, "default"));
 
+        // Check if the result is in the cache. Most of the calls end here so we don't take the mutex for them.
+        if (!force) {
+            T result = cache.get(lessResourceReference, skinReference, colorThemeReference);
+            if (result != null) {
+                return getCachedResult(result, lessResourceReference, includeSkinStyle, useVelocity, skin);
+            }
+        }
+
+        T result;
+
         // Only one computation is allowed in the same time per color theme, then the waiting threads will be able to
         // use the last result stored in the cache.
         Object mutex = cache.getMutex(lessResourceReference, skinReference, colorThemeReference);
         synchronized (mutex) {
 
-            // Check if the result is in the cache
+            // Check again if the result is in the cache, since it might have been computed while we were waiting
             if (!force) {
                 result = cache.get(lessResourceReference, skinReference, colorThemeReference);
-                if (result != null) {
-                    // The LESS file contains Velocity code that call resources (ie: $xwiki.getSkinFile), and the HTML
-                    // exporter listens these calls to know which resources must be exported.
-                    // If we only use the cache, we would have a correct CSS file but some resources will be missing.
-                    // So we need to execute the velocity again, even if the LESS file is cached.
-                    // To perform this quickly, we do not recompile the LESS code (which would be useless anyway), but
-                    // we only do the Velocity Execution step.
-                    if (lessContext.isHtmlExport() && useVelocity && this instanceof DefaultLESSCompiler) {
-                        compiler.compute(lessResourceReference, includeSkinStyle, true, false, skin);
+                if (result == null) {
+                    // Check if the result has been stored before the last restart
+                    result = getPersistedResult(lessResourceReference, includeSkinStyle, skinReference,
+                        colorThemeReference, skin);
+                    if (result != null) {
+                        cache.set(lessResourceReference, skinReference, colorThemeReference, result);
                     }
-                    return cloneResult(result);
+                }
+                if (result != null) {
+                    return getCachedResult(result, lessResourceReference, includeSkinStyle, useVelocity, skin);
                 }
             }
 
-            // Either the result was in the cache or the force flag is set to true, we need to compile
+            // Either the result was not in the cache or the force flag is set to true, we need to compile
             try {
                 result = compiler.compute(lessResourceReference, includeSkinStyle, useVelocity, true, skin);
+                persistResult(lessResourceReference, includeSkinStyle, skinReference, colorThemeReference, skin,
+                    result);
             } catch (LESSCompilerException e) {
                 logger.error("Error during the compilation of the resource [{}].", lessResourceReference, e);
                 // We must cache the result, even if the compilation have failed, to prevent re-compiling again and
@@ -149,6 +158,55 @@ public T getResult(LESSResourceReference lessResourceReference, boolean includeS
         return cloneResult(result);
     }
 
+    private T getCachedResult(T result, LESSResourceReference lessResourceReference, boolean includeSkinStyle,
+        boolean useVelocity, String skin) throws LESSCompilerException
+    {
+        // The LESS file contains Velocity code that call resources (ie: $xwiki.getSkinFile), and the HTML exporter
+        // listens these calls to know which resources must be exported.
+        // If we only use the cache, we would have a correct CSS file but some resources will be missing.
+        // So we need to execute the velocity again, even if the LESS file is cached.
+        // To perform this quickly, we do not recompile the LESS code (which would be useless anyway), but we only do
+        // the Velocity Execution step.
+        if (lessContext.isHtmlExport() && useVelocity && this instanceof DefaultLESSCompiler) {
+            compiler.compute(lessResourceReference, includeSkinStyle, true, false, skin);
+        }
+        return cloneResult(result);
+    }
+
+    /**
+     * Get a result stored by {@link #persistResult} before the last restart. Does nothing by default.
+     *
+     * @param lessResourceReference reference to the LESS content
+     * @param includeSkinStyle whether the main LESS file of the skin is included
+     * @param skinReference the skin for which the result has been computed
+     * @param colorThemeReference the color theme for which the result has been computed
+     * @param skin name of the skin used for the context
+     * @return the stored result or {@code null} if there is none
+     * @since 18.8.0RC1
+     */
+    protected T getPersistedResult(LESSResourceReference lessResourceReference, boolean includeSkinStyle,
+        SkinReference skinReference, ColorThemeReference colorThemeReference, String skin)
+    {
+        return null;
+    }
+
+    /**
+     * Store a successful result so that it survives a restart. Does nothing by default.
+     *
+     * @param lessResourceReference reference to the LESS content
+     * @param includeSkinStyle whether the main LESS file of the skin is included
+     * @param skinReference the skin for which the result has been computed
+     * @param colorThemeReference the color theme for which the result has been computed
+     * @param skin name of the skin used for the context
+     * @param result the result to store
+     * @since 18.8.0RC1
+     */
+    protected void persistResult(LESSResourceReference lessResourceReference, boolean includeSkinStyle,
+        SkinReference skinReference, ColorThemeReference colorThemeReference, String skin, T result)
+    {
+        // Nothing to do by default.
+    }
+
     /**
      * Returns a clone of the result to avoid returning the instance stored in the cache. Need to be implemented by
      * subclasses.
@@ -0,0 +1,224 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Date;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.environment.Environment;
+import org.xwiki.lesscss.compiler.LESSCompilerException;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
+import org.xwiki.lesscss.internal.colortheme.DocumentColorThemeReference;
+import org.xwiki.lesscss.internal.compiler.CachedLESSCompiler;
+import org.xwiki.lesscss.internal.skin.DocumentSkinReference;
+import org.xwiki.lesscss.internal.skin.SkinReference;
+import org.xwiki.lesscss.resources.LESSResourceReference;
+import org.xwiki.lesscss.resources.LESSResourceReferenceFactory;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Stores the compiled LESS resources in the permanent directory so that they survive a restart.
+ * <p>
+ * There is one file per entry of the {@link LESSResourcesCache}. The first line of the file is a fingerprint of what
+ * the compilation depends on (XWiki version, version of the skin and color theme documents and content of the LESS
+ * resource): a stored result is only returned when its fingerprint still matches.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = PersistentLESSResourcesCache.class)
+@Singleton
+public class PersistentLESSResourcesCache implements Initializable
+{
+    private static final String CACHE_DIRECTORY = "cache/lesscss";
+
+    private static final String FILE_EXTENSION = ".css";
+
+    private static final char FINGERPRINT_SEPARATOR = '\n';
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private CacheKeyFactory cacheKeyFactory;
+
+    @Inject
+    private LESSResourceReferenceFactory lessResourceReferenceFactory;
+
+    @Inject
+    private LESSConfiguration lessConfiguration;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    private File cacheDirectory;
+
+    @Override
+    public void initialize()
+    {
+        this.cacheDirectory = new File(this.environment.getPermanentDirectory(), CACHE_DIRECTORY);
+    }
+
+    /**
+     * Get a stored compilation result.
+     *
+     * @param lessResourceReference the reference to the compiled LESS resource
+     * @param includeSkinStyle whether the main LESS file of the skin has been imported in the LESS resource
+     * @param skinReference the skin for which the resource has been compiled
+     * @param colorThemeReference the color theme for which the resource has been compiled
+     * @param skin the name of the skin for which the resource has been compiled
+     * @return the stored result or {@code null} if there is none or if it is outdated
+     */
+    public String get(LESSResourceReference lessResourceReference, boolean includeSkinStyle,
+        SkinReference skinReference, ColorThemeReference colorThemeReference, String skin)
+    {
+        if (!this.lessConfiguration.isPersistentCacheEnabled()) {
+            return null;
+        }
+
+        File file = getFile(lessResourceReference, skinReference, colorThemeReference);
+        if (file.exists()) {
+            try {
+                String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+                int index = content.indexOf(FINGERPRINT_SEPARATOR);
+                String fingerprint =
+                    getFingerprint(lessResourceReference, includeSkinStyle, skinReference, colorThemeReference, skin);
+                if (index > 0 && content.substring(0, index).equals(fingerprint)) {
+                    return content.substring(index + 1);
+                }
+            } catch (IOException | LESSCompilerException | XWikiException e) {
+                this.logger.warn("Failed to read the stored compilation result of the LESS resource [{}]: [{}]",
+                    lessResourceReference, ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Store a compilation result.
+     *
+     * @param lessResourceReference the reference to the compiled LESS resource
+     * @param includeSkinStyle whether the main LESS file of the skin has been imported in the LESS resource
+     * @param skinReference the skin for which the resource has been compiled
+     * @param colorThemeReference the color theme for which the resource has been compiled
+     * @param skin the name of the skin for which the resource has been compiled
+     * @param result the compilation result
+     */
+    public void set(LESSResourceReference lessResourceReference, boolean includeSkinStyle,
+        SkinReference skinReference, ColorThemeReference colorThemeReference, String skin, String result)
+    {
+        if (!this.lessConfiguration.isPersistentCacheEnabled()) {
+            return;
+        }
+
+        File file = getFile(lessResourceReference, skinReference, colorThemeReference);
+        try {
+            String fingerprint =
+                getFingerprint(lessResourceReference, includeSkinStyle, skinReference, colorThemeReference, skin);
+
+            // Write a temporary file first so that a concurrent reader never sees a partially written result.
+            Files.createDirectories(this.cacheDirectory.toPath());
+            File temporaryFile = File.createTempFile(file.getName(), null, this.cacheDirectory);
+            try {
+                FileUtils.writeStringToFile(temporaryFile, fingerprint + FINGERPRINT_SEPARATOR + result,
+                    StandardCharsets.UTF_8);
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporaryFile.toPath());
+            }
+        } catch (IOException | LESSCompilerException | XWikiException e) {
+            this.logger.warn("Failed to store the compilation result of the LESS resource [{}]: [{}]",
+                lessResourceReference, ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private File getFile(LESSResourceReference lessResourceReference, SkinReference skinReference,
+        ColorThemeReference colorThemeReference)
+    {
+        String cacheKey =
+            this.cacheKeyFactory.getCacheKey(lessResourceReference, skinReference, colorThemeReference, true);
+
+        return new File(this.cacheDirectory, DigestUtils.sha256Hex(cacheKey) + FILE_EXTENSION);
+    }
+
+    private String getFingerprint(LESSResourceReference lessResourceReference, boolean includeSkinStyle,
+        SkinReference skinReference, ColorThemeReference colorThemeReference, String skin)
+        throws LESSCompilerException, XWikiException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        StringBuilder fingerprint = new StringBuilder();
+        // The skins and color themes located on the file system only change with the XWiki version.
+        append(fingerprint, xcontext.getWiki().getVersion());
+        if (skinReference instanceof DocumentSkinReference documentSkinReference) {
+            append(fingerprint, documentSkinReference.getSkinDocument(), xcontext);
+        }
+        if (colorThemeReference instanceof DocumentColorThemeReference documentColorThemeReference) {
+            append(fingerprint, documentColorThemeReference.getColorThemeDocument(), xcontext);
+        }
+        append(fingerprint, lessResourceReference.getContent(skin));
+        if (includeSkinStyle) {
+            append(fingerprint, this.lessResourceReferenceFactory
+                .createReferenceForSkinFile(CachedLESSCompiler.MAIN_SKIN_STYLE_FILENAME).getContent(skin));
+        }
+
+        return DigestUtils.sha256Hex(fingerprint.toString());
+    }
+
+    private void append(StringBuilder fingerprint, DocumentReference documentReference, XWikiContext xcontext)
+        throws XWikiException
+    {
+        XWikiDocument document = xcontext.getWiki().getDocument(documentReference, xcontext);
+        append(fingerprint, document.getVersion());
+        Date date = document.getDate();
+        append(fingerprint, date != null ? String.valueOf(date.getTime()) : null);
+    }
+
+    private void append(StringBuilder fingerprint, String value)
+    {
+        // Prefix each value with its length to avoid collisions between different sequences of values.
+        String safeValue = value != null ? value : "";
+        fingerprint.append(safeValue.length()).append(':').append(safeValue);
+    }
+}
@@ -32,6 +32,9 @@
 import org.xwiki.lesscss.compiler.LESSCompilerException;
 import org.xwiki.lesscss.internal.cache.AbstractCachedCompiler;
 import org.xwiki.lesscss.internal.cache.LESSResourcesCache;
+import org.xwiki.lesscss.internal.cache.PersistentLESSResourcesCache;
+import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
+import org.xwiki.lesscss.internal.skin.SkinReference;
 import org.xwiki.lesscss.resources.LESSResourceReference;
 
 /**
@@ -52,6 +55,9 @@ public class DefaultLESSCompiler extends AbstractCachedCompiler<String> implemen
     @Inject
     private CachedLESSCompiler cachedLESSCompiler;
 
+    @Inject
+    private PersistentLESSResourcesCache persistentCache;
+
     @Override
     public void initialize() throws InitializationException
     {
@@ -81,6 +87,22 @@ protected String cloneResult(String toClone)
         return toClone;
     }
 
+    @Override
+    protected String getPersistedResult(LESSResourceReference lessResourceReference, boolean includeSkinStyle,
+        SkinReference skinReference, ColorThemeReference colorThemeReference, String skin)
+    {
+        return this.persistentCache.get(lessResourceReference, includeSkinStyle, skinReference, colorThemeReference,
+            skin);
+    }
+
+    @Override
+    protected void persistResult(LESSResourceReference lessResourceReference, boolean includeSkinStyle,
+        SkinReference skinReference, ColorThemeReference colorThemeReference, String skin, String result)
+    {
+        this.persistentCache.set(lessResourceReference, includeSkinStyle, skinReference, colorThemeReference, skin,
+            result);
+    }
+
     @Override
     protected String exceptionAsResult(LESSCompilerException exception)
     {
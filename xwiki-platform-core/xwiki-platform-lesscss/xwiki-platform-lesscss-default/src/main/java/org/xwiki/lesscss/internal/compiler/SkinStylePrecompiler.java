@@ -0,0 +1,129 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.compiler;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.lesscss.compiler.LESSCompiler;
+import org.xwiki.lesscss.compiler.LESSCompilerException;
+import org.xwiki.lesscss.resources.LESSResourceReferenceFactory;
+
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Compile in background the main LESS file of the skin of a wiki, with the color theme of that wiki, so that the first
+ * visitors don't have to wait for it (at startup or after a skin or color theme has been modified).
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = SkinStylePrecompiler.class)
+@Singleton
+public class SkinStylePrecompiler implements Initializable, Disposable
+{
+    @Inject
+    private LESSCompiler lessCompiler;
+
+    @Inject
+    private LESSResourceReferenceFactory lessResourceReferenceFactory;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The wikis for which a precompilation is waiting to be executed.
+     */
+    private final Set<String> pendingWikis = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService executor;
+
+    @Override
+    public void initialize()
+    {
+        this.executor = Executors.newSingleThreadExecutor(BasicThreadFactory.builder()
+            .namingPattern("XWiki LESS precompilation thread").daemon(true).priority(Thread.MIN_PRIORITY).build());
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Schedule the compilation of the main LESS file of the skin of the given wiki.
+     *
+     * @param wikiId the identifier of the wiki
+     */
+    public void precompile(String wikiId)
+    {
+        // Several modifications of the same wiki in a row lead to a single compilation.
+        if (this.pendingWikis.add(wikiId)) {
+            this.executor.execute(() -> precompileInWorkerContext(wikiId));
+        }
+    }
+
+    private void precompileInWorkerContext(String wikiId)
+    {
+        this.pendingWikis.remove(wikiId);
+
+        try {
+            this.executionContextManager.initialize(new ExecutionContext());
+            try {
+                this.xcontextProvider.get().setWikiId(wikiId);
+
+                long start = System.currentTimeMillis();
+                this.lessCompiler.compile(this.lessResourceReferenceFactory
+                    .createReferenceForSkinFile(CachedLESSCompiler.MAIN_SKIN_STYLE_FILENAME), false, true, false);
+                this.logger.debug("Precompiled the skin style of wiki [{}] in [{}] ms", wikiId,
+                    System.currentTimeMillis() - start);
+            } finally {
+                this.execution.removeContext();
+            }
+        } catch (ExecutionContextException | LESSCompilerException e) {
+            this.logger.warn("Failed to precompile the skin style of wiki [{}]", wikiId, e);
+        }
+    }
+}
@@ -34,6 +34,7 @@
 import org.xwiki.lesscss.internal.cache.LESSResourcesCache;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReferenceFactory;
+import org.xwiki.lesscss.internal.compiler.SkinStylePrecompiler;
 import org.xwiki.model.reference.LocalDocumentReference;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.event.Event;
@@ -67,6 +68,9 @@ public class ColorThemeListener implements EventListener
     @Inject
     private ColorThemeReferenceFactory colorThemeReferenceFactory;
 
+    @Inject
+    private SkinStylePrecompiler skinStylePrecompiler;
+
     @Override
     public String getName()
     {
@@ -105,5 +109,7 @@ private void clearCacheFromColorTheme(XWikiDocument document)
                 colorThemeReferenceFactory.createReference(document.getDocumentReference());
         lessResourcesCache.clearFromColorTheme(colorThemeReference);
         colorThemeCache.clearFromColorTheme(colorThemeReference);
+        // Don't wait for the next visitor to compile the skin style again.
+        skinStylePrecompiler.precompile(document.getDocumentReference().getWikiReference().getName());
     }
 }
@@ -33,6 +33,7 @@
 import org.xwiki.component.annotation.Component;
 import org.xwiki.lesscss.internal.cache.ColorThemeCache;
 import org.xwiki.lesscss.internal.cache.LESSResourcesCache;
+import org.xwiki.lesscss.internal.compiler.SkinStylePrecompiler;
 import org.xwiki.lesscss.internal.skin.SkinReference;
 import org.xwiki.lesscss.internal.skin.SkinReferenceFactory;
 import org.xwiki.model.reference.LocalDocumentReference;
@@ -66,6 +67,9 @@ public class SkinListener implements EventListener
     @Inject
     private SkinReferenceFactory skinReferenceFactory;
 
+    @Inject
+    private SkinStylePrecompiler skinStylePrecompiler;
+
     @Override
     public String getName()
     {
@@ -97,5 +101,7 @@ private void clearCacheFromSkin(XWikiDocument document)
         SkinReference skinReference = skinReferenceFactory.createReference(document.getDocumentReference());
         lessResourcesCache.clearFromSkin(skinReference);
         colorThemeCache.clearFromSkin(skinReference);
+        // Don't wait for the next visitor to compile the skin style again.
+        skinStylePrecompiler.precompile(document.getDocumentReference().getWikiReference().getName());
     }
 }
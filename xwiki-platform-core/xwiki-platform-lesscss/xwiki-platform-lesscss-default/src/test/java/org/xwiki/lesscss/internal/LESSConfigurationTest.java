@@ -55,4 +55,12 @@ void generateSourceMaps()
         this.lessConfiguration.isGenerateInlineSourceMaps();
         verify(this.configurationSource).getProperty("lesscss.generateInlineSourceMaps", false);
     }
+
+    @Test
+    void persistentCache()
+    {
+        when(this.configurationSource.getProperty("lesscss.persistentCache", true)).thenReturn(true);
+        this.lessConfiguration.isPersistentCacheEnabled();
+        verify(this.configurationSource).getProperty("lesscss.persistentCache", true);
+    }
 }
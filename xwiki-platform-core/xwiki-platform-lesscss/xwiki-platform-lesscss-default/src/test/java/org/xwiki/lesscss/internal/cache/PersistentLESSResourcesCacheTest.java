@@ -0,0 +1,165 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.lesscss.internal.cache;
+
+import java.io.File;
+
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.environment.Environment;
+import org.xwiki.lesscss.internal.LESSConfiguration;
+import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
+import org.xwiki.lesscss.internal.colortheme.DocumentColorThemeReference;
+import org.xwiki.lesscss.internal.skin.FSSkinReference;
+import org.xwiki.lesscss.internal.skin.SkinReference;
+import org.xwiki.lesscss.resources.LESSResourceReference;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link PersistentLESSResourcesCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class PersistentLESSResourcesCacheTest
+{
+    @InjectMockComponents
+    private PersistentLESSResourcesCache persistentCache;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private CacheKeyFactory cacheKeyFactory;
+
+    @MockComponent
+    private LESSConfiguration lessConfiguration;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    @Mock
+    private XWiki xwiki;
+
+    @Mock
+    private LESSResourceReference lessResourceReference;
+
+    @Mock
+    private XWikiDocument colorThemeDocument;
+
+    private final SkinReference skinReference = new FSSkinReference("skin");
+
+    private final DocumentReference colorThemeDocumentReference =
+        new DocumentReference("wiki", "ColorThemes", "colorTheme");
+
+    private final ColorThemeReference colorThemeReference =
+        new DocumentColorThemeReference(this.colorThemeDocumentReference, null);
+
+    @BeforeEach
+    void setUp() throws Exception
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        this.persistentCache.initialize();
+
+        when(this.lessConfiguration.isPersistentCacheEnabled()).thenReturn(true);
+        when(this.cacheKeyFactory.getCacheKey(this.lessResourceReference, this.skinReference,
+            this.colorThemeReference, true)).thenReturn("cacheKey");
+
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.xwiki.getVersion()).thenReturn("18.8.0");
+        when(this.xwiki.getDocument(this.colorThemeDocumentReference, this.xcontext))
+            .thenReturn(this.colorThemeDocument);
+        when(this.colorThemeDocument.getVersion()).thenReturn("1.1");
+        when(this.lessResourceReference.getContent("skin")).thenReturn("@color: red;");
+    }
+
+    @Test
+    void setAndGet()
+    {
+        assertNull(this.persistentCache.get(this.lessResourceReference, false, this.skinReference,
+            this.colorThemeReference, "skin"));
+
+        this.persistentCache.set(this.lessResourceReference, false, this.skinReference, this.colorThemeReference,
+            "skin", ".a {\n  color: red;\n}");
+
+        assertEquals(".a {\n  color: red;\n}", this.persistentCache.get(this.lessResourceReference, false,
+            this.skinReference, this.colorThemeReference, "skin"));
+    }
+
+    @Test
+    void getWhenColorThemeModified()
+    {
+        this.persistentCache.set(this.lessResourceReference, false, this.skinReference, this.colorThemeReference,
+            "skin", "css");
+
+        when(this.colorThemeDocument.getVersion()).thenReturn("2.1");
+
+        assertNull(this.persistentCache.get(this.lessResourceReference, false, this.skinReference,
+            this.colorThemeReference, "skin"));
+    }
+
+    @Test
+    void getWhenResourceModified() throws Exception
+    {
+        this.persistentCache.set(this.lessResourceReference, false, this.skinReference, this.colorThemeReference,
+            "skin", "css");
+
+        when(this.lessResourceReference.getContent("skin")).thenReturn("@color: blue;");
+
+        assertNull(this.persistentCache.get(this.lessResourceReference, false, this.skinReference,
+            this.colorThemeReference, "skin"));
+    }
+
+    @Test
+    void getAndSetWhenDisabled()
+    {
+        when(this.lessConfiguration.isPersistentCacheEnabled()).thenReturn(false);
+
+        this.persistentCache.set(this.lessResourceReference, false, this.skinReference, this.colorThemeReference,
+            "skin", "css");
+
+        assertNull(this.persistentCache.get(this.lessResourceReference, false, this.skinReference,
+            this.colorThemeReference, "skin"));
+        assertFalse(new File(this.permanentDirectory, "cache/lesscss").exists());
+    }
+}
@@ -29,6 +29,7 @@
 import org.xwiki.lesscss.compiler.LESSCompilerException;
 import org.xwiki.lesscss.internal.LESSContext;
 import org.xwiki.lesscss.internal.cache.LESSResourcesCache;
+import org.xwiki.lesscss.internal.cache.PersistentLESSResourcesCache;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReference;
 import org.xwiki.lesscss.internal.colortheme.ColorThemeReferenceFactory;
 import org.xwiki.lesscss.internal.colortheme.CurrentColorThemeGetter;
@@ -68,6 +69,9 @@
     @MockComponent
     private CachedLESSCompiler cachedLESSCompiler;
 
+    @MockComponent
+    private PersistentLESSResourcesCache persistentCache;
+
     @MockComponent
     private Provider<XWikiContext> xcontextProvider;
 
@@ -143,6 +147,25 @@ void compileWhenNotInCache() throws Exception
         // Verify
         verify(this.cache).set(this.lessResourceReference, this.skinReference, this.colorThemeReference,
             "compiled output");
+        verify(this.persistentCache).set(this.lessResourceReference, false, this.skinReference,
+            this.colorThemeReference, "skin", "compiled output");
+    }
+
+    @Test
+    void compileWhenPersisted() throws Exception
+    {
+        // Mocks
+        when(this.persistentCache.get(this.lessResourceReference, false, this.skinReference,
+            this.colorThemeReference, "skin")).thenReturn("persisted output");
+
+        // Test
+        assertEquals("persisted output",
+            this.defaultLESSCompiler.compile(this.lessResourceReference, false, false, false));
+
+        // Verify
+        verify(this.cache).set(this.lessResourceReference, this.skinReference, this.colorThemeReference,
+            "persisted output");
+        verifyNoInteractions(this.cachedLESSCompiler);
     }
 
     @Test
@@ -214,6 +237,8 @@ void compileWhenError() throws Exception
         assertTrue(Strings.CS.startsWith(result, "/* org.xwiki.lesscss.compiler.LESSCompilerException: an exception"));
         assertTrue(Strings.CS.endsWith(result, "*/"));
         verify(this.cache).set(this.lessResourceReference, this.skinReference, this.colorThemeReference, result);
+        verify(this.persistentCache, never()).set(any(LESSResourceReference.class), anyBoolean(),
+            any(SkinReference.class), any(ColorThemeReference.class), any(), any());
         verify(this.logger).error("Error during the compilation of the resource [{}].", this.lessResourceReference,
             expectedException);
     }
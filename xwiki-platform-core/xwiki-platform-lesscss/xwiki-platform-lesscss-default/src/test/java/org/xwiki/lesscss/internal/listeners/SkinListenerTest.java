@@ -28,6 +28,7 @@
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
 import org.xwiki.lesscss.internal.cache.ColorThemeCache;
 import org.xwiki.lesscss.internal.cache.LESSResourcesCache;
+import org.xwiki.lesscss.internal.compiler.SkinStylePrecompiler;
 import org.xwiki.lesscss.internal.skin.DocumentSkinReference;
 import org.xwiki.lesscss.internal.skin.SkinReferenceFactory;
 import org.xwiki.model.reference.DocumentReference;
@@ -68,6 +69,9 @@
     @MockComponent
     private SkinReferenceFactory skinReferenceFactory;
 
+    @MockComponent
+    private SkinStylePrecompiler skinStylePrecompiler;
+
     @Test
     void getName()
     {
@@ -111,6 +115,7 @@ void onEventWhenSkinIsChanged()
         // Verify
         verify(this.lessResourcesCache).clearFromSkin(skinReference);
         verify(this.colorThemeCache).clearFromSkin(skinReference);
+        verify(this.skinStylePrecompiler).precompile("wiki");
     }
 
     @Test
@@ -131,5 +136,6 @@ void onEventWhenNoObject()
         // Verify
         verifyNoInteractions(this.lessResourcesCache);
         verifyNoInteractions(this.colorThemeCache);
+        verifyNoInteractions(this.skinStylePrecompiler);
     }
 }
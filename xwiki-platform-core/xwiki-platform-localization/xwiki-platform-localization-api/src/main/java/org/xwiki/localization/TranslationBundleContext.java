@@ -43,4 +43,16 @@
      * @param bundle the bundle
      */
     void addBundle(TranslationBundle bundle);
+
+    /**
+     * Indicate that the translations provided by the passed bundle changed so that any information derived from them
+     * (like an index of the translations) can be reset.
+     *
+     * @param bundle the bundle which was modified
+     * @since 18.8.0RC1
+     */
+    default void onBundleUpdated(TranslationBundle bundle)
+    {
+        // Nothing to do by default.
+    }
 }
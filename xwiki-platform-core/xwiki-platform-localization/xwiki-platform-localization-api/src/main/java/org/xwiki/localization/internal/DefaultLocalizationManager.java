@@ -19,6 +19,7 @@
  */
 package org.xwiki.localization.internal;
 
+import java.util.Collection;
 import java.util.Locale;
 
 import javax.inject.Inject;
@@ -77,7 +78,22 @@ public class DefaultLocalizationManager implements LocalizationManager
     @Override
     public Translation getTranslation(String key, Locale locale)
     {
-        for (TranslationBundle bundle : this.bundleContext.getBundles()) {
+        Collection<TranslationBundle> bundles = this.bundleContext.getBundles();
+
+        if (bundles instanceof TranslationBundleSet bundleSet) {
+            // Use the merged index of the translations to avoid asking each bundle.
+            TranslationIndex index = bundleSet.getIndex();
+
+            return index.getTranslation(key, locale, (k, l) -> getTranslation(bundles, k, l, index));
+        }
+
+        return getTranslation(bundles, key, locale, null);
+    }
+
+    private Translation getTranslation(Collection<TranslationBundle> bundles, String key, Locale locale,
+        TranslationIndex index)
+    {
+        for (TranslationBundle bundle : bundles) {
             try {
                 Translation translation = bundle.getTranslation(key, locale);
                 if (translation != null && translation.getLocale().equals(locale)) {
@@ -91,7 +107,11 @@ public Translation getTranslation(String key, Locale locale)
         // Try parent locale
         Locale parentLocale = LocaleUtils.getParentLocale(locale);
         if (parentLocale != null) {
-            return getTranslation(key, parentLocale);
+            if (index != null) {
+                return index.getTranslation(key, parentLocale, (k, l) -> getTranslation(bundles, k, l, index));
+            }
+
+            return getTranslation(bundles, key, parentLocale, null);
         }
 
         return null;
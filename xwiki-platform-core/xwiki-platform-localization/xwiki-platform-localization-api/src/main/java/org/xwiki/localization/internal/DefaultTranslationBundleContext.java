@@ -20,11 +20,12 @@
 package org.xwiki.localization.internal;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -58,6 +59,21 @@ public class DefaultTranslationBundleContext implements TranslationBundleContext
      */
     public static final String CKEY_BUNDLES = "localization.bundles";
 
+    /**
+     * The bundles of a wiki in the current context. The holder is shared by the contexts inheriting the bundles.
+     *
+     * @version $Id$
+     */
+    private static final class ContextBundles
+    {
+        private TranslationBundleSet bundles;
+
+        ContextBundles(TranslationBundleSet bundles)
+        {
+            this.bundles = bundles;
+        }
+    }
+
     /**
      * Used to access the current context.
      */
@@ -80,32 +96,49 @@ public class DefaultTranslationBundleContext implements TranslationBundleContext
     @Inject
     private ModelContext modelContext;
 
-    private SortedSet<TranslationBundle> initializeCurrentBundles()
-    {
-        SortedSet<TranslationBundle> currentBundles = new TreeSet<>();
+    /**
+     * The last bundles resolved for each wiki, shared between the requests (along with their translations index) as
+     * long as the registered bundles don't change.
+     */
+    private final Map<String, TranslationBundleSet> sharedBundles = new ConcurrentHashMap<>();
 
+    /**
+     * Incremented each time the content of a bundle is modified, to reset the translations indexes.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private ContextBundles initializeCurrentBundles(String wiki)
+    {
+        List<TranslationBundle> availableBundles;
         try {
             ComponentManager componentManager = this.componentManagerProvider.get();
-            List<TranslationBundle> availableBundles =
-                componentManager.<TranslationBundle>getInstanceList(TranslationBundle.class);
-            currentBundles.addAll(availableBundles);
+            availableBundles = componentManager.<TranslationBundle>getInstanceList(TranslationBundle.class);
         } catch (ComponentLookupException e) {
             this.logger.error("Failed to lookup Bundle components", e);
+
+            availableBundles = Collections.emptyList();
+        }
+
+        // Reuse the bundles (and their translations index) of the previous requests if the same bundles are available.
+        TranslationBundleSet currentBundles = this.sharedBundles.get(wiki);
+        if (currentBundles == null || !currentBundles.hasSameBundles(availableBundles)) {
+            currentBundles = new TranslationBundleSet(availableBundles, this.generation);
+            this.sharedBundles.put(wiki, currentBundles);
         }
 
-        return currentBundles;
+        return new ContextBundles(currentBundles);
     }
 
     /**
      * @return the current bundles
      */
-    private Map<String, SortedSet<TranslationBundle>> getBundlesInternal()
+    private Map<String, ContextBundles> getBundlesInternal()
     {
-        Map<String, SortedSet<TranslationBundle>> bundles;
+        Map<String, ContextBundles> bundles;
 
         ExecutionContext context = this.execution.getContext();
         if (context != null) {
-            bundles = (Map<String, SortedSet<TranslationBundle>>) context.getProperty(CKEY_BUNDLES);
+            bundles = (Map<String, ContextBundles>) context.getProperty(CKEY_BUNDLES);
 
             if (bundles == null) {
                 // Register the Execution Context property with an empty map that will be populated for each wiki.
@@ -119,18 +152,18 @@ private Map<String, SortedSet<TranslationBundle>> getBundlesInternal()
         return bundles;
     }
 
-    private SortedSet<TranslationBundle> getCurrentBundlesInternal()
+    private ContextBundles getCurrentBundlesInternal()
     {
         String currentWiki = getCurrentWiki();
-        Map<String, SortedSet<TranslationBundle>> bundlesMap = getBundlesInternal();
+        Map<String, ContextBundles> bundlesMap = getBundlesInternal();
         // When the context wiki has changed, initialize the bundles for the new current wiki.
-        return bundlesMap.computeIfAbsent(currentWiki, wiki -> initializeCurrentBundles());
+        return bundlesMap.computeIfAbsent(currentWiki, this::initializeCurrentBundles);
     }
 
     @Override
     public Collection<TranslationBundle> getBundles()
     {
-        return getCurrentBundlesInternal();
+        return getCurrentBundlesInternal().bundles;
     }
 
     @Override
@@ -140,7 +173,16 @@ public void addBundle(TranslationBundle bundle)
         // the wiki they were demanded from (i.e. displaying a document from another wiki that includes an onDemand
         // bundle will not affect the bundles of the wiki of the calling document, when the display finishes, so they
         // will be properly isolated. This is valid the other way around as well.)
-        getCurrentBundlesInternal().add(bundle);
+        // The bundles might be shared with other requests so a new set is created.
+        ContextBundles currentBundles = getCurrentBundlesInternal();
+        currentBundles.bundles = currentBundles.bundles.with(bundle);
+    }
+
+    @Override
+    public void onBundleUpdated(TranslationBundle bundle)
+    {
+        // Reset all the translations indexes since there is no way to know which keys were impacted.
+        this.generation.incrementAndGet();
     }
 
     private String getCurrentWiki()
@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.xwiki.localization.TranslationBundle;
+
+/**
+ * An immutable collection of bundles ordered by priority, associated with a {@link TranslationIndex} of their
+ * translations. Since it cannot be modified, the same instance can be shared by all the requests targeting a wiki
+ * with the same bundles.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class TranslationBundleSet extends AbstractCollection<TranslationBundle>
+{
+    private final SortedSet<TranslationBundle> bundles;
+
+    private final List<TranslationBundle> sourceBundles;
+
+    private final Set<TranslationBundle> sourceBundlesSet;
+
+    private final AtomicLong generation;
+
+    private volatile TranslationIndex index;
+
+    /**
+     * @param sourceBundles the bundles
+     * @param generation the current generation of the bundles content, incremented each time a bundle is modified
+     */
+    public TranslationBundleSet(Collection<TranslationBundle> sourceBundles, AtomicLong generation)
+    {
+        this.bundles = Collections.unmodifiableSortedSet(new TreeSet<>(sourceBundles));
+        this.sourceBundles = new ArrayList<>(sourceBundles);
+        this.sourceBundlesSet = Collections.newSetFromMap(new IdentityHashMap<>(sourceBundles.size()));
+        this.sourceBundlesSet.addAll(sourceBundles);
+        this.generation = generation;
+        this.index = new TranslationIndex(generation.get());
+    }
+
+    /**
+     * @param sourceBundles the bundles to compare with
+     * @return {@code true} if this set was created from the exact same bundle instances
+     */
+    public boolean hasSameBundles(List<TranslationBundle> sourceBundles)
+    {
+        if (sourceBundles.size() != this.sourceBundles.size()) {
+            return false;
+        }
+
+        for (TranslationBundle bundle : sourceBundles) {
+            if (!this.sourceBundlesSet.contains(bundle)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param bundle the bundle to add
+     * @return a new set containing the bundles of this set and the passed bundle
+     */
+    public TranslationBundleSet with(TranslationBundle bundle)
+    {
+        List<TranslationBundle> newBundles = new ArrayList<>(this.sourceBundles);
+        newBundles.add(bundle);
+
+        return new TranslationBundleSet(newBundles, this.generation);
+    }
+
+    /**
+     * @return the index of the translations of the bundles, reset when one of the bundles was modified
+     */
+    public TranslationIndex getIndex()
+    {
+        TranslationIndex currentIndex = this.index;
+
+        long currentGeneration = this.generation.get();
+        if (currentIndex.getGeneration() != currentGeneration) {
+            currentIndex = new TranslationIndex(currentGeneration);
+            this.index = currentIndex;
+        }
+
+        return currentIndex;
+    }
+
+    @Override
+    public Iterator<TranslationBundle> iterator()
+    {
+        return this.bundles.iterator();
+    }
+
+    @Override
+    public int size()
+    {
+        return this.bundles.size();
+    }
+
+    @Override
+    public boolean contains(Object o)
+    {
+        return this.bundles.contains(o);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.xwiki.localization.Translation;
+
+/**
+ * Merged view of the translations of a set of bundles: associate each key and locale to the translation resolved
+ * by the first bundle (in priority order) providing it, including the fallback on the parent locales. Keys which are
+ * not provided by any bundle are remembered too so that they don't need to be resolved again.
+ * <p>
+ * The index is filled lazily since there is no way to list the keys provided by a bundle.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class TranslationIndex
+{
+    /**
+     * The maximum number of keys remembered for a locale, to avoid an unbounded growth when many different (unknown)
+     * keys are requested.
+     */
+    static final int MAX_KEYS = 100000;
+
+    /**
+     * Stored for the keys not associated with any translation (a {@link ConcurrentHashMap} does not accept null
+     * values).
+     */
+    private static final Object MISSING = new Object();
+
+    private final long generation;
+
+    private final Map<Locale, Map<String, Object>> translations = new ConcurrentHashMap<>();
+
+    /**
+     * @param generation the generation of the bundles content this index was created for
+     */
+    public TranslationIndex(long generation)
+    {
+        this.generation = generation;
+    }
+
+    /**
+     * @return the generation of the bundles content this index was created for
+     */
+    public long getGeneration()
+    {
+        return this.generation;
+    }
+
+    /**
+     * @param key the key of the translation
+     * @param locale the locale of the translation
+     * @param resolver called to resolve the translation when it's not yet indexed
+     * @return the translation associated with the passed key and locale, or {@code null} if none could be found
+     */
+    public Translation getTranslation(String key, Locale locale,
+        BiFunction<String, Locale, Translation> resolver)
+    {
+        Map<String, Object> localeTranslations =
+            this.translations.computeIfAbsent(locale, l -> new ConcurrentHashMap<>());
+
+        Object value = localeTranslations.get(key);
+        if (value == null) {
+            Translation translation = resolver.apply(key, locale);
+            if (localeTranslations.size() < MAX_KEYS) {
+                localeTranslations.put(key, translation != null ? translation : MISSING);
+            }
+
+            return translation;
+        }
+
+        return value != MISSING ? (Translation) value : null;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.localization.internal;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.localization.Translation;
+import org.xwiki.localization.TranslationBundle;
+import org.xwiki.localization.TranslationBundleContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link DefaultLocalizationManager}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultLocalizationManagerTest
+{
+    @InjectMockComponents
+    private DefaultLocalizationManager localizationManager;
+
+    @MockComponent
+    private TranslationBundleContext bundleContext;
+
+    private TranslationBundle bundle;
+
+    private Translation translation;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.bundle = mock(TranslationBundle.class);
+        this.translation = mock(Translation.class);
+        when(this.translation.getLocale()).thenReturn(Locale.ENGLISH);
+        when(this.bundle.getTranslation("key", Locale.ENGLISH)).thenReturn(this.translation);
+        when(this.bundle.getTranslation("key", Locale.US)).thenReturn(this.translation);
+    }
+
+    @Test
+    void getTranslationWithIndex()
+    {
+        when(this.bundleContext.getBundles())
+            .thenReturn(new TranslationBundleSet(List.of(this.bundle), this.generation));
+
+        // Fallback on the parent locale.
+        assertSame(this.translation, this.localizationManager.getTranslation("key", Locale.US));
+        assertSame(this.translation, this.localizationManager.getTranslation("key", Locale.US));
+        assertSame(this.translation, this.localizationManager.getTranslation("key", Locale.ENGLISH));
+        assertNull(this.localizationManager.getTranslation("missing", Locale.ENGLISH));
+        assertNull(this.localizationManager.getTranslation("missing", Locale.ENGLISH));
+
+        verify(this.bundle).getTranslation("key", Locale.US);
+        verify(this.bundle).getTranslation("key", Locale.ENGLISH);
+        verify(this.bundle).getTranslation("missing", Locale.ENGLISH);
+        verify(this.bundle).getTranslation("missing", Locale.ROOT);
+
+        // The index is reset when a bundle is modified.
+        this.generation.incrementAndGet();
+
+        assertSame(this.translation, this.localizationManager.getTranslation("key", Locale.ENGLISH));
+
+        verify(this.bundle, times(2)).getTranslation("key", Locale.ENGLISH);
+    }
+
+    @Test
+    void getTranslationWithoutIndex()
+    {
+        when(this.bundleContext.getBundles()).thenReturn(List.of(this.bundle));
+
+        assertSame(this.translation, this.localizationManager.getTranslation("key", Locale.US));
+        assertSame(this.translation, this.localizationManager.getTranslation("key", Locale.US));
+
+        verify(this.bundle, times(2)).getTranslation("key", Locale.US);
+        verify(this.bundle, times(2)).getTranslation("key", Locale.ENGLISH);
+    }
+}
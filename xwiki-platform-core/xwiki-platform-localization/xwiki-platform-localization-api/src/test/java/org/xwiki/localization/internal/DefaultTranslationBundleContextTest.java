@@ -42,6 +42,8 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -169,4 +171,56 @@ void addBundlesToCurrentContext()
         assertEquals(1, bundles.size());
         assertTrue(bundles.contains(mockBundleToAdd));
     }
+
+    @Test
+    void getBundlesSharedBetweenContexts() throws Exception
+    {
+        ComponentManager mockComponentManager = mock(ComponentManager.class);
+        when(this.mockContextComponentManagerProvider.get()).thenReturn(mockComponentManager);
+
+        TranslationBundle mockTranslationBundle = mock(TranslationBundle.class);
+        when(mockComponentManager.<TranslationBundle>getInstanceList(TranslationBundle.class))
+            .thenReturn(List.of(mockTranslationBundle));
+
+        Collection<TranslationBundle> firstBundles = this.translationBundleContext.getBundles();
+        TranslationIndex firstIndex = ((TranslationBundleSet) firstBundles).getIndex();
+
+        // Simulate a new request.
+        when(this.mockExecution.getContext()).thenReturn(new ExecutionContext());
+
+        Collection<TranslationBundle> secondBundles = this.translationBundleContext.getBundles();
+
+        assertSame(firstBundles, secondBundles);
+        assertSame(firstIndex, ((TranslationBundleSet) secondBundles).getIndex());
+
+        // The index is reset when a bundle is modified.
+        this.translationBundleContext.onBundleUpdated(mockTranslationBundle);
+
+        assertNotSame(firstIndex, ((TranslationBundleSet) secondBundles).getIndex());
+
+        // The bundles are not shared anymore when the available bundles change.
+        when(this.mockExecution.getContext()).thenReturn(new ExecutionContext());
+        when(mockComponentManager.<TranslationBundle>getInstanceList(TranslationBundle.class))
+            .thenReturn(List.of(mock(TranslationBundle.class)));
+
+        assertNotSame(firstBundles, this.translationBundleContext.getBundles());
+    }
+
+    @Test
+    void addBundleDoesNotModifySharedBundles()
+    {
+        when(this.mockContextComponentManagerProvider.get()).thenReturn(this.componentManager);
+
+        Collection<TranslationBundle> sharedBundles = this.translationBundleContext.getBundles();
+
+        this.translationBundleContext.addBundle(mock(TranslationBundle.class));
+
+        assertEquals(0, sharedBundles.size());
+        assertEquals(1, this.translationBundleContext.getBundles().size());
+
+        // Simulate a new request.
+        when(this.mockExecution.getContext()).thenReturn(new ExecutionContext());
+
+        assertSame(sharedBundles, this.translationBundleContext.getBundles());
+    }
 }
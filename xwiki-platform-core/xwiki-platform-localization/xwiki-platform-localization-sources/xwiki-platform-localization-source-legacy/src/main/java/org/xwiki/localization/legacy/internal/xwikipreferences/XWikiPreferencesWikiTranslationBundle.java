@@ -35,6 +35,7 @@
 import org.xwiki.localization.LocaleUtils;
 import org.xwiki.localization.Translation;
 import org.xwiki.localization.TranslationBundle;
+import org.xwiki.localization.TranslationBundleContext;
 import org.xwiki.localization.internal.AbstractTranslationBundle;
 import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
@@ -86,6 +87,8 @@ public class XWikiPreferencesWikiTranslationBundle extends AbstractTranslationBu
 
     private DocumentReferenceResolver<String> resolver;
 
+    private TranslationBundleContext bundleContext;
+
     private final List<Event> events;
 
     private final String wiki;
@@ -111,6 +114,7 @@ public XWikiPreferencesWikiTranslationBundle(String wiki, XWikiPreferencesTransl
         this.observation = componentManager.getInstance(ObservationManager.class);
         this.documentAccessBridge = componentManager.getInstance(DocumentAccessBridge.class);
         this.resolver = componentManager.getInstance(DocumentReferenceResolver.TYPE_STRING);
+        this.bundleContext = componentManager.getInstance(TranslationBundleContext.class);
 
         intializeBundles();
 
@@ -181,6 +185,8 @@ public List<Event> getEvents()
     public void onEvent(Event arg0, Object arg1, Object arg2)
     {
         intializeBundles();
+
+        this.bundleContext.onBundleUpdated(this);
     }
 
     // Bundle
@@ -255,6 +255,9 @@ public void onEvent(Event event, Object source, Object data)
                 this.bundleCache.remove(document.getDefaultLocale());
             }
         }
+
+        // Make sure the translations of this bundle are not kept in any index.
+        this.bundleContext.onBundleUpdated(this);
     }
 
     @Override
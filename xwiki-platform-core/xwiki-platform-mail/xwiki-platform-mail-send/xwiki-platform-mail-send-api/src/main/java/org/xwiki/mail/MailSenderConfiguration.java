@@ -121,4 +121,24 @@ default int getSendQueueCapacity()
     {
         return 1000;
     }
+
+    /**
+     * @return the number of threads sending mails in parallel, each thread using its own connection to the SMTP server.
+     *         Note that the {@link #getSendWaitTime() wait time} is applied by each thread
+     * @since 18.8.0RC1
+     */
+    default int getSendThreadCount()
+    {
+        return 1;
+    }
+
+    /**
+     * @return the maximum number of mails to send per second to the same SMTP server, whatever the number of send
+     *         threads, or {@code 0} (or a negative value) for no limit
+     * @since 18.8.0RC1
+     */
+    default double getSendRateLimit()
+    {
+        return 0;
+    }
 }
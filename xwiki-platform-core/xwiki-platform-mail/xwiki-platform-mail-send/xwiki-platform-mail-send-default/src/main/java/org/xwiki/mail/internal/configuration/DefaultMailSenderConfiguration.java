@@ -104,6 +104,10 @@ public class DefaultMailSenderConfiguration implements MailSenderConfiguration
     private static final String PREPARE_QUEUE_CAPACITY_PROPERTY = "prepareQueueCapacity";
     private static final String SEND_QUEUE_CAPACITY_PROPERTY = "sendQueueCapacity";
 
+    private static final String SEND_THREADS_PROPERTY = "sendThreads";
+
+    private static final String SEND_RATE_LIMIT_PROPERTY = "sendRateLimit";
+
     /**
      * The default size of the prepare queue.
      */
@@ -349,6 +353,18 @@ public int getSendQueueCapacity()
             SEND_QUEUE_CAPACITY_DEFAULT);
     }
 
+    @Override
+    public int getSendThreadCount()
+    {
+        return this.xwikiPropertiesSource.getProperty(PREFIX + SEND_THREADS_PROPERTY, 1);
+    }
+
+    @Override
+    public double getSendRateLimit()
+    {
+        return this.xwikiPropertiesSource.getProperty(PREFIX + SEND_RATE_LIMIT_PROPERTY, 0D);
+    }
+
     private boolean isMainWiki()
     {
         return this.wikiDescriptorManager.isMainWiki(this.wikiDescriptorManager.getCurrentWikiId());
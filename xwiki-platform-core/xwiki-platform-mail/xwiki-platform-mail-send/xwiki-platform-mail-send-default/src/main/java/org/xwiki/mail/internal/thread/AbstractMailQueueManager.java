@@ -77,6 +77,12 @@ public T peekMessage()
         return getMailQueue().peek();
     }
 
+    @Override
+    public T pollMessage(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        return getMailQueue().poll(timeout, unit);
+    }
+
     @Override
     public boolean removeMessageFromQueue(T mailQueueItem)
     {
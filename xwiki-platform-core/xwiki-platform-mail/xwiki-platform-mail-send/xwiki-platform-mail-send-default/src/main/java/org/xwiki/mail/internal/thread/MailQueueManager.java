@@ -84,6 +84,19 @@ default boolean addMessageToQueue(T mailQueueItem, long timeout, TimeUnit unit)
      */
     T peekMessage();
 
+    /**
+     * Retrieves and removes the next mail on the queue, waiting up to the specified wait time if necessary for a mail
+     * to become available.
+     *
+     * @param timeout how long to wait before giving up, in units of {@code unit}
+     * @param unit a {@code TimeUnit} determining how to interpret the {@code timeout} parameter
+     * @return the next mail on the queue, or {@code null} if the specified waiting time elapses before a mail is
+     *         available
+     * @throws InterruptedException if interrupted while waiting
+     * @since 18.8.0RC1
+     */
+    T pollMessage(long timeout, TimeUnit unit) throws InterruptedException;
+
     /**
      * Removes the next mail on the queue.
      *
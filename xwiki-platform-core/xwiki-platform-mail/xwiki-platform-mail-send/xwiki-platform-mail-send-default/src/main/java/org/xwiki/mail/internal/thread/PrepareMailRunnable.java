@@ -124,7 +124,9 @@ protected void prepareMail(PrepareMailQueueItem item)
                 try {
                     if (messageIterator.hasNext()) {
                         MimeMessage mimeMessage = messageIterator.next();
-                        prepareSingleMail(mimeMessage, item);
+                        // The mails sent alone (e.g. a password reset mail) are sent before the mails sent in batch.
+                        boolean batch = messageCounter > 0 || messageIterator.hasNext();
+                        prepareSingleMail(mimeMessage, item, batch);
                         messageCounter++;
                     } else {
                         shouldStop = true;
@@ -162,7 +164,7 @@ protected void prepareContext(ExecutionContext executionContext) throws Executio
         }
     }
 
-    private void prepareSingleMail(MimeMessage mimeMessage, PrepareMailQueueItem item)
+    private void prepareSingleMail(MimeMessage mimeMessage, PrepareMailQueueItem item, boolean batch)
     {
         MailListener listener = item.getListener();
 
@@ -192,7 +194,7 @@ private void prepareSingleMail(MimeMessage mimeMessage, PrepareMailQueueItem ite
         // Step 4: Put the MimeMessage id on the Mail Send Queue for sending
         // Extract the wiki id from the context
         SendMailQueueItem smqi = new SendMailQueueItem(message.getUniqueMessageId(),
-            item.getSession(), listener, item.getBatchId(), extractWikiId(item));
+            item.getSession(), listener, item.getBatchId(), extractWikiId(item), batch);
         try {
             // Note: addMessageToQueue() will throw an InterruptedException exception if the add is interrupted or
             // return false if the timeout has been reached before the message could be added to the send queue.
@@ -19,6 +19,8 @@
  */
 package org.xwiki.mail.internal.thread;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import javax.mail.Session;
 
 import org.xwiki.mail.MailListener;
@@ -31,10 +33,16 @@
  */
 public class SendMailQueueItem extends AbstractMailQueueItem
 {
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
     private String uniqueMessageId;
 
     private String wikiId;
 
+    private boolean batch;
+
+    private final long sequence = SEQUENCE.getAndIncrement();
+
     /**
      * @param uniqueMessageId see {@link #getUniqueMessageId()}
      * @param session see {@link #getSession()}
@@ -44,10 +52,26 @@ public class SendMailQueueItem extends AbstractMailQueueItem
      */
     public SendMailQueueItem(String uniqueMessageId, Session session, MailListener listener, String batchId,
         String wikiId)
+    {
+        this(uniqueMessageId, session, listener, batchId, wikiId, false);
+    }
+
+    /**
+     * @param uniqueMessageId see {@link #getUniqueMessageId()}
+     * @param session see {@link #getSession()}
+     * @param listener see {@link #getListener()}
+     * @param batchId see {@link #getBatchId()}
+     * @param wikiId see {@link #getWikiId()}
+     * @param batch see {@link #isBatch()}
+     * @since 18.8.0RC1
+     */
+    public SendMailQueueItem(String uniqueMessageId, Session session, MailListener listener, String batchId,
+        String wikiId, boolean batch)
     {
         super(session, listener, batchId);
         this.uniqueMessageId = uniqueMessageId;
         this.wikiId = wikiId;
+        this.batch = batch;
     }
 
     /**
@@ -66,6 +90,24 @@ public String getWikiId()
         return this.wikiId;
     }
 
+    /**
+     * @return {@code true} if the mail is part of a batch of mails (e.g. a notification digest), in which case it's
+     *         sent after the mails sent alone (e.g. a password reset mail)
+     * @since 18.8.0RC1
+     */
+    public boolean isBatch()
+    {
+        return this.batch;
+    }
+
+    /**
+     * @return the creation order of the queue item, used to send the mails of the same priority in order
+     */
+    long getSequence()
+    {
+        return this.sequence;
+    }
+
     @Override
     public String toString()
     {
@@ -19,7 +19,10 @@
  */
 package org.xwiki.mail.internal.thread;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -29,6 +32,10 @@
 
 /**
  * Handles all operations on the Send Mail Queue.
+ * <p>
+ * The mails sent alone (e.g. a password reset mail) are taken from the queue before the mails sent in batch (e.g. a
+ * notification digest), so that they are not delayed by large batches. The mails of the same kind are taken in the
+ * order they were added.
  *
  * @version $Id$
  * @since 6.4
@@ -38,12 +45,70 @@
 public class SendMailQueueManager extends AbstractMailQueueManager<SendMailQueueItem>
     implements MailQueueManager<SendMailQueueItem>
 {
+    private static final Comparator<SendMailQueueItem> PRIORITY =
+        Comparator.comparing(SendMailQueueItem::isBatch).thenComparingLong(SendMailQueueItem::getSequence);
+
     @Inject
     private MailSenderConfiguration configuration;
 
+    /**
+     * The priority queue is not bounded so we keep track of the free slots to preserve the configured capacity.
+     */
+    private Semaphore freeSlots;
+
     @Override
     public void initialize()
     {
-        this.mailQueue = new LinkedBlockingQueue<>(this.configuration.getSendQueueCapacity());
+        this.freeSlots = new Semaphore(this.configuration.getSendQueueCapacity());
+        this.mailQueue = new PriorityBlockingQueue<>(11, PRIORITY);
+    }
+
+    @Override
+    public void addToQueue(SendMailQueueItem mailQueueItem)
+    {
+        if (!this.freeSlots.tryAcquire()) {
+            throw new IllegalStateException("Send mail queue full");
+        }
+        this.mailQueue.add(mailQueueItem);
+    }
+
+    @Override
+    public void addMessage(SendMailQueueItem mailQueueItem, long timeout, TimeUnit unit) throws InterruptedException
+    {
+        addMessageToQueue(mailQueueItem, timeout, unit);
+    }
+
+    @Override
+    public boolean addMessageToQueue(SendMailQueueItem mailQueueItem, long timeout, TimeUnit unit)
+        throws InterruptedException
+    {
+        if (this.freeSlots.tryAcquire(timeout, unit)) {
+            this.mailQueue.add(mailQueueItem);
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public SendMailQueueItem pollMessage(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        SendMailQueueItem mailQueueItem = super.pollMessage(timeout, unit);
+        if (mailQueueItem != null) {
+            this.freeSlots.release();
+        }
+
+        return mailQueueItem;
+    }
+
+    @Override
+    public boolean removeMessageFromQueue(SendMailQueueItem mailQueueItem)
+    {
+        boolean removed = super.removeMessageFromQueue(mailQueueItem);
+        if (removed) {
+            this.freeSlots.release();
+        }
+
+        return removed;
     }
 }
@@ -20,6 +20,10 @@
 package org.xwiki.mail.internal.thread;
 
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 import javax.inject.Named;
@@ -42,6 +46,9 @@
 
 /**
  * Runnable that regularly check for mails on a Queue, and for each mail tries to send it.
+ * <p>
+ * Several threads can execute this runnable to send mails in parallel: each thread keeps its own connection to the
+ * SMTP server and reuses it for the following mails.
  *
  * @version $Id$
  * @since 6.4
@@ -51,6 +58,11 @@
 @Singleton
 public class SendMailRunnable extends AbstractMailRunnable
 {
+    /**
+     * How long to wait for a mail, in seconds, before checking again if the processing should stop.
+     */
+    private static final long POLL_TIMEOUT = 1L;
+
     @Inject
     private MailQueueManager<SendMailQueueItem> sendMailQueueManager;
 
@@ -64,25 +76,39 @@ public class SendMailRunnable extends AbstractMailRunnable
     @Inject
     private Provider<XWikiContext> contextProvider;
 
-    private Transport currentTransport;
+    /**
+     * The time (as returned by {@link System#nanoTime()}) from which the next mail can be sent to each SMTP host.
+     */
+    private final Map<String, AtomicLong> nextSendTimes = new ConcurrentHashMap<>();
+
+    /**
+     * The connection of a send thread to the SMTP server.
+     *
+     * @version $Id$
+     */
+    private static final class SendConnection
+    {
+        private Transport transport;
 
-    private Session currentSession;
+        private Session session;
 
-    private int count;
+        private int count;
+    }
 
     @Override
     public void run()
     {
+        SendConnection connection = new SendConnection();
         try {
             // Make sure we initialize an execution context.
             prepareContext();
 
-            runInternal();
+            runInternal(connection);
         } catch (ExecutionContextException e) {
             // Not much to do but log.
             logger.error("Failed to initialize the send mail thread's execution context", e);
         } finally {
-            closeTransport();
+            closeTransport(connection);
         }
     }
 
@@ -101,28 +127,23 @@ private void prepareContextForQueueItem(SendMailQueueItem mailItem)
         xcontext.setWikiId(mailItem.getWikiId());
     }
 
-    private void runInternal()
+    private void runInternal(SendConnection connection)
     {
         do {
             try {
-                // Handle next message in the queue
-                if (this.sendMailQueueManager.hasMessage()) {
-                    // Important: only remove the mail item from the queue after the mail has been sent as
-                    // otherwise, MailSender.waitTillSent() may return before the mail is actually sent!
-                    SendMailQueueItem mailItem = this.sendMailQueueManager.peekMessage();
-                    try {
-                        sendMail(mailItem);
-                    } finally {
-                        this.sendMailQueueManager.removeMessageFromQueue(mailItem);
-                    }
+                // Wait for the next message in the queue. The wait is bounded to regularly check if the processing
+                // should stop.
+                SendMailQueueItem mailItem =
+                    this.sendMailQueueManager.pollMessage(POLL_TIMEOUT, TimeUnit.SECONDS);
+                if (mailItem != null) {
+                    waitSendRateLimit(mailItem.getSession());
+                    sendMail(mailItem, connection);
                     // Email throttling: Wait before processing the next mail queue item
-                    // Note: it's important that we wait after the previous item has been removed from the queue in
-                    // order to let users know as soon as possible that their mail has been sent (otherwise when sending
-                    // a synchronous mail, the user would have to wait the send wait time!).
+                    // Note: it's important that we wait after the previous item has been sent in order to let users
+                    // know as soon as possible that their mail has been sent (otherwise when sending a synchronous
+                    // mail, the user would have to wait the send wait time!).
                     waitSendWaitTime();
                 }
-                // Note: a short pause to catch thread interruptions and to be kind on CPU.
-                Thread.sleep(50L);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 // Thread has been interrupted, exit
@@ -139,8 +160,9 @@ private void runInternal()
      * Send the mail.
      *
      * @param item the queue item containing all the data for sending the mail
+     * @param connection the connection of the current thread to the SMTP server
      */
-    protected void sendMail(SendMailQueueItem item)
+    private void sendMail(SendMailQueueItem item, SendConnection connection)
     {
         prepareContextForQueueItem(item);
 
@@ -162,20 +184,20 @@ protected void sendMail(SendMailQueueItem item)
             // the current Transport, get a new one and reconnect.
             // Also do that every 100 mails sent.
             // TODO: explain why!
-            if (item.getSession() != this.currentSession || (this.count % 100) == 0) {
-                closeTransport();
-                this.currentSession = item.getSession();
-                this.currentTransport = this.currentSession.getTransport("smtp");
-                this.currentTransport.connect();
-            } else if (!this.currentTransport.isConnected()) {
-                this.currentTransport.connect();
+            if (item.getSession() != connection.session || (connection.count % 100) == 0) {
+                closeTransport(connection);
+                connection.session = item.getSession();
+                connection.transport = connection.session.getTransport("smtp");
+                connection.transport.connect();
+            } else if (!connection.transport.isConnected()) {
+                connection.transport.connect();
             }
 
             // Step 3: Send the mail
             // Unlike the static send method, the sendMessage method does not call the saveChanges method on the
             // message; this prevent the MessageID header to be changed.
-            this.currentTransport.sendMessage(message, message.getAllRecipients());
-            this.count++;
+            connection.transport.sendMessage(message, message.getAllRecipients());
+            connection.count++;
 
             // Step 4: Notify the user of the success if a listener has been provided
             // Note that the listener is in charge of deleting the message from the mail content store.
@@ -190,17 +212,34 @@ protected void sendMail(SendMailQueueItem item)
         }
     }
 
+    private void waitSendRateLimit(Session session) throws InterruptedException
+    {
+        double rateLimit = this.configuration.getSendRateLimit();
+        if (rateLimit > 0) {
+            long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rateLimit);
+            AtomicLong nextSendTime = this.nextSendTimes.computeIfAbsent(
+                String.valueOf(session.getProperty("mail.smtp.host")), host -> new AtomicLong(System.nanoTime()));
+
+            // Reserve the next free slot for the host, which is shared by all the send threads.
+            long now = System.nanoTime();
+            long slot = nextSendTime.getAndAccumulate(now, (next, current) -> Math.max(next, current) + interval);
+            if (slot > now) {
+                TimeUnit.NANOSECONDS.sleep(slot - now);
+            }
+        }
+    }
+
     private void waitSendWaitTime() throws InterruptedException
     {
         long sendWaitTime = this.configuration.getSendWaitTime();
         Thread.sleep(sendWaitTime);
     }
 
-    private void closeTransport()
+    private void closeTransport(SendConnection connection)
     {
-        if (this.currentTransport != null) {
+        if (connection.transport != null) {
             try {
-                this.currentTransport.close();
+                connection.transport.close();
             } catch (MessagingException e) {
                 this.logger.warn("Failed to close JavaMail Transport connection. Reason [{}]",
                     ExceptionUtils.getRootCauseMessage(e));
@@ -116,6 +116,12 @@ public int getSendQueueCapacity()
         return 10;
     }
 
+    @Override
+    public int getSendThreadCount()
+    {
+        return 2;
+    }
+
     public void setBCCAddresses(List<String> addresses)
     {
         this.bccAddresses = addresses;
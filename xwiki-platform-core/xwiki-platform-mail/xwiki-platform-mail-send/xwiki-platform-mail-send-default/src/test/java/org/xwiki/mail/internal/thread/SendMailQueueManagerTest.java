@@ -0,0 +1,93 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.mail.internal.thread;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.mail.MailSenderConfiguration;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SendMailQueueManager}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SendMailQueueManagerTest
+{
+    @InjectMockComponents
+    private SendMailQueueManager queueManager;
+
+    @MockComponent
+    private MailSenderConfiguration configuration;
+
+    @BeforeEach
+    void configure()
+    {
+        when(this.configuration.getSendQueueCapacity()).thenReturn(2);
+        this.queueManager.initialize();
+    }
+
+    @Test
+    void singleMailsArePolledBeforeBatchMails() throws Exception
+    {
+        SendMailQueueItem batchItem = new SendMailQueueItem("batch", null, null, "batchId1", "wiki", true);
+        SendMailQueueItem singleItem = new SendMailQueueItem("single", null, null, "batchId2", "wiki", false);
+
+        this.queueManager.addToQueue(batchItem);
+        this.queueManager.addToQueue(singleItem);
+
+        assertSame(singleItem, this.queueManager.pollMessage(0, TimeUnit.SECONDS));
+        assertSame(batchItem, this.queueManager.pollMessage(0, TimeUnit.SECONDS));
+        assertNull(this.queueManager.pollMessage(0, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void capacityIsPreserved() throws Exception
+    {
+        SendMailQueueItem item1 = new SendMailQueueItem("message1", null, null, "batchId", "wiki", true);
+        SendMailQueueItem item2 = new SendMailQueueItem("message2", null, null, "batchId", "wiki", true);
+        SendMailQueueItem item3 = new SendMailQueueItem("message3", null, null, "batchId", "wiki", true);
+
+        assertTrue(this.queueManager.addMessageToQueue(item1, 0, TimeUnit.SECONDS));
+        assertTrue(this.queueManager.addMessageToQueue(item2, 0, TimeUnit.SECONDS));
+        assertFalse(this.queueManager.addMessageToQueue(item3, 0, TimeUnit.SECONDS));
+        assertThrows(IllegalStateException.class, () -> this.queueManager.addToQueue(item3));
+
+        // Taking a mail from the queue frees a slot.
+        assertSame(item1, this.queueManager.pollMessage(0, TimeUnit.SECONDS));
+        assertTrue(this.queueManager.addMessageToQueue(item3, 0, TimeUnit.SECONDS));
+
+        // Removing a mail from the queue frees a slot too.
+        assertTrue(this.queueManager.removeMessageFromQueue(item2));
+        assertTrue(this.queueManager.addMessageToQueue(item1, 0, TimeUnit.SECONDS));
+    }
+}
@@ -24,6 +24,7 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -43,6 +44,7 @@
 import org.xwiki.rendering.syntax.Syntax;
 
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.doc.DocumentChangeSet;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.objects.LargeStringProperty;
 import com.xpn.xwiki.objects.PropertyInterface;
@@ -67,13 +69,15 @@
 @Singleton
 public class UpdatedDocumentMentionsAnalyzer extends AbstractDocumentMentionsAnalyzer
 {
+    private static final String COMMENT_FIELD = "comment";
+
     @Inject
     private MentionXDOMService xdomService;
 
     /**
      * Identifies new mentions on an updated document by analyzing the content of the document body as well as the
      * content of the objects attached to the document and comparing them to the document and its objects before the
-     * update.
+     * update. Only the content and the object properties modified by the update are analyzed.
      *
      * @param oldDoc the document before the update
      * @param newDoc the document after the update
@@ -86,12 +90,18 @@ public List<MentionNotificationParameters> analyze(XWikiDocument oldDoc, XWikiDo
         DocumentReference documentReference,
         String version, String authorReference)
     {
+        // The analyzed versions are loaded by the mentions consumer, so there is no change set of the save to share.
+        DocumentChangeSet changeSet = new DocumentChangeSet(oldDoc, newDoc);
+
         List<MentionNotificationParameters> mentionNotificationParametersList = new ArrayList<>();
-        handleUpdatedContent(oldDoc.getXDOM(), newDoc.getXDOM(), documentReference, version, authorReference, DOCUMENT)
-            .ifPresent(mentionNotificationParametersList::add);
-        mentionNotificationParametersList
-            .addAll(traverseXObjectsOnUpdate(oldDoc.getXObjects(), newDoc.getXObjects(), version, authorReference,
-                newDoc.getSyntax()));
+        if (changeSet.isContentChanged()) {
+            handleUpdatedContent(changeSet.getPreviousXDOM(), changeSet.getXDOM(), documentReference, version,
+                authorReference, DOCUMENT).ifPresent(mentionNotificationParametersList::add);
+        }
+        for (BaseObject baseObject : changeSet.getChangedObjects()) {
+            mentionNotificationParametersList
+                .addAll(handleBaseObjectOnUpdate(changeSet, baseObject, version, authorReference, newDoc.getSyntax()));
+        }
         return mentionNotificationParametersList;
     }
 
@@ -157,62 +167,31 @@ private Optional<MentionNotificationParameters> handleUpdatedContent(XDOM oldXDO
         return wrapResult(ret);
     }
 
-    /**
-     * Traverses the objects of an updated document and compares them to the objects of the document before the update
-     * to search for new mentions to notify.
-     *
-     * @param oldXObjects the objects of the document before the update
-     * @param xObjects the objects of the document after the update
-     * @param version the version of the document holding the analyzed xobjects when it was updated
-     * @param authorReference the reference of the author of the update
-     * @param syntax the syntax of the document
-     * @return the list of the identified new mentions
-     */
-    private List<MentionNotificationParameters> traverseXObjectsOnUpdate(
-        Map<DocumentReference, List<BaseObject>> oldXObjects,
-        Map<DocumentReference, List<BaseObject>> xObjects, String version, String authorReference, Syntax syntax)
-    {
-        List<MentionNotificationParameters> ret = new ArrayList<>();
-        for (Map.Entry<DocumentReference, List<BaseObject>> entry : xObjects.entrySet()) {
-            List<BaseObject> oldEntry = oldXObjects.get(entry.getKey());
-            for (BaseObject baseObject : entry.getValue()) {
-                if (baseObject != null) {
-                    ret
-                        .addAll(handleBaseObjectOnUpdate(oldEntry, baseObject, version, authorReference, syntax));
-                }
-            }
-        }
-        return ret;
-    }
-
     /**
      * Handles a base object during the update of a document to search for new mentions to notify.
      *
-     * @param oldEntry the old base object (if it exists)
-     * @param baseObject the new base object
+     * @param changeSet the changes made by the update
+     * @param baseObject the new base object, added or modified by the update
      * @param version the version of the document holding the analyzed object when it was updated
      * @param authorReference the reference of the author of the change
      * @param syntax the syntax of the document
      * @return the list of the identified new mentions
      */
-    private List<MentionNotificationParameters> handleBaseObjectOnUpdate(List<BaseObject> oldEntry,
+    private List<MentionNotificationParameters> handleBaseObjectOnUpdate(DocumentChangeSet changeSet,
         BaseObject baseObject, String version, String authorReference, Syntax syntax)
     {
         List<MentionNotificationParameters> mentionNotificationParametersList = new ArrayList<>();
         if (baseObject != null) {
-            Optional<BaseObject> oldBaseObject;
-            if (oldEntry != null && oldEntry.size() > baseObject.getNumber()) {
-                oldBaseObject = Optional.ofNullable(oldEntry.get(baseObject.getNumber()));
-            } else {
-                oldBaseObject = Optional.empty();
-            }
+            Optional<BaseObject> oldBaseObject = Optional.ofNullable(changeSet.getPreviousObject(baseObject));
+            Set<String> changedProperties = changeSet.getChangedProperties(baseObject);
 
             // Special treatment on comment objects to analyse only the comment field.
             if (Objects.equals(baseObject
                 .getXClassReference()
                 .getLocalDocumentReference(), COMMENTSCLASS_REFERENCE))
             {
-                Optional.<Object>ofNullable(baseObject.getField("comment"))
+                Optional.<Object>ofNullable(baseObject.getField(COMMENT_FIELD))
+                    .filter(it -> changedProperties.contains(COMMENT_FIELD))
                     .ifPresent(it -> {
                         LargeStringProperty lsp = (LargeStringProperty) it;
                         PropertyInterface field = lsp.getObject().getField(SELECTION_FIELD);
@@ -223,7 +202,9 @@ private List<MentionNotificationParameters> handleBaseObjectOnUpdate(List<BaseOb
                     });
             } else {
                 for (Object o : baseObject.getProperties()) {
-                    if (o instanceof LargeStringProperty largeStringProperty) {
+                    if (o instanceof LargeStringProperty largeStringProperty
+                        && changedProperties.contains(largeStringProperty.getName()))
+                    {
                         handleProperty(oldBaseObject, largeStringProperty, version, TEXT_FIELD, authorReference,
                             syntax).ifPresent(mentionNotificationParametersList::add);
                     }
@@ -67,6 +67,7 @@
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -328,6 +329,30 @@ void analyzeNewMentionInUpdatedAWMField() throws Exception
         ), analyze);
     }
 
+    @Test
+    void analyzeUnchangedDocumentAndAWMField() throws Exception
+    {
+        XWikiDocument oldDoc = new XWikiDocument(DOCUMENT_REFERENCE);
+        oldDoc.setSyntax(XWIKI_2_1);
+        oldDoc.setContent("v1.0");
+        BaseObject oldObject = oldDoc.newXObject(ACLASS_DOCUMENT_REFERENCE, this.oldcore.getXWikiContext());
+        oldObject.setLargeStringValue(TEXT_FIELD, "AWM CONTENT");
+        oldObject.setFloatValue(NUMBER_FIELD, 1.0f);
+
+        XWikiDocument newDoc = oldDoc.clone();
+        newDoc.getXObject(oldObject.getReference()).setFloatValue(NUMBER_FIELD, 2.0f);
+
+        List<MentionNotificationParameters> analyze =
+            this.updatedDocumentMentionsAnalyzer.analyze(oldDoc, newDoc, DOCUMENT_REFERENCE, "1.1", AUTHOR);
+
+        assertEquals(List.of(), analyze);
+
+        // Only the modified content is parsed and analyzed.
+        verify(this.contentParser, never()).parse(any(), any(), any());
+        verify(this.xdomService, never()).parse(any(), any());
+        verify(this.xdomService, never()).listMentionMacros(any());
+    }
+
     @Test
     void analyzeNewMentionInNewAWMField() throws Exception
     {
@@ -42,11 +42,13 @@
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -181,6 +183,7 @@
 import org.xwiki.url.URLConfiguration;
 import org.xwiki.user.CurrentUserReference;
 import org.xwiki.user.UserPropertiesResolver;
+import org.xwiki.user.UserReference;
 import org.xwiki.velocity.VelocityContextFactory;
 import org.xwiki.velocity.VelocityManager;
 import org.xwiki.velocity.XWikiVelocityContext;
@@ -220,6 +223,7 @@
 import com.xpn.xwiki.internal.event.XObjectPropertyDeletedEvent;
 import com.xpn.xwiki.internal.event.XObjectPropertyEvent;
 import com.xpn.xwiki.internal.event.XObjectPropertyUpdatedEvent;
+import com.xpn.xwiki.internal.mandatory.ParallelMandatoryDocumentsInitializer;
 import com.xpn.xwiki.internal.mandatory.XWikiPreferencesDocumentInitializer;
 import com.xpn.xwiki.internal.mandatory.XWikiUsersDocumentInitializer;
 import com.xpn.xwiki.internal.render.OldRendering;
@@ -1428,30 +1432,44 @@ private void initializeStores() throws ComponentLookupException
     public void initializeMandatoryDocuments(XWikiContext context)
     {
         if (context.get("initdone") == null) {
-            @SuppressWarnings("deprecation")
-            List<MandatoryDocumentInitializer> initializers =
-                Utils.getComponentList(MandatoryDocumentInitializer.class);
-
             getObservationManager().notify(MandatoryDocumentsInitializingEvent.EVENT, null);
 
-            getProgress().pushLevelProgress(initializers.size(), this);
-
-            try {
-                for (MandatoryDocumentInitializer initializer : initializers) {
-                    getProgress().startStep(this);
-
-                    initializeMandatoryDocument(initializer, context);
-
-                    getProgress().endStep(this);
+            int threads = getConfiguration().getProperty("xwiki.mandatoryDocuments.initializationThreads", 1);
+            if (threads > 1) {
+                try {
+                    Utils.<ParallelMandatoryDocumentsInitializer>getComponent(
+                        ParallelMandatoryDocumentsInitializer.class).initialize(threads);
+                } catch (ComponentLookupException e) {
+                    LOGGER.error("Failed to initialize the mandatory documents of wiki [{}]", context.getWikiId(), e);
                 }
-            } finally {
-                getProgress().popLevelProgress(this);
+            } else {
+                initializeMandatoryDocumentsSequentially(context);
             }
 
             getObservationManager().notify(MandatoryDocumentsInitializedEvent.EVENT, null);
         }
     }
 
+    private void initializeMandatoryDocumentsSequentially(XWikiContext context)
+    {
+        @SuppressWarnings("deprecation")
+        List<MandatoryDocumentInitializer> initializers = Utils.getComponentList(MandatoryDocumentInitializer.class);
+
+        getProgress().pushLevelProgress(initializers.size(), this);
+
+        try {
+            for (MandatoryDocumentInitializer initializer : initializers) {
+                getProgress().startStep(this);
+
+                initializeMandatoryDocument(initializer, context);
+
+                getProgress().endStep(this);
+            }
+        } finally {
+            getProgress().popLevelProgress(this);
+        }
+    }
+
     private void initializeMandatoryDocument(String wiki, MandatoryDocumentInitializer initializer,
         XWikiContext context)
     {
@@ -1473,6 +1491,8 @@ private void initializeMandatoryDocument(MandatoryDocumentInitializer initialize
                 getCurrentReferenceDocumentReferenceResolver().resolve(initializer.getDocumentReference());
 
             if (documentReference.getWikiReference().getName().equals(context.getWikiId())) {
+                long start = System.currentTimeMillis();
+
                 XWikiDocument document = context.getWiki().getDocument(documentReference, context);
 
                 // Avoid modifying the cached document
@@ -1482,6 +1502,9 @@ private void initializeMandatoryDocument(MandatoryDocumentInitializer initialize
                     saveDocument(document,
                         localizePlainOrKey("core.model.xclass.mandatoryUpdateProperty.versionSummary"), context);
                 }
+
+                LOGGER.debug("Initialized mandatory document [{}] with [{}] in [{}] ms", documentReference,
+                    initializer.getClass().getName(), System.currentTimeMillis() - start);
             }
         } catch (Exception e) {
             LOGGER.error("Failed to initialize mandatory document [{}]", initializer.getDocumentReference(), e);
@@ -2082,75 +2105,292 @@ public void saveDocument(XWikiDocument document, String comment, boolean isMinor
             // Switch to document wiki
             context.setWikiId(document.getDocumentReference().getWikiReference().getName());
 
-            // Remember the dirty flags statuses so that they can be restored if needed
-            boolean metadataDirty = document.isMetaDataDirty();
-            boolean contentDirty = document.isContentDirty();
-
             // Make sure the document is ready to be saved
-            XWikiDocument originalDocument = prepareDocumentForSave(document, comment, isMinorEdit, context);
+            XWikiDocument originalDocument = beforeStore(document, comment, isMinorEdit, context);
 
-            // Notify listeners about the document about to be created or updated
+            // Actually save the document.
+            getStore().saveXWikiDoc(document, context);
 
-            // Note that for the moment the event being send is a bridge event, as we are still passing around
-            // an XWikiDocument as source and an XWikiContext as data.
-            beforeSave(document, context);
-
-            // Delete existing document if we replace with a new one
-            if (document.isNew()) {
-                if (!originalDocument.isNew()) {
-                    // We don't want to notify about this delete since from outside world point of view it's an update
-                    // and not a delete+create
-                    deleteDocument(originalDocument, true, false, context);
-                }
-            } else {
-                // Put attachments to remove in recycle bin
-                if (hasAttachmentRecycleBin(context)) {
-                    for (XWikiAttachmentToRemove attachment : document.getAttachmentsToRemove()) {
-                        if (attachment.isToRecycleBin()
-                            // Only store the attachment to the trash bin if it's not broken
-                            && attachment.getAttachment().contentExists(context)) {
-                            // Make sure the attachment will be stored with its history
-                            attachment.getAttachment().loadArchive(context);
-                            getAttachmentRecycleBinStore().saveToRecycleBin(attachment.getAttachment(),
-                                context.getUser(), new Date(), context, true);
-                        }
+            afterStore(document, originalDocument, context);
+        } finally {
+            context.setWikiId(currentWiki);
+        }
+    }
+
+    /**
+     * Save the passed documents in the store.
+     * <p>
+     * This produces the same result as calling {@link #saveDocument(XWikiDocument, String, boolean, XWikiContext)} for
+     * each document, but the documents of each wiki are written in a single transaction, which is a lot faster when
+     * many documents need to be saved (for example when updating all the objects of a renamed class). It's up to the
+     * caller to limit the number of documents passed at once. The creating/updating event of a document is sent in the
+     * transaction, right before the document is written, and the created/updated events are sent after it has been
+     * committed.
+     * <p>
+     * The documents which cannot be saved without an operation that the transaction would not roll back (a new document
+     * replacing an existing one, or attachments to remove) are saved one by one with
+     * {@link #saveDocument(XWikiDocument, String, boolean, XWikiContext)}.
+     * <p>
+     * If the transaction fails, the documents are given back the state they had before it and they are saved one by one
+     * (their creating/updating events are sent again), so that a single failing document does not prevent the others
+     * from being saved. The failure of the first document which cannot be saved is thrown once all the documents have
+     * been handled.
+     * 
+     * @param documents the documents to save
+     * @param comment the comment to associated to the new version of the saved documents
+     * @param isMinorEdit true if the new versions are minor versions
+     * @param context see {@link XWikiContext}
+     * @throws XWikiException when failing to save some of the documents
+     * @since 18.8.0RC1
+     */
+    public void saveDocuments(Collection<XWikiDocument> documents, String comment, boolean isMinorEdit,
+        XWikiContext context) throws XWikiException
+    {
+        // Group the documents per wiki, keeping their order
+        Map<String, List<XWikiDocument>> wikis = new LinkedHashMap<>();
+        for (XWikiDocument document : documents) {
+            wikis.computeIfAbsent(document.getDocumentReference().getWikiReference().getName(), k -> new ArrayList<>())
+                .add(document);
+        }
+
+        String currentWiki = context.getWikiId();
+
+        List<XWikiException> failures = new ArrayList<>();
+        try {
+            for (Map.Entry<String, List<XWikiDocument>> entry : wikis.entrySet()) {
+                // Switch to documents wiki
+                context.setWikiId(entry.getKey());
+
+                List<XWikiDocument> chunk = new ArrayList<>();
+                for (XWikiDocument document : entry.getValue()) {
+                    if (isSavedAlone(document, context)) {
+                        // Keep the order of the documents
+                        saveChunk(chunk, comment, isMinorEdit, failures, context);
+                        chunk = new ArrayList<>();
+
+                        saveDocument(document, comment, isMinorEdit, failures, context);
+                    } else {
+                        chunk.add(document);
                     }
                 }
+                saveChunk(chunk, comment, isMinorEdit, failures, context);
             }
+        } finally {
+            context.setWikiId(currentWiki);
+        }
+
+        if (!failures.isEmpty()) {
+            XWikiException failure = failures.get(0);
+            failures.stream().skip(1).forEach(failure::addSuppressed);
+
+            throw failure;
+        }
+    }
+
+    /**
+     * @return true if saving the document involves an operation which cannot be rolled back with the transaction of a
+     *         chunk of documents
+     */
+    private boolean isSavedAlone(XWikiDocument document, XWikiContext context) throws XWikiException
+    {
+        if (document.isNew()) {
+            // The existing document would be deleted before saving the new one
+            return exists(document.getDocumentReferenceWithLocale(), context);
+        }
+
+        // The attachments to remove would be put in the recycle bin, and their content deleted, before saving the
+        // document
+        return !document.getAttachmentsToRemove().isEmpty();
+    }
+
+    private void saveChunk(List<XWikiDocument> chunk, String comment, boolean isMinorEdit,
+        List<XWikiException> failures, XWikiContext context)
+    {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Remember the state of the documents which is modified before the end of the transaction, so that they can be
+        // saved again one by one if it fails
+        List<SavedDocumentState> states = chunk.stream().map(SavedDocumentState::new).toList();
 
-            // Restore dirty flags #saveDocument was called with metadata dirty flag to false
-            if (!metadataDirty) {
-                document.setMetaDataDirty(metadataDirty);
-                document.setContentDirty(contentDirty);
+        // Make sure each document is ready to be saved, in the transaction of the chunk
+        Map<XWikiDocument, XWikiDocument> originalDocuments = new IdentityHashMap<>(chunk.size());
+        try {
+            getStore().saveXWikiDocs(chunk,
+                document -> originalDocuments.put(document, beforeStore(document, comment, isMinorEdit, context)),
+                context);
+        } catch (XWikiException e) {
+            LOGGER.warn("Failed to save the documents [{}] in a single transaction, saving them one by one."
+                + " Root cause is [{}].", chunk.stream().map(XWikiDocument::getDocumentReferenceWithLocale).toList(),
+                ExceptionUtils.getRootCauseMessage(e));
+
+            for (SavedDocumentState state : states) {
+                state.restore();
+                saveDocument(state.document, comment, isMinorEdit, failures, context);
             }
 
-            // Actually save the document.
-            getStore().saveXWikiDoc(document, context);
+            return;
+        }
 
-            // Since the store#saveXWikiDoc resets originalDocument, we need to temporarily put it
-            // back to send notifications.
-            XWikiDocument newOriginal = document.getOriginalDocument();
+        for (XWikiDocument document : chunk) {
+            afterStore(document, originalDocuments.get(document), context);
+        }
+    }
 
-            try {
-                document.setOriginalDocument(originalDocument);
+    private void saveDocument(XWikiDocument document, String comment, boolean isMinorEdit,
+        List<XWikiException> failures, XWikiContext context)
+    {
+        try {
+            saveDocument(document, comment, isMinorEdit, context);
+        } catch (XWikiException e) {
+            failures.add(e);
+        }
+    }
 
-                // Notify listeners about the document having been created or updated
+    /**
+     * The state of a document which is modified by the store while saving it, before the end of the transaction.
+     */
+    private static final class SavedDocumentState
+    {
+        private final XWikiDocument document;
 
-                // First the legacy notification mechanism
+        private final XWikiDocument originalDocument;
 
-                // Then the new observation module
-                // Note that for the moment the event being send is a bridge event, as we are still passing around
-                // an XWikiDocument as source and an XWikiContext as data.
-                // The old version is made available using doc.getOriginalDocument()
-                afterSave(document, context);
-            } catch (Exception ex) {
-                LOGGER.error("Failed to send document save notification for document [{}]",
-                    getDefaultEntityReferenceSerializer().serialize(document.getDocumentReference()), ex);
-            } finally {
-                document.setOriginalDocument(newOriginal);
+        private final boolean isNew;
+
+        private final Version version;
+
+        private final Date date;
+
+        private final Date contentUpdateDate;
+
+        private final Date creationDate;
+
+        private final UserReference contentAuthor;
+
+        private final boolean contentDirty;
+
+        private final boolean metadataDirty;
+
+        private final List<BaseObject> objectsToRemove;
+
+        SavedDocumentState(XWikiDocument document)
+        {
+            this.document = document;
+            this.originalDocument = document.getOriginalDocument();
+            this.isNew = document.isNew();
+            // A new "1.1" version is returned each time when the document doesn't have any version yet, and the store
+            // would increment it
+            Version currentVersion = document.getRCSVersion();
+            this.version = currentVersion == document.getRCSVersion() ? currentVersion : null;
+            this.date = document.getDate();
+            this.contentUpdateDate = document.getContentUpdateDate();
+            this.creationDate = document.getCreationDate();
+            this.contentAuthor = document.getAuthors().getContentAuthor();
+            this.contentDirty = document.isContentDirty();
+            this.metadataDirty = document.isMetaDataDirty();
+            this.objectsToRemove = new ArrayList<>(document.getXObjectsToRemove());
+        }
+
+        void restore()
+        {
+            this.document.setOriginalDocument(this.originalDocument);
+            this.document.setNew(this.isNew);
+            this.document.setRCSVersion(this.version);
+            this.document.setDate(this.date);
+            this.document.setContentUpdateDate(this.contentUpdateDate);
+            this.document.setCreationDate(this.creationDate);
+            this.document.getAuthors().setContentAuthor(this.contentAuthor);
+            this.document.setContentDirty(this.contentDirty);
+            this.document.setMetaDataDirty(this.metadataDirty);
+            this.document.setXObjectsToRemove(new ArrayList<>(this.objectsToRemove));
+            // The archive was updated with the version which has not been committed
+            this.document.setDocumentArchive((XWikiDocumentArchive) null);
+            // The dirty flags of the objects were reset while writing them, so all of them have to be written again
+            this.document.setChangeTracked(false);
+        }
+    }
+
+    /**
+     * Prepare the document to be saved and notify the listeners about the document about to be created or updated.
+     * 
+     * @return the document before the modifications
+     */
+    private XWikiDocument beforeStore(XWikiDocument document, String comment, boolean isMinorEdit,
+        XWikiContext context) throws XWikiException
+    {
+        // Remember the dirty flags statuses so that they can be restored if needed
+        boolean metadataDirty = document.isMetaDataDirty();
+        boolean contentDirty = document.isContentDirty();
+
+        // Make sure the document is ready to be saved
+        XWikiDocument originalDocument = prepareDocumentForSave(document, comment, isMinorEdit, context);
+
+        // Notify listeners about the document about to be created or updated
+
+        // Note that for the moment the event being send is a bridge event, as we are still passing around
+        // an XWikiDocument as source and an XWikiContext as data.
+        beforeSave(document, context);
+
+        // Delete existing document if we replace with a new one
+        if (document.isNew()) {
+            if (!originalDocument.isNew()) {
+                // We don't want to notify about this delete since from outside world point of view it's an update
+                // and not a delete+create
+                deleteDocument(originalDocument, true, false, context);
             }
+        } else {
+            // Put attachments to remove in recycle bin
+            if (hasAttachmentRecycleBin(context)) {
+                for (XWikiAttachmentToRemove attachment : document.getAttachmentsToRemove()) {
+                    if (attachment.isToRecycleBin()
+                        // Only store the attachment to the trash bin if it's not broken
+                        && attachment.getAttachment().contentExists(context)) {
+                        // Make sure the attachment will be stored with its history
+                        attachment.getAttachment().loadArchive(context);
+                        getAttachmentRecycleBinStore().saveToRecycleBin(attachment.getAttachment(),
+                            context.getUser(), new Date(), context, true);
+                    }
+                }
+            }
+        }
+
+        // Restore dirty flags #saveDocument was called with metadata dirty flag to false
+        if (!metadataDirty) {
+            document.setMetaDataDirty(metadataDirty);
+            document.setContentDirty(contentDirty);
+        }
+
+        return originalDocument;
+    }
+
+    /**
+     * Notify the listeners about the document having been created or updated.
+     */
+    private void afterStore(XWikiDocument document, XWikiDocument originalDocument, XWikiContext context)
+    {
+        // Since the store#saveXWikiDoc resets originalDocument, we need to temporarily put it
+        // back to send notifications.
+        XWikiDocument newOriginal = document.getOriginalDocument();
+
+        try {
+            document.setOriginalDocument(originalDocument);
+
+            // Notify listeners about the document having been created or updated
+
+            // First the legacy notification mechanism
+
+            // Then the new observation module
+            // Note that for the moment the event being send is a bridge event, as we are still passing around
+            // an XWikiDocument as source and an XWikiContext as data.
+            // The old version is made available using doc.getOriginalDocument()
+            afterSave(document, context);
+        } catch (Exception ex) {
+            LOGGER.error("Failed to send document save notification for document [{}]",
+                getDefaultEntityReferenceSerializer().serialize(document.getDocumentReference()), ex);
         } finally {
-            context.setWikiId(currentWiki);
+            document.setOriginalDocument(newOriginal);
         }
     }
 
@@ -223,6 +223,19 @@ public JobStatus getCurrentInitializerJobStatus()
         return jobStatus;
     }
 
+    /**
+     * @param wikiId the identifier of the wiki
+     * @return the status of the job initializing the passed wiki or {@code null} if its initialization did not start
+     *         yet
+     * @since 18.8.0RC1
+     */
+    public JobStatus getWikiInitializerJobStatus(String wikiId)
+    {
+        Job wikiJob = this.xwiki != null ? this.xwiki.getWikiInitializerJob(wikiId) : null;
+
+        return wikiJob != null ? wikiJob.getStatus() : null;
+    }
+
     /**
      * @return XWiki's version in the format <code>(version).(SVN build number)</code>, or "Unknown version" if it
      *         failed to be retrieved
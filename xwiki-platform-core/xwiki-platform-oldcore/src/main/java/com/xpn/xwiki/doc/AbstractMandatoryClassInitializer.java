@@ -80,6 +80,21 @@ public boolean updateDocument(XWikiDocument document)
         return needUpdate;
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A class initializer only updates the class of the document it targets so it's parallelizable by default.
+     * Subclasses extending {@link #updateDocument(XWikiDocument)} to rely on other mandatory documents should return
+     * false.
+     *
+     * @since 18.8.0RC1
+     */
+    @Override
+    public boolean isParallelizable()
+    {
+        return true;
+    }
+
     /**
      * @param xclass the class to create
      * @since 9.0RC1
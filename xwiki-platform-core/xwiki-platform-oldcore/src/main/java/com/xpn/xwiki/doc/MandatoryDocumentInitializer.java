@@ -60,4 +60,19 @@
      * @return true if the document has been modified, false otherwise
      */
     boolean updateDocument(XWikiDocument document);
+
+    /**
+     * Indicate if the initializer can be executed in parallel with the other initializers of the same priority.
+     * <p>
+     * An initializer is parallelizable when {@link #updateDocument(XWikiDocument)} only relies on the document it
+     * updates. An initializer which reads or updates other documents (for example to bind a sheet) should return
+     * false so that it's executed after the documents previously initialized have been saved.
+     *
+     * @return true if the initializer can be executed in parallel with other initializers, false otherwise
+     * @since 18.8.0RC1
+     */
+    default boolean isParallelizable()
+    {
+        return false;
+    }
 }
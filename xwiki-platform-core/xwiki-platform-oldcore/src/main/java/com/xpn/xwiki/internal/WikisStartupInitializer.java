@@ -0,0 +1,226 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentLifecycleException;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+import org.xwiki.wiki.manager.WikiManagerException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+
+/**
+ * Initialize all the sub wikis in the background once the main wiki is ready, instead of waiting for the first request
+ * targeting each of them.
+ * <p>
+ * The wikis are initialized on a bounded pool of threads, the most recently modified wikis first. A request targeting a
+ * wiki which is not initialized yet still starts its initialization right away, without waiting for its turn.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = WikisStartupInitializer.class)
+@Singleton
+public class WikisStartupInitializer implements Disposable
+{
+    /**
+     * The name of the xwiki.cfg property indicating if the wikis should be initialized at startup.
+     */
+    static final String ENABLED_PROPERTY = "xwiki.wikis.initialization.startup";
+
+    /**
+     * The name of the xwiki.cfg property indicating the number of wikis to initialize in parallel.
+     */
+    static final String THREADS_PROPERTY = "xwiki.wikis.initialization.threads";
+
+    private static final String LAST_MODIFICATION_STATEMENT = "select max(doc.date) from XWikiDocument doc";
+
+    @Inject
+    @Named(XWikiCfgConfigurationSource.ROLEHINT)
+    private ConfigurationSource configuration;
+
+    @Inject
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Logger logger;
+
+    private ExecutorService executor;
+
+    /**
+     * @return {@code true} if the wikis should be initialized in the background at startup
+     */
+    public boolean isEnabled()
+    {
+        return "1".equals(this.configuration.getProperty(ENABLED_PROPERTY, "0"));
+    }
+
+    /**
+     * Start the initialization of all the sub wikis in the background.
+     */
+    public synchronized void initializeWikis()
+    {
+        if (this.executor != null) {
+            return;
+        }
+
+        int threads = Math.max(1, this.configuration.getProperty(THREADS_PROPERTY, 2));
+        this.executor = Executors.newFixedThreadPool(threads, BasicThreadFactory.builder()
+            .namingPattern("XWiki wikis initialization thread %d").daemon(true).build());
+
+        // Ordering the wikis requires a query on each of them so it's done in the background too.
+        this.executor.execute(() -> runInWorkerContext(this::scheduleWikis));
+    }
+
+    private void scheduleWikis()
+    {
+        List<String> wikiIds = getWikisByLastModification();
+
+        this.logger.info("Initializing [{}] wikis in the background", wikiIds.size());
+
+        for (String wikiId : wikiIds) {
+            this.executor.execute(() -> runInWorkerContext(() -> initializeWiki(wikiId)));
+        }
+    }
+
+    private List<String> getWikisByLastModification()
+    {
+        Collection<String> wikiIds;
+        try {
+            wikiIds = this.wikiDescriptorManager.getAllIds();
+        } catch (WikiManagerException e) {
+            this.logger.error("Failed to get the list of wikis to initialize", e);
+
+            return Collections.emptyList();
+        }
+
+        String mainWikiId = this.wikiDescriptorManager.getMainWikiId();
+        Map<String, Date> lastModifications = new HashMap<>();
+        for (String wikiId : wikiIds) {
+            if (!wikiId.equals(mainWikiId)) {
+                lastModifications.put(wikiId, getLastModification(wikiId));
+            }
+        }
+
+        List<String> sortedWikiIds = new ArrayList<>(wikiIds);
+        sortedWikiIds.remove(mainWikiId);
+        sortedWikiIds
+            .sort(Comparator.comparing(lastModifications::get, Comparator.nullsLast(Comparator.reverseOrder())));
+
+        return sortedWikiIds;
+    }
+
+    private Date getLastModification(String wikiId)
+    {
+        try {
+            List<Date> results =
+                this.queryManager.createQuery(LAST_MODIFICATION_STATEMENT, Query.HQL).setWiki(wikiId).execute();
+
+            return results.isEmpty() ? null : results.get(0);
+        } catch (QueryException e) {
+            this.logger.warn("Failed to get the last modification date of wiki [{}]: {}", wikiId,
+                ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+    }
+
+    private void initializeWiki(String wikiId)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+
+        long start = System.currentTimeMillis();
+        try {
+            // Return right away if the wiki was already initialized because of a request
+            xcontext.getWiki().initializeWiki(wikiId, true, xcontext);
+
+            this.logger.debug("Initialized wiki [{}] in [{}] ms", wikiId, System.currentTimeMillis() - start);
+        } catch (XWikiException e) {
+            this.logger.error("Failed to initialize wiki [{}]", wikiId, e);
+        }
+    }
+
+    private void runInWorkerContext(Runnable runnable)
+    {
+        // The XWiki context of the listener thread cannot be shared between threads.
+        try {
+            this.executionContextManager.initialize(new ExecutionContext());
+        } catch (ExecutionContextException e) {
+            this.logger.error("Failed to initialize the execution context of the wikis initialization thread", e);
+
+            return;
+        }
+
+        try {
+            runnable.run();
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
+    @Override
+    public synchronized void dispose() throws ComponentLifecycleException
+    {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+    }
+}
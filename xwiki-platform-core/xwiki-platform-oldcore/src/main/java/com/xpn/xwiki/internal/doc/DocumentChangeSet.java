@@ -0,0 +1,226 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.ObjectReference;
+import org.xwiki.rendering.block.XDOM;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.BaseProperty;
+
+/**
+ * The changes made to a document by a save, computed lazily and only once so that they can be shared by all the
+ * components analyzing the save (see {@link DocumentChangeSetManager}).
+ * <p>
+ * The returned documents, objects and XDOMs are shared and must not be modified.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class DocumentChangeSet
+{
+    private final XWikiDocument previousDocument;
+
+    private final XWikiDocument document;
+
+    private XDOM previousXDOM;
+
+    private XDOM xdom;
+
+    private List<BaseObject> changedObjects;
+
+    private List<BaseObject> removedObjects;
+
+    private final Map<ObjectReference, Set<String>> changedProperties = new HashMap<>();
+
+    /**
+     * @param previousDocument the document before the save, {@code null} if the document was created
+     * @param document the document after the save
+     */
+    public DocumentChangeSet(XWikiDocument previousDocument, XWikiDocument document)
+    {
+        this.previousDocument = previousDocument;
+        this.document = document;
+    }
+
+    /**
+     * @return the document before the save, {@code null} or a new document if the document was created
+     */
+    public XWikiDocument getPreviousDocument()
+    {
+        return this.previousDocument;
+    }
+
+    /**
+     * @return the document after the save
+     */
+    public XWikiDocument getDocument()
+    {
+        return this.document;
+    }
+
+    /**
+     * @return {@code true} if the document was created by the save
+     */
+    public boolean isCreation()
+    {
+        return this.previousDocument == null || this.previousDocument.isNew();
+    }
+
+    /**
+     * @return {@code true} if the content or the syntax of the document was modified by the save
+     */
+    public boolean isContentChanged()
+    {
+        return this.previousDocument == null
+            || !Objects.equals(this.previousDocument.getContent(), this.document.getContent())
+            || !Objects.equals(this.previousDocument.getSyntax(), this.document.getSyntax());
+    }
+
+    /**
+     * @return the parsed content of the document before the save, {@code null} if there is no previous document
+     */
+    public synchronized XDOM getPreviousXDOM()
+    {
+        if (this.previousXDOM == null && this.previousDocument != null) {
+            this.previousXDOM = this.previousDocument.getXDOM();
+        }
+
+        return this.previousXDOM;
+    }
+
+    /**
+     * @return the parsed content of the document after the save
+     */
+    public synchronized XDOM getXDOM()
+    {
+        if (this.xdom == null) {
+            this.xdom = this.document.getXDOM();
+        }
+
+        return this.xdom;
+    }
+
+    /**
+     * @return the objects added or modified by the save
+     */
+    public synchronized List<BaseObject> getChangedObjects()
+    {
+        if (this.changedObjects == null) {
+            this.changedObjects = Collections.unmodifiableList(getChangedObjects(this.document, this.previousDocument,
+                true));
+        }
+
+        return this.changedObjects;
+    }
+
+    /**
+     * @return the objects of the previous document removed by the save
+     */
+    public synchronized List<BaseObject> getRemovedObjects()
+    {
+        if (this.removedObjects == null) {
+            this.removedObjects = this.previousDocument != null
+                ? Collections.unmodifiableList(getChangedObjects(this.previousDocument, this.document, false))
+                : List.of();
+        }
+
+        return this.removedObjects;
+    }
+
+    /**
+     * @param object an object of the document after the save
+     * @return the same object in the document before the save, {@code null} if the object was added by the save
+     */
+    public BaseObject getPreviousObject(BaseObject object)
+    {
+        return getObject(this.previousDocument, object);
+    }
+
+    /**
+     * @param object an object of the document after the save
+     * @return the names of the properties of the object added, modified or removed by the save, all the properties of
+     *         the object if it was added by the save
+     */
+    public synchronized Set<String> getChangedProperties(BaseObject object)
+    {
+        return this.changedProperties.computeIfAbsent(object.getReference(),
+            reference -> Collections.unmodifiableSet(computeChangedProperties(object, getPreviousObject(object))));
+    }
+
+    private List<BaseObject> getChangedObjects(XWikiDocument source, XWikiDocument other, boolean includeModified)
+    {
+        List<BaseObject> objects = new ArrayList<>();
+        for (List<BaseObject> classObjects : source.getXObjects().values()) {
+            for (BaseObject object : classObjects) {
+                if (object != null) {
+                    BaseObject otherObject = getObject(other, object);
+                    if (otherObject == null
+                        || (includeModified && !computeChangedProperties(object, otherObject).isEmpty())) {
+                        objects.add(object);
+                    }
+                }
+            }
+        }
+
+        return objects;
+    }
+
+    private static BaseObject getObject(XWikiDocument document, BaseObject object)
+    {
+        if (document == null) {
+            return null;
+        }
+
+        DocumentReference classReference = object.getXClassReference();
+        List<BaseObject> objects = document.getXObjects().get(classReference);
+
+        return objects != null && objects.size() > object.getNumber() ? objects.get(object.getNumber()) : null;
+    }
+
+    private static Set<String> computeChangedProperties(BaseObject object, BaseObject previousObject)
+    {
+        Set<String> properties = new LinkedHashSet<>(object.getPropertyList());
+        if (previousObject != null) {
+            properties.addAll(previousObject.getPropertyList());
+            properties.removeIf(name -> Objects.equals(getValue(object, name), getValue(previousObject, name)));
+        }
+
+        return properties;
+    }
+
+    private static Object getValue(BaseObject object, String name)
+    {
+        Object property = object.safeget(name);
+
+        return property instanceof BaseProperty<?> baseProperty ? baseProperty.getValue() : null;
+    }
+}
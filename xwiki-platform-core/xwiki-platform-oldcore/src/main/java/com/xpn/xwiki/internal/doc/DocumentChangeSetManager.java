@@ -0,0 +1,118 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.collections4.map.LRUMap;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Share the {@link DocumentChangeSet} of a save between all the components analyzing it in the execution context of
+ * the save (e.g. the listeners of the save events) so that the changes are computed and the content parsed only once
+ * per save.
+ * <p>
+ * The change sets are stored in the current {@link ExecutionContext} so that they are forgotten with it and are not
+ * shared between threads. A component analyzing the save in another execution context (e.g. an asynchronous task
+ * loading the saved version) gets its own change set.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = DocumentChangeSetManager.class)
+@Singleton
+public class DocumentChangeSetManager
+{
+    /**
+     * The number of change sets to remember in an execution context, the analyzers of a save are executed right after
+     * it so there is no need to keep the change sets of the previous saves (e.g. when importing many documents).
+     */
+    private static final int CAPACITY = 10;
+
+    private static final String CONTEXT_KEY = DocumentChangeSetManager.class.getName();
+
+    private static final char SEPARATOR = '\u0000';
+
+    @Inject
+    private Execution execution;
+
+    /**
+     * @param document the saved document, as provided by the save events
+     * @return the changes made by the save, compared to {@link XWikiDocument#getOriginalDocument()}
+     */
+    public DocumentChangeSet getChangeSet(XWikiDocument document)
+    {
+        return getChangeSet(document.getOriginalDocument(), document);
+    }
+
+    /**
+     * @param previousDocument the document before the save, {@code null} if the document was created
+     * @param document the document after the save
+     * @return the changes made by the save
+     */
+    public DocumentChangeSet getChangeSet(XWikiDocument previousDocument, XWikiDocument document)
+    {
+        Map<String, DocumentChangeSet> changeSets = getChangeSets();
+        if (changeSets == null) {
+            return new DocumentChangeSet(previousDocument, document);
+        }
+
+        String key = getKey(document);
+        DocumentChangeSet changeSet = changeSets.get(key);
+        // The same version can be saved several times (e.g. when the document is not marked as dirty) so the change
+        // set is only shared by the analyzers working on the same document instances.
+        if (changeSet == null || changeSet.getDocument() != document
+            || changeSet.getPreviousDocument() != previousDocument) {
+            changeSet = new DocumentChangeSet(previousDocument, document);
+            changeSets.put(key, changeSet);
+        }
+
+        return changeSet;
+    }
+
+    private Map<String, DocumentChangeSet> getChangeSets()
+    {
+        ExecutionContext econtext = this.execution.getContext();
+        if (econtext == null) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, DocumentChangeSet> changeSets = (Map<String, DocumentChangeSet>) econtext.getProperty(CONTEXT_KEY);
+        if (changeSets == null) {
+            changeSets = new LRUMap<>(CAPACITY);
+            econtext.setProperty(CONTEXT_KEY, changeSets);
+        }
+
+        return changeSets;
+    }
+
+    private String getKey(XWikiDocument document)
+    {
+        return document.getDocumentReferenceWithLocale().toString() + SEPARATOR + document.getVersion();
+    }
+}
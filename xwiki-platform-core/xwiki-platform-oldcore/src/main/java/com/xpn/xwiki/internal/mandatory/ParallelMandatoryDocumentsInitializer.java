@@ -0,0 +1,299 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.mandatory;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.job.event.status.JobProgressManager;
+import org.xwiki.localization.ContextualLocalizationManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.MandatoryDocumentInitializer;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+/**
+ * Initialize the mandatory documents of the current wiki using several threads.
+ * <p>
+ * The initializers are grouped by priority: the groups are executed one after the other in the order of their
+ * priority. Inside a group, the documents for which all the initializers are
+ * {@link MandatoryDocumentInitializer#isParallelizable() parallelizable} are loaded and updated in parallel and then
+ * saved from the calling thread. The other documents of the group are then loaded, updated and saved one after the
+ * other from the calling thread, before moving to the next group. The initializers targeting the same document are
+ * always executed one after the other on the same document instance.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = ParallelMandatoryDocumentsInitializer.class)
+@Singleton
+public class ParallelMandatoryDocumentsInitializer
+{
+    /**
+     * The initializers taking more than this time (in milliseconds) are logged with the INFO level.
+     */
+    private static final long SLOW_INITIALIZER_THRESHOLD = 1000;
+
+    private static final String SAVE_MESSAGE_KEY = "core.model.xclass.mandatoryUpdateProperty.versionSummary";
+
+    /**
+     * The result of the initialization of a document.
+     *
+     * @version $Id$
+     */
+    private static final class InitializedDocument
+    {
+        private final XWikiDocument document;
+
+        private final boolean modified;
+
+        InitializedDocument(XWikiDocument document, boolean modified)
+        {
+            this.document = document;
+            this.modified = modified;
+        }
+    }
+
+    @Inject
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @Inject
+    @Named("current")
+    private DocumentReferenceResolver<EntityReference> currentReferenceResolver;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private ContextualLocalizationManager localization;
+
+    @Inject
+    private JobProgressManager progressManager;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Initialize the mandatory documents of the current wiki.
+     *
+     * @param threads the maximum number of threads to use
+     * @throws ComponentLookupException when failing to lookup the mandatory document initializers
+     */
+    public void initialize(int threads) throws ComponentLookupException
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        String wikiId = xcontext.getWikiId();
+
+        SortedMap<Integer, Map<DocumentReference, List<MandatoryDocumentInitializer>>> groups = getGroups(wikiId);
+
+        this.progressManager.pushLevelProgress(groups.size(), this);
+
+        long start = System.currentTimeMillis();
+        int savedDocuments = 0;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, BasicThreadFactory.builder()
+            .namingPattern("XWiki mandatory documents initialization thread %d").daemon(true).build());
+        try {
+            for (Map<DocumentReference, List<MandatoryDocumentInitializer>> group : groups.values()) {
+                this.progressManager.startStep(this);
+
+                savedDocuments += initialize(group, executor, xcontext);
+
+                this.progressManager.endStep(this);
+            }
+        } catch (InterruptedException e) {
+            this.logger.warn("Interrupted while initializing the mandatory documents of wiki [{}]", wikiId);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            this.progressManager.popLevelProgress(this);
+        }
+
+        this.logger.info("Initialized the mandatory documents of wiki [{}] in [{}] ms ([{}] documents saved)", wikiId,
+            System.currentTimeMillis() - start, savedDocuments);
+    }
+
+    private SortedMap<Integer, Map<DocumentReference, List<MandatoryDocumentInitializer>>> getGroups(String wikiId)
+        throws ComponentLookupException
+    {
+        ComponentManager componentManager = this.componentManagerProvider.get();
+
+        SortedMap<Integer, Map<DocumentReference, List<MandatoryDocumentInitializer>>> groups = new TreeMap<>();
+        for (ComponentDescriptor<MandatoryDocumentInitializer> descriptor : componentManager
+            .<MandatoryDocumentInitializer>getComponentDescriptorList((Type) MandatoryDocumentInitializer.class)) {
+            MandatoryDocumentInitializer initializer =
+                componentManager.getInstance(MandatoryDocumentInitializer.class, descriptor.getRoleHint());
+            DocumentReference documentReference =
+                this.currentReferenceResolver.resolve(initializer.getDocumentReference());
+
+            // Skip the initializers associated with another wiki.
+            if (documentReference.getWikiReference().getName().equals(wikiId)) {
+                groups.computeIfAbsent(descriptor.getRoleTypePriority(), priority -> new LinkedHashMap<>())
+                    .computeIfAbsent(documentReference, reference -> new ArrayList<>()).add(initializer);
+            }
+        }
+
+        return groups;
+    }
+
+    private int initialize(Map<DocumentReference, List<MandatoryDocumentInitializer>> group, ExecutorService executor,
+        XWikiContext xcontext) throws InterruptedException
+    {
+        String wikiId = xcontext.getWikiId();
+        DocumentReference userReference = xcontext.getUserReference();
+
+        // Load and update in parallel the documents for which all the initializers are parallelizable.
+        Map<DocumentReference, Future<InitializedDocument>> results = new LinkedHashMap<>();
+        Map<DocumentReference, List<MandatoryDocumentInitializer>> sequentialDocuments = new LinkedHashMap<>();
+        for (Map.Entry<DocumentReference, List<MandatoryDocumentInitializer>> entry : group.entrySet()) {
+            if (entry.getValue().stream().allMatch(MandatoryDocumentInitializer::isParallelizable)) {
+                results.put(entry.getKey(), executor
+                    .submit(() -> initializeInWorkerContext(entry.getKey(), entry.getValue(), wikiId, userReference)));
+            } else {
+                sequentialDocuments.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        // Save the modified documents from the calling thread.
+        int savedDocuments = 0;
+        for (Map.Entry<DocumentReference, Future<InitializedDocument>> entry : results.entrySet()) {
+            try {
+                savedDocuments += save(entry.getValue().get(), xcontext);
+            } catch (ExecutionException | XWikiException e) {
+                this.logger.error("Failed to initialize mandatory document [{}]", entry.getKey(), e);
+            }
+        }
+
+        // Initialize the other documents one after the other from the calling thread, so that each one can rely on
+        // the documents initialized before it.
+        for (Map.Entry<DocumentReference, List<MandatoryDocumentInitializer>> entry : sequentialDocuments.entrySet()) {
+            try {
+                savedDocuments += save(initialize(entry.getKey(), entry.getValue(), xcontext), xcontext);
+            } catch (XWikiException e) {
+                this.logger.error("Failed to initialize mandatory document [{}]", entry.getKey(), e);
+            }
+        }
+
+        return savedDocuments;
+    }
+
+    private int save(InitializedDocument result, XWikiContext xcontext) throws XWikiException
+    {
+        if (result != null && result.modified) {
+            xcontext.getWiki().saveDocument(result.document,
+                Objects.toString(this.localization.getTranslationPlain(SAVE_MESSAGE_KEY), SAVE_MESSAGE_KEY), xcontext);
+
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private InitializedDocument initializeInWorkerContext(DocumentReference documentReference,
+        List<MandatoryDocumentInitializer> initializers, String wikiId, DocumentReference userReference)
+        throws ExecutionContextException, XWikiException
+    {
+        // The XWiki context of the calling thread cannot be shared between threads.
+        this.executionContextManager.initialize(new ExecutionContext());
+        try {
+            XWikiContext xcontext = this.xcontextProvider.get();
+            xcontext.setWikiId(wikiId);
+            xcontext.setUserReference(userReference);
+
+            return initialize(documentReference, initializers, xcontext);
+        } finally {
+            this.execution.removeContext();
+        }
+    }
+
+    private InitializedDocument initialize(DocumentReference documentReference,
+        List<MandatoryDocumentInitializer> initializers, XWikiContext xcontext) throws XWikiException
+    {
+        long start = System.currentTimeMillis();
+
+        // Avoid modifying the cached document
+        XWikiDocument document = xcontext.getWiki().getDocument(documentReference, xcontext).clone();
+
+        logDuration(start, "Loaded mandatory document [{}] in [{}] ms", documentReference);
+
+        boolean modified = false;
+        for (MandatoryDocumentInitializer initializer : initializers) {
+            long initializerStart = System.currentTimeMillis();
+            try {
+                modified |= initializer.updateDocument(document);
+            } catch (Exception e) {
+                this.logger.error("Failed to initialize mandatory document [{}] with [{}]", documentReference,
+                    initializer.getClass().getName(), e);
+            }
+            logDuration(initializerStart, "Executed mandatory document initializer [{}] on document [{}] in [{}] ms",
+                initializer.getClass().getName(), documentReference);
+        }
+
+        return new InitializedDocument(document, modified);
+    }
+
+    private void logDuration(long start, String message, Object... arguments)
+    {
+        long duration = System.currentTimeMillis() - start;
+        Object[] parameters = ArrayUtils.add(arguments, duration);
+        if (duration >= SLOW_INITIALIZER_THRESHOLD) {
+            this.logger.info(message, parameters);
+        } else {
+            this.logger.debug(message, parameters);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.profile;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the JMXRequestProfileStatistics MBean, aggregating the profiles of the last requests of each
+ * action.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class JMXRequestProfileStatistics implements JMXRequestProfileStatisticsMBean
+{
+    /**
+     * The category of the request duration.
+     */
+    static final String REQUEST = "request";
+
+    /**
+     * The number of requests per action taken into account to compute the percentiles.
+     */
+    private static final int SAMPLES_SIZE = 1000;
+
+    /**
+     * The maximum number of categories kept per action.
+     */
+    private static final int MAX_CATEGORIES = 200;
+
+    /**
+     * The last values recorded for a category.
+     *
+     * @version $Id$
+     */
+    private static final class Samples
+    {
+        private final long[] values = new long[SAMPLES_SIZE];
+
+        private long count;
+
+        synchronized void add(long value)
+        {
+            this.values[(int) (this.count % SAMPLES_SIZE)] = value;
+            this.count++;
+        }
+
+        synchronized String getPercentiles()
+        {
+            long[] sorted = Arrays.copyOf(this.values, (int) Math.min(this.count, SAMPLES_SIZE));
+            Arrays.sort(sorted);
+
+            return String.format("count=%d, p50=%dms, p90=%dms, p99=%dms, max=%dms", this.count,
+                getPercentile(sorted, 50), getPercentile(sorted, 90), getPercentile(sorted, 99),
+                getPercentile(sorted, 100));
+        }
+
+        private static long getPercentile(long[] sorted, int percentile)
+        {
+            if (sorted.length == 0) {
+                return 0;
+            }
+
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+
+            return sorted[Math.max(index, 0)];
+        }
+    }
+
+    private final Map<String, Map<String, Samples>> actions = new ConcurrentHashMap<>();
+
+    void add(String action, RequestProfile profile)
+    {
+        Map<String, Samples> categories = this.actions.computeIfAbsent(action, key -> new ConcurrentHashMap<>());
+
+        add(categories, REQUEST, profile.getDuration());
+        for (Map.Entry<String, RequestProfile.Entry> entry : profile.getEntries().entrySet()) {
+            add(categories, entry.getKey(), entry.getValue().getTime());
+        }
+    }
+
+    private void add(Map<String, Samples> categories, String category, long value)
+    {
+        Samples samples = categories.get(category);
+        if (samples == null) {
+            // Protect against an unbounded number of categories (e.g. when a lot of different macros are used)
+            if (categories.size() >= MAX_CATEGORIES) {
+                return;
+            }
+            samples = categories.computeIfAbsent(category, key -> new Samples());
+        }
+
+        samples.add(value);
+    }
+
+    @Override
+    public Set<String> getActions()
+    {
+        return new TreeSet<>(this.actions.keySet());
+    }
+
+    @Override
+    public Map<String, String> getPercentiles(String action)
+    {
+        Map<String, Samples> categories = this.actions.get(action);
+
+        if (categories == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, String> percentiles = new TreeMap<>();
+        categories.forEach((category, samples) -> percentiles.put(category, samples.getPercentiles()));
+
+        return percentiles;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.profile;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Interface of the {@link JMXRequestProfileStatistics} MBean.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public interface JMXRequestProfileStatisticsMBean
+{
+    /**
+     * @return the actions for which requests were profiled
+     */
+    Set<String> getActions();
+
+    /**
+     * @param action the action
+     * @return the percentiles of the request duration and of the time spent in each category of operation for the last
+     *         requests of the passed action, indexed by category (the request duration being indexed by
+     *         {@code "request"})
+     */
+    Map<String, String> getPercentiles(String action);
+}
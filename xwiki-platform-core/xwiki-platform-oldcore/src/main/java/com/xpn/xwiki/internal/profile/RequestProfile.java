@@ -0,0 +1,136 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.profile;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The time spent and the number of operations executed by a request, per category of operation.
+ * <p>
+ * The operations can be nested (e.g. a database statement executed from a macro executed from a template), so the time
+ * of a category is not part of the time of the others, and the sum of the categories can exceed the request duration.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class RequestProfile
+{
+    /**
+     * The database statements.
+     */
+    public static final String DATABASE = "database";
+
+    /**
+     * The documents loaded from the document cache.
+     */
+    public static final String DOCUMENT_CACHE_HIT = "document.cache.hit";
+
+    /**
+     * The documents which had to be loaded from the database.
+     */
+    public static final String DOCUMENT_CACHE_MISS = "document.cache.miss";
+
+    /**
+     * The rights checks.
+     */
+    public static final String RIGHTS = "rights";
+
+    /**
+     * The prefix of the macro executions category, followed by the macro id.
+     */
+    public static final String MACRO_PREFIX = "macro.";
+
+    /**
+     * The Velocity template evaluations.
+     */
+    public static final String TEMPLATE = "template";
+
+    /**
+     * The Solr queries.
+     */
+    public static final String SOLR = "solr";
+
+    /**
+     * The time spent and number of operations executed for a category of operation.
+     *
+     * @version $Id$
+     */
+    public static final class Entry
+    {
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder time = new LongAdder();
+
+        /**
+         * @return the number of operations
+         */
+        public long getCount()
+        {
+            return this.count.sum();
+        }
+
+        /**
+         * @return the time (in milliseconds) spent executing the operations
+         */
+        public long getTime()
+        {
+            return TimeUnit.NANOSECONDS.toMillis(this.time.sum());
+        }
+    }
+
+    private final long start = System.nanoTime();
+
+    // Concurrent since the execution context of the request can be shared with other threads
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Record an operation.
+     *
+     * @param category the category of the operation
+     * @param duration the duration of the operation, in nanoseconds
+     */
+    public void record(String category, long duration)
+    {
+        Entry entry = this.entries.computeIfAbsent(category, key -> new Entry());
+        entry.count.increment();
+        entry.time.add(duration);
+    }
+
+    /**
+     * @return the recorded operations, indexed by category
+     */
+    public SortedMap<String, Entry> getEntries()
+    {
+        return new TreeMap<>(this.entries);
+    }
+
+    /**
+     * @return the time (in milliseconds) elapsed since the beginning of the request
+     */
+    public long getDuration()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.start);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.profile;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.management.JMXBeanRegistration;
+
+/**
+ * Aggregate the profiles of the requests per action and expose the resulting percentiles through JMX.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = RequestProfileStatistics.class)
+@Singleton
+public class RequestProfileStatistics implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "name=requestProfiles";
+
+    /**
+     * The weight of the last request in the average duration of the recent requests.
+     */
+    private static final double RECENT_REQUEST_WEIGHT = 0.1;
+
+    /**
+     * The recent requests are forgotten after this time (in milliseconds) without any request.
+     */
+    private static final long RECENT_REQUEST_TIMEOUT = 60000;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    private final JMXRequestProfileStatistics statistics = new JMXRequestProfileStatistics();
+
+    private double recentRequestDuration;
+
+    private long lastRequestTime;
+
+    @Override
+    public void initialize()
+    {
+        this.jmxRegistration.registerMBean(this.statistics, MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+    }
+
+    /**
+     * @param action the action of the request
+     * @param profile the profile of the request
+     */
+    public void add(String action, RequestProfile profile)
+    {
+        this.statistics.add(action, profile);
+
+        addRecentRequest(profile.getDuration());
+    }
+
+    private synchronized void addRecentRequest(long duration)
+    {
+        long now = System.currentTimeMillis();
+        if (now - this.lastRequestTime > RECENT_REQUEST_TIMEOUT) {
+            this.recentRequestDuration = duration;
+        } else {
+            this.recentRequestDuration += RECENT_REQUEST_WEIGHT * (duration - this.recentRequestDuration);
+        }
+        this.lastRequestTime = now;
+    }
+
+    /**
+     * @return the average duration (in milliseconds) of the recent requests, giving more weight to the last ones, or 0
+     *         if no request was handled in the last minute
+     */
+    public synchronized long getRecentRequestDuration()
+    {
+        if (System.currentTimeMillis() - this.lastRequestTime > RECENT_REQUEST_TIMEOUT) {
+            return 0;
+        }
+
+        return Math.round(this.recentRequestDuration);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.profile;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+
+/**
+ * Manipulate the {@link RequestProfile} attached to the current execution context.
+ * <p>
+ * The operations executed outside of a profiled request (e.g. by background threads) are not recorded.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = RequestProfiler.class)
+@Singleton
+public class RequestProfiler
+{
+    private static final String CONTEXT_PROFILE = "profile";
+
+    @Inject
+    private Execution execution;
+
+    /**
+     * Attach a new profile to the current execution context.
+     *
+     * @return the new profile, or {@code null} if there is no execution context
+     */
+    public RequestProfile start()
+    {
+        ExecutionContext context = this.execution.getContext();
+
+        if (context == null) {
+            return null;
+        }
+
+        RequestProfile profile = new RequestProfile();
+        context.setProperty(CONTEXT_PROFILE, profile);
+
+        return profile;
+    }
+
+    /**
+     * Detach the profile from the current execution context.
+     *
+     * @return the profile of the current request, or {@code null} if it's not profiled
+     */
+    public RequestProfile stop()
+    {
+        ExecutionContext context = this.execution.getContext();
+
+        if (context == null) {
+            return null;
+        }
+
+        RequestProfile profile = (RequestProfile) context.getProperty(CONTEXT_PROFILE);
+        context.removeProperty(CONTEXT_PROFILE);
+
+        return profile;
+    }
+
+    /**
+     * @return the profile of the current request, or {@code null} if it's not profiled
+     */
+    public RequestProfile getProfile()
+    {
+        ExecutionContext context = this.execution.getContext();
+
+        return context != null ? (RequestProfile) context.getProperty(CONTEXT_PROFILE) : null;
+    }
+
+    /**
+     * Record an operation in the profile of the current request, if any.
+     *
+     * @param category the category of the operation (see the constants of {@link RequestProfile})
+     * @param duration the duration of the operation, in nanoseconds
+     */
+    public void record(String category, long duration)
+    {
+        RequestProfile profile = getProfile();
+
+        if (profile != null) {
+            profile.record(category, duration);
+        }
+    }
+}
@@ -28,8 +28,12 @@
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.job.event.status.JobProgress;
 import org.xwiki.script.service.ScriptService;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.internal.debug.DebugConfiguration;
+import com.xpn.xwiki.internal.profile.RequestProfile;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 import com.xpn.xwiki.web.XWikiAction;
 
 /**
@@ -49,6 +53,12 @@ public class DebugInternalScriptService implements ScriptService
     @Inject
     private DebugConfiguration debugConfiguration;
 
+    @Inject
+    private RequestProfiler requestProfiler;
+
+    @Inject
+    private ContextualAuthorizationManager authorization;
+
     /**
      * @return is debug enabled in the current execution context
      */
@@ -79,4 +89,18 @@ public boolean isMinify()
     {
         return this.debugConfiguration.isMinify();
     }
+
+    /**
+     * @return the profile of the current request (database, cache, rights, macros, templates, search), or
+     *         {@code null} if the request is not profiled or the current user is not a wiki administrator
+     * @since 18.8.0RC1
+     */
+    public RequestProfile getRequestProfile()
+    {
+        if (this.authorization.hasAccess(Right.ADMIN)) {
+            return this.requestProfiler.getProfile();
+        }
+
+        return null;
+    }
 }
@@ -0,0 +1,104 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Implementation of the JMXStatsStore MBean, exposing the state of the statistics write-behind store.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class JMXStatsStore implements JMXStatsStoreMBean
+{
+    private final LongSupplier pendingSize;
+
+    private final AtomicLong flushCount = new AtomicLong();
+
+    private final AtomicLong storedCount = new AtomicLong();
+
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile long lastFlushDate;
+
+    private volatile long lastFlushDuration;
+
+    /**
+     * @param pendingSize the supplier of the number of statistics waiting to be stored
+     */
+    public JMXStatsStore(LongSupplier pendingSize)
+    {
+        this.pendingSize = pendingSize;
+    }
+
+    /**
+     * Remember that the pending statistics were stored.
+     *
+     * @param date the date when the storing started
+     * @param stored the number of statistics entries stored
+     * @param failed the number of statistics entries which failed to be stored
+     */
+    public void onFlush(long date, long stored, long failed)
+    {
+        this.flushCount.incrementAndGet();
+        this.storedCount.addAndGet(stored);
+        this.failedCount.addAndGet(failed);
+        this.lastFlushDate = date;
+        this.lastFlushDuration = System.currentTimeMillis() - date;
+    }
+
+    @Override
+    public long getPendingSize()
+    {
+        return this.pendingSize.getAsLong();
+    }
+
+    @Override
+    public long getFlushCount()
+    {
+        return this.flushCount.get();
+    }
+
+    @Override
+    public long getStoredCount()
+    {
+        return this.storedCount.get();
+    }
+
+    @Override
+    public long getFailedCount()
+    {
+        return this.failedCount.get();
+    }
+
+    @Override
+    public long getLastFlushDate()
+    {
+        return this.lastFlushDate;
+    }
+
+    @Override
+    public long getLastFlushDuration()
+    {
+        return this.lastFlushDuration;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.stats;
+
+/**
+ * Interface of the {@link JMXStatsStore} MBean.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public interface JMXStatsStoreMBean
+{
+    /**
+     * @return the number of statistics waiting to be stored
+     */
+    long getPendingSize();
+
+    /**
+     * @return the number of times the pending statistics were stored
+     */
+    long getFlushCount();
+
+    /**
+     * @return the total number of statistics entries stored
+     */
+    long getStoredCount();
+
+    /**
+     * @return the number of statistics entries which failed to be stored
+     */
+    long getFailedCount();
+
+    /**
+     * @return the date (in milliseconds since the epoch) of the last time the pending statistics were stored
+     */
+    long getLastFlushDate();
+
+    /**
+     * @return the time (in milliseconds) it took to store the pending statistics the last time
+     */
+    long getLastFlushDuration();
+}
@@ -151,6 +151,15 @@ public List<String> getMigrationDatabases()
         return getList("xwiki.store.migration.databases");
     }
 
+    /**
+     * @return the number of wiki databases migrated at the same time
+     * @since 18.8.0RC1
+     */
+    public int getMigrationThreads()
+    {
+        return this.xwikiConfiguration.getProperty("xwiki.store.migration.threads", 1);
+    }
+
     /**
      * @return the migration version
      */
@@ -192,4 +201,45 @@ public Optional<Set<EntityReference>> getOptimizedXObjectClasses()
                 references.stream().map(r -> this.resolver.resolve(r, EntityType.DOCUMENT)).collect(Collectors.toSet()))
             : Optional.empty();
     }
+
+    /**
+     * @return the duration (in milliseconds) above which a database statement is logged and kept as a slow statement,
+     *         0 or less to disable it
+     * @since 18.8.0RC1
+     */
+    public long getSlowStatementThreshold()
+    {
+        return this.xwikiConfiguration.getProperty("xwiki.store.hibernate.monitor.slowStatementThreshold", 1000L);
+    }
+
+    /**
+     * @return the time (in milliseconds) spent waiting for a database connection above which a warning is logged, 0 or
+     *         less to disable it
+     * @since 18.8.0RC1
+     */
+    public long getConnectionWaitThreshold()
+    {
+        return this.xwikiConfiguration.getProperty("xwiki.store.hibernate.monitor.connectionWaitThreshold", 1000L);
+    }
+
+    /**
+     * @return the cumulated time (in milliseconds) a request can hold Hibernate sessions before a warning is logged, 0
+     *         or less to disable it
+     * @since 18.8.0RC1
+     */
+    public long getRequestSessionTimeThreshold()
+    {
+        return this.xwikiConfiguration.getProperty("xwiki.store.hibernate.monitor.requestSessionTimeThreshold",
+            10000L);
+    }
+
+    /**
+     * @return the number of database statements a request can execute before a warning is logged, 0 or less to disable
+     *         it
+     * @since 18.8.0RC1
+     */
+    public int getRequestStatementsThreshold()
+    {
+        return this.xwikiConfiguration.getProperty("xwiki.store.hibernate.monitor.requestStatementsThreshold", 1000);
+    }
 }
@@ -30,6 +30,7 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +45,7 @@
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.hibernate.FlushMode;
@@ -64,11 +66,12 @@
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
 import org.hibernate.engine.jdbc.connections.spi.JdbcConnectionAccess;
 import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
 import org.hibernate.engine.jdbc.spi.JdbcServices;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.engine.spi.SessionImplementor;
-import org.hibernate.jdbc.Work;
 import org.hibernate.mapping.Column;
 import org.hibernate.mapping.KeyValue;
 import org.hibernate.mapping.PersistentClass;
@@ -95,6 +98,8 @@
 
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.internal.store.hibernate.legacy.LegacySessionImplementor;
+import com.xpn.xwiki.internal.store.hibernate.monitor.HibernateMonitor;
+import com.xpn.xwiki.store.DBCPConnectionProvider;
 import com.xpn.xwiki.store.DatabaseProduct;
 import com.xpn.xwiki.store.XWikiHibernateBaseStore;
 import com.xpn.xwiki.store.migration.DataMigrationManager;
@@ -115,6 +120,11 @@ public class HibernateStore implements Disposable, Initializable
 
     private static final String CONTEXT_TRANSACTION = "hibtransaction";
 
+    /**
+     * The maximum number of custom mappings for which the metadata is kept.
+     */
+    private static final int CUSTOM_MAPPING_METADATA_CACHE_SIZE = 100;
+
     /**
      * The name of the property for configuring the environment permanent directory.
      */
@@ -125,6 +135,16 @@ public class HibernateStore implements Disposable, Initializable
      */
     private static final String PROPERTY_TIMEZONE_VARIABLE = "${timezone}";
 
+    /**
+     * The sources parsed from the mapping of a custom mapped class, with the metadata built from them without any
+     * wiki.
+     *
+     * @version $Id$
+     */
+    private record CustomMappingMetadata(MetadataSources sources, Metadata metadata)
+    {
+    }
+
     @Inject
     private Logger logger;
 
@@ -153,6 +173,9 @@ public class HibernateStore implements Disposable, Initializable
     @Inject
     private WikiDescriptorManager wikis;
 
+    @Inject
+    private HibernateMonitor monitor;
+
     @Inject
     private Provider<HibernateAdapter> defaultHibernateAdapterProvider;
 
@@ -180,6 +203,13 @@ public class HibernateStore implements Disposable, Initializable
 
     private ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
 
+    /**
+     * The metadata built for the custom mapped classes, indexed by mapping. The number of entries is limited since a
+     * new entry is added each time the mapping of a class is modified.
+     */
+    private final Map<String, CustomMappingMetadata> customMappingMetadata =
+        Collections.synchronizedMap(new LRUMap<>(CUSTOM_MAPPING_METADATA_CACHE_SIZE));
+
     private URL configurationURL;
 
     private DataMigrationManager getDataMigrationManager()
@@ -375,6 +405,8 @@ public void build()
     public void dispose() throws ComponentLifecycleException
     {
         disposeSessionFactory();
+
+        this.customMappingMetadata.clear();
     }
 
     /**
@@ -513,17 +545,47 @@ public void setWiki(MetadataBuilder builder, String wikiId)
      */
     public Metadata getMetadata(String className, String customMapping, String wikiId)
     {
-        MetadataSources builder = new MetadataSources();
+        String mapping = makeMapping(className, customMapping);
 
-        builder.addInputStream(
-            new ByteArrayInputStream(makeMapping(className, customMapping).getBytes(StandardCharsets.UTF_8)));
+        // The parsed mapping does not depend on the wiki so it's shared by all the wikis using the same mapping. A
+        // modified class has a different mapping so it's parsed again on its next use.
+        CustomMappingMetadata cachedMetadata = this.customMappingMetadata.get(mapping);
+        if (cachedMetadata == null) {
+            MetadataSources sources = new MetadataSources();
+            sources.addInputStream(new ByteArrayInputStream(mapping.getBytes(StandardCharsets.UTF_8)));
 
-        MetadataBuilder metadataBuilder = builder.getMetadataBuilder();
+            cachedMetadata = new CustomMappingMetadata(sources, sources.getMetadataBuilder().build());
+            this.customMappingMetadata.put(mapping, cachedMetadata);
+        }
 
-        if (wikiId != null) {
-            setWiki(metadataBuilder, wikiId);
+        if (wikiId == null) {
+            return cachedMetadata.metadata();
         }
 
+        // The metadata associated with a wiki depends on its database
+        MetadataBuilder metadataBuilder = cachedMetadata.sources().getMetadataBuilder();
+        setWiki(metadataBuilder, wikiId);
+
+        return metadataBuilder.build();
+    }
+
+    /**
+     * Build the metadata of a mapping which is not part of the Hibernate configuration, for example because its
+     * entities are only stored in some of the wikis.
+     *
+     * @param mapping the location of the Hibernate mapping file
+     * @param wikiId the identifier of the wiki in which the entities of the mapping are stored
+     * @return the metadata of the passed mapping, associated with the passed wiki
+     * @since 18.8.0RC1
+     */
+    public Metadata getMetadata(URL mapping, String wikiId)
+    {
+        MetadataSources sources = new MetadataSources(this.standardRegistry);
+        sources.addURL(mapping);
+
+        MetadataBuilder metadataBuilder = sources.getMetadataBuilder();
+        setWiki(metadataBuilder, wikiId);
+
         return metadataBuilder.build();
     }
 
@@ -596,6 +658,20 @@ public void setWiki(Session session) throws XWikiException
      * @throws XWikiException when failing to switch wiki
      */
     public void setWiki(Session session, String wikiId) throws XWikiException
+    {
+        setWiki(session, wikiId, false);
+    }
+
+    /**
+     * Set the passed wiki in the passed session.
+     *
+     * @param session the Hibernate session
+     * @param wikiId the id of the wiki to switch to
+     * @param newTransaction {@code true} if the transaction of the session was just started and nothing happened in it
+     *            yet
+     * @throws XWikiException when failing to switch wiki
+     */
+    private void setWiki(Session session, String wikiId, boolean newTransaction) throws XWikiException
     {
         try {
             this.logger.debug("Set the right catalog in the session [{}]", wikiId);
@@ -607,18 +683,24 @@ public void setWiki(Session session, String wikiId) throws XWikiException
 
                 DatabaseProduct product = getDatabaseProductName();
                 if (DatabaseProduct.ORACLE == product) {
-                    executeStatement("alter session set current_schema = " + escapedDatabaseName, session);
+                    switchSchema("alter session set current_schema = " + escapedDatabaseName, databaseName, false,
+                        newTransaction, session);
                 } else if (DatabaseProduct.DERBY == product || DatabaseProduct.HSQLDB == product
                     || DatabaseProduct.DB2 == product || DatabaseProduct.H2 == product) {
-                    executeStatement("SET SCHEMA " + escapedDatabaseName, session);
+                    switchSchema("SET SCHEMA " + escapedDatabaseName, databaseName, false, newTransaction, session);
                 } else if (DatabaseProduct.POSTGRESQL == product && getAdapter().isConfiguredInSchemaMode()) {
-                    executeStatement("SET search_path TO " + escapedDatabaseName, session);
+                    // The search path is reverted when the transaction is rolled back
+                    switchSchema("SET search_path TO " + escapedDatabaseName, databaseName, true, newTransaction,
+                        session);
                 } else {
                     session.doWork(connection -> {
                         String catalog = connection.getCatalog();
                         catalog = (catalog == null) ? null : catalog.replace('_', '-');
                         if (!databaseName.equals(catalog)) {
                             connection.setCatalog(databaseName);
+                            this.monitor.onWikiSwitch(true);
+                        } else {
+                            this.monitor.onWikiSwitch(false);
                         }
                     });
                 }
@@ -636,6 +718,71 @@ public void setWiki(Session session, String wikiId) throws XWikiException
         }
     }
 
+    /**
+     * Switch the schema of the session connection, unless the pooled connection is already bound to it.
+     *
+     * @param sql the SQL statement switching the schema
+     * @param databaseName the name of the schema
+     * @param transactional {@code true} if the switch is reverted when the transaction is rolled back
+     * @param newTransaction {@code true} if the transaction of the session was just started and nothing happened in it
+     *            yet
+     * @param session the Hibernate session
+     */
+    private void switchSchema(String sql, String databaseName, boolean transactional, boolean newTransaction,
+        Session session)
+    {
+        DBCPConnectionProvider connectionProvider = getDBCPConnectionProvider();
+
+        session.doWork(connection -> {
+            if (connectionProvider != null && databaseName.equals(connectionProvider.getCurrentDatabase(connection))) {
+                this.monitor.onWikiSwitch(false);
+            } else {
+                if (connectionProvider != null) {
+                    // Forget the current schema in case the switch fails
+                    connectionProvider.setCurrentDatabase(connection, null);
+                }
+
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.execute(sql);
+                }
+                this.monitor.onWikiSwitch(true);
+
+                if (connectionProvider != null) {
+                    if (!transactional || connection.getAutoCommit()) {
+                        connectionProvider.setCurrentDatabase(connection, databaseName);
+                    } else if (newTransaction) {
+                        // Make the switch survive a rollback of the transaction (nothing else happened in it yet) so
+                        // that the connection can be considered bound to the schema
+                        connection.commit();
+                        connectionProvider.setCurrentDatabase(connection, databaseName);
+                    }
+                    // Otherwise, the switch is rolled back along with what was already done in the transaction, so the
+                    // schema of the connection stays unknown
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the connection pool used by the current session factory, or {@code null} if another connection provider
+     *         is configured
+     * @since 18.8.0RC1
+     */
+    public DBCPConnectionProvider getDBCPConnectionProvider()
+    {
+        SessionFactory currentSessionFactory = getSessionFactory();
+
+        if (currentSessionFactory instanceof SessionFactoryImplementor sessionFactoryImplementor) {
+            ConnectionProvider provider =
+                sessionFactoryImplementor.getServiceRegistry().getService(ConnectionProvider.class);
+            if (provider != null && provider.isUnwrappableAs(DBCPConnectionProvider.class)) {
+                return provider.unwrap(DBCPConnectionProvider.class);
+            }
+        }
+
+        return null;
+    }
+
     /**
      * @return the current {@link Session} or null
      */
@@ -777,9 +924,9 @@ public boolean beginTransaction(SessionFactory sfactory) throws XWikiException
         // session is obviously null here
         this.logger.debug("Trying to get session from pool");
         if (sfactory == null) {
-            session = getSessionFactory().openSession();
+            session = this.monitor.openSession(getSessionFactory());
         } else {
-            session = sfactory.openSession();
+            session = this.monitor.openSession(sfactory);
         }
 
         this.logger.debug("Taken session from pool [{}]", session);
@@ -798,7 +945,7 @@ public boolean beginTransaction(SessionFactory sfactory) throws XWikiException
 
         // during #setDatabase, the transaction and the session will be closed if the database could not be
         // safely accessed due to version mismatch
-        setWiki(session);
+        setWiki(session, this.wikis.getCurrentWikiId(), true);
 
         return true;
     }
@@ -905,26 +1052,6 @@ private void closeSession(Session session)
         }
     }
 
-    /**
-     * Execute an SQL statement using Hibernate.
-     *
-     * @param sql the SQL statement to execute
-     * @param session the Hibernate Session in which to execute the statement
-     */
-    private void executeStatement(final String sql, Session session)
-    {
-        session.doWork(new Work()
-        {
-            @Override
-            public void execute(Connection connection) throws SQLException
-            {
-                try (Statement stmt = connection.createStatement()) {
-                    stmt.execute(sql);
-                }
-            }
-        });
-    }
-
     /**
      * Automatically update the current database schema to contains what's defined in standard metadata.
      * 
@@ -0,0 +1,265 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.monitor;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.profile.RequestProfile;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
+import com.xpn.xwiki.internal.store.hibernate.HibernateConfiguration;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.store.DBCPConnectionProvider;
+
+/**
+ * Collect statistics about the Hibernate sessions, the database statements and the connection pool, expose them
+ * through JMX and log the slow statements and requests.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = HibernateMonitor.class)
+@Singleton
+public class HibernateMonitor implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "name=database";
+
+    private static final String CONTEXT_STATISTICS = "hibernate.monitor.statistics";
+
+    @Inject
+    private HibernateConfiguration configuration;
+
+    @Inject
+    private Provider<HibernateStore> storeProvider;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    @Inject
+    private RequestProfiler profiler;
+
+    @Inject
+    private Logger logger;
+
+    private final JMXHibernateMonitor statistics = new JMXHibernateMonitor(this::getConnectionProvider);
+
+    private long slowStatementThreshold;
+
+    private long connectionWaitThreshold;
+
+    private long requestSessionTimeThreshold;
+
+    private int requestStatementsThreshold;
+
+    @Override
+    public void initialize()
+    {
+        this.slowStatementThreshold = toNanos(this.configuration.getSlowStatementThreshold());
+        this.connectionWaitThreshold = toNanos(this.configuration.getConnectionWaitThreshold());
+        long sessionTime = this.configuration.getRequestSessionTimeThreshold();
+        this.requestSessionTimeThreshold = sessionTime > 0 ? sessionTime : Long.MAX_VALUE;
+        int statements = this.configuration.getRequestStatementsThreshold();
+        this.requestStatementsThreshold = statements > 0 ? statements : Integer.MAX_VALUE;
+
+        this.jmxRegistration.registerMBean(this.statistics, MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+    }
+
+    private static long toNanos(long milliseconds)
+    {
+        return milliseconds > 0 ? TimeUnit.MILLISECONDS.toNanos(milliseconds) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Open a new monitored session.
+     *
+     * @param sessionFactory the session factory to use
+     * @return the new session
+     */
+    public Session openSession(SessionFactory sessionFactory)
+    {
+        StatementInspector inspector = null;
+        if (sessionFactory instanceof SessionFactoryImplementor sessionFactoryImplementor) {
+            inspector = sessionFactoryImplementor.getSessionFactoryOptions().getStatementInspector();
+        }
+
+        SessionMonitor sessionMonitor = new SessionMonitor(this, inspector);
+        Session session = sessionFactory.withOptions().eventListeners(sessionMonitor)
+            .statementInspector(sessionMonitor).openSession();
+
+        this.statistics.onSessionOpened();
+
+        return session;
+    }
+
+    /**
+     * @return the database activity of the current request, or {@code null} if it did not access the database yet
+     */
+    public RequestDatabaseStatistics getRequestStatistics()
+    {
+        ExecutionContext context = this.execution.getContext();
+
+        return context != null ? (RequestDatabaseStatistics) context.getProperty(CONTEXT_STATISTICS) : null;
+    }
+
+    private RequestDatabaseStatistics getOrCreateRequestStatistics()
+    {
+        ExecutionContext context = this.execution.getContext();
+
+        if (context == null) {
+            return null;
+        }
+
+        RequestDatabaseStatistics requestStatistics =
+            (RequestDatabaseStatistics) context.getProperty(CONTEXT_STATISTICS);
+        if (requestStatistics == null) {
+            requestStatistics = new RequestDatabaseStatistics();
+            context.setProperty(CONTEXT_STATISTICS, requestStatistics);
+        }
+
+        return requestStatistics;
+    }
+
+    private DBCPConnectionProvider getConnectionProvider()
+    {
+        return this.storeProvider.get().getDBCPConnectionProvider();
+    }
+
+    /**
+     * @return the action and the document of the current request, to help find out where a statement comes from
+     */
+    private String getOrigin()
+    {
+        ExecutionContext context = this.execution.getContext();
+        XWikiContext xcontext =
+            context != null ? (XWikiContext) context.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY) : null;
+
+        String action = null;
+        DocumentReference documentReference = null;
+        if (xcontext != null) {
+            action = xcontext.getAction();
+            documentReference = xcontext.getDoc() != null ? xcontext.getDoc().getDocumentReference() : null;
+        }
+
+        return String.format("action [%s] on document [%s]", action, documentReference);
+    }
+
+    private void onSlowRequest(boolean alreadySlow)
+    {
+        // Count each request only once, whatever the number of crossed thresholds
+        if (!alreadySlow) {
+            this.statistics.onSlowRequest();
+        }
+    }
+
+    void onConnectionAcquired(long duration)
+    {
+        RequestDatabaseStatistics requestStatistics = getOrCreateRequestStatistics();
+        if (requestStatistics != null) {
+            requestStatistics.addConnectionWait(duration);
+        }
+
+        if (duration >= this.connectionWaitThreshold) {
+            this.logger.warn("Waited [{}] ms for a database connection ([{}] active connections out of [{}]) for {}",
+                TimeUnit.NANOSECONDS.toMillis(duration), this.statistics.getActiveConnections(),
+                this.statistics.getMaxConnections(), getOrigin());
+        }
+    }
+
+    void onStatementExecuted(String statement, long duration)
+    {
+        this.statistics.onStatement();
+        this.profiler.record(RequestProfile.DATABASE, duration);
+
+        if (duration >= this.slowStatementThreshold) {
+            String description =
+                String.format("[%d] ms for %s: %s", TimeUnit.NANOSECONDS.toMillis(duration), getOrigin(), statement);
+            this.statistics.onSlowStatement(description);
+            this.logger.warn("Slow database statement: {}", description);
+        }
+
+        RequestDatabaseStatistics requestStatistics = getOrCreateRequestStatistics();
+        if (requestStatistics != null) {
+            requestStatistics.addStatement(duration);
+
+            boolean slow = requestStatistics.isSlow();
+            if (requestStatistics.getStatementCount() >= this.requestStatementsThreshold
+                && requestStatistics.reportStatements()) {
+                onSlowRequest(slow);
+                this.logger.warn("At least [{}] database statements were executed for {}",
+                    this.requestStatementsThreshold, getOrigin());
+            }
+        }
+    }
+
+    /**
+     * Called each time a session is bound to a wiki.
+     *
+     * @param switched {@code true} if the database connection had to be switched to the wiki database, {@code false}
+     *            if it was already bound to it
+     */
+    public void onWikiSwitch(boolean switched)
+    {
+        this.statistics.onWikiSwitch(switched);
+    }
+
+    void onSessionClosed(long duration)
+    {
+        this.statistics.onSessionClosed(duration);
+
+        RequestDatabaseStatistics requestStatistics = getOrCreateRequestStatistics();
+        if (requestStatistics != null) {
+            requestStatistics.addSession(duration);
+
+            boolean slow = requestStatistics.isSlow();
+            if (requestStatistics.getSessionTime() >= this.requestSessionTimeThreshold
+                && requestStatistics.reportSessionTime()) {
+                onSlowRequest(slow);
+                this.logger.warn("Hibernate sessions were held for at least [{}] ms ([{}] sessions) for {}",
+                    this.requestSessionTimeThreshold, requestStatistics.getSessionCount(), getOrigin());
+            }
+        }
+    }
+}
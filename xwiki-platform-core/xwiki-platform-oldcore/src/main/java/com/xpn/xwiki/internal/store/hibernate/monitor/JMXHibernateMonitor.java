@@ -0,0 +1,211 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.monitor;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import com.xpn.xwiki.store.DBCPConnectionProvider;
+
+/**
+ * Implementation of the JMXHibernateMonitor MBean, exposing the statistics collected by the {@link HibernateMonitor}.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class JMXHibernateMonitor implements JMXHibernateMonitorMBean
+{
+    private static final int SLOW_STATEMENTS_SIZE = 50;
+
+    private final Supplier<DBCPConnectionProvider> connectionProvider;
+
+    private final LongAdder sessions = new LongAdder();
+
+    private final LongAdder closedSessions = new LongAdder();
+
+    private final LongAdder sessionTime = new LongAdder();
+
+    private final AtomicLong maxSessionTime = new AtomicLong();
+
+    private final LongAdder statements = new LongAdder();
+
+    private final LongAdder slowStatementCount = new LongAdder();
+
+    private final Deque<String> slowStatements = new ArrayDeque<>(SLOW_STATEMENTS_SIZE);
+
+    private final LongAdder slowRequests = new LongAdder();
+
+    private final LongAdder wikiSwitches = new LongAdder();
+
+    private final LongAdder avoidedWikiSwitches = new LongAdder();
+
+    /**
+     * @param connectionProvider provide the current connection pool, if any
+     */
+    public JMXHibernateMonitor(Supplier<DBCPConnectionProvider> connectionProvider)
+    {
+        this.connectionProvider = connectionProvider;
+    }
+
+    void onSessionOpened()
+    {
+        this.sessions.increment();
+    }
+
+    void onSessionClosed(long duration)
+    {
+        this.closedSessions.increment();
+        this.sessionTime.add(duration);
+        this.maxSessionTime.accumulateAndGet(duration, Math::max);
+    }
+
+    void onStatement()
+    {
+        this.statements.increment();
+    }
+
+    void onSlowStatement(String description)
+    {
+        this.slowStatementCount.increment();
+
+        synchronized (this.slowStatements) {
+            if (this.slowStatements.size() == SLOW_STATEMENTS_SIZE) {
+                this.slowStatements.removeFirst();
+            }
+            this.slowStatements.addLast(description);
+        }
+    }
+
+    void onSlowRequest()
+    {
+        this.slowRequests.increment();
+    }
+
+    void onWikiSwitch(boolean switched)
+    {
+        if (switched) {
+            this.wikiSwitches.increment();
+        } else {
+            this.avoidedWikiSwitches.increment();
+        }
+    }
+
+    @Override
+    public int getActiveConnections()
+    {
+        DBCPConnectionProvider provider = this.connectionProvider.get();
+
+        return provider != null ? provider.getNumActive() : -1;
+    }
+
+    @Override
+    public int getIdleConnections()
+    {
+        DBCPConnectionProvider provider = this.connectionProvider.get();
+
+        return provider != null ? provider.getNumIdle() : -1;
+    }
+
+    @Override
+    public int getMaxConnections()
+    {
+        DBCPConnectionProvider provider = this.connectionProvider.get();
+
+        return provider != null ? provider.getMaxTotal() : -1;
+    }
+
+    @Override
+    public Map<String, Long> getConnectionWaitHistogram()
+    {
+        DBCPConnectionProvider provider = this.connectionProvider.get();
+
+        return provider != null ? provider.getWaitHistogram() : Collections.emptyMap();
+    }
+
+    @Override
+    public long getSessionCount()
+    {
+        return this.sessions.sum();
+    }
+
+    @Override
+    public long getOpenSessionCount()
+    {
+        return this.sessions.sum() - this.closedSessions.sum();
+    }
+
+    @Override
+    public long getAverageSessionDuration()
+    {
+        long closed = this.closedSessions.sum();
+
+        return closed > 0 ? TimeUnit.NANOSECONDS.toMillis(this.sessionTime.sum() / closed) : 0;
+    }
+
+    @Override
+    public long getMaxSessionDuration()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.maxSessionTime.get());
+    }
+
+    @Override
+    public long getStatementCount()
+    {
+        return this.statements.sum();
+    }
+
+    @Override
+    public long getSlowStatementCount()
+    {
+        return this.slowStatementCount.sum();
+    }
+
+    @Override
+    public String[] getSlowStatements()
+    {
+        synchronized (this.slowStatements) {
+            return this.slowStatements.toArray(new String[0]);
+        }
+    }
+
+    @Override
+    public long getSlowRequestCount()
+    {
+        return this.slowRequests.sum();
+    }
+
+    @Override
+    public long getWikiSwitchCount()
+    {
+        return this.wikiSwitches.sum();
+    }
+
+    @Override
+    public long getAvoidedWikiSwitchCount()
+    {
+        return this.avoidedWikiSwitches.sum();
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.monitor;
+
+import java.util.Map;
+
+/**
+ * Interface of the {@link JMXHibernateMonitor} MBean.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public interface JMXHibernateMonitorMBean
+{
+    /**
+     * @return the number of connections currently borrowed from the pool, or -1 if unknown
+     */
+    int getActiveConnections();
+
+    /**
+     * @return the number of connections currently idle in the pool, or -1 if unknown
+     */
+    int getIdleConnections();
+
+    /**
+     * @return the maximum number of connections which can be borrowed from the pool, or -1 if unknown
+     */
+    int getMaxConnections();
+
+    /**
+     * @return the number of connections borrowed from the pool, indexed by the time spent waiting for them
+     */
+    Map<String, Long> getConnectionWaitHistogram();
+
+    /**
+     * @return the number of Hibernate sessions opened since the start
+     */
+    long getSessionCount();
+
+    /**
+     * @return the number of Hibernate sessions currently open
+     */
+    long getOpenSessionCount();
+
+    /**
+     * @return the average duration (in milliseconds) of the Hibernate sessions
+     */
+    long getAverageSessionDuration();
+
+    /**
+     * @return the maximum duration (in milliseconds) of a Hibernate session
+     */
+    long getMaxSessionDuration();
+
+    /**
+     * @return the number of database statements executed since the start
+     */
+    long getStatementCount();
+
+    /**
+     * @return the number of database statements which took more than the configured threshold
+     */
+    long getSlowStatementCount();
+
+    /**
+     * @return the last slow database statements, with their duration and the action and document which issued them
+     */
+    String[] getSlowStatements();
+
+    /**
+     * @return the number of requests which held Hibernate sessions for too long or executed too many statements
+     */
+    long getSlowRequestCount();
+
+    /**
+     * @return the number of times a database connection had to be switched to the schema or catalog of a wiki
+     */
+    long getWikiSwitchCount();
+
+    /**
+     * @return the number of times switching a database connection to the schema or catalog of a wiki was avoided
+     *         because the connection was already bound to it
+     */
+    long getAvoidedWikiSwitchCount();
+}
@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.monitor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The database activity of the current request, as collected by the {@link HibernateMonitor}.
+ * <p>
+ * An instance is bound to a single execution context and is thus not meant to be shared between threads.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class RequestDatabaseStatistics
+{
+    private int sessions;
+
+    private long sessionTime;
+
+    private int statements;
+
+    private long statementTime;
+
+    private long connectionWaitTime;
+
+    private boolean sessionTimeReported;
+
+    private boolean statementsReported;
+
+    /**
+     * @return the number of Hibernate sessions closed during the request
+     */
+    public int getSessionCount()
+    {
+        return this.sessions;
+    }
+
+    /**
+     * @return the cumulated time (in milliseconds) during which the request held a Hibernate session
+     */
+    public long getSessionTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.sessionTime);
+    }
+
+    /**
+     * @return the number of database statements executed during the request
+     */
+    public int getStatementCount()
+    {
+        return this.statements;
+    }
+
+    /**
+     * @return the cumulated time (in milliseconds) spent executing database statements during the request
+     */
+    public long getStatementTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.statementTime);
+    }
+
+    /**
+     * @return the cumulated time (in milliseconds) spent waiting for a database connection during the request
+     */
+    public long getConnectionWaitTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(this.connectionWaitTime);
+    }
+
+    void addSession(long duration)
+    {
+        this.sessions++;
+        this.sessionTime += duration;
+    }
+
+    void addStatement(long duration)
+    {
+        this.statements++;
+        this.statementTime += duration;
+    }
+
+    void addConnectionWait(long duration)
+    {
+        this.connectionWaitTime += duration;
+    }
+
+    /**
+     * @return {@code true} if the request crossed one of the thresholds of the {@link HibernateMonitor}
+     */
+    public boolean isSlow()
+    {
+        return this.sessionTimeReported || this.statementsReported;
+    }
+
+    /**
+     * @return {@code true} the first time it's called, {@code false} after that
+     */
+    boolean reportSessionTime()
+    {
+        boolean report = !this.sessionTimeReported;
+        this.sessionTimeReported = true;
+
+        return report;
+    }
+
+    /**
+     * @return {@code true} the first time it's called, {@code false} after that
+     */
+    boolean reportStatements()
+    {
+        boolean report = !this.statementsReported;
+        this.statementsReported = true;
+
+        return report;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.monitor;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Collect the activity of a single Hibernate session and report it to the {@link HibernateMonitor}.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+class SessionMonitor extends BaseSessionEventListener implements StatementInspector
+{
+    private static final long serialVersionUID = 1L;
+
+    private final transient HibernateMonitor monitor;
+
+    private final transient StatementInspector inspector;
+
+    private final long start = System.nanoTime();
+
+    private long connectionStart;
+
+    private long statementStart;
+
+    private long batchStart;
+
+    private String statement;
+
+    /**
+     * @param monitor the monitor to report to
+     * @param inspector the statement inspector configured for the session factory, if any
+     */
+    SessionMonitor(HibernateMonitor monitor, StatementInspector inspector)
+    {
+        this.monitor = monitor;
+        this.inspector = inspector;
+    }
+
+    @Override
+    public String inspect(String sql)
+    {
+        String inspected = this.inspector != null ? this.inspector.inspect(sql) : sql;
+
+        // Remember the statement being prepared, to report it if its execution is slow
+        this.statement = inspected != null ? inspected : sql;
+
+        return inspected;
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionStart()
+    {
+        this.connectionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd()
+    {
+        this.monitor.onConnectionAcquired(System.nanoTime() - this.connectionStart);
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart()
+    {
+        this.statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd()
+    {
+        this.monitor.onStatementExecuted(this.statement, System.nanoTime() - this.statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart()
+    {
+        this.batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd()
+    {
+        this.monitor.onStatementExecuted(this.statement, System.nanoTime() - this.batchStart);
+    }
+
+    @Override
+    public void end()
+    {
+        this.monitor.onSessionClosed(System.nanoTime() - this.start);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.query;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the JMXQueryResultCache MBean, exposing the statistics of the {@link QueryResultCache}.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class JMXQueryResultCache implements JMXQueryResultCacheMBean
+{
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder invalidations = new LongAdder();
+
+    void onHit()
+    {
+        this.hits.increment();
+    }
+
+    void onMiss()
+    {
+        this.misses.increment();
+    }
+
+    void onInvalidation()
+    {
+        this.invalidations.increment();
+    }
+
+    @Override
+    public long getHitCount()
+    {
+        return this.hits.sum();
+    }
+
+    @Override
+    public long getMissCount()
+    {
+        return this.misses.sum();
+    }
+
+    @Override
+    public long getInvalidationCount()
+    {
+        return this.invalidations.sum();
+    }
+}
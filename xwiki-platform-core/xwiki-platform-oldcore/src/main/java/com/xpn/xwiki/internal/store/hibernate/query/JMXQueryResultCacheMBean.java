@@ -17,28 +17,28 @@
  * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
-package com.xpn.xwiki.stats.impl.xwiki;
-
-import java.util.List;
+package com.xpn.xwiki.internal.store.hibernate.query;
 
 /**
- * Item used to stop the statistics storing.
+ * Interface of the {@link JMXQueryResultCache} MBean.
  *
  * @version $Id$
+ * @since 18.8.0RC1
  */
-class StopStatsRegisterObject implements XWikiStatsStoreItem
+public interface JMXQueryResultCacheMBean
 {
-    @Override
-    public String getId()
-    {
-        return null;
-    }
+    /**
+     * @return the number of cacheable query executions which found their results in the cache
+     */
+    long getHitCount();
+
+    /**
+     * @return the number of cacheable query executions which had to execute the query
+     */
+    long getMissCount();
 
-    @Override
-    public void store(List<XWikiStatsStoreItem> register)
-    {
-        // Intentionally empty: this item is only a marker used to signal that the statistics storing must stop.
-        // It never carries any statistics to store and it's recognized through an "instanceof" check before "store"
-        // would ever be called, so there's nothing to do here.
-    }
+    /**
+     * @return the number of document modifications which invalidated cached results
+     */
+    long getInvalidationCount();
 }
@@ -0,0 +1,470 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.query;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.function.FailableSupplier;
+import org.slf4j.Logger;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheException;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.cache.config.LRUCacheConfiguration;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Disposable;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.component.phase.InitializationException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+
+/**
+ * Cache the results of the HQL queries marked as cacheable (see {@link Query#setCacheable(boolean)}).
+ * <p>
+ * Only the queries targeting documents, objects, properties, attachments and spaces, with scalar parameters and
+ * results, are cached. The cached results are the results returned by the database, before the execution of the
+ * results filters. A cached result is invalidated when a document which might affect it is created, modified or
+ * deleted in the same wiki: when the query is restricted to some classes or spaces only the documents holding objects
+ * of these classes or located in these spaces are taken into account, any document otherwise.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@SuppressWarnings("checkstyle:ClassFanOutComplexity")
+@Component(roles = QueryResultCache.class)
+@Singleton
+public class QueryResultCache implements Initializable, Disposable
+{
+    private static final String MBEAN_NAME = "name=queryResultCache";
+
+    /**
+     * The entities which are modified only through documents.
+     */
+    private static final Set<String> DOCUMENT_ENTITIES = Set.of("XWikiDocument", "XWikiSpace", "XWikiAttachment",
+        "BaseObject", "BaseProperty", "StringProperty", "LargeStringProperty", "IntegerProperty", "LongProperty",
+        "FloatProperty", "DoubleProperty", "DateProperty", "StringListProperty", "DBStringListProperty");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'((?:[^']|'')*)'");
+
+    private static final Pattern CLASS_RESTRICTION = Pattern.compile("\\bclassName\\s*=");
+
+    private static final Pattern SPACE_RESTRICTION = Pattern.compile("\\bspace\\s*=");
+
+    /**
+     * A class or space restriction whose value is neither a literal nor a parameter (e.g. another column), so the
+     * values it targets cannot be known.
+     */
+    private static final Pattern UNKNOWN_VALUE_RESTRICTION =
+        Pattern.compile("\\b(className|space)\\s*=\\s*+(?!['?:])");
+
+    /**
+     * The restrictions cannot be trusted when the statement contains alternatives or negations.
+     */
+    private static final Pattern UNSAFE_RESTRICTION =
+        Pattern.compile("(?i)\\b(or|not|like)\\b|<>|!=|\\(\\s*select\\b");
+
+    private static final String CLASS_PREFIX = "c:";
+
+    private static final String SPACE_PREFIX = "s:";
+
+    private static final char SEPARATOR = '\u0000';
+
+    private static final int MAX_STATEMENTS = 1000;
+
+    /**
+     * The results stored in the cache, with the generations of the invalidation keys at the time the query was
+     * executed.
+     *
+     * @version $Id$
+     */
+    private static final class CachedResults
+    {
+        private final List<Object> results;
+
+        private final Map<String, Long> generations;
+
+        CachedResults(List<Object> results, Map<String, Long> generations)
+        {
+            this.results = results;
+            this.generations = generations;
+        }
+    }
+
+    @Inject
+    private CacheManager cacheManager;
+
+    @Inject
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private JMXBeanRegistration jmxRegistration;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The generation of each invalidation key, incremented each time a document associated with the key is modified.
+     */
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Remember which statements target only entities modified through documents, to avoid parsing them again.
+     */
+    private final Map<String, Boolean> cacheableStatements = new ConcurrentHashMap<>();
+
+    private final JMXQueryResultCache statistics = new JMXQueryResultCache();
+
+    private Cache<CachedResults> cache;
+
+    @Override
+    public void initialize() throws InitializationException
+    {
+        int capacity = this.configuration.getProperty("query.resultCache.size", 1000);
+        try {
+            this.cache = this.cacheManager.createNewCache(new LRUCacheConfiguration("xwiki.query.results", capacity));
+        } catch (CacheException e) {
+            throw new InitializationException("Failed to create the query results cache", e);
+        }
+
+        this.jmxRegistration.registerMBean(this.statistics, MBEAN_NAME);
+    }
+
+    @Override
+    public void dispose()
+    {
+        this.jmxRegistration.unregisterMBean(MBEAN_NAME);
+
+        if (this.cache != null) {
+            this.cache.dispose();
+        }
+    }
+
+    /**
+     * @param <T> the type of the results
+     * @param <E> the type of the exception thrown by the query execution
+     * @param wiki the wiki where the query is executed
+     * @param query the query, before the execution of the statement filters
+     * @param filteredQuery the query to execute, after the execution of the statement filters
+     * @param executor executes the query when its results are not cached
+     * @return the results of the query, before the execution of the results filters
+     * @throws E when failing to execute the query
+     */
+    public <T, E extends Throwable> List<T> getResults(String wiki, Query query, Query filteredQuery,
+        FailableSupplier<List<T>, E> executor) throws E
+    {
+        if (filteredQuery.isNamed() || !isCacheable(filteredQuery.getStatement())) {
+            return executor.get();
+        }
+
+        String key = getKey(wiki, filteredQuery);
+        if (key == null) {
+            return executor.get();
+        }
+
+        CachedResults cachedResults = this.cache.get(key);
+        if (cachedResults != null && isValid(cachedResults)) {
+            this.statistics.onHit();
+
+            return (List<T>) copy(cachedResults.results);
+        }
+
+        this.statistics.onMiss();
+
+        // Remember the generations before executing the query so that a modification made during the execution
+        // invalidates the results.
+        Map<String, Long> currentGenerations = getGenerations(wiki, query, filteredQuery);
+
+        List<T> results = executor.get();
+
+        if (isCacheableResults(results)) {
+            this.cache.set(key, new CachedResults((List<Object>) copy(results), currentGenerations));
+        }
+
+        return results;
+    }
+
+    /**
+     * Invalidate the results which might be affected by a modification of the passed document.
+     *
+     * @param document the created, modified or deleted document
+     */
+    public void invalidate(XWikiDocument document)
+    {
+        invalidateDocument(document);
+        if (document.getOriginalDocument() != null) {
+            invalidateDocument(document.getOriginalDocument());
+        }
+
+        this.statistics.onInvalidation();
+    }
+
+    private void invalidateDocument(XWikiDocument document)
+    {
+        String wiki = document.getDocumentReference().getWikiReference().getName();
+
+        increment(wiki);
+        increment(wiki + SEPARATOR + SPACE_PREFIX + document.getSpace());
+        for (DocumentReference classReference : document.getXObjects().keySet()) {
+            increment(wiki + SEPARATOR + CLASS_PREFIX + this.localSerializer.serialize(classReference));
+        }
+    }
+
+    private void increment(String generationKey)
+    {
+        this.generations.computeIfAbsent(generationKey, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    private long getGeneration(String generationKey)
+    {
+        AtomicLong generation = this.generations.get(generationKey);
+
+        return generation != null ? generation.get() : 0;
+    }
+
+    private boolean isValid(CachedResults cachedResults)
+    {
+        for (Map.Entry<String, Long> entry : cachedResults.generations.entrySet()) {
+            if (getGeneration(entry.getKey()) != entry.getValue()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Map<String, Long> getGenerations(String wiki, Query query, Query filteredQuery)
+    {
+        // The statement filters only add constraints so the restrictions of the initial statement are enough (and
+        // easier to analyze)
+        String statement = query.getStatement();
+
+        Map<String, Long> queryGenerations = new HashMap<>();
+        if (UNSAFE_RESTRICTION.matcher(statement).find() || UNKNOWN_VALUE_RESTRICTION.matcher(statement).find()) {
+            queryGenerations.put(wiki, getGeneration(wiki));
+        } else {
+            boolean classRestricted = CLASS_RESTRICTION.matcher(statement).find();
+            boolean spaceRestricted = SPACE_RESTRICTION.matcher(statement).find();
+            Set<String> values =
+                classRestricted || spaceRestricted ? getStringValues(statement, filteredQuery) : Set.of();
+
+            if (!values.isEmpty()) {
+                for (String value : values) {
+                    if (classRestricted) {
+                        String generationKey = wiki + SEPARATOR + CLASS_PREFIX + value;
+                        queryGenerations.put(generationKey, getGeneration(generationKey));
+                    }
+                    if (spaceRestricted) {
+                        String generationKey = wiki + SEPARATOR + SPACE_PREFIX + value;
+                        queryGenerations.put(generationKey, getGeneration(generationKey));
+                    }
+                }
+            } else {
+                // Not restricted, or restricted to values which are not strings
+                queryGenerations.put(wiki, getGeneration(wiki));
+            }
+        }
+
+        return queryGenerations;
+    }
+
+    private Set<String> getStringValues(String statement, Query query)
+    {
+        Set<String> values = new HashSet<>();
+
+        Matcher matcher = STRING_LITERAL.matcher(statement);
+        while (matcher.find()) {
+            values.add(matcher.group(1).replace("''", "'"));
+        }
+
+        List<Object> parameters = new ArrayList<>(query.getNamedParameters().values());
+        parameters.addAll(query.getPositionalParameters().values());
+        for (Object parameter : parameters) {
+            if (parameter instanceof String stringParameter) {
+                values.add(stringParameter);
+            } else if (parameter instanceof Collection<?> collection) {
+                collection.stream().filter(String.class::isInstance).forEach(value -> values.add((String) value));
+            } else if (parameter instanceof Object[] array) {
+                Arrays.stream(array).filter(String.class::isInstance).forEach(value -> values.add((String) value));
+            }
+        }
+
+        return values;
+    }
+
+    private boolean isCacheable(String statement)
+    {
+        Boolean cacheable = this.cacheableStatements.get(statement);
+        if (cacheable == null) {
+            cacheable = parseCacheable(statement);
+            if (this.cacheableStatements.size() < MAX_STATEMENTS) {
+                this.cacheableStatements.put(statement, cacheable);
+            }
+        }
+
+        return cacheable;
+    }
+
+    private boolean parseCacheable(String statement)
+    {
+        try {
+            for (String table : new TablesNamesFinder().getTableList(CCJSqlParserUtil.parse(statement))) {
+                if (!DOCUMENT_ENTITIES.contains(StringUtils.substringAfterLast('.' + table, '.'))) {
+                    return false;
+                }
+            }
+        } catch (JSQLParserException | RuntimeException e) {
+            this.logger.debug("Failed to parse the query statement [{}]: {}", statement, e.getMessage());
+
+            return false;
+        }
+
+        return true;
+    }
+
+    private String getKey(String wiki, Query query)
+    {
+        StringBuilder key = new StringBuilder();
+        key.append(wiki).append(SEPARATOR).append(query.getStatement());
+        key.append(SEPARATOR).append(query.getOffset()).append(SEPARATOR).append(query.getLimit());
+
+        for (Map.Entry<String, Object> entry : new TreeMap<>(query.getNamedParameters()).entrySet()) {
+            if (!appendParameter(key.append(SEPARATOR).append(entry.getKey()).append('='), entry.getValue())) {
+                return null;
+            }
+        }
+        for (Map.Entry<Integer, Object> entry : new TreeMap<>(query.getPositionalParameters()).entrySet()) {
+            if (!appendParameter(key.append(SEPARATOR).append(entry.getKey()).append('='), entry.getValue())) {
+                return null;
+            }
+        }
+
+        return key.toString();
+    }
+
+    private boolean appendParameter(StringBuilder key, Object value)
+    {
+        if (value instanceof Collection<?> collection) {
+            return appendParameters(key, collection);
+        } else if (value instanceof Object[] array) {
+            return appendParameters(key, Arrays.asList(array));
+        } else if (isScalar(value)) {
+            // Include the type since it has an impact on the query execution
+            key.append(value != null ? value.getClass().getSimpleName() : null).append(':').append(value);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private boolean appendParameters(StringBuilder key, Collection<?> values)
+    {
+        key.append('[');
+        for (Object value : values) {
+            if (!appendParameter(key, value)) {
+                return false;
+            }
+            key.append(',');
+        }
+        key.append(']');
+
+        return true;
+    }
+
+    private boolean isScalar(Object value)
+    {
+        return value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+            || value instanceof Character || value instanceof Date;
+    }
+
+    private boolean isCacheableResults(List<?> results)
+    {
+        for (Object result : results) {
+            if (result instanceof Object[] row) {
+                for (Object value : row) {
+                    if (!isScalar(value)) {
+                        return false;
+                    }
+                }
+            } else if (!isScalar(result)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Copy the mutable parts of the results so that the cached results cannot be modified by the callers.
+     */
+    private List<?> copy(List<?> results)
+    {
+        List<Object> copy = new ArrayList<>(results.size());
+        for (Object result : results) {
+            if (result instanceof Object[] row) {
+                Object[] rowCopy = new Object[row.length];
+                for (int i = 0; i < row.length; ++i) {
+                    rowCopy[i] = copyValue(row[i]);
+                }
+                copy.add(rowCopy);
+            } else {
+                copy.add(copyValue(result));
+            }
+        }
+
+        return copy;
+    }
+
+    private Object copyValue(Object value)
+    {
+        return value instanceof Date date ? date.clone() : value;
+    }
+}
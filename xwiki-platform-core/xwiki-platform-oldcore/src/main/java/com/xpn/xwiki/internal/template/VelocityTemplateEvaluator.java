@@ -40,6 +40,8 @@
 import org.xwiki.velocity.VelocityTemplate;
 import org.xwiki.velocity.XWikiVelocityException;
 
+import com.xpn.xwiki.internal.profile.RequestProfile;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 import com.xpn.xwiki.internal.template.InternalTemplateManager.DefaultTemplateContent;
 
 /**
@@ -64,6 +66,9 @@
     @Inject
     private VelocityManager velocityManager;
 
+    @Inject
+    private RequestProfiler profiler;
+
     /**
      * @param template the template to execute
      * @param content the template content to execute
@@ -99,6 +104,7 @@ public void evaluateContent(Template template, TemplateContent content, Writer w
         this.progress.startStep(template, "template.evaluateContent.message",
             "Evaluate content of template with id [{}]", template.getId());
 
+        long start = System.nanoTime();
         try {
             VelocityTemplate velocityTemplate = getVelocityTemplate(template, content);
 
@@ -116,6 +122,8 @@ public void evaluateContent(Template template, TemplateContent content, Writer w
             }
 
             this.progress.endStep(template);
+
+            this.profiler.record(RequestProfile.TEMPLATE, System.nanoTime() - start);
         }
     }
 
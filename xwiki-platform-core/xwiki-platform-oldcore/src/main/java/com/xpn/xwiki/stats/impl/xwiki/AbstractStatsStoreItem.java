@@ -63,6 +63,13 @@ public abstract class AbstractStatsStoreItem implements XWikiStatsStoreItem
      */
     protected int period;
 
+    /**
+     * The number of hits aggregated in this item.
+     *
+     * @since 18.8.0RC1
+     */
+    protected int hits = 1;
+
     /**
      * @param name the statistic name.
      * @param periodDate the period date.
@@ -96,6 +103,18 @@ public void store(List<XWikiStatsStoreItem> statsList)
         }
     }
 
+    /**
+     * Aggregate the passed statistic, which has the same identifier, into this one so that both are stored at once.
+     *
+     * @param item the statistic to aggregate
+     * @return {@code true} if the statistic was aggregated, {@code false} if it should be stored separately
+     * @since 18.8.0RC1
+     */
+    protected boolean merge(XWikiStatsStoreItem item)
+    {
+        return false;
+    }
+
     /**
      * Store provided statistics into the database.
      *
@@ -50,9 +50,9 @@ public class DocumentStatsStoreItem extends AbstractStatsStoreItem
     private String action;
 
     /**
-     * Is this part of a user visit.
+     * The number of aggregated hits which are part of a user visit.
      */
-    private boolean isVisit;
+    private int visits;
 
     /**
      * Create new instance of {@link DocumentStatsStoreItem}.
@@ -75,7 +75,18 @@ public DocumentStatsStoreItem(String name, Date periodDate, PeriodType periodTyp
         super(name, periodDate, periodType, context);
 
         this.action = action;
-        this.isVisit = isVisit;
+        this.visits = isVisit ? 1 : 0;
+    }
+
+    @Override
+    protected boolean merge(XWikiStatsStoreItem item)
+    {
+        DocumentStatsStoreItem documentItem = (DocumentStatsStoreItem) item;
+
+        this.hits += documentItem.hits;
+        this.visits += documentItem.visits;
+
+        return true;
     }
 
     @Override
@@ -108,21 +119,23 @@ public void storeInternal(List<XWikiStatsStoreItem> stats)
         }
 
         // Increment counters
-        documentStat.setIntValue("pageViews", documentStat.getPageViews() + stats.size());
+        int pageViews = 0;
+        int newVisits = 0;
         for (XWikiStatsStoreItem statItem : stats) {
             DocumentStatsStoreItem docStat = (DocumentStatsStoreItem) statItem;
 
-            if (docStat.isVisit) {
-                documentStat.incVisits();
-            }
+            pageViews += docStat.hits;
+            newVisits += docStat.visits;
         }
+        documentStat.setIntValue("pageViews", documentStat.getPageViews() + pageViews);
+        documentStat.setVisits(documentStat.getVisits() + newVisits);
 
         // Re-save statistics object
         try {
             // TODO Fix use of deprecated call.
             store.saveXWikiCollection(documentStat, this.context, true);
         } catch (XWikiException e) {
-            LOGGER.error("Failed to save document statistics object [{}]", getId(), e);
+            throw new StatsStoreException(String.format("Failed to save document statistics object [%s]", getId()), e);
         }
     }
 }
@@ -66,6 +66,14 @@ public RefererStatsStoreItem(String name, Date periodDate, PeriodType periodType
         this.referer = referer;
     }
 
+    @Override
+    protected boolean merge(XWikiStatsStoreItem item)
+    {
+        this.hits += ((RefererStatsStoreItem) item).hits;
+
+        return true;
+    }
+
     @Override
     public String getId()
     {
@@ -94,14 +102,18 @@ public void storeInternal(List<XWikiStatsStoreItem> stats)
         }
 
         // Increment counters
-        refererStat.setIntValue("pageViews", refererStat.getPageViews() + stats.size());
+        int pageViews = 0;
+        for (XWikiStatsStoreItem statItem : stats) {
+            pageViews += ((RefererStatsStoreItem) statItem).hits;
+        }
+        refererStat.setIntValue("pageViews", refererStat.getPageViews() + pageViews);
 
         // Re-save statistics object
         try {
             // TODO Fix use of deprecated call.
             store.saveXWikiCollection(refererStat, this.context, true);
         } catch (XWikiException e) {
-            LOGGER.error("Failed to save referer statistics object [{}]", getId());
+            throw new StatsStoreException(String.format("Failed to save referer statistics object [%s]", getId()), e);
         }
     }
 }
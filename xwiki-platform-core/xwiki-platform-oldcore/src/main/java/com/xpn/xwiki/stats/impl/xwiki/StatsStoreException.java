@@ -20,10 +20,22 @@
 package com.xpn.xwiki.stats.impl.xwiki;
 
 /**
- * Used to order stopping storing thread.
+ * Reports to {@link XWikiStatsStoreService} that a statistics entry could not be stored, so that the transaction of
+ * its wiki is rolled back and the entry counted as failed.
  *
  * @version $Id$
+ * @since 18.8.0RC1
  */
-class StopStatsStoreException extends Exception
+class StatsStoreException extends RuntimeException
 {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message the error message
+     * @param cause the reason why the statistics entry could not be stored
+     */
+    StatsStoreException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
 }
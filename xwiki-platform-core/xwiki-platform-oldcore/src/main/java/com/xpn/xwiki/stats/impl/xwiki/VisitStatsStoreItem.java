@@ -49,6 +49,11 @@ public class VisitStatsStoreItem extends AbstractStatsStoreItem
      */
     private VisitStats visitStats;
 
+    /**
+     * The previous version of the visit statistics object, to remove from the database.
+     */
+    private VisitStats oldVisitStats;
+
     /**
      * Create new instance of {@link VisitStatsStoreItem}.
      *
@@ -61,6 +66,22 @@ public VisitStatsStoreItem(VisitStats visitStats, XWikiContext context)
         this.period = visitStats.getPeriod();
 
         this.visitStats = (VisitStats) visitStats.clone();
+        this.oldVisitStats = this.visitStats.getOldObject();
+    }
+
+    @Override
+    protected boolean merge(XWikiStatsStoreItem item)
+    {
+        VisitStatsStoreItem visitItem = (VisitStatsStoreItem) item;
+
+        // Only the last state of the visit needs to be saved
+        this.visitStats = visitItem.visitStats;
+        if (this.oldVisitStats == null) {
+            this.oldVisitStats = visitItem.oldVisitStats;
+        }
+        this.hits += visitItem.hits;
+
+        return true;
     }
 
     @Override
@@ -74,7 +95,7 @@ public String getId()
     public void storeInternal(List<XWikiStatsStoreItem> stats)
     {
         VisitStatsStoreItem firstItem = (VisitStatsStoreItem) stats.get(0);
-        VisitStats oldVisitStats = firstItem.visitStats.getOldObject();
+        VisitStats oldVisitStats = firstItem.oldVisitStats;
 
         VisitStatsStoreItem lastItem = (VisitStatsStoreItem) stats.get(stats.size() - 1);
         VisitStats newVisitStats = lastItem.visitStats;
@@ -99,7 +120,7 @@ public void storeInternal(List<XWikiStatsStoreItem> stats)
             // TODO Fix use of deprecated call.
             store.saveXWikiCollection(newVisitStats, this.context, true);
         } catch (XWikiException e) {
-            LOGGER.error("Failed to save visit statistics object [{}]", getId(), e);
+            throw new StatsStoreException(String.format("Failed to save visit statistics object [%s]", getId()), e);
         }
     }
 }
@@ -36,7 +36,8 @@
     String getId();
 
     /**
-     * Store provided statistics into the database.
+     * Store provided statistics into the database. Since 18.8.0RC1 a failure is reported by throwing an unchecked
+     * exception, which rolls back the statistics transaction of the wiki.
      *
      * @param statsList the list of statistics item to store.
      */
@@ -20,27 +20,43 @@
 package com.xpn.xwiki.stats.impl.xwiki;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.management.JMXBeanRegistration;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.stats.JMXStatsStore;
 import com.xpn.xwiki.stats.impl.StatsUtil;
 import com.xpn.xwiki.stats.impl.VisitStats;
+import com.xpn.xwiki.store.XWikiHibernateStore;
 import com.xpn.xwiki.util.AbstractXWikiRunnable;
 import com.xpn.xwiki.web.DownloadAction;
 import com.xpn.xwiki.web.SaveAction;
+import com.xpn.xwiki.web.Utils;
 import com.xpn.xwiki.web.ViewAction;
 
 /**
  * Back-end statistics storing service.
+ * <p>
+ * The statistics are aggregated in memory (the hits targeting the same statistics object are merged) and stored
+ * periodically, in one transaction per wiki, so that the database is not updated for each hit. The number of
+ * statistics lost in case of crash is bounded by the flush interval ({@code stats.flushInterval}, in seconds) and the
+ * maximum number of pending statistics entries ({@code stats.queue.size}).
  *
  * @version $Id$
  * @since 1.4M2
@@ -52,10 +68,59 @@ public class XWikiStatsStoreService extends AbstractXWikiRunnable
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(XWikiStatsStoreService.class);
 
+    private static final String MBEAN_NAME = "name=statistics";
+
+    /**
+     * The statistics waiting to be stored, with the order in which they were first added.
+     *
+     * @version $Id$
+     */
+    private static final class PendingStats
+    {
+        private final long order;
+
+        private final List<XWikiStatsStoreItem> items = new ArrayList<>();
+
+        PendingStats(long order, XWikiStatsStoreItem item)
+        {
+            this.order = order;
+            this.items.add(item);
+        }
+
+        void add(XWikiStatsStoreItem item)
+        {
+            XWikiStatsStoreItem lastItem = this.items.get(this.items.size() - 1);
+            if (!(lastItem instanceof AbstractStatsStoreItem aggregatedItem) || !aggregatedItem.merge(item)) {
+                this.items.add(item);
+            }
+        }
+    }
+
     /**
-     * The queue containing the statistics to store.
+     * The statistics waiting to be stored, indexed by identifier.
      */
-    private ArrayBlockingQueue<XWikiStatsStoreItem> queue;
+    private final Map<String, PendingStats> pending = new ConcurrentHashMap<>();
+
+    private final AtomicLong pendingOrder = new AtomicLong();
+
+    /**
+     * Used to wake up the storing thread before the end of the flush interval.
+     */
+    private final BlockingQueue<Boolean> flushRequests = new ArrayBlockingQueue<>(1);
+
+    /**
+     * The maximum number of pending statistics entries before they are stored.
+     */
+    private final int maxPendingSize;
+
+    /**
+     * The maximum time (in milliseconds) during which statistics are kept in memory.
+     */
+    private final long flushInterval;
+
+    private final JMXStatsStore jmxStatsStore = new JMXStatsStore(this.pending::size);
+
+    private volatile boolean stopped;
 
     /**
      * The thread on which the storing service is running.
@@ -75,8 +140,8 @@ public class XWikiStatsStoreService extends AbstractXWikiRunnable
     public XWikiStatsStoreService(XWikiContext context)
     {
         this.xwikiContext = context.clone();
-        long queueSize = context.getWiki().ParamAsLong("stats.queue.size", 200);
-        this.queue = new ArrayBlockingQueue<>((int) queueSize);
+        this.maxPendingSize = (int) context.getWiki().ParamAsLong("stats.queue.size", 200);
+        this.flushInterval = TimeUnit.SECONDS.toMillis(context.getWiki().ParamAsLong("stats.flushInterval", 10));
     }
 
     @Override
@@ -92,6 +157,8 @@ protected void declareProperties(ExecutionContext executionContext)
     public void start()
     {
         if (this.thread == null) {
+            Utils.getComponent(JMXBeanRegistration.class).registerMBean(this.jmxStatsStore, MBEAN_NAME);
+
             this.thread = new Thread(this, "Statistics storing daemon");
             // The JVM should be allowed to shutdown while this thread is running
             this.thread.setDaemon(true);
@@ -100,76 +167,150 @@ public void start()
     }
 
     /**
-     * Stop storing thread.
+     * Stop storing thread, after storing the pending statistics.
      */
     public void stop()
     {
-        this.queue.clear();
+        this.stopped = true;
+        this.flushRequests.offer(Boolean.TRUE);
         try {
-            this.queue.put(new StopStatsRegisterObject());
             this.thread.join();
             this.thread = null;
         } catch (InterruptedException e) {
             LOGGER.warn("Thread join has been interrupted", e);
+            Thread.currentThread().interrupt();
         }
+
+        Utils.getComponent(JMXBeanRegistration.class).unregisterMBean(MBEAN_NAME);
     }
 
     @Override
     public void runInternal() throws InterruptedException
     {
         try {
-            while (true) {
-                register();
+            while (!this.stopped) {
+                // Wait for the end of the flush interval, unless too many statistics are pending
+                this.flushRequests.poll(this.flushInterval, TimeUnit.MILLISECONDS);
+
+                safeFlush();
             }
+
+            // Store the statistics added while the last flush was running
+            safeFlush();
         } catch (InterruptedException e) {
             LOGGER.warn("Statistics storing thread has been interrupted.", e);
             throw e;
-        } catch (StopStatsStoreException e) {
-            LOGGER.warn("Statistics storing thread received stop order.", e);
+        }
+    }
+
+    private void safeFlush()
+    {
+        try {
+            flush();
+        } catch (Exception e) {
+            LOGGER.error("Failed to store the statistics", e);
         }
     }
 
     /**
-     * Store the statistics in the queue.
-     *
-     * @throws InterruptedException thread has been interrupted.
-     * @throws StopStatsStoreException service received stop order.
+     * Store the pending statistics.
      */
-    private void register() throws InterruptedException, StopStatsStoreException
+    void flush()
     {
-        XWikiStatsStoreItem stat = this.queue.take();
+        List<PendingStats> statsList = new ArrayList<>(this.pending.size());
+        for (String statId : this.pending.keySet()) {
+            PendingStats stats = this.pending.remove(statId);
+            if (stats != null) {
+                statsList.add(stats);
+            }
+        }
 
-        List<List<XWikiStatsStoreItem>> statsList = new ArrayList<>();
-        Map<String, List<XWikiStatsStoreItem>> statsMap = new HashMap<>();
+        if (statsList.isEmpty()) {
+            return;
+        }
 
-        do {
-            if (stat instanceof StopStatsRegisterObject) {
-                throw new StopStatsStoreException();
+        long start = System.currentTimeMillis();
+
+        // Store the statistics in the order they were produced (the visits statistics depend on it) and group them by
+        // wiki to store them in one transaction per wiki
+        statsList.sort(Comparator.comparingLong(stats -> stats.order));
+        Map<String, List<List<XWikiStatsStoreItem>>> wikiStatsMap = new LinkedHashMap<>();
+        Map<String, XWikiContext> wikiContexts = new HashMap<>();
+        List<List<XWikiStatsStoreItem>> otherStats = new ArrayList<>();
+        for (PendingStats stats : statsList) {
+            if (stats.items.get(0) instanceof AbstractStatsStoreItem item) {
+                String wikiId = item.context.getWikiId();
+                wikiContexts.putIfAbsent(wikiId, item.context);
+                wikiStatsMap.computeIfAbsent(wikiId, id -> new ArrayList<>()).add(stats.items);
+            } else {
+                otherStats.add(stats.items);
             }
+        }
 
-            String statId = stat.getId();
+        long failed = 0;
+        for (Map.Entry<String, List<List<XWikiStatsStoreItem>>> entry : wikiStatsMap.entrySet()) {
+            if (!store(entry.getValue(), wikiContexts.get(entry.getKey()))) {
+                failed += entry.getValue().size();
+            }
+        }
+        for (List<XWikiStatsStoreItem> stats : otherStats) {
+            try {
+                stats.get(0).store(stats);
+            } catch (Exception e) {
+                LOGGER.error("Failed to store statistics entry [{}]", stats.get(0).getId(), e);
+                failed++;
+            }
+        }
 
-            List<XWikiStatsStoreItem> stats = statsMap.get(statId);
+        this.jmxStatsStore.onFlush(start, statsList.size() - failed, failed);
 
-            if (stats == null) {
-                stats = new ArrayList<>();
+        LOGGER.debug("Stored [{}] statistics entries in [{}] ms", statsList.size(),
+            System.currentTimeMillis() - start);
+    }
 
-                statsMap.put(statId, stats);
-                statsList.add(stats);
+    private boolean store(List<List<XWikiStatsStoreItem>> statsList, XWikiContext context)
+    {
+        ExecutionContext econtext = Utils.getComponent(Execution.class).getContext();
+        Object currentContext = econtext.getProperty(XWikiContext.EXECUTIONCONTEXT_KEY);
+
+        XWikiHibernateStore store = context.getWiki().getHibernateStore();
+        boolean transaction = false;
+        boolean commit = false;
+        try {
+            econtext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, context);
+
+            // Share the same transaction between all the statistics of the wiki
+            if (store != null) {
+                transaction = store.beginTransaction(context);
             }
 
-            stats.add(stat);
+            for (List<XWikiStatsStoreItem> stats : statsList) {
+                stats.get(0).store(stats);
+            }
 
-            stat = this.queue.poll();
-        } while (stat != null);
+            commit = true;
+        } catch (Exception e) {
+            LOGGER.error("Failed to store [{}] statistics entries in wiki [{}]", statsList.size(),
+                context.getWikiId(), e);
+        } finally {
+            if (transaction) {
+                // Don't let a failed commit prevent storing the statistics of the other wikis
+                try {
+                    store.endTransaction(context, commit);
+                } catch (Exception e) {
+                    LOGGER.error("Failed to end the statistics transaction of wiki [{}]", context.getWikiId(), e);
+                    commit = false;
+                }
+            }
 
-        for (List<XWikiStatsStoreItem> stats : statsList) {
-            stats.get(0).store(stats);
+            econtext.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, currentContext);
         }
+
+        return commit;
     }
 
     // ////////////////////////////////////////////////////////////////////////////
-    // Add stats to queue
+    // Add stats to the pending statistics
     // ////////////////////////////////////////////////////////////////////////////
 
     /**
@@ -179,10 +320,19 @@ private void register() throws InterruptedException, StopStatsStoreException
      */
     public void add(XWikiStatsStoreItem statsRegisterItem)
     {
-        try {
-            this.queue.put(statsRegisterItem);
-        } catch (InterruptedException e) {
-            LOGGER.error("Statistics storage thread has been interrupted", e);
+        // Merge the statistics targeting the same object (the map is locked per entry so the merge is atomic)
+        this.pending.compute(statsRegisterItem.getId(), (statId, stats) -> {
+            if (stats == null) {
+                return new PendingStats(this.pendingOrder.incrementAndGet(), statsRegisterItem);
+            }
+
+            stats.add(statsRegisterItem);
+
+            return stats;
+        });
+
+        if (this.pending.size() >= this.maxPendingSize) {
+            this.flushRequests.offer(Boolean.TRUE);
         }
     }
 
@@ -23,14 +23,20 @@
 import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import javax.sql.DataSource;
 
 import org.apache.commons.dbcp2.BasicDataSource;
 import org.apache.commons.dbcp2.BasicDataSourceFactory;
+import org.apache.commons.dbcp2.DelegatingConnection;
 import org.hibernate.HibernateException;
 import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Environment;
@@ -101,8 +107,26 @@ public class DBCPConnectionProvider implements ConnectionProvider, Configurable,
 
     private static final String PREFIX = "hibernate.dbcp.";
 
+    /**
+     * The upper bounds (exclusive, in milliseconds) of the buckets of the connection wait histogram.
+     */
+    private static final long[] WAIT_HISTOGRAM_BOUNDS = {1, 10, 100, 1000, 10000};
+
     private BasicDataSource ds;
 
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(WAIT_HISTOGRAM_BOUNDS.length + 1);
+
+    /**
+     * The database (schema or catalog) each physical connection is currently bound to. Weak keys so that the closed
+     * connections are forgotten.
+     */
+    private final Map<Connection, String> currentDatabases = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * The pool resets the schema and catalog of the connections it hands out when a default one is configured.
+     */
+    private boolean currentDatabaseTracked;
+
     // Old Environment property for backward-compatibility (property removed in Hibernate3)
     private static final String COMPATIBILITY_PS_MAXACTIVE = "ps.maxActive";
 
@@ -219,6 +243,7 @@ public void configure(Map props) throws HibernateException
 
             // Let the factory create the pool
             this.ds = BasicDataSourceFactory.createDataSource(dbcpProperties);
+            this.currentDatabaseTracked = this.ds.getDefaultSchema() == null && this.ds.getDefaultCatalog() == null;
 
             // The BasicDataSource has lazy initialization
             // borrowing a connection will start the DataSource
@@ -255,9 +280,11 @@ public Connection getConnection() throws SQLException
         }
 
         Connection conn = null;
+        long start = System.nanoTime();
         try {
             conn = this.ds.getConnection();
         } finally {
+            recordWait(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
             logStatistics();
         }
         return conn;
@@ -307,6 +334,122 @@ public boolean supportsAggressiveRelease()
         return false;
     }
 
+    private void recordWait(long wait)
+    {
+        int bucket = 0;
+        while (bucket < WAIT_HISTOGRAM_BOUNDS.length && wait >= WAIT_HISTOGRAM_BOUNDS[bucket]) {
+            bucket++;
+        }
+        this.waitHistogram.incrementAndGet(bucket);
+    }
+
+    /**
+     * @return the number of connections currently borrowed from the pool, or -1 if the pool is not started
+     * @since 18.8.0RC1
+     */
+    public int getNumActive()
+    {
+        BasicDataSource dataSource = this.ds;
+
+        return dataSource != null ? dataSource.getNumActive() : -1;
+    }
+
+    /**
+     * @return the number of connections currently idle in the pool, or -1 if the pool is not started
+     * @since 18.8.0RC1
+     */
+    public int getNumIdle()
+    {
+        BasicDataSource dataSource = this.ds;
+
+        return dataSource != null ? dataSource.getNumIdle() : -1;
+    }
+
+    /**
+     * @return the maximum number of connections which can be borrowed from the pool at the same time, or -1 if the
+     *         pool is not started
+     * @since 18.8.0RC1
+     */
+    public int getMaxTotal()
+    {
+        BasicDataSource dataSource = this.ds;
+
+        return dataSource != null ? dataSource.getMaxTotal() : -1;
+    }
+
+    /**
+     * @return the number of connections borrowed from the pool, indexed by the time spent waiting for them (e.g.
+     *         {@code "<10ms"} for the connections obtained in 1 to 9 milliseconds)
+     * @since 18.8.0RC1
+     */
+    public Map<String, Long> getWaitHistogram()
+    {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < WAIT_HISTOGRAM_BOUNDS.length; i++) {
+            histogram.put("<" + WAIT_HISTOGRAM_BOUNDS[i] + "ms", this.waitHistogram.get(i));
+        }
+        histogram.put(">=" + WAIT_HISTOGRAM_BOUNDS[WAIT_HISTOGRAM_BOUNDS.length - 1] + "ms",
+            this.waitHistogram.get(WAIT_HISTOGRAM_BOUNDS.length));
+
+        return histogram;
+    }
+
+    /**
+     * @param connection a connection obtained from this provider
+     * @return the database (schema or catalog) the connection was last bound to using
+     *         {@link #setCurrentDatabase(Connection, String)}, or {@code null} if unknown
+     * @since 18.8.0RC1
+     */
+    public String getCurrentDatabase(Connection connection)
+    {
+        return this.currentDatabaseTracked ? this.currentDatabases.get(getPhysicalConnection(connection)) : null;
+    }
+
+    /**
+     * Remember the database (schema or catalog) a connection is bound to, so that switching it again to the same
+     * database can be avoided the next time it's borrowed from the pool.
+     *
+     * @param connection a connection obtained from this provider
+     * @param database the database the connection is now bound to, or {@code null} if unknown
+     * @since 18.8.0RC1
+     */
+    public void setCurrentDatabase(Connection connection, String database)
+    {
+        if (this.currentDatabaseTracked) {
+            Connection physicalConnection = getPhysicalConnection(connection);
+            if (database != null) {
+                this.currentDatabases.put(physicalConnection, database);
+            } else {
+                this.currentDatabases.remove(physicalConnection);
+            }
+        }
+    }
+
+    /**
+     * Forget the database (schema or catalog) of all the connections, for example after running tools which might have
+     * switched the database of the connections they used without going through
+     * {@link #setCurrentDatabase(Connection, String)}.
+     *
+     * @since 18.8.0RC1
+     */
+    public void resetCurrentDatabases()
+    {
+        this.currentDatabases.clear();
+    }
+
+    private Connection getPhysicalConnection(Connection connection)
+    {
+        // The pool hands out a new wrapper each time a connection is borrowed
+        if (connection instanceof DelegatingConnection<?> delegatingConnection) {
+            Connection physicalConnection = delegatingConnection.getInnermostDelegateInternal();
+            if (physicalConnection != null) {
+                return physicalConnection;
+            }
+        }
+
+        return connection;
+    }
+
     protected void logStatistics()
     {
         if (LOGGER.isDebugEnabled()) {
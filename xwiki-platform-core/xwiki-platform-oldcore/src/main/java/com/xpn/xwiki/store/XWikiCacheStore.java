@@ -20,12 +20,14 @@
 package com.xpn.xwiki.store;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 
+import org.apache.commons.lang3.function.FailableConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.xwiki.bridge.event.WikiDeletedEvent;
@@ -58,6 +60,8 @@
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.doc.XWikiLink;
 import com.xpn.xwiki.doc.XWikiLock;
+import com.xpn.xwiki.internal.profile.RequestProfile;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 import com.xpn.xwiki.internal.store.AbstractXWikiStore;
 import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.web.Utils;
@@ -97,6 +101,12 @@ public class XWikiCacheStore extends AbstractXWikiStore
     @Inject
     private CacheManager cacheManager;
 
+    /**
+     * Not available when not used as a component.
+     */
+    @Inject
+    private RequestProfiler profiler;
+
     @Inject
     @Named("xwikicfg")
     private ConfigurationSource configuration;
@@ -302,6 +312,30 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
         }
     }
 
+    @Override
+    public void saveXWikiDocs(Collection<XWikiDocument> documents,
+        FailableConsumer<XWikiDocument, XWikiException> beforeSave, XWikiContext inputxcontext) throws XWikiException
+    {
+        // Make sure to use the right XWikiContext instance to avoid issues
+        XWikiContext context = getExecutionXContext(inputxcontext, true);
+
+        try {
+            this.store.saveXWikiDocs(documents, beforeSave, context);
+
+            for (XWikiDocument document : documents) {
+                document.setStore(this.store);
+            }
+        } finally {
+            // Flushing the cache
+            for (XWikiDocument document : documents) {
+                invalidateCache(getKey(document, context));
+            }
+
+            // Restore the previous XWikiContext
+            restoreExecutionXContext();
+        }
+    }
+
     private void invalidateCache(String key)
     {
         this.cacheLoaderGroup.invalidate(key, k -> {
@@ -405,6 +439,9 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
 
             this.logger.debug("Starting checking for Document [{}] in cache", key);
 
+            long start = System.nanoTime();
+            String profileCategory = RequestProfile.DOCUMENT_CACHE_HIT;
+
             XWikiDocument cachedoc;
             try {
                 cachedoc = getCache().get(key);
@@ -437,6 +474,7 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
                         .setOriginalDocument(
                             new XWikiDocument(cachedoc.getDocumentReference(), cachedoc.getLocale()));
                 } else {
+                    profileCategory = RequestProfile.DOCUMENT_CACHE_MISS;
                     cachedoc = this.cacheLoader.loadAndStoreInCache(key,
                         k -> {
                             this.logger.debug("Trying to get Document [{}] from persistent storage", key);
@@ -454,6 +492,10 @@ public XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext)
             cachedoc.setStore(this);
             this.logger.debug("Ending checking for Document [{}] in cache", key);
 
+            if (this.profiler != null) {
+                this.profiler.record(profileCategory, System.nanoTime() - start);
+            }
+
             return cachedoc;
         } catch (ExecutionException e) {
             if (e.getCause() instanceof XWikiException xwikiException) {
@@ -48,9 +48,11 @@
 import javax.inject.Singleton;
 
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.collections4.map.ReferenceMap;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.function.FailableConsumer;
 import org.hibernate.FlushMode;
 import org.hibernate.HibernateException;
 import org.hibernate.ObjectNotFoundException;
@@ -133,6 +135,60 @@ public class XWikiHibernateStore extends XWikiHibernateBaseStore implements XWik
     private static final String DOC_ID = "docId";
     private static final String SELECT_DISTINCT_DOC_FULLNAME = "select distinct doc.fullName";
 
+    /**
+     * The maximum number of identifiers passed to a single "in" restriction (Oracle does not support more than 1000).
+     */
+    private static final int MAX_IN_PARAMETERS = 1000;
+
+    /**
+     * The number of statements sent to the database at once when saving several documents.
+     */
+    private static final int BULK_SAVE_JDBC_BATCH_SIZE = 50;
+
+    private static final String IDS = "ids";
+
+    /**
+     * The objects and properties of a document which are already stored in the database, loaded before saving the
+     * document to avoid checking their existence one by one.
+     *
+     * @version $Id$
+     */
+    private static final class StoredObjects
+    {
+        private final Set<Long> objectIds = new HashSet<>();
+
+        private final Map<Long, Map<String, String>> propertyClassTypes = new HashMap<>();
+
+        private final Map<Long, Set<String>> removedProperties = new HashMap<>();
+
+        boolean containsObject(long objectId)
+        {
+            return this.objectIds.contains(objectId);
+        }
+
+        String getPropertyClassType(long objectId, String propertyName)
+        {
+            Map<String, String> classTypes = this.propertyClassTypes.get(objectId);
+
+            return classTypes != null ? classTypes.get(propertyName) : null;
+        }
+
+        void removeProperty(long objectId, String propertyName)
+        {
+            this.removedProperties.computeIfAbsent(objectId, id -> new HashSet<>()).add(propertyName);
+        }
+
+        /**
+         * @return true if the property was deleted during the save, in which case its stored state is unknown
+         */
+        boolean isPropertyRemoved(long objectId, String propertyName)
+        {
+            Set<String> removed = this.removedProperties.get(objectId);
+
+            return removed != null && removed.contains(propertyName);
+        }
+    }
+
     @Inject
     private Logger logger;
 
@@ -520,8 +576,67 @@ private boolean isClassOptimized(DocumentReference classReference)
             || this.optimizedObjectClasses.get().contains(classReference.getLocalDocumentReference());
     }
 
+    @Override
+    public void saveXWikiDocs(Collection<XWikiDocument> documents,
+        FailableConsumer<XWikiDocument, XWikiException> beforeSave, XWikiContext inputxcontext) throws XWikiException
+    {
+        XWikiContext context = getExecutionXContext(inputxcontext, true);
+
+        try {
+            checkHibernate(context);
+
+            // Inject the custom mappings of all the documents before starting the transaction
+            SessionFactory sfactory = getSessionFactory();
+            for (XWikiDocument document : documents) {
+                sfactory = injectCustomMappingsInSessionFactory(document, context);
+            }
+
+            boolean bTransaction = beginTransaction(sfactory, context);
+            try {
+                // Send the inserts and updates of the documents, objects and properties by batches
+                getSession(context).setJdbcBatchSize(BULK_SAVE_JDBC_BATCH_SIZE);
+
+                for (XWikiDocument document : documents) {
+                    beforeSave.accept(document);
+
+                    saveXWikiDoc(document, context, false, false);
+                }
+
+                if (bTransaction) {
+                    endTransaction(context, true);
+                }
+
+                // The documents are saved only once all of them have been committed
+                for (XWikiDocument document : documents) {
+                    markSaved(document);
+                }
+            } finally {
+                if (bTransaction) {
+                    try {
+                        endTransaction(context, false);
+                    } catch (Exception e) {
+                        // Not a lot we can do here if there was an exception committing and an exception rolling back.
+                    }
+                }
+            }
+        } catch (XWikiException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                XWikiException.ERROR_XWIKI_STORE_HIBERNATE_SAVING_DOC, "Exception while saving documents", e);
+        } finally {
+            restoreExecutionXContext();
+        }
+    }
+
     @Override
     public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean bTransaction) throws XWikiException
+    {
+        saveXWikiDoc(doc, inputxcontext, bTransaction, true);
+    }
+
+    private void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean bTransaction, boolean markSaved)
+        throws XWikiException
     {
         Lock lock = this.documentSavingLockMap.computeIfAbsent(doc.getId(), id -> new ReentrantLock(true));
         lock.lock();
@@ -698,19 +813,14 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
                     }
 
                     if (doc.hasElement(XWikiDocument.HAS_OBJECTS)) {
+                        // Check the existence of all the objects and properties at once
+                        StoredObjects storedObjects = getStoredObjects(doc, session);
+
                         // TODO: Delete all objects for which we don't have a name in the Map
                         for (Map.Entry<DocumentReference, List<BaseObject>> entry : doc.getXObjects().entrySet()) {
                             List<BaseObject> objects = entry.getValue();
                             if (!objects.isEmpty()) {
-                                boolean optimizedObjects =
-                                    // If the document is new, it does not make any sense to skip an object
-                                    !doc.isNew()
-                                    // Apply optimizations only if dirty flags can be trusted (generally when the
-                                    // XWikiDocument can be sourced from the store, cloned or not)
-                                    && doc.isChangeTracked()
-                                    // Get from the configuration the xobject classes on which to apply save
-                                    // optimization
-                                    && isClassOptimized(entry.getKey());
+                                boolean optimizedObjects = isOptimizedObjects(doc, entry.getKey());
 
                                 int count = 0;
                                 for (BaseObject obj : objects) {
@@ -722,7 +832,7 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
                                         if (StringUtils.isEmpty(obj.getGuid())) {
                                             obj.setGuid(null);
                                         }
-                                        saveXWikiCollection(obj, context, false);
+                                        saveXWikiCollection(obj, context, false, storedObjects);
                                     }
                                 }
 
@@ -745,16 +855,9 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
                         endTransaction(context, true);
                     }
 
-                    doc.setNew(false);
-
-                    // Make sure that properly saved documents aren't restricted.
-                    doc.setRestricted(false);
-
-                    // We can track modifications now
-                    doc.setChangeTracked(true);
-
-                    // We need to ensure that the saved document becomes the original document
-                    doc.setOriginalDocument(doc.clone());
+                    if (markSaved) {
+                        markSaved(doc);
+                    }
                 } finally {
                     if (bTransaction) {
                         try {
@@ -780,6 +883,20 @@ public void saveXWikiDoc(XWikiDocument doc, XWikiContext inputxcontext, boolean
         }
     }
 
+    private void markSaved(XWikiDocument doc)
+    {
+        doc.setNew(false);
+
+        // Make sure that properly saved documents aren't restricted.
+        doc.setRestricted(false);
+
+        // We can track modifications now
+        doc.setChangeTracked(true);
+
+        // We need to ensure that the saved document becomes the original document
+        doc.setOriginalDocument(doc.clone());
+    }
+
     private void updateXWikiSpaceTable(XWikiDocument document, Session session)
     {
         if (document.getLocale().equals(Locale.ROOT)) {
@@ -1372,12 +1489,64 @@ private void checkObjectClassIsLocal(BaseCollection object, XWikiContext context
         }
     }
 
+    private boolean isOptimizedObjects(XWikiDocument doc, DocumentReference classReference)
+    {
+        // If the document is new, it does not make any sense to skip an object
+        return !doc.isNew()
+            // Apply optimizations only if dirty flags can be trusted (generally when the XWikiDocument can be sourced
+            // from the store, cloned or not)
+            && doc.isChangeTracked()
+            // Get from the configuration the xobject classes on which to apply save optimization
+            && isClassOptimized(classReference);
+    }
+
+    private StoredObjects getStoredObjects(XWikiDocument doc, Session session)
+    {
+        // Only check the objects which are going to be saved
+        List<Long> objectIds = new ArrayList<>();
+        for (Map.Entry<DocumentReference, List<BaseObject>> entry : doc.getXObjects().entrySet()) {
+            boolean optimizedObjects = isOptimizedObjects(doc, entry.getKey());
+            for (BaseObject object : entry.getValue()) {
+                if (object != null && (!optimizedObjects || object.isDirty())) {
+                    // The identifier depends on the document reference, which is updated before saving the object
+                    object.setDocumentReference(doc.getDocumentReference());
+                    objectIds.add(object.getId());
+                }
+            }
+        }
+
+        StoredObjects storedObjects = new StoredObjects();
+        for (List<Long> ids : ListUtils.partition(objectIds, MAX_IN_PARAMETERS)) {
+            Query<Long> objectQuery =
+                session.createQuery("select obj.id from BaseObject as obj where obj.id in (:ids)", Long.class);
+            objectQuery.setParameterList(IDS, ids);
+            storedObjects.objectIds.addAll(objectQuery.list());
+
+            Query<Object[]> propertyQuery = session.createQuery(
+                "select prop.id.id, prop.id.name, prop.classType from BaseProperty as prop where prop.id.id in (:ids)",
+                Object[].class);
+            propertyQuery.setParameterList(IDS, ids);
+            for (Object[] property : propertyQuery.list()) {
+                storedObjects.propertyClassTypes.computeIfAbsent((Long) property[0], id -> new HashMap<>())
+                    .put((String) property[1], (String) property[2]);
+            }
+        }
+
+        return storedObjects;
+    }
+
     /**
      * @deprecated This is internal to XWikiHibernateStore and may be removed in the future.
      */
     @Deprecated
     public void saveXWikiCollection(BaseCollection object, XWikiContext inputxcontext, boolean bTransaction)
         throws XWikiException
+    {
+        saveXWikiCollection(object, inputxcontext, bTransaction, null);
+    }
+
+    private void saveXWikiCollection(BaseCollection object, XWikiContext inputxcontext, boolean bTransaction,
+        StoredObjects storedObjects) throws XWikiException
     {
         XWikiContext context = getExecutionXContext(inputxcontext, true);
 
@@ -1398,16 +1567,24 @@ public void saveXWikiCollection(BaseCollection object, XWikiContext inputxcontex
             try {
                 Session session = getSession(context);
 
-                // Verify if the property already exists
+                // Verify if the object already exists
                 Query<Long> query;
-                if (stats) {
-                    query = session.createQuery(
-                        "select obj.id from " + object.getClass().getName() + " as obj where obj.id = :id", Long.class);
+                boolean exists;
+                if (storedObjects != null && !stats) {
+                    exists = storedObjects.containsObject(object.getId());
                 } else {
-                    query = session.createQuery("select obj.id from BaseObject as obj where obj.id = :id", Long.class);
+                    if (stats) {
+                        query = session.createQuery(
+                            "select obj.id from " + object.getClass().getName() + " as obj where obj.id = :id",
+                            Long.class);
+                    } else {
+                        query =
+                            session.createQuery("select obj.id from BaseObject as obj where obj.id = :id", Long.class);
+                    }
+                    query.setParameter("id", object.getId());
+                    exists = query.uniqueResult() != null;
                 }
-                query.setParameter("id", object.getId());
-                if (query.uniqueResult() == null) {
+                if (!exists) {
                     if (stats) {
                         session.save(object);
                     } else {
@@ -1443,6 +1620,9 @@ public void saveXWikiCollection(BaseCollection object, XWikiContext inputxcontex
                             BaseProperty prop = (BaseProperty) object.getFieldsToRemove().get(i);
                             if (!handledProps.contains(prop.getName())) {
                                 session.delete(prop);
+                                if (storedObjects != null) {
+                                    storedObjects.removeProperty(prop.getId(), prop.getName());
+                                }
                             }
                         }
                         object.setFieldsToRemove(new ArrayList<>());
@@ -1476,7 +1656,7 @@ public void saveXWikiCollection(BaseCollection object, XWikiContext inputxcontex
 
                         String pname = prop.getName();
                         if (pname != null && !pname.trim().isEmpty() && !handledProps.contains(pname)) {
-                            saveXWikiPropertyInternal(prop, context, false);
+                            saveXWikiPropertyInternal(prop, context, false, storedObjects);
                         }
                     }
                 }
@@ -1798,7 +1978,7 @@ private void loadXWikiProperty(PropertyInterface property, XWikiContext context)
     }
 
     private void saveXWikiPropertyInternal(final PropertyInterface property, final XWikiContext context,
-        final boolean runInOwnTransaction) throws XWikiException
+        final boolean runInOwnTransaction, StoredObjects storedObjects) throws XWikiException
     {
         // Clone runInOwnTransaction so the value passed is not altered.
         boolean bTransaction = runInOwnTransaction;
@@ -1810,13 +1990,19 @@ private void saveXWikiPropertyInternal(final PropertyInterface property, final X
             try {
                 final Session session = this.getSession(context);
 
-                Query<String> query = session.createQuery(
-                    "select prop.classType from BaseProperty as prop where prop.id.id = :id and prop.id.name= :name",
-                    String.class);
-                query.setParameter("id", property.getId());
-                query.setParameter("name", property.getName());
+                String oldClassType;
+                // The query flushes the pending deletion of a property removed and added back in the same save
+                if (storedObjects != null
+                    && !storedObjects.isPropertyRemoved(property.getId(), property.getName())) {
+                    oldClassType = storedObjects.getPropertyClassType(property.getId(), property.getName());
+                } else {
+                    Query<String> query = session.createQuery("select prop.classType from BaseProperty as prop "
+                        + "where prop.id.id = :id and prop.id.name= :name", String.class);
+                    query.setParameter("id", property.getId());
+                    query.setParameter("name", property.getName());
 
-                String oldClassType = query.uniqueResult();
+                    oldClassType = query.uniqueResult();
+                }
                 String newClassType = ((BaseProperty) property).getClassType();
                 if (oldClassType == null) {
                     session.save(property);
@@ -2965,15 +3151,15 @@ public SessionFactory injectCustomMappingsInSessionFactory(XWikiContext inputxco
             List<XWikiDocument> list;
             list = searchDocuments(" where (doc.xWikiClassXML is not null and doc.xWikiClassXML like '<%')", true,
                 false, false, 0, 0, context);
-            boolean result = false;
+            List<BaseClass> classes = new ArrayList<>();
 
             for (XWikiDocument doc : list) {
                 if (!doc.getXClass().getFieldList().isEmpty()) {
-                    result |= injectCustomMapping(doc.getXClass(), context);
+                    classes.add(doc.getXClass());
                 }
             }
 
-            if (!result) {
+            if (!injectCustomMappings(classes)) {
                 return getSessionFactory();
             }
 
@@ -2995,17 +3181,17 @@ public boolean injectCustomMappings(XWikiDocument doc, XWikiContext inputxcontex
                 return false;
             }
 
-            boolean result = false;
+            List<BaseClass> classes = new ArrayList<>();
             for (List<BaseObject> objectsOfType : doc.getXObjects().values()) {
                 for (BaseObject object : objectsOfType) {
                     if (object != null) {
-                        result |= injectCustomMapping(object.getXClass(context), context);
+                        classes.add(object.getXClass(context));
                         // Each class must be mapped only once
                         break;
                     }
                 }
             }
-            return result;
+            return injectCustomMappings(classes);
         } finally {
             restoreExecutionXContext();
         }
@@ -3022,6 +3208,18 @@ public boolean injectCustomMappings(XWikiDocument doc, XWikiContext inputxcontex
      */
     public boolean injectCustomMapping(String className, String customMapping, XWikiContext inputxcontext)
         throws XWikiException
+    {
+        if (!addCustomMapping(className, customMapping)) {
+            return false;
+        }
+
+        // Rebuild to take into account the new mapping
+        this.store.build();
+
+        return true;
+    }
+
+    private boolean addCustomMapping(String className, String customMapping)
     {
         // If we haven't turned of dynamic custom mappings we should not inject them
         if (!this.hibernateConfiguration.hasDynamicCustomMappings()) {
@@ -3037,7 +3235,33 @@ public boolean injectCustomMapping(String className, String customMapping, XWiki
         this.store.getConfiguration().addInputStream(
             new ByteArrayInputStream(makeMapping(className, customMapping).getBytes(StandardCharsets.UTF_8)));
 
-        // Rebuild to take into account the new mapping
+        return true;
+    }
+
+    /**
+     * Inject the custom mappings of several classes at once, to rebuild the session factory only once.
+     */
+    private boolean injectCustomMappings(Collection<BaseClass> classes) throws XWikiException
+    {
+        Set<String> injectedClasses = new HashSet<>();
+        for (BaseClass bclass : classes) {
+            if (bclass.hasExternalCustomMapping() && !injectedClasses.contains(bclass.getName())) {
+                if (!isCustomMappingValid(bclass, bclass.getCustomMapping())) {
+                    throw new XWikiException(XWikiException.MODULE_XWIKI_STORE,
+                        XWikiException.ERROR_XWIKI_STORE_HIBERNATE_INVALID_MAPPING, "Invalid Custom Mapping");
+                }
+
+                if (addCustomMapping(bclass.getName(), bclass.getCustomMapping())) {
+                    injectedClasses.add(bclass.getName());
+                }
+            }
+        }
+
+        if (injectedClasses.isEmpty()) {
+            return false;
+        }
+
+        // Rebuild to take into account the new mappings
         this.store.build();
 
         return true;
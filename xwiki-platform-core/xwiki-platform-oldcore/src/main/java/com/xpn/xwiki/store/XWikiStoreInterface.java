@@ -19,8 +19,10 @@
  */
 package com.xpn.xwiki.store;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.apache.commons.lang3.function.FailableConsumer;
 import org.xwiki.component.annotation.Role;
 import org.xwiki.model.reference.AttachmentReference;
 import org.xwiki.model.reference.DocumentReference;
@@ -57,6 +59,29 @@ default void renameXWikiDoc(XWikiDocument doc, DocumentReference newReference, X
 
     void saveXWikiDoc(XWikiDocument doc, XWikiContext context, boolean bTransaction) throws XWikiException;
 
+    /**
+     * Save several documents of the current wiki at once. The store is free to save them in a single transaction, in
+     * which case none of the documents is saved if one of them cannot be saved.
+     * <p>
+     * The passed callback is called right before writing each document, in the same transaction, so that what it does
+     * in the store is rolled back with the documents. The documents are marked as saved (not new anymore, with
+     * themselves as original document) only once all of them have been written.
+     *
+     * @param documents the documents to save
+     * @param beforeSave called with each document right before it's saved
+     * @param context the current context
+     * @throws XWikiException when failing to save the documents
+     * @since 18.8.0RC1
+     */
+    default void saveXWikiDocs(Collection<XWikiDocument> documents,
+        FailableConsumer<XWikiDocument, XWikiException> beforeSave, XWikiContext context) throws XWikiException
+    {
+        for (XWikiDocument document : documents) {
+            beforeSave.accept(document);
+            saveXWikiDoc(document, context);
+        }
+    }
+
     XWikiDocument loadXWikiDoc(XWikiDocument doc, XWikiContext context) throws XWikiException;
 
     void deleteXWikiDoc(XWikiDocument doc, XWikiContext context) throws XWikiException;
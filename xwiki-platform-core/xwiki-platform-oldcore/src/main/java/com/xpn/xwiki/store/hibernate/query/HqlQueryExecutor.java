@@ -58,8 +58,10 @@
 import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
 import com.xpn.xwiki.internal.store.hibernate.query.HqlQueryUtils;
+import com.xpn.xwiki.internal.store.hibernate.query.QueryResultCache;
 import com.xpn.xwiki.store.XWikiHibernateStore;
 import com.xpn.xwiki.util.Util;
 import com.xpn.xwiki.web.Utils;
@@ -102,6 +104,9 @@ public class HqlQueryExecutor extends AbstractQueryExecutor implements Initializ
     @Inject
     private HQLStatementValidator queryValidator;
 
+    @Inject
+    private QueryResultCache queryResultCache;
+
     @Inject
     private Logger logger;
 
@@ -202,12 +207,14 @@ public <T> List<T> execute(final Query query) throws QueryException
             // Filter the query
             Query filteredQuery = filterQuery(query);
 
-            // Execute the query
-            List<T> results = getStore().executeRead(getContext(), session -> {
-                org.hibernate.query.Query<T> hquery = createQuery(session, filteredQuery);
-
-                return hquery.list();
-            });
+            // Execute the query (or get its results from the cache)
+            List<T> results;
+            if (query.isCacheable()) {
+                results = this.queryResultCache.getResults(getContext().getWikiId(), query, filteredQuery,
+                    () -> executeRead(filteredQuery));
+            } else {
+                results = executeRead(filteredQuery);
+            }
 
             // Filter the query result
             results = filterResults(filteredQuery, results);
@@ -220,6 +227,15 @@ public <T> List<T> execute(final Query query) throws QueryException
         }
     }
 
+    private <T> List<T> executeRead(Query filteredQuery) throws XWikiException
+    {
+        return getStore().executeRead(getContext(), session -> {
+            org.hibernate.query.Query<T> hquery = createQuery(session, filteredQuery);
+
+            return hquery.list();
+        });
+    }
+
     protected Query filterQuery(Query query)
     {
         Query filteredQuery = query;
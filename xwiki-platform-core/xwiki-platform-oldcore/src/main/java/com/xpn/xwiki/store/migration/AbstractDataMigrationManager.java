@@ -29,9 +29,16 @@
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.inject.Inject;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.slf4j.Logger;
 import org.xwiki.bridge.event.WikiDeletedEvent;
 import org.xwiki.component.manager.ComponentLookupException;
@@ -40,6 +47,8 @@
 import org.xwiki.component.phase.InitializationException;
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.job.event.status.JobProgressManager;
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.ObservationManager;
@@ -246,7 +255,21 @@ public Exception getLastMigrationException()
     /**
      * A cache of wiki database version.
      */
-    private final Map<String, MigrationStatus> statusCache = new HashMap<>();
+    private final Map<String, MigrationStatus> statusCache = new ConcurrentHashMap<>();
+
+    /**
+     * Lock used to never apply a migration which is not wiki independent to several wikis at the same time.
+     */
+    private final Object wikiDependentMigrationLock = new Object();
+
+    /**
+     * A step of the migration of a wiki database.
+     */
+    @FunctionalInterface
+    private interface MigrationStep
+    {
+        void run() throws DataMigrationException;
+    }
 
     /**
      * The final database version when the migration process finishes. This is use to compute the DBVersion of an empty
@@ -547,16 +570,19 @@ private void updateMigrationStatus(XWikiDBVersion version, Exception e) throws D
      * @param e exception thrown by the last migration or null if the migration was successful
      * @throws DataMigrationException if any error
      */
-    private synchronized void updateMigrationStatus(XWikiDBVersion version, boolean migrationAttempted, Exception e)
+    private void updateMigrationStatus(XWikiDBVersion version, boolean migrationAttempted, Exception e)
         throws DataMigrationException
     {
-        String wikiName = getXWikiContext().getWikiId();
-        if (!migrationAttempted || e == null) {
-            setDBVersionToDatabase(version);
-        }
-        if (version != null) {
-            this.statusCache.put(wikiName,
-                (migrationAttempted) ? new MigrationStatus(version, e) : new MigrationStatus(version));
+        // Don't synchronize on the manager since it's locked while the wikis are migrated in parallel.
+        synchronized (this.statusCache) {
+            String wikiName = getXWikiContext().getWikiId();
+            if (!migrationAttempted || e == null) {
+                setDBVersionToDatabase(version);
+            }
+            if (version != null) {
+                this.statusCache.put(wikiName,
+                    (migrationAttempted) ? new MigrationStatus(version, e) : new MigrationStatus(version));
+            }
         }
     }
 
@@ -707,15 +733,25 @@ protected void startMigrations() throws DataMigrationException
                 throw new DataMigrationException(message);
             }
 
-            int errorCount = 0;
-            for (String database : databasesToMigrate) {
-                this.progress.startStep(this);
+            int threads = this.hibernateConfiguration.getMigrationThreads();
+            int errorCount;
+            if (threads > 1 && databasesToMigrate.size() > 1) {
+                errorCount = migrateDatabases(databasesToMigrate, threads);
+            } else {
+                errorCount = 0;
+                long start = System.currentTimeMillis();
+                int migratedCount = 0;
+                for (String database : databasesToMigrate) {
+                    this.progress.startStep(this);
+
+                    if (!migrateDatabase(database)) {
+                        errorCount++;
+                    }
 
-                if (!migrateDatabase(database)) {
-                    errorCount++;
-                }
+                    this.progress.endStep(this);
 
-                this.progress.endStep(this);
+                    logProgress(++migratedCount, databasesToMigrate.size(), start);
+                }
             }
 
             if (errorCount > 0) {
@@ -728,6 +764,99 @@ protected void startMigrations() throws DataMigrationException
         }
     }
 
+    /**
+     * Migrate the passed databases in parallel, each one in its own thread with its own execution context (and thus
+     * its own database session).
+     *
+     * @param databases the names of the databases to migrate
+     * @param threads the maximum number of databases to migrate at the same time
+     * @return the number of databases which failed to be migrated
+     * @throws DataMigrationException if the parallel migration cannot be started or is interrupted
+     */
+    private int migrateDatabases(Set<String> databases, int threads) throws DataMigrationException
+    {
+        ExecutionContextManager executionContextManager;
+        try {
+            executionContextManager = this.componentManager.getInstance(ExecutionContextManager.class);
+        } catch (ComponentLookupException e) {
+            throw new DataMigrationException("Failed to lookup the execution context manager", e);
+        }
+
+        this.logger.info("Migrating [{}] wiki databases using [{}] threads", databases.size(), threads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+            BasicThreadFactory.builder().namingPattern("XWiki data migration thread %d").daemon(true).build());
+        try {
+            CompletionService<Boolean> completionService = new ExecutorCompletionService<>(executor);
+            XWikiContext xcontext = getXWikiContext();
+            for (String database : databases) {
+                // The XWiki context cannot be shared between threads.
+                XWikiContext workerContext = xcontext.clone();
+                completionService
+                    .submit(() -> migrateDatabaseInWorkerContext(database, workerContext, executionContextManager));
+            }
+
+            long start = System.currentTimeMillis();
+            int errorCount = 0;
+            for (int migratedCount = 1; migratedCount <= databases.size(); migratedCount++) {
+                this.progress.startStep(this);
+
+                try {
+                    if (!completionService.take().get()) {
+                        errorCount++;
+                    }
+                } catch (ExecutionException e) {
+                    this.logger.error("Unexpected error while migrating a wiki database", e);
+                    errorCount++;
+                }
+
+                this.progress.endStep(this);
+
+                logProgress(migratedCount, databases.size(), start);
+            }
+
+            return errorCount;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+
+            throw new DataMigrationException("Interrupted while migrating the wiki databases", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean migrateDatabaseInWorkerContext(String database, XWikiContext xcontext,
+        ExecutionContextManager executionContextManager)
+    {
+        ExecutionContext executionContext = new ExecutionContext();
+        xcontext.declareInExecutionContext(executionContext);
+        try {
+            executionContextManager.initialize(executionContext);
+        } catch (ExecutionContextException e) {
+            this.logger.error("Failed to initialize the execution context to migrate database [{}]", database, e);
+
+            return false;
+        }
+
+        // Prevent the store from checking the database of the current thread while it's being migrated.
+        this.lock.lock();
+        try {
+            return migrateDatabase(database);
+        } finally {
+            this.lock.unlock();
+            this.execution.removeContext();
+        }
+    }
+
+    private void logProgress(int migratedCount, int totalCount, long start)
+    {
+        long elapsed = System.currentTimeMillis() - start;
+        long remaining = elapsed * (totalCount - migratedCount) / migratedCount;
+
+        this.logger.info("Migrated [{}/{}] wiki databases in [{}] s, estimated remaining time: [{}] s", migratedCount,
+            totalCount, elapsed / 1000, remaining / 1000);
+    }
+
     /**
      * Returns the names of the databases that should be migrated. The main wiki database should have been migrated and
      * is never returned. This is controlled through the "xwiki.store.migration.databases" configuration property in
@@ -779,7 +908,10 @@ private boolean migrateDatabase(String database)
             context.setOriginalWikiId(database);
 
             Collection<XWikiMigration> neededMigrations = getNeededMigrations();
-            updateSchema(neededMigrations);
+            // The schema updates include the Liquibase change logs of the migrations.
+            boolean wikiIndependent =
+                neededMigrations.stream().allMatch(migration -> migration.dataMigration.isWikiIndependent());
+            runMigrationStep(wikiIndependent, () -> updateSchema(neededMigrations));
             startMigrations(neededMigrations);
         } catch (Exception e) {
             try {
@@ -878,7 +1010,7 @@ protected void startMigrations(Collection<XWikiMigration> migrations) throws Dat
                 this.logger.info("Starting data migration [{}] with version [{}] on database [{}]",
                     migration.dataMigration.getName(), migration.dataMigration.getVersion(), database);
 
-                migration.dataMigration.migrate();
+                runMigrationStep(migration.dataMigration.isWikiIndependent(), migration.dataMigration::migrate);
 
                 if (migration.dataMigration.getVersion().compareTo(curversion) > 0) {
                     curversion = migration.dataMigration.getVersion();
@@ -903,6 +1035,17 @@ protected void startMigrations(Collection<XWikiMigration> migrations) throws Dat
         setDatabaseToLastestVersion(curversion);
     }
 
+    private void runMigrationStep(boolean wikiIndependent, MigrationStep step) throws DataMigrationException
+    {
+        if (wikiIndependent) {
+            step.run();
+        } else {
+            synchronized (this.wikiDependentMigrationLock) {
+                step.run();
+            }
+        }
+    }
+
     /**
      * Set the database to the latest version when migration has all been processed. If migration is launch on an empty
      * DB or latest migration was unneeded, this method ensure that the database is properly set the latest DB version.
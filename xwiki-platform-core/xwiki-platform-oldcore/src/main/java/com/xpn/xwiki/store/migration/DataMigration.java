@@ -67,4 +67,18 @@
      * @return true if the migration should be executed or false otherwise
      */
     boolean shouldExecute(XWikiDBVersion startupVersion);
+
+    /**
+     * Indicate if the migration only works on the database of the current wiki, in which case it can be applied to
+     * several wikis at the same time when the wikis are migrated in parallel (see
+     * {@code xwiki.store.migration.threads}). Such a migration must not keep the state of a run in its fields since
+     * the same instance is used by all the wikis.
+     *
+     * @return true if the migration can be applied to several wikis at the same time
+     * @since 18.8.0RC1
+     */
+    default boolean isWikiIndependent()
+    {
+        return false;
+    }
 }
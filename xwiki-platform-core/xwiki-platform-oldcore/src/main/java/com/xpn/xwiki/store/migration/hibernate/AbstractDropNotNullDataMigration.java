@@ -51,6 +51,12 @@ public AbstractDropNotNullDataMigration(Class<?> table, String property)
         this.property = property;
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public String getLiquibaseChangeLog() throws DataMigrationException
     {
@@ -99,6 +99,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(130200001);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     protected void hibernateMigrate() throws DataMigrationException, XWikiException
     {
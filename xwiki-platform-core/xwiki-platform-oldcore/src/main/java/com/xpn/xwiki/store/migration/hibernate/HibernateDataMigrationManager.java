@@ -41,6 +41,7 @@
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
 import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.store.DBCPConnectionProvider;
 import com.xpn.xwiki.store.XWikiHibernateBaseStore;
 import com.xpn.xwiki.store.XWikiHibernateBaseStore.HibernateCallback;
 import com.xpn.xwiki.store.XWikiStoreInterface;
@@ -197,6 +198,12 @@ protected void updateSchema(Collection<XWikiMigration> migrations) throws DataMi
         } catch (Exception e) {
             throw new DataMigrationException(
                 String.format("Unable to update schema of wiki [%s]", getXWikiContext().getWikiId()), e);
+        } finally {
+            // Liquibase and the Hibernate schema update may have switched the schema of the connections they used
+            DBCPConnectionProvider connectionProvider = getStore().getDBCPConnectionProvider();
+            if (connectionProvider != null) {
+                connectionProvider.resetCurrentDatabases();
+            }
         }
     }
 
@@ -58,6 +58,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(140000000);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     protected void hibernateMigrate() throws DataMigrationException, XWikiException
     {
@@ -65,6 +65,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(140200000);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public String getPreHibernateLiquibaseChangeLog() throws DataMigrationException
     {
@@ -67,6 +67,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(35100);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public boolean shouldExecute(XWikiDBVersion startupVersion)
     {
@@ -71,6 +71,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(35102);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public boolean shouldExecute(XWikiDBVersion startupVersion)
     {
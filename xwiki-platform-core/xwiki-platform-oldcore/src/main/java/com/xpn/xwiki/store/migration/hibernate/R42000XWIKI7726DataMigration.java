@@ -65,6 +65,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(42000);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public boolean shouldExecute(XWikiDBVersion startupVersion)
     {
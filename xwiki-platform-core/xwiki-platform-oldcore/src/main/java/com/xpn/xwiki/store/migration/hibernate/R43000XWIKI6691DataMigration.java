@@ -52,6 +52,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(43000);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public void hibernateMigrate() throws DataMigrationException, XWikiException
     {
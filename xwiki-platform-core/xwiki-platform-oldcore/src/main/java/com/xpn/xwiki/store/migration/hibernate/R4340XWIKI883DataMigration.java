@@ -60,6 +60,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(4340);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public void hibernateMigrate() throws DataMigrationException, XWikiException
     {
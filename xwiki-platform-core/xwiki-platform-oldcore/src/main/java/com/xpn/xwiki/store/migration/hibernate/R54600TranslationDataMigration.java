@@ -62,6 +62,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(54600);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public void hibernateMigrate() throws DataMigrationException, XWikiException
     {
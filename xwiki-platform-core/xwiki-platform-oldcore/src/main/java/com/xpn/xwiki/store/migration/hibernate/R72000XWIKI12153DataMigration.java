@@ -71,6 +71,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(72000);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public void hibernateMigrate() throws DataMigrationException, XWikiException
     {
@@ -61,6 +61,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(73000);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public void hibernateMigrate() throws DataMigrationException, XWikiException
     {
@@ -59,6 +59,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(7350);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public void hibernateMigrate() throws DataMigrationException, XWikiException
     {
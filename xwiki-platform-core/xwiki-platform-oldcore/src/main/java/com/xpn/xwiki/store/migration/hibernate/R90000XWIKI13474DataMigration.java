@@ -55,6 +55,12 @@ public XWikiDBVersion getVersion()
         return new XWikiDBVersion(90000);
     }
 
+    @Override
+    public boolean isWikiIndependent()
+    {
+        return true;
+    }
+
     @Override
     public void hibernateMigrate() throws XWikiException, DataMigrationException
     {
@@ -101,6 +101,9 @@
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.DocumentRevisionProvider;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.profile.RequestProfile;
+import com.xpn.xwiki.internal.profile.RequestProfileStatistics;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 import com.xpn.xwiki.internal.web.LegacyAction;
 import com.xpn.xwiki.monitor.api.MonitorPlugin;
 import com.xpn.xwiki.objects.BaseObject;
@@ -196,6 +199,12 @@ public abstract class XWikiAction implements LegacyAction
     @Inject
     private DocumentRevisionProvider documentRevisionProvider;
 
+    @Inject
+    private RequestProfiler requestProfiler;
+
+    @Inject
+    private RequestProfileStatistics requestProfileStatistics;
+
     @Inject
     @Named("document")
     private UserReferenceResolver<DocumentReference> userReferenceResolver;
@@ -415,6 +424,9 @@ public void execute(XWikiContext context) throws Exception
                 }
             }
 
+            // Start collecting the time spent in the main operations (database, rendering, rights, etc.)
+            this.requestProfiler.start();
+
             getProgress().pushLevelProgress(2, this);
 
             getProgress().startStep(this, "Get XWiki instance");
@@ -770,6 +782,12 @@ public void execute(XWikiContext context) throws Exception
                 monitor.endRequest();
             }
 
+            // Aggregate the profile of the request
+            RequestProfile profile = this.requestProfiler.stop();
+            if (profile != null && context.getAction() != null) {
+                this.requestProfileStatistics.add(context.getAction(), profile);
+            }
+
             // Stop progress
             if (actionProgress != null) {
                 getProgress().popLevelProgress(this);
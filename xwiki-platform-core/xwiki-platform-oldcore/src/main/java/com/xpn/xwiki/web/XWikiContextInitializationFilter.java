@@ -42,6 +42,7 @@
 import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.WikisStartupInitializer;
 import com.xpn.xwiki.user.api.XWikiRightService;
 import com.xpn.xwiki.user.api.XWikiUser;
 
@@ -56,6 +57,17 @@
  */
 public class XWikiContextInitializationFilter implements Filter
 {
+    /**
+     * The name of the request attribute set when the requested wiki is still initializing.
+     */
+    private static final String WARMING_UP_ATTRIBUTE =
+        XWikiContextInitializationFilter.class.getName() + ".warmingUp";
+
+    /**
+     * The number of seconds after which the client is asked to retry when the requested wiki is still initializing.
+     */
+    private static final String WARMING_UP_RETRY_AFTER = "5";
+
     /**
      * XWiki context mode.
      */
@@ -70,7 +82,10 @@ public void doFilter(ServletRequest request, ServletResponse response, FilterCha
             if (request instanceof HttpServletRequest) {
                 initializeXWikiContext(request, response);
             }
-            chain.doFilter(request, response);
+            // Don't process the request if a "warming up" response was sent instead
+            if (request.getAttribute(WARMING_UP_ATTRIBUTE) == null) {
+                chain.doFilter(request, response);
+            }
         } finally {
             if (request instanceof HttpServletRequest) {
                 cleanupComponents();
@@ -139,7 +154,12 @@ protected void initializeXWikiContext(ServletRequest request, ServletResponse re
             initializeContainerComponent(context);
 
             // Initialize the XWiki database. XWiki#getXWiki(XWikiContext) calls XWikiContext.setWiki(XWiki).
-            XWiki xwiki = XWiki.getXWiki(context);
+            XWiki xwiki = getXWiki(context);
+            if (xwiki == null) {
+                sendWarmingUp(context, httpRequest, (HttpServletResponse) response);
+
+                return;
+            }
 
             // Initialize the URL factory.
             context.setURLFactory(xwiki.getURLFactoryService().createURLFactory(context.getMode(), context));
@@ -150,9 +170,34 @@ protected void initializeXWikiContext(ServletRequest request, ServletResponse re
             authenticate(context, httpRequest);
         } catch (XWikiException e) {
             throw new ServletException("Failed to initialize the XWiki context.", e);
+        } catch (IOException e) {
+            throw new ServletException("Failed to send the warming up response.", e);
         }
     }
 
+    private XWiki getXWiki(XWikiContext context) throws XWikiException
+    {
+        // Always wait for the main wiki.
+        XWiki.getMainXWiki(context);
+
+        // Don't block the request when the sub wikis are initialized in the background since the requested wiki might
+        // have to wait for its turn.
+        return XWiki.getXWiki(!Utils.getComponent(WikisStartupInitializer.class).isEnabled(), context);
+    }
+
+    private void sendWarmingUp(XWikiContext context, HttpServletRequest request, HttpServletResponse response)
+        throws IOException
+    {
+        request.setAttribute(WARMING_UP_ATTRIBUTE, Boolean.TRUE);
+
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        response.setHeader("Retry-After", WARMING_UP_RETRY_AFTER);
+        response.setContentType("text/plain");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter()
+            .print(String.format("The wiki [%s] is warming up, please retry later.", context.getWikiId()));
+    }
+
     /**
      * Resolve and validate the current user.
      * 
@@ -35,6 +35,7 @@
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.xwiki.bridge.event.DocumentCreatedEvent;
 import org.xwiki.bridge.event.DocumentCreatingEvent;
 import org.xwiki.bridge.event.DocumentDeletedEvent;
@@ -66,6 +67,7 @@
 import com.xpn.xwiki.objects.StringProperty;
 import com.xpn.xwiki.objects.classes.PropertyClass;
 import com.xpn.xwiki.store.XWikiRecycleBinStoreInterface;
+import com.xpn.xwiki.store.XWikiStoreInterface;
 import com.xpn.xwiki.test.MockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
@@ -79,13 +81,18 @@
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.notNull;
 import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -391,6 +398,119 @@ void saveDocumentSendsObservationEvents() throws Exception
             same(this.oldcore.getXWikiContext()));
     }
 
+    @Test
+    void saveDocumentsSendsObservationEventsAfterSavingAllDocuments() throws Exception
+    {
+        DocumentReference reference1 = new DocumentReference("xwikitest", "Some", "Document1");
+        DocumentReference reference2 = new DocumentReference("xwikitest", "Some", "Document2");
+        DocumentReference reference3 = new DocumentReference("otherwiki", "Some", "Document3");
+
+        EventListener mockListener = mock(EventListener.class);
+        when(mockListener.getName()).thenReturn("testlistener");
+        when(mockListener.getEvents())
+            .thenReturn(Arrays.asList(new DocumentCreatingEvent(), new DocumentCreatedEvent()));
+
+        ObservationManager om = this.oldcore.getMocker().getInstance(ObservationManager.class);
+        om.addListener(mockListener);
+
+        XWikiDocument document1 = new XWikiDocument(reference1);
+        XWikiDocument document2 = new XWikiDocument(reference2);
+        XWikiDocument document3 = new XWikiDocument(reference3);
+        String currentWiki = this.oldcore.getXWikiContext().getWikiId();
+
+        this.xwiki.saveDocuments(List.of(document1, document2, document3), "comment", false,
+            this.oldcore.getXWikiContext());
+
+        assertFalse(this.xwiki.getDocument(reference1, this.oldcore.getXWikiContext()).isNew());
+        assertFalse(this.xwiki.getDocument(reference2, this.oldcore.getXWikiContext()).isNew());
+        assertFalse(this.xwiki.getDocument(reference3, this.oldcore.getXWikiContext()).isNew());
+        assertEquals("comment", document1.getComment());
+        assertEquals(currentWiki, this.oldcore.getXWikiContext().getWikiId());
+
+        XWikiStoreInterface store = this.oldcore.getMockStore();
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+        InOrder inOrder = inOrder(mockListener, store);
+        inOrder.verify(store).saveXWikiDocs(eq(List.of(document1, document2)), any(), same(xcontext));
+        // The creating events are sent in the transaction of the chunk
+        inOrder.verify(mockListener).onEvent(any(DocumentCreatingEvent.class), same(document1), same(xcontext));
+        inOrder.verify(store).saveXWikiDoc(document1, xcontext);
+        inOrder.verify(mockListener).onEvent(any(DocumentCreatingEvent.class), same(document2), same(xcontext));
+        inOrder.verify(store).saveXWikiDoc(document2, xcontext);
+        // The created events are sent once all the documents of the chunk are saved
+        inOrder.verify(mockListener).onEvent(any(DocumentCreatedEvent.class), same(document1), same(xcontext));
+        inOrder.verify(mockListener).onEvent(any(DocumentCreatedEvent.class), same(document2), same(xcontext));
+        inOrder.verify(store).saveXWikiDocs(eq(List.of(document3)), any(), same(xcontext));
+        inOrder.verify(mockListener).onEvent(any(DocumentCreatingEvent.class), same(document3), same(xcontext));
+        inOrder.verify(store).saveXWikiDoc(document3, xcontext);
+        inOrder.verify(mockListener).onEvent(any(DocumentCreatedEvent.class), same(document3), same(xcontext));
+    }
+
+    @Test
+    void saveDocumentsSavesAloneDocumentReplacingExistingOne() throws Exception
+    {
+        DocumentReference reference1 = new DocumentReference("xwikitest", "Some", "Document1");
+        DocumentReference reference2 = new DocumentReference("xwikitest", "Some", "Document2");
+        DocumentReference reference3 = new DocumentReference("xwikitest", "Some", "Document3");
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        XWikiDocument existingDocument = new XWikiDocument(reference2);
+        existingDocument.setContent("existing");
+        this.xwiki.saveDocument(existingDocument, xcontext);
+
+        XWikiDocument document1 = new XWikiDocument(reference1);
+        XWikiDocument document2 = new XWikiDocument(reference2);
+        document2.setContent("replacing");
+        XWikiDocument document3 = new XWikiDocument(reference3);
+
+        this.xwiki.saveDocuments(List.of(document1, document2, document3), "comment", false, xcontext);
+
+        assertEquals("replacing", this.xwiki.getDocument(reference2, xcontext).getContent());
+
+        // The existing document is deleted outside of any chunk transaction
+        XWikiStoreInterface store = this.oldcore.getMockStore();
+        InOrder inOrder = inOrder(store);
+        inOrder.verify(store).saveXWikiDocs(eq(List.of(document1)), any(), same(xcontext));
+        inOrder.verify(store).deleteXWikiDoc(any(), same(xcontext));
+        inOrder.verify(store).saveXWikiDoc(document2, xcontext);
+        inOrder.verify(store).saveXWikiDocs(eq(List.of(document3)), any(), same(xcontext));
+    }
+
+    @Test
+    void saveDocumentsSavesOneByOneWhenTransactionFails() throws Exception
+    {
+        DocumentReference reference1 = new DocumentReference("xwikitest", "Some", "Document1");
+        DocumentReference reference2 = new DocumentReference("xwikitest", "Some", "Document2");
+        DocumentReference reference3 = new DocumentReference("xwikitest", "Some", "Document3");
+        XWikiContext xcontext = this.oldcore.getXWikiContext();
+
+        XWikiDocument document1 = new XWikiDocument(reference1);
+        XWikiDocument document2 = new XWikiDocument(reference2);
+        XWikiDocument document3 = new XWikiDocument(reference3);
+
+        XWikiStoreInterface store = this.oldcore.getMockStore();
+        XWikiException failure = new XWikiException();
+        doThrow(failure).when(store).saveXWikiDoc(same(document2), same(xcontext));
+
+        XWikiException exception = assertThrows(XWikiException.class,
+            () -> this.xwiki.saveDocuments(List.of(document1, document2, document3), "comment", false, xcontext));
+        assertSame(failure, exception);
+
+        // The documents which don't fail are saved, only once
+        assertFalse(this.xwiki.getDocument(reference1, xcontext).isNew());
+        assertTrue(this.xwiki.getDocument(reference2, xcontext).isNew());
+        assertFalse(this.xwiki.getDocument(reference3, xcontext).isNew());
+        assertEquals("1.1", document1.getVersion());
+        assertEquals("1.1", document3.getVersion());
+
+        InOrder inOrder = inOrder(store);
+        inOrder.verify(store).saveXWikiDocs(eq(List.of(document1, document2, document3)), any(), same(xcontext));
+        inOrder.verify(store).saveXWikiDoc(document1, xcontext);
+        inOrder.verify(store).saveXWikiDoc(document2, xcontext);
+        inOrder.verify(store).saveXWikiDoc(document1, xcontext);
+        inOrder.verify(store).saveXWikiDoc(document2, xcontext);
+        inOrder.verify(store).saveXWikiDoc(document3, xcontext);
+    }
+
     @Test
     void saveDocumentWithListenerSwitchDirtyFlagToTrue() throws Exception
     {
@@ -0,0 +1,162 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link WikisStartupInitializer}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class WikisStartupInitializerTest
+{
+    @RegisterExtension
+    private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    @InjectMockComponents
+    private WikisStartupInitializer initializer;
+
+    @MockComponent
+    @Named(XWikiCfgConfigurationSource.ROLEHINT)
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    private WikiDescriptorManager wikiDescriptorManager;
+
+    @MockComponent
+    private QueryManager queryManager;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    @Mock
+    private XWiki xwiki;
+
+    @Mock
+    private Query query;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.queryManager.createQuery(anyString(), same(Query.HQL))).thenReturn(this.query);
+        when(this.wikiDescriptorManager.getMainWikiId()).thenReturn("main");
+    }
+
+    @AfterEach
+    void afterEach() throws Exception
+    {
+        this.initializer.dispose();
+    }
+
+    private void mockLastModification(String wikiId, Date date) throws Exception
+    {
+        Query wikiQuery = mock(Query.class, wikiId);
+        when(this.query.setWiki(wikiId)).thenReturn(wikiQuery);
+        when(wikiQuery.<Date>execute()).thenReturn(Arrays.asList(date));
+    }
+
+    @Test
+    void isEnabled()
+    {
+        assertFalse(this.initializer.isEnabled());
+
+        when(this.configuration.getProperty(WikisStartupInitializer.ENABLED_PROPERTY, "0")).thenReturn("1");
+
+        assertTrue(this.initializer.isEnabled());
+    }
+
+    @Test
+    void initializeWikisByLastModification() throws Exception
+    {
+        when(this.configuration.getProperty(WikisStartupInitializer.THREADS_PROPERTY, 2)).thenReturn(1);
+        when(this.wikiDescriptorManager.getAllIds())
+            .thenReturn(List.of("main", "empty", "old", "failing", "recent"));
+        mockLastModification("empty", null);
+        mockLastModification("old", new Date(1000));
+        mockLastModification("recent", new Date(2000));
+        Query failingQuery = mock(Query.class, "failing");
+        when(this.query.setWiki("failing")).thenReturn(failingQuery);
+        when(failingQuery.execute()).thenThrow(new QueryException("error", null, null));
+
+        List<String> initializedWikis = new ArrayList<>();
+        doAnswer(invocation -> {
+            synchronized (initializedWikis) {
+                initializedWikis.add(invocation.getArgument(0));
+            }
+            return true;
+        }).when(this.xwiki).initializeWiki(anyString(), anyBoolean(), same(this.xcontext));
+
+        this.initializer.initializeWikis();
+        // Calling it again should not initialize the wikis twice
+        this.initializer.initializeWikis();
+
+        verify(this.xwiki, timeout(10000)).initializeWiki("failing", true, this.xcontext);
+
+        synchronized (initializedWikis) {
+            assertEquals(List.of("recent", "old", "empty", "failing"), initializedWikis);
+        }
+        assertEquals("Failed to get the last modification date of wiki [failing]: QueryException: error",
+            this.logCapture.getMessage(0));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.doc;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link DocumentChangeSetManager} and {@link DocumentChangeSet}.
+ *
+ * @version $Id$
+ */
+@OldcoreTest
+class DocumentChangeSetManagerTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference("wiki", "Space", "Class");
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @InjectMockComponents
+    private DocumentChangeSetManager manager;
+
+    private BaseObject addObject(XWikiDocument document, String value)
+    {
+        BaseObject object = new BaseObject();
+        object.setXClassReference(CLASS_REFERENCE);
+        object.setStringValue("text", value);
+        document.addXObject(object);
+
+        return object;
+    }
+
+    @Test
+    void getChangeSet()
+    {
+        XWikiDocument previousDocument = new XWikiDocument(DOCUMENT_REFERENCE);
+        previousDocument.setNew(false);
+        previousDocument.setContent("content");
+        BaseObject unchangedObject = addObject(previousDocument, "unchanged");
+        addObject(previousDocument, "modified");
+        BaseObject removedObject = addObject(previousDocument, "removed");
+
+        XWikiDocument document = previousDocument.clone();
+        document.setVersion("2.1");
+        BaseObject modifiedObject = document.getXObject(CLASS_REFERENCE, 1);
+        modifiedObject.setStringValue("text", "new value");
+        document.removeXObject(document.getXObject(CLASS_REFERENCE, 2));
+        BaseObject addedObject = addObject(document, "added");
+
+        DocumentChangeSet changeSet = this.manager.getChangeSet(previousDocument, document);
+
+        assertSame(changeSet, this.manager.getChangeSet(previousDocument, document));
+        assertSame(previousDocument, changeSet.getPreviousDocument());
+        assertSame(document, changeSet.getDocument());
+        assertFalse(changeSet.isCreation());
+        assertFalse(changeSet.isContentChanged());
+
+        assertEquals(List.of(modifiedObject, addedObject), changeSet.getChangedObjects());
+        assertEquals(List.of(removedObject), changeSet.getRemovedObjects());
+        assertEquals("modified", changeSet.getPreviousObject(modifiedObject).getStringValue("text"));
+        assertNull(changeSet.getPreviousObject(addedObject));
+        assertEquals(Set.of("text"), changeSet.getChangedProperties(modifiedObject));
+        assertEquals(Set.of("text"), changeSet.getChangedProperties(addedObject));
+        assertTrue(changeSet.getChangedProperties(unchangedObject).isEmpty());
+
+        // Another save of the same version
+        XWikiDocument otherDocument = document.clone();
+        otherDocument.setContent("new content");
+
+        DocumentChangeSet newChangeSet = this.manager.getChangeSet(previousDocument, otherDocument);
+        assertNotSame(changeSet, newChangeSet);
+        assertTrue(newChangeSet.isContentChanged());
+    }
+
+    @Test
+    void getChangeSetOfCreatedDocument()
+    {
+        XWikiDocument document = new XWikiDocument(DOCUMENT_REFERENCE);
+        BaseObject object = addObject(document, "value");
+
+        DocumentChangeSet changeSet = this.manager.getChangeSet(document);
+
+        assertTrue(changeSet.isCreation());
+        assertTrue(changeSet.isContentChanged());
+        assertEquals(List.of(object), changeSet.getChangedObjects());
+        assertEquals(List.of(), changeSet.getRemovedObjects());
+    }
+
+    @Test
+    void getChangeSetInAnotherExecutionContext() throws Exception
+    {
+        XWikiDocument document = new XWikiDocument(DOCUMENT_REFERENCE);
+
+        DocumentChangeSet changeSet = this.manager.getChangeSet(document);
+        assertSame(changeSet, this.manager.getChangeSet(document));
+
+        // The change sets are forgotten with the execution context of the save
+        Execution execution = this.oldcore.getMocker().getInstance(Execution.class);
+        when(execution.getContext()).thenReturn(new ExecutionContext());
+
+        assertNotSame(changeSet, this.manager.getChangeSet(document));
+    }
+}
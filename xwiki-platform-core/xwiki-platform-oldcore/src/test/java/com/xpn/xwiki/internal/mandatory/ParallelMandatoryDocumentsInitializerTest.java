@@ -0,0 +1,175 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.mandatory;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.xwiki.component.descriptor.ComponentDescriptor;
+import org.xwiki.component.descriptor.DefaultComponentDescriptor;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.LocalDocumentReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.MandatoryDocumentInitializer;
+import com.xpn.xwiki.doc.XWikiDocument;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link ParallelMandatoryDocumentsInitializer}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class ParallelMandatoryDocumentsInitializerTest
+{
+    @InjectMockComponents
+    private ParallelMandatoryDocumentsInitializer initializer;
+
+    @MockComponent
+    @Named("context")
+    private Provider<ComponentManager> componentManagerProvider;
+
+    @MockComponent
+    @Named("current")
+    private DocumentReferenceResolver<EntityReference> currentReferenceResolver;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Mock
+    private ComponentManager componentManager;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    @Mock
+    private XWiki xwiki;
+
+    private final List<ComponentDescriptor<MandatoryDocumentInitializer>> descriptors = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.componentManagerProvider.get()).thenReturn(this.componentManager);
+        when(this.componentManager.<MandatoryDocumentInitializer>getComponentDescriptorList((Type) any()))
+            .thenReturn(this.descriptors);
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWikiId()).thenReturn("wiki");
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+    }
+
+    private XWikiDocument mockInitializer(String hint, int priority, String wiki, boolean modified) throws Exception
+    {
+        return mockInitializer(hint, priority, wiki, modified, false);
+    }
+
+    private XWikiDocument mockInitializer(String hint, int priority, String wiki, boolean modified,
+        boolean parallelizable) throws Exception
+    {
+        DefaultComponentDescriptor<MandatoryDocumentInitializer> descriptor = new DefaultComponentDescriptor<>();
+        descriptor.setRoleHint(hint);
+        descriptor.setRoleTypePriority(priority);
+        this.descriptors.add(descriptor);
+
+        MandatoryDocumentInitializer mandatoryDocumentInitializer = mock(MandatoryDocumentInitializer.class, hint);
+        when(this.componentManager.getInstance(MandatoryDocumentInitializer.class, hint))
+            .thenReturn(mandatoryDocumentInitializer);
+
+        LocalDocumentReference localReference = new LocalDocumentReference("XWiki", hint);
+        DocumentReference documentReference = new DocumentReference(localReference, new WikiReference(wiki));
+        when(mandatoryDocumentInitializer.getDocumentReference()).thenReturn(localReference);
+        when(this.currentReferenceResolver.resolve(localReference)).thenReturn(documentReference);
+
+        XWikiDocument document = mock(XWikiDocument.class, hint + "Document");
+        XWikiDocument cachedDocument = mock(XWikiDocument.class);
+        when(cachedDocument.clone()).thenReturn(document);
+        when(this.xwiki.getDocument(documentReference, this.xcontext)).thenReturn(cachedDocument);
+        when(mandatoryDocumentInitializer.updateDocument(document)).thenReturn(modified);
+        when(mandatoryDocumentInitializer.isParallelizable()).thenReturn(parallelizable);
+
+        return document;
+    }
+
+    @Test
+    void initialize() throws Exception
+    {
+        XWikiDocument modifiedDocument = mockInitializer("Modified", 1000, "wiki", true);
+        XWikiDocument unmodifiedDocument = mockInitializer("Unmodified", 1000, "wiki", false);
+        XWikiDocument firstDocument = mockInitializer("First", 10, "wiki", true);
+        XWikiDocument otherWikiDocument = mockInitializer("OtherWiki", 10, "otherwiki", true);
+
+        this.initializer.initialize(4);
+
+        InOrder inOrder = inOrder(this.xwiki);
+        // The document of the higher priority initializer is saved first.
+        inOrder.verify(this.xwiki).saveDocument(same(firstDocument), any(), same(this.xcontext));
+        inOrder.verify(this.xwiki).saveDocument(same(modifiedDocument), any(), same(this.xcontext));
+        verify(this.xwiki, never()).saveDocument(same(unmodifiedDocument), any(), any());
+        verify(this.xwiki, never()).saveDocument(same(otherWikiDocument), any(), any());
+    }
+
+    @Test
+    void initializeDependentInitializers() throws Exception
+    {
+        // The non parallelizable initializers are registered first, and may rely on the documents of the others.
+        XWikiDocument firstDependentDocument = mockInitializer("FirstDependent", 1000, "wiki", true);
+        XWikiDocument secondDependentDocument = mockInitializer("SecondDependent", 1000, "wiki", true);
+        XWikiDocument classDocument = mockInitializer("Class", 1000, "wiki", true, true);
+        MandatoryDocumentInitializer firstDependentInitializer =
+            this.componentManager.getInstance(MandatoryDocumentInitializer.class, "FirstDependent");
+        MandatoryDocumentInitializer secondDependentInitializer =
+            this.componentManager.getInstance(MandatoryDocumentInitializer.class, "SecondDependent");
+
+        this.initializer.initialize(4);
+
+        InOrder inOrder = inOrder(this.xwiki, firstDependentInitializer, secondDependentInitializer);
+        // The document of the parallelizable initializer is saved before the other initializers are executed.
+        inOrder.verify(this.xwiki).saveDocument(same(classDocument), any(), same(this.xcontext));
+        // The non parallelizable initializers are executed and saved one after the other.
+        inOrder.verify(firstDependentInitializer).updateDocument(firstDependentDocument);
+        inOrder.verify(this.xwiki).saveDocument(same(firstDependentDocument), any(), same(this.xcontext));
+        inOrder.verify(secondDependentInitializer).updateDocument(secondDependentDocument);
+        inOrder.verify(this.xwiki).saveDocument(same(secondDependentDocument), any(), same(this.xcontext));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.profile;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link RequestProfiler} and {@link JMXRequestProfileStatistics}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class RequestProfilerTest
+{
+    @InjectMockComponents
+    private RequestProfiler profiler;
+
+    @MockComponent
+    private Execution execution;
+
+    private final ExecutionContext context = new ExecutionContext();
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.execution.getContext()).thenReturn(this.context);
+    }
+
+    @Test
+    void recordWithoutProfile()
+    {
+        this.profiler.record(RequestProfile.DATABASE, 10);
+
+        assertNull(this.profiler.getProfile());
+        assertNull(this.profiler.stop());
+    }
+
+    @Test
+    void record()
+    {
+        RequestProfile profile = this.profiler.start();
+
+        this.profiler.record(RequestProfile.DATABASE, TimeUnit.MILLISECONDS.toNanos(3));
+        this.profiler.record(RequestProfile.DATABASE, TimeUnit.MILLISECONDS.toNanos(4));
+        this.profiler.record(RequestProfile.MACRO_PREFIX + "toc", TimeUnit.MILLISECONDS.toNanos(2));
+
+        assertSame(profile, this.profiler.getProfile());
+        assertEquals(2, profile.getEntries().size());
+        assertEquals(2, profile.getEntries().get(RequestProfile.DATABASE).getCount());
+        assertEquals(7, profile.getEntries().get(RequestProfile.DATABASE).getTime());
+        assertEquals(1, profile.getEntries().get("macro.toc").getCount());
+
+        assertSame(profile, this.profiler.stop());
+        assertNull(this.profiler.getProfile());
+    }
+
+    @Test
+    void statistics()
+    {
+        JMXRequestProfileStatistics statistics = new JMXRequestProfileStatistics();
+
+        for (int i = 1; i <= 100; i++) {
+            RequestProfile profile = new RequestProfile();
+            profile.record(RequestProfile.SOLR, TimeUnit.MILLISECONDS.toNanos(i));
+            statistics.add("view", profile);
+        }
+
+        assertEquals(1, statistics.getActions().size());
+        assertTrue(statistics.getActions().contains("view"));
+        assertEquals("count=100, p50=50ms, p90=90ms, p99=99ms, max=100ms",
+            statistics.getPercentiles("view").get(RequestProfile.SOLR));
+        assertTrue(statistics.getPercentiles("view").containsKey(JMXRequestProfileStatistics.REQUEST));
+        assertTrue(statistics.getPercentiles("edit").isEmpty());
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.monitor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.management.JMXBeanRegistration;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.store.hibernate.HibernateConfiguration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link HibernateMonitor}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class HibernateMonitorTest
+{
+    private static final String STATEMENT = "select doc.fullName from XWikiDocument doc";
+
+    @RegisterExtension
+    private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    @InjectMockComponents
+    private HibernateMonitor monitor;
+
+    @MockComponent
+    private HibernateConfiguration configuration;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private JMXBeanRegistration jmxRegistration;
+
+    private JMXHibernateMonitor statistics;
+
+    @BeforeComponent
+    void beforeComponent()
+    {
+        when(this.configuration.getSlowStatementThreshold()).thenReturn(100L);
+        when(this.configuration.getConnectionWaitThreshold()).thenReturn(0L);
+        when(this.configuration.getRequestSessionTimeThreshold()).thenReturn(1000L);
+        when(this.configuration.getRequestStatementsThreshold()).thenReturn(2);
+    }
+
+    @BeforeEach
+    void beforeEach()
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(new DocumentReference("wiki", "Space", "Page"));
+        XWikiContext xcontext = new XWikiContext();
+        xcontext.setAction("view");
+        xcontext.setDoc(document);
+        ExecutionContext context = new ExecutionContext();
+        context.setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, xcontext);
+        when(this.execution.getContext()).thenReturn(context);
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(this.jmxRegistration).registerMBean(captor.capture(), eq("name=database"));
+        this.statistics = (JMXHibernateMonitor) captor.getValue();
+    }
+
+    private static long millis(long milliseconds)
+    {
+        return TimeUnit.MILLISECONDS.toNanos(milliseconds);
+    }
+
+    @Test
+    void slowStatement()
+    {
+        assertNull(this.monitor.getRequestStatistics());
+
+        this.monitor.onStatementExecuted(STATEMENT, millis(10));
+        this.monitor.onStatementExecuted(STATEMENT, millis(200));
+
+        assertEquals(2, this.statistics.getStatementCount());
+        assertEquals(1, this.statistics.getSlowStatementCount());
+        String description = "[200] ms for action [view] on document [wiki:Space.Page]: " + STATEMENT;
+        assertEquals(description, this.statistics.getSlowStatements()[0]);
+        assertEquals("Slow database statement: " + description, this.logCapture.getMessage(0));
+
+        assertEquals(2, this.monitor.getRequestStatistics().getStatementCount());
+        assertEquals(210, this.monitor.getRequestStatistics().getStatementTime());
+    }
+
+    @Test
+    void tooManyStatements()
+    {
+        this.monitor.onStatementExecuted(STATEMENT, millis(1));
+        assertFalse(this.monitor.getRequestStatistics().isSlow());
+
+        this.monitor.onStatementExecuted(STATEMENT, millis(1));
+        this.monitor.onStatementExecuted(STATEMENT, millis(1));
+
+        assertTrue(this.monitor.getRequestStatistics().isSlow());
+        assertEquals(1, this.statistics.getSlowRequestCount());
+        assertEquals(1, this.logCapture.size());
+        assertEquals("At least [2] database statements were executed for action [view] on document [wiki:Space.Page]",
+            this.logCapture.getMessage(0));
+    }
+
+    @Test
+    void sessionsHeldTooLong()
+    {
+        this.monitor.onSessionClosed(millis(600));
+        this.monitor.onSessionClosed(millis(600));
+        this.monitor.onStatementExecuted(STATEMENT, millis(1));
+        this.monitor.onStatementExecuted(STATEMENT, millis(1));
+
+        RequestDatabaseStatistics requestStatistics = this.monitor.getRequestStatistics();
+        assertEquals(2, requestStatistics.getSessionCount());
+        assertEquals(1200, requestStatistics.getSessionTime());
+        assertEquals(600, this.statistics.getMaxSessionDuration());
+        assertEquals(600, this.statistics.getAverageSessionDuration());
+
+        // Both thresholds were crossed but the request is counted only once
+        assertEquals(1, this.statistics.getSlowRequestCount());
+        assertEquals(2, this.logCapture.size());
+        assertEquals("Hibernate sessions were held for at least [1000] ms ([2] sessions) for action [view] on document "
+            + "[wiki:Space.Page]", this.logCapture.getMessage(0));
+        assertEquals("At least [2] database statements were executed for action [view] on document [wiki:Space.Page]",
+            this.logCapture.getMessage(1));
+    }
+
+    @Test
+    void connectionWaitWithoutThreshold()
+    {
+        this.monitor.onConnectionAcquired(millis(5000));
+
+        assertEquals(5000, this.monitor.getRequestStatistics().getConnectionWaitTime());
+        assertEquals(0, this.logCapture.size());
+    }
+
+    @Test
+    void wikiSwitch()
+    {
+        this.monitor.onWikiSwitch(true);
+        this.monitor.onWikiSwitch(false);
+        this.monitor.onWikiSwitch(false);
+
+        assertEquals(1, this.statistics.getWikiSwitchCount());
+        assertEquals(2, this.statistics.getAvoidedWikiSwitchCount());
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.internal.store.hibernate.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.apache.commons.lang3.function.FailableSupplier;
+import org.junit.jupiter.api.Test;
+import org.xwiki.cache.Cache;
+import org.xwiki.cache.CacheManager;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.query.Query;
+import org.xwiki.query.internal.DefaultQuery;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link QueryResultCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class QueryResultCacheTest
+{
+    private static final String WIKI = "wiki";
+
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference(WIKI, "Space", "Class");
+
+    private static final DocumentReference OTHER_CLASS_REFERENCE = new DocumentReference(WIKI, "Space", "Other");
+
+    @InjectMockComponents
+    private QueryResultCache queryResultCache;
+
+    @MockComponent
+    private CacheManager cacheManager;
+
+    @MockComponent
+    @Named("xwikiproperties")
+    private ConfigurationSource configuration;
+
+    @MockComponent
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    private int executions;
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.getProperty("query.resultCache.size", 1000)).thenReturn(1000);
+
+        Map<String, Object> entries = new HashMap<>();
+        Cache<Object> cache = mock(Cache.class);
+        when(cache.get(anyString())).then(invocation -> entries.get(invocation.getArgument(0)));
+        doAnswer(invocation -> entries.put(invocation.getArgument(0), invocation.getArgument(1))).when(cache)
+            .set(anyString(), any());
+        when(this.cacheManager.createNewCache(any())).thenReturn(cache);
+
+        when(this.localSerializer.serialize(CLASS_REFERENCE)).thenReturn("Space.Class");
+        when(this.localSerializer.serialize(OTHER_CLASS_REFERENCE)).thenReturn("Space.Other");
+    }
+
+    private List<Object> execute(Query query) throws Exception
+    {
+        FailableSupplier<List<Object>, Exception> executor = () -> {
+            this.executions++;
+            return new ArrayList<>(List.of("Space.Page"));
+        };
+
+        return this.queryResultCache.getResults(WIKI, query, query, executor);
+    }
+
+    private XWikiDocument mockDocument(String space, DocumentReference classReference)
+    {
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getDocumentReference()).thenReturn(new DocumentReference(WIKI, space, "Page"));
+        when(document.getSpace()).thenReturn(space);
+        when(document.getXObjects()).thenReturn(Map.of(classReference, List.<BaseObject>of()));
+
+        return document;
+    }
+
+    @Test
+    void getResultsRestrictedToClass() throws Exception
+    {
+        Query query = new DefaultQuery("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and obj.className = :className", Query.HQL, null);
+        query.bindValue("className", "Space.Class");
+
+        assertEquals(List.of("Space.Page"), execute(query));
+        assertEquals(List.of("Space.Page"), execute(query));
+        assertEquals(1, this.executions);
+
+        // A document without objects of the class does not invalidate the results.
+        this.queryResultCache.invalidate(mockDocument("Other", OTHER_CLASS_REFERENCE));
+
+        execute(query);
+        assertEquals(1, this.executions);
+
+        this.queryResultCache.invalidate(mockDocument("Other", CLASS_REFERENCE));
+
+        execute(query);
+        assertEquals(2, this.executions);
+    }
+
+    @Test
+    void getResultsNotRestricted() throws Exception
+    {
+        Query query = new DefaultQuery("select doc.fullName from XWikiDocument doc where doc.hidden <> true",
+            Query.HQL, null);
+
+        execute(query);
+        execute(query);
+        assertEquals(1, this.executions);
+
+        // Any document invalidates the results.
+        this.queryResultCache.invalidate(mockDocument("Other", OTHER_CLASS_REFERENCE));
+
+        execute(query);
+        assertEquals(2, this.executions);
+    }
+
+    @Test
+    void getResultsWithNotCacheableEntity() throws Exception
+    {
+        Query query = new DefaultQuery("select l.userName from XWikiLock l", Query.HQL, null);
+
+        execute(query);
+        execute(query);
+        assertEquals(2, this.executions);
+    }
+
+    @Test
+    void getResultsWithDifferentParameters() throws Exception
+    {
+        Query query = new DefaultQuery("select doc.fullName from XWikiDocument doc where doc.space = :space",
+            Query.HQL, null);
+
+        execute(query.bindValue("space", "Space1"));
+        execute(query.bindValue("space", "Space2"));
+        execute(query.bindValue("space", "Space1"));
+        assertEquals(2, this.executions);
+
+        // Only the results of the queries targeting the space of the document are invalidated.
+        this.queryResultCache.invalidate(mockDocument("Space2", OTHER_CLASS_REFERENCE));
+
+        execute(query.bindValue("space", "Space1"));
+        assertEquals(2, this.executions);
+        execute(query.bindValue("space", "Space2"));
+        assertEquals(3, this.executions);
+    }
+
+    @Test
+    void getResultsRestrictedToClassOfAnotherColumn() throws Exception
+    {
+        Query query = new DefaultQuery("select doc.fullName from XWikiDocument doc, BaseObject obj "
+            + "where doc.fullName = obj.name and obj.className = doc.fullName and doc.space = 'Space'", Query.HQL,
+            null);
+
+        execute(query);
+        execute(query);
+        assertEquals(1, this.executions);
+
+        // The targeted classes are unknown so any document invalidates the results.
+        this.queryResultCache.invalidate(mockDocument("Other", OTHER_CLASS_REFERENCE));
+
+        execute(query);
+        assertEquals(2, this.executions);
+    }
+
+    @Test
+    void getResultsRestrictedToNotStringValue() throws Exception
+    {
+        Query query = new DefaultQuery("select doc.fullName from XWikiDocument doc where doc.space = :space",
+            Query.HQL, null);
+        query.bindValue("space", 42);
+
+        execute(query);
+        execute(query);
+        assertEquals(1, this.executions);
+
+        // No targeted space could be found so any document invalidates the results.
+        this.queryResultCache.invalidate(mockDocument("Other", OTHER_CLASS_REFERENCE));
+
+        execute(query);
+        assertEquals(2, this.executions);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.stats.impl.xwiki;
+
+import java.util.Date;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.stats.JMXStatsStore;
+import com.xpn.xwiki.objects.BaseCollection;
+import com.xpn.xwiki.stats.impl.DocumentStats;
+import com.xpn.xwiki.stats.impl.RefererStats;
+import com.xpn.xwiki.stats.impl.StatsUtil.PeriodType;
+import com.xpn.xwiki.store.XWikiHibernateStore;
+import com.xpn.xwiki.test.MockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
+import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link XWikiStatsStoreService}.
+ *
+ * @version $Id$
+ */
+@OldcoreTest
+class XWikiStatsStoreServiceTest
+{
+    private static final String VIEW = "view";
+
+    @InjectMockitoOldcore
+    private MockitoOldcore oldcore;
+
+    @Test
+    void flushAggregatesStatistics() throws Exception
+    {
+        XWikiContext context = this.oldcore.getXWikiContext();
+        XWikiStatsStoreService service = new XWikiStatsStoreService(context);
+
+        Date date = new Date();
+        service.add(new DocumentStatsStoreItem("Space.Page", date, PeriodType.MONTH, VIEW, true, context));
+        service.add(new DocumentStatsStoreItem("Space.Page", date, PeriodType.MONTH, VIEW, false, context));
+        service.add(new DocumentStatsStoreItem("Space.Page", date, PeriodType.MONTH, VIEW, true, context));
+        service.add(new RefererStatsStoreItem("Space.Page", date, PeriodType.MONTH, "referer", context));
+        service.add(new RefererStatsStoreItem("Space.Page", date, PeriodType.MONTH, "referer", context));
+
+        service.flush();
+
+        ArgumentCaptor<BaseCollection> statsCaptor = ArgumentCaptor.forClass(BaseCollection.class);
+        XWikiHibernateStore store = (XWikiHibernateStore) this.oldcore.getMockStore();
+        verify(store, times(2)).saveXWikiCollection(statsCaptor.capture(), any(XWikiContext.class), eq(true));
+
+        DocumentStats documentStats = (DocumentStats) statsCaptor.getAllValues().get(0);
+        assertEquals("Space.Page", documentStats.getName());
+        assertEquals(3, documentStats.getPageViews());
+        assertEquals(2, documentStats.getVisits());
+
+        RefererStats refererStats = (RefererStats) statsCaptor.getAllValues().get(1);
+        assertEquals(2, refererStats.getPageViews());
+
+        // The stored statistics are not pending anymore.
+        service.flush();
+
+        verify(store, times(2)).saveXWikiCollection(any(), any(XWikiContext.class), eq(true));
+    }
+
+    @Test
+    void flushRollsBackWhenAnEntryFails() throws Exception
+    {
+        XWikiContext context = this.oldcore.getXWikiContext();
+        XWikiStatsStoreService service = new XWikiStatsStoreService(context);
+
+        XWikiHibernateStore store = (XWikiHibernateStore) this.oldcore.getMockStore();
+        when(store.beginTransaction(any(XWikiContext.class))).thenReturn(true);
+        doThrow(new XWikiException()).when(store).saveXWikiCollection(any(), any(XWikiContext.class), anyBoolean());
+
+        Date date = new Date();
+        service.add(new DocumentStatsStoreItem("Space.Page", date, PeriodType.MONTH, VIEW, true, context));
+        service.add(new RefererStatsStoreItem("Space.Page", date, PeriodType.MONTH, "referer", context));
+
+        service.flush();
+
+        // The first failure interrupts the storing of the wiki statistics
+        verify(store).saveXWikiCollection(any(), any(XWikiContext.class), eq(true));
+        verify(store).endTransaction(any(XWikiContext.class), eq(false));
+
+        JMXStatsStore jmxStatsStore = (JMXStatsStore) FieldUtils.readField(service, "jmxStatsStore", true);
+        assertEquals(0, jmxStatsStore.getStoredCount());
+        assertEquals(2, jmxStatsStore.getFailedCount());
+    }
+
+    @Test
+    void flushStoresOtherWikisWhenEndTransactionFails() throws Exception
+    {
+        XWikiContext context = this.oldcore.getXWikiContext();
+        XWikiStatsStoreService service = new XWikiStatsStoreService(context);
+
+        XWikiHibernateStore store = (XWikiHibernateStore) this.oldcore.getMockStore();
+        when(store.beginTransaction(any(XWikiContext.class))).thenReturn(true);
+        doThrow(new RuntimeException()).doNothing().when(store).endTransaction(any(XWikiContext.class), anyBoolean());
+
+        Date date = new Date();
+        context.setWikiId("wiki1");
+        service.add(new DocumentStatsStoreItem("Space.Page1", date, PeriodType.MONTH, VIEW, true, context));
+        context.setWikiId("wiki2");
+        service.add(new DocumentStatsStoreItem("Space.Page2", date, PeriodType.MONTH, VIEW, true, context));
+
+        service.flush();
+
+        verify(store, times(2)).saveXWikiCollection(any(), any(XWikiContext.class), eq(true));
+        verify(store, times(2)).endTransaction(any(XWikiContext.class), eq(true));
+
+        JMXStatsStore jmxStatsStore = (JMXStatsStore) FieldUtils.readField(service, "jmxStatsStore", true);
+        assertEquals(1, jmxStatsStore.getFlushCount());
+        assertEquals(1, jmxStatsStore.getStoredCount());
+        assertEquals(1, jmxStatsStore.getFailedCount());
+    }
+}
@@ -20,12 +20,23 @@
 package com.xpn.xwiki.store;
 
 import java.lang.reflect.Field;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
 import java.util.Properties;
 
+import javax.inject.Named;
+
 import org.hibernate.HibernateException;
+import org.hibernate.Session;
 import org.hibernate.Transaction;
+import org.hibernate.boot.Metadata;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jdbc.Work;
+import org.hibernate.service.spi.ServiceRegistryImplementor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -33,23 +44,40 @@
 import org.xwiki.context.Execution;
 import org.xwiki.context.ExecutionContext;
 import org.xwiki.environment.Environment;
+import org.xwiki.store.hibernate.HibernateAdapter;
 import org.xwiki.test.annotation.AfterComponent;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 
 import com.xpn.xwiki.internal.store.hibernate.HibernateConfiguration;
 import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.internal.store.hibernate.monitor.HibernateMonitor;
+import com.xpn.xwiki.store.migration.DataMigrationManager;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ComponentTest
 class HibernateStoreTest
 {
+    private static final String CUSTOM_MAPPED_CLASS = "Space.Class";
+
+    private static final String CUSTOM_MAPPING = "<property name=\"prop\" type=\"string\" column=\"prop\"/>";
+
     @InjectMockComponents
     private HibernateStore store;
 
@@ -62,9 +90,30 @@
     @MockComponent
     private HibernateConfiguration configuration;
 
+    @MockComponent
+    private HibernateMonitor monitor;
+
+    @MockComponent
+    private WikiDescriptorManager wikis;
+
+    @MockComponent
+    @Named(XWikiHibernateBaseStore.HINT)
+    private DataMigrationManager dataMigrationManager;
+
     @Mock
     private Transaction transaction;
 
+    @Mock
+    private Session session;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private Statement statement;
+
+    private DBCPConnectionProvider connectionProvider;
+
     @AfterComponent
     void afterComponent()
     {
@@ -80,6 +129,50 @@ void before()
         when(executionContext.getProperty("hibtransaction")).thenReturn(this.transaction);
     }
 
+    /**
+     * Use a PostgreSQL database in schema mode, whose schema switch is reverted when the transaction is rolled back.
+     */
+    private void mockSchemaSwitch() throws Exception
+    {
+        HibernateAdapter adapter = mock(HibernateAdapter.class);
+        when(adapter.getDatabaseFromWikiName("wiki")).thenReturn("wiki");
+        when(adapter.escapeDatabaseName("wiki")).thenReturn("\"wiki\"");
+        when(adapter.isConfiguredInSchemaMode()).thenReturn(true);
+        setField("adapter", adapter);
+        setField("databaseProductCache", DatabaseProduct.POSTGRESQL);
+
+        this.connectionProvider = new DBCPConnectionProvider();
+        Field trackedField = ReflectionUtils.getField(DBCPConnectionProvider.class, "currentDatabaseTracked");
+        trackedField.setAccessible(true);
+        trackedField.set(this.connectionProvider, true);
+
+        SessionFactoryImplementor sessionFactory = mock(SessionFactoryImplementor.class);
+        ServiceRegistryImplementor serviceRegistry = mock(ServiceRegistryImplementor.class);
+        when(sessionFactory.getServiceRegistry()).thenReturn(serviceRegistry);
+        when(serviceRegistry.getService(ConnectionProvider.class)).thenReturn(this.connectionProvider);
+        setField("sessionFactory", sessionFactory);
+
+        when(this.connection.createStatement()).thenReturn(this.statement);
+        doAnswer(invocation -> {
+            invocation.<Work>getArgument(0).execute(this.connection);
+            return null;
+        }).when(this.session).doWork(any());
+    }
+
+    private void setField(String name, Object value) throws Exception
+    {
+        Field field = ReflectionUtils.getField(HibernateStore.class, name);
+        field.setAccessible(true);
+        field.set(this.store, value);
+    }
+
+    private Object getField(String name) throws Exception
+    {
+        Field field = ReflectionUtils.getField(HibernateStore.class, name);
+        field.setAccessible(true);
+        return field.get(this.store);
+    }
+
     @Test
     void endTransactionWhenSQLBatchUpdateExceptionThrown()
     {
@@ -112,4 +205,100 @@ void getDatabaseProductNameWhenNoSessionFactory() throws Exception
 
         assertEquals(DatabaseProduct.MYSQL, this.store.getDatabaseProductName());
     }
+
+    @Test
+    void setWikiSkipsSwitchWhenConnectionAlreadyBound() throws Exception
+    {
+        mockSchemaSwitch();
+        this.connectionProvider.setCurrentDatabase(this.connection, "wiki");
+
+        this.store.setWiki(this.session, "wiki");
+
+        verify(this.connection, never()).createStatement();
+        verify(this.monitor).onWikiSwitch(false);
+        verify(this.session).setProperty("xwiki.database", "wiki");
+    }
+
+    @Test
+    void beginTransactionCommitsSchemaSwitch() throws Exception
+    {
+        mockSchemaSwitch();
+        when(this.execution.getContext().getProperty("hibtransaction")).thenReturn(null);
+        when(this.wikis.getCurrentWikiId()).thenReturn("wiki");
+        when(this.wikis.isMainWiki("wiki")).thenReturn(true);
+        when(this.monitor.openSession(any())).thenReturn(this.session);
+
+        assertTrue(this.store.beginTransaction());
+
+        verify(this.statement).execute("SET search_path TO \"wiki\"");
+        verify(this.connection).commit();
+        verify(this.monitor).onWikiSwitch(true);
+        assertEquals("wiki", this.connectionProvider.getCurrentDatabase(this.connection));
+    }
+
+    @Test
+    void setWikiInExistingTransactionDoesNotCommitSchemaSwitch() throws Exception
+    {
+        mockSchemaSwitch();
+        this.connectionProvider.setCurrentDatabase(this.connection, "otherwiki");
+
+        this.store.setWiki(this.session, "wiki");
+
+        verify(this.statement).execute("SET search_path TO \"wiki\"");
+        // Committing would also commit what was already done in the transaction
+        verify(this.connection, never()).commit();
+        // The switch might be rolled back with the transaction
+        assertNull(this.connectionProvider.getCurrentDatabase(this.connection));
+    }
+
+    @Test
+    void setWikiSwitchesAgainAfterReset() throws Exception
+    {
+        mockSchemaSwitch();
+        this.connectionProvider.setCurrentDatabase(this.connection, "wiki");
+
+        // Something else (e.g. Liquibase) might have switched the schema of the connection
+        this.connectionProvider.resetCurrentDatabases();
+
+        this.store.setWiki(this.session, "wiki");
+
+        verify(this.statement).execute("SET search_path TO \"wiki\"");
+        verify(this.monitor).onWikiSwitch(true);
+    }
+
+    @Test
+    void getMetadataReusesParsedCustomMapping() throws Exception
+    {
+        setField("databaseProductCache", DatabaseProduct.HSQLDB);
+        HibernateAdapter adapter = mock(HibernateAdapter.class);
+        when(adapter.getDatabaseFromWikiName("wiki1")).thenReturn("wiki1");
+        when(adapter.getDatabaseFromWikiName("wiki2")).thenReturn("wiki2");
+        setField("adapter", adapter);
+
+        Metadata metadata = this.store.getMetadata(CUSTOM_MAPPED_CLASS, CUSTOM_MAPPING, null);
+
+        assertNotNull(metadata.getEntityBinding(CUSTOM_MAPPED_CLASS));
+        assertSame(metadata, this.store.getMetadata(CUSTOM_MAPPED_CLASS, CUSTOM_MAPPING, null));
+
+        // The metadata of each wiki is associated with its database but built from the same parsed mapping
+        Metadata wiki1Metadata = this.store.getMetadata(CUSTOM_MAPPED_CLASS, CUSTOM_MAPPING, "wiki1");
+        Metadata wiki2Metadata = this.store.getMetadata(CUSTOM_MAPPED_CLASS, CUSTOM_MAPPING, "wiki2");
+
+        assertEquals("wiki1", wiki1Metadata.getEntityBinding(CUSTOM_MAPPED_CLASS).getTable().getSchema());
+        assertEquals("wiki2", wiki2Metadata.getEntityBinding(CUSTOM_MAPPED_CLASS).getTable().getSchema());
+        assertEquals(1, ((Map<?, ?>) getField("customMappingMetadata")).size());
+    }
+
+    @Test
+    void getMetadataAfterCustomMappingChange() throws Exception
+    {
+        setField("databaseProductCache", DatabaseProduct.HSQLDB);
+
+        Metadata metadata = this.store.getMetadata(CUSTOM_MAPPED_CLASS, CUSTOM_MAPPING, null);
+        Metadata modifiedMetadata = this.store.getMetadata(CUSTOM_MAPPED_CLASS,
+            CUSTOM_MAPPING + "<property name=\"other\" type=\"string\" column=\"other\"/>", null);
+
+        assertNotSame(metadata, modifiedMetadata);
+        assertNotNull(modifiedMetadata.getEntityBinding(CUSTOM_MAPPED_CLASS).getProperty("other"));
+    }
 }
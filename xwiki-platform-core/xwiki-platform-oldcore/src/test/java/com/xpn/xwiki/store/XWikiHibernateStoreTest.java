@@ -19,12 +19,15 @@
  */
 package com.xpn.xwiki.store;
 
+import java.io.InputStream;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 
 import javax.inject.Named;
@@ -34,12 +37,16 @@
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.Configuration;
 import org.hibernate.dialect.Dialect;
 import org.hibernate.query.NativeQuery;
 import org.hibernate.query.Query;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.xwiki.bridge.event.ActionExecutingEvent;
@@ -74,6 +81,7 @@
 import com.xpn.xwiki.objects.BaseProperty;
 import com.xpn.xwiki.objects.LargeStringProperty;
 import com.xpn.xwiki.objects.StringProperty;
+import com.xpn.xwiki.objects.classes.BaseClass;
 import com.xpn.xwiki.test.reference.ReferenceComponentList;
 import com.xpn.xwiki.web.Utils;
 
@@ -528,10 +536,9 @@ void saveModifiedXObjects() throws XWikiException
         object1.setXClassReference(classReference);
         document.addXObject(object1);
 
-        Query queryXObject = mock();
-        when(this.session.createQuery("select obj.id from BaseObject as obj where obj.id = :id", Long.class))
-            .thenReturn(queryXObject);
-        when(queryXObject.uniqueResult()).thenReturn(null);
+        Query<Long> queryXObject = mockStoredObjectsQuery();
+        when(queryXObject.list()).thenReturn(List.of());
+        mockStoredPropertiesQuery();
 
         // First save a new document
 
@@ -543,7 +550,7 @@ void saveModifiedXObjects() throws XWikiException
         // Save again of the same document
 
         when(queryDocument.uniqueResult()).thenReturn(document.getId());
-        when(queryXObject.uniqueResult()).thenReturn(object1.getId());
+        when(queryXObject.list()).thenReturn(List.of(object1.getId()));
 
         this.store.saveXWikiDoc(document, this.xcontext, true);
 
@@ -575,4 +582,104 @@ void saveModifiedXObjects() throws XWikiException
         verify(this.session).save("com.xpn.xwiki.objects.BaseObject", object1);
         verify(this.session, times(2)).update("com.xpn.xwiki.objects.BaseObject", object1);
     }
+
+    private Query<Long> mockStoredObjectsQuery()
+    {
+        Query<Long> objectsQuery = mock();
+        when(this.session.createQuery("select obj.id from BaseObject as obj where obj.id in (:ids)", Long.class))
+            .thenReturn(objectsQuery);
+
+        return objectsQuery;
+    }
+
+    private Query<Object[]> mockStoredPropertiesQuery()
+    {
+        Query<Object[]> propertiesQuery = mock();
+        when(this.session.createQuery(
+            "select prop.id.id, prop.id.name, prop.classType from BaseProperty as prop where prop.id.id in (:ids)",
+            Object[].class)).thenReturn(propertiesQuery);
+
+        return propertiesQuery;
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {StringProperty.class, LargeStringProperty.class})
+    void saveXWikiDocWithPropertyRemovedAndAddedBack(Class<? extends BaseProperty> newPropertyType) throws Exception
+    {
+        XWikiDocument document = new XWikiDocument(new DocumentReference(WIKI_NAME, "space", "document"));
+
+        Query queryDocument = mock();
+        when(this.session.createQuery("select xwikidoc.id from XWikiDocument as xwikidoc where xwikidoc.id = :id"))
+            .thenReturn(queryDocument);
+        when(queryDocument.uniqueResult()).thenReturn(document.getId());
+
+        BaseObject object = new BaseObject();
+        object.setXClassReference(new LocalDocumentReference("space", "class"));
+        document.addXObject(object);
+        object.safeput("prop", new StringProperty());
+
+        // The object and its property are already stored.
+        when(mockStoredObjectsQuery().list()).thenReturn(List.of(object.getId()));
+        when(mockStoredPropertiesQuery().list()).thenReturn(
+            Collections.singletonList(new Object[] {object.getId(), "prop", StringProperty.class.getName()}));
+
+        // Remove the property and add it back (possibly with a different type) before saving.
+        BaseProperty oldProperty = (BaseProperty) object.safeget("prop");
+        object.removeField("prop");
+        BaseProperty newProperty = newPropertyType.getDeclaredConstructor().newInstance();
+        object.safeput("prop", newProperty);
+
+        // The deletion of the old property is flushed by the query so the property is not found anymore.
+        Query<String> oldClassTypeQuery = mock();
+        when(this.session.createQuery(
+            "select prop.classType from BaseProperty as prop " + "where prop.id.id = :id and prop.id.name= :name",
+            String.class)).thenReturn(oldClassTypeQuery);
+        when(oldClassTypeQuery.uniqueResult()).thenReturn(null);
+
+        this.store.saveXWikiDoc(document, this.xcontext, true);
+
+        verify(oldClassTypeQuery).setParameter("id", object.getId());
+        verify(oldClassTypeQuery).setParameter("name", "prop");
+        verify(this.session).delete(oldProperty);
+        verify(this.session).save(newProperty);
+        verify(this.session, never()).update(newProperty);
+    }
+
+    private BaseObject mockCustomMappedObject(String className)
+    {
+        BaseClass xclass = mock(BaseClass.class);
+        when(xclass.getName()).thenReturn(className);
+        when(xclass.hasExternalCustomMapping()).thenReturn(true);
+        when(xclass.getCustomMapping()).thenReturn("<property name=\"prop\" type=\"string\"/>");
+
+        BaseObject object = mock(BaseObject.class);
+        when(object.getXClass(this.xcontext)).thenReturn(xclass);
+
+        return object;
+    }
+
+    @Test
+    void injectCustomMappingsOfDocumentBuildsOnce() throws Exception
+    {
+        when(this.xcontext.getWiki().hasDynamicCustomMappings()).thenReturn(true);
+        when(this.hibernateConfiguration.hasDynamicCustomMappings()).thenReturn(true);
+        when(this.hibernateStore.getMetadata(any(), any(), any())).thenReturn(mock(Metadata.class));
+        when(this.hibernateStore.makeMapping(any(), any())).thenReturn("<hibernate-mapping/>");
+        Configuration configuration = mock(Configuration.class);
+        when(this.hibernateStore.getConfiguration()).thenReturn(configuration);
+
+        Map<DocumentReference, List<BaseObject>> objects = new LinkedHashMap<>();
+        objects.put(new DocumentReference(WIKI_NAME, "Space", "Class1"),
+            List.of(mockCustomMappedObject("Space.Class1")));
+        objects.put(new DocumentReference(WIKI_NAME, "Space", "Class2"),
+            List.of(mockCustomMappedObject("Space.Class2")));
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getXObjects()).thenReturn(objects);
+
+        assertTrue(this.store.injectCustomMappings(document, this.xcontext));
+
+        // Both mappings are added before the session factory is rebuilt, only once.
+        verify(configuration, times(2)).addInputStream(any(InputStream.class));
+        verify(this.hibernateStore).build();
+    }
 }
@@ -22,6 +22,11 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -41,6 +46,7 @@
 import com.xpn.xwiki.test.junit5.mockito.OldcoreTest;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 /**
  * Test for {@link AbstractDataMigrationManager}.
@@ -96,6 +102,23 @@ public boolean shouldExecute(XWikiDBVersion startupVersion)
                 @Override
                 public void migrate()
                 {
+                    if (wikiLatch != null && !getXWikiContext().isMainWiki()) {
+                        // Wait for another wiki to be migrated at the same time
+                        wikiLatch.countDown();
+                        try {
+                            if (!wikiLatch.await(10, TimeUnit.SECONDS)) {
+                                notConcurrent.set(true);
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                }
+
+                @Override
+                public boolean isWikiIndependent()
+                {
+                    return wikiLatch != null;
                 }
             };
         }
@@ -114,6 +137,12 @@ protected List<DataMigration> getAllMigrations()
 
         XWikiDBVersion curversion;
 
+        final Map<String, XWikiDBVersion> wikiVersions = new ConcurrentHashMap<>();
+
+        CountDownLatch wikiLatch;
+
+        final AtomicBoolean notConcurrent = new AtomicBoolean();
+
         @Override
         protected void initializeEmptyDB()
         {
@@ -123,6 +152,7 @@ protected void initializeEmptyDB()
         protected void setDBVersionToDatabase(XWikiDBVersion version)
         {
             this.curversion = version;
+            this.wikiVersions.put(getXWikiContext().getWikiId(), version);
         }
 
         @Override
@@ -161,6 +191,30 @@ void migrationWhenNoVersion() throws Exception
         assertEquals(456, mm.curversion.getVersion());
     }
 
+    @Test
+    void migrationInParallel() throws Exception
+    {
+        this.oldCore.getSpyXWiki().getConfig().setProperty("xwiki.store.migration.databases", "wiki1,wiki2,wiki3");
+        this.oldCore.getSpyXWiki().getConfig().setProperty("xwiki.store.migration.threads", "2");
+        this.oldCore.getSpyXWiki().getConfig().setProperty("xwiki.store.migration.version", "123");
+        TestDataMigrationManager mm =
+            this.componentManager.getInstance(DataMigrationManager.class, "TestDataMigration");
+        String currentWiki = this.oldCore.getXWikiContext().getWikiId();
+
+        // The migrations wait for two sub wikis to be migrated at the same time
+        mm.wikiLatch = new CountDownLatch(2);
+
+        mm.startMigrations();
+
+        assertEquals(0, mm.wikiLatch.getCount());
+        assertFalse(mm.notConcurrent.get());
+        assertEquals(4, mm.wikiVersions.size());
+        for (String wiki : List.of("xwiki", "wiki1", "wiki2", "wiki3")) {
+            assertEquals(456, mm.wikiVersions.get(wiki).getVersion());
+        }
+        assertEquals(currentWiki, this.oldCore.getXWikiContext().getWikiId());
+    }
+
     /**
      * test parameters "xwiki.store.migration.version", "xwiki.store.migration.ignored" and migrations order.
      */
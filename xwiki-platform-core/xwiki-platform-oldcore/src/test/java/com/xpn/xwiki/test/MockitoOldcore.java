@@ -42,6 +42,7 @@
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Strings;
+import org.apache.commons.lang3.function.FailableConsumer;
 import org.hibernate.cfg.Configuration;
 import org.mockito.internal.util.MockUtil;
 import org.mockito.invocation.InvocationOnMock;
@@ -759,6 +760,16 @@ public Void answer(InvocationOnMock invocation) throws Throwable
             getMockStore().saveXWikiDoc(document, xcontext);
             return null;
         }).when(getMockStore()).saveXWikiDoc(anyXWikiDocument(), anyXWikiContext(), anyBoolean());
+        doAnswer(invocation -> {
+            Collection<XWikiDocument> documents = invocation.getArgument(0);
+            FailableConsumer<XWikiDocument, XWikiException> beforeSave = invocation.getArgument(1);
+            XWikiContext xcontext = invocation.getArgument(2);
+            for (XWikiDocument document : documents) {
+                beforeSave.accept(document);
+                getMockStore().saveXWikiDoc(document, xcontext);
+            }
+            return null;
+        }).when(getMockStore()).saveXWikiDocs(any(), any(), anyXWikiContext());
         when(getMockStore().getLimitSize(any(), any(), any())).thenReturn(255);
 
         // XWikiVersioningStoreInterface
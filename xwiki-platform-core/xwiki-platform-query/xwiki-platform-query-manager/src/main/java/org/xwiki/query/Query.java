@@ -186,6 +186,30 @@ default QueryParameter bindValue(String variable)
      */
     int getOffset();
 
+    /**
+     * Indicate that the results of this query can be cached until a document which might affect them is created,
+     * modified or deleted. The results filters (like the "viewable" filter) are still applied on each execution. Only
+     * the queries which can be safely cached are actually cached, the other ones are executed normally.
+     *
+     * @param cacheable {@code true} if the results of the query can be cached
+     * @return this query
+     * @since 18.8.0RC1
+     */
+    default Query setCacheable(boolean cacheable)
+    {
+        return this;
+    }
+
+    /**
+     * @return {@code true} if the results of the query can be cached
+     * @see #setCacheable(boolean)
+     * @since 18.8.0RC1
+     */
+    default boolean isCacheable()
+    {
+        return false;
+    }
+
     /**
      * @param <T> expected type of elements in the result list.
      * @return result list of the query. If several fields are selected then T=Object[].
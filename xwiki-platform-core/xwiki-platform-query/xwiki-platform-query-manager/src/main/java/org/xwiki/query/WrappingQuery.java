@@ -162,6 +162,18 @@ public int getOffset()
         return getWrappedQuery().getOffset();
     }
 
+    @Override
+    public Query setCacheable(boolean cacheable)
+    {
+        return getWrappedQuery().setCacheable(cacheable);
+    }
+
+    @Override
+    public boolean isCacheable()
+    {
+        return getWrappedQuery().isCacheable();
+    }
+
     @Override
     public <T> List<T> execute() throws QueryException
     {
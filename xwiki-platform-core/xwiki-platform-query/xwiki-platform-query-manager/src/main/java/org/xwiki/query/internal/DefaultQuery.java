@@ -99,6 +99,11 @@ public class DefaultQuery implements SecureQuery
      */
     private boolean checkCurrentUser;
 
+    /**
+     * field for {@link #isCacheable()}.
+     */
+    private boolean cacheable;
+
     /**
      * field for {@link #getFilters()}.
      */
@@ -242,6 +247,19 @@ public Query setOffset(int offset)
         return this;
     }
 
+    @Override
+    public Query setCacheable(boolean cacheable)
+    {
+        this.cacheable = cacheable;
+        return this;
+    }
+
+    @Override
+    public boolean isCacheable()
+    {
+        return this.cacheable;
+    }
+
     @Override
     public boolean isCurrentAuthorChecked()
     {
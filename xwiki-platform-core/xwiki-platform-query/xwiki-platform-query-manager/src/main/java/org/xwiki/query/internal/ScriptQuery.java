@@ -262,6 +262,19 @@ public int getOffset()
         return this.query.getOffset();
     }
 
+    @Override
+    public Query setCacheable(boolean cacheable)
+    {
+        this.query.setCacheable(cacheable);
+        return this;
+    }
+
+    @Override
+    public boolean isCacheable()
+    {
+        return this.query.isCacheable();
+    }
+
     @Override
     public <T> List<T> execute() throws QueryException
     {
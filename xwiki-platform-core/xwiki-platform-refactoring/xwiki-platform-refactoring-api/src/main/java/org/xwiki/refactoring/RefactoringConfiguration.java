@@ -35,4 +35,23 @@
      * permanently
      */
     boolean isRecycleBinSkippingActivated();
+
+    /**
+     * @return the maximum number of threads used to parse, update and render the documents linking to the entities
+     *     moved or renamed by a refactoring job, the number of available processors with a maximum of 4 by default
+     * @since 18.8.0RC1
+     */
+    default int getBackLinksUpdateThreads()
+    {
+        return Math.min(4, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @return the number of back-linking documents that are updated in parallel before being saved, 100 by default
+     * @since 18.8.0RC1
+     */
+    default int getBackLinksUpdateBatchSize()
+    {
+        return 100;
+    }
 }
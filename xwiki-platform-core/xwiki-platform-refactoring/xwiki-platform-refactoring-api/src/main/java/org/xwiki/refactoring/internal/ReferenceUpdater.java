@@ -55,4 +55,24 @@ default void update(DocumentReference documentReference, EntityReference oldTarg
      */
     void update(DocumentReference documentReference, EntityReference oldTargetReference,
         EntityReference newTargetReference);
+
+    /**
+     * Update the references found in several documents at once. Each document is updated and saved only once, whatever
+     * the number of renamed entities it targets.
+     *
+     * @param updates the renamed entities (previous reference to new reference) targeted by each document in which to
+     *     update the references
+     * @param updatedEntities the map of entities that are or are going to be updated: the map contains the source
+     *     and target destination.
+     * @since 18.8.0RC1
+     */
+    default void update(Map<DocumentReference, Map<EntityReference, EntityReference>> updates,
+        Map<EntityReference, EntityReference> updatedEntities)
+    {
+        for (Map.Entry<DocumentReference, Map<EntityReference, EntityReference>> entry : updates.entrySet()) {
+            for (Map.Entry<EntityReference, EntityReference> renamedEntity : entry.getValue().entrySet()) {
+                update(entry.getKey(), renamedEntity.getKey(), renamedEntity.getValue(), updatedEntities);
+            }
+        }
+    }
 }
@@ -0,0 +1,39 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.refactoring.internal.event;
+
+/**
+ * Event fired when a job renaming multiple entities fails part-way. Unlike
+ * {@link org.xwiki.refactoring.event.EntitiesRenamedEvent} it doesn't mean that all the entities have been renamed,
+ * only that some of them might have been renamed before the failure.
+ * <p>
+ * The event also sends the following parameters:
+ * </p>
+ * <ul>
+ * <li>source: the job which produced this event</li>
+ * <li>data: the {@link org.xwiki.refactoring.job.MoveRequest} request of the job which produced this event</li>
+ * </ul>
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class EntitiesRenamingFailedEvent extends AbstractEvent
+{
+}
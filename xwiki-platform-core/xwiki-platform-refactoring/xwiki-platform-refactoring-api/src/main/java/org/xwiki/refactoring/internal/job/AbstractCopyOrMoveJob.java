@@ -30,6 +30,7 @@
 import org.xwiki.observation.event.BeginFoldEvent;
 import org.xwiki.observation.event.CancelableEvent;
 import org.xwiki.observation.event.EndFoldEvent;
+import org.xwiki.observation.event.Event;
 import org.xwiki.refactoring.internal.event.AbstractEntityCopyOrRenameEvent;
 import org.xwiki.refactoring.job.AbstractCopyOrMoveRequest;
 import org.xwiki.refactoring.job.EntityJobStatus;
@@ -69,8 +70,18 @@ protected void runInternal() throws Exception
             this.progressManager.endStep(this);
 
             this.progressManager.startStep(this);
-            if (this.request.getDestination() != null) {
-                super.runInternal();
+            try {
+                if (this.request.getDestination() != null) {
+                    super.runInternal();
+                }
+            } catch (Exception e) {
+                // The end event means that all the entities have been processed, so the listeners which need to finish
+                // what they started for the entities already copied or moved are notified with a distinct event.
+                Event failedEvent = createFailedEvent();
+                if (failedEvent != null) {
+                    this.observationManager.notify(failedEvent, this, this.getRequest());
+                }
+                throw e;
             }
             this.progressManager.endStep(this);
 
@@ -443,4 +454,14 @@ protected EntityReference getCommonParent()
     protected abstract boolean atomicOperation(DocumentReference source, DocumentReference target);
     protected abstract BeginFoldEvent createBeginEvent();
     protected abstract EndFoldEvent createEndEvent();
+
+    /**
+     * @return the event to send when the job fails after having started to copy or move the entities, or {@code null}
+     *         if there is nothing to notify
+     * @since 18.8.0RC1
+     */
+    protected Event createFailedEvent()
+    {
+        return null;
+    }
 }
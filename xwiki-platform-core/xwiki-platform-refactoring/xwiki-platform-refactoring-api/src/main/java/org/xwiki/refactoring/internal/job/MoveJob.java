@@ -20,6 +20,9 @@
 package org.xwiki.refactoring.internal.job;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.inject.Named;
 
@@ -28,10 +31,12 @@
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.observation.event.BeginFoldEvent;
 import org.xwiki.observation.event.EndFoldEvent;
+import org.xwiki.observation.event.Event;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
 import org.xwiki.refactoring.event.DocumentRenamingEvent;
 import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.event.EntitiesRenamingEvent;
+import org.xwiki.refactoring.internal.event.EntitiesRenamingFailedEvent;
 import org.xwiki.refactoring.job.MoveRequest;
 import org.xwiki.refactoring.job.RefactoringJobs;
 import org.xwiki.security.authorization.Right;
@@ -46,6 +51,11 @@
 @Named(RefactoringJobs.MOVE)
 public class MoveJob extends AbstractCopyOrMoveJob<MoveRequest>
 {
+    /**
+     * The moved documents whose back-links have to be updated at the end of the job.
+     */
+    private final Map<DocumentReference, DocumentReference> backLinksToUpdate = new LinkedHashMap<>();
+
     @Override
     public String getType()
     {
@@ -64,6 +74,12 @@ protected EndFoldEvent createEndEvent()
         return new EntitiesRenamedEvent();
     }
 
+    @Override
+    protected Event createFailedEvent()
+    {
+        return new EntitiesRenamingFailedEvent();
+    }
+
     @Override
     protected void getEntities(Collection<EntityReference> entityReferences)
     {
@@ -116,4 +132,26 @@ protected boolean atomicOperation(DocumentReference source, DocumentReference ta
     {
         return this.modelBridge.rename(source, target);
     }
+
+    /**
+     * Indicate that the back-links of a moved document have to be updated. The back-links are updated in one pass once
+     * all the entities have been moved, so that a document linking to several moved documents is updated only once.
+     *
+     * @param oldReference the previous reference of the moved document
+     * @param newReference the new reference of the moved document
+     * @since 18.8.0RC1
+     */
+    public void addBackLinksToUpdate(DocumentReference oldReference, DocumentReference newReference)
+    {
+        this.backLinksToUpdate.put(oldReference, newReference);
+    }
+
+    /**
+     * @return the moved documents (previous reference to new reference) whose back-links have to be updated
+     * @since 18.8.0RC1
+     */
+    public Map<DocumentReference, DocumentReference> getBackLinksToUpdate()
+    {
+        return Collections.unmodifiableMap(this.backLinksToUpdate);
+    }
 }
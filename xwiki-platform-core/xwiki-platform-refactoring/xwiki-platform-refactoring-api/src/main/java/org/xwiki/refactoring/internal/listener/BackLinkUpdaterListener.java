@@ -19,6 +19,7 @@
  */
 package org.xwiki.refactoring.internal.listener;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -40,8 +41,10 @@
 import org.xwiki.observation.event.Event;
 import org.xwiki.refactoring.RefactoringException;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.ReferenceUpdater;
+import org.xwiki.refactoring.internal.event.EntitiesRenamingFailedEvent;
 import org.xwiki.refactoring.internal.job.DeleteJob;
 import org.xwiki.refactoring.internal.job.MoveJob;
 import org.xwiki.refactoring.job.DeleteRequest;
@@ -51,6 +54,11 @@
 
 /**
  * Updates the back-links after a document has been renamed or deleted.
+ * <p>
+ * When documents are moved or renamed by a {@link MoveJob}, the back-links are updated once all the entities have been
+ * moved, so that each back-linking document is updated and saved only once whatever the number of moved documents it
+ * links to. If the job fails part-way, the back-links of the documents already moved are updated when the
+ * {@link EntitiesRenamingFailedEvent} is received.
  * 
  * @version $Id$
  * @since 11.1RC1
@@ -92,7 +100,8 @@ public class BackLinkUpdaterListener extends AbstractLocalEventListener
      */
     public BackLinkUpdaterListener()
     {
-        super(NAME, new DocumentRenamedEvent(), new DocumentDeletedEvent());
+        super(NAME, new DocumentRenamedEvent(), new DocumentDeletedEvent(), new EntitiesRenamedEvent(),
+            new EntitiesRenamingFailedEvent());
     }
 
     @Override
@@ -101,6 +110,9 @@ public void processLocalEvent(Event event, Object source, Object data)
         try {
             if (event instanceof DocumentRenamedEvent) {
                 maybeUpdateLinksAfterRename(event, source, data);
+            } else if ((event instanceof EntitiesRenamedEvent || event instanceof EntitiesRenamingFailedEvent)
+                && source instanceof MoveJob moveJob) {
+                updateBackLinks(moveJob);
             } else if (event instanceof DocumentDeletedEvent && this.jobContext.getCurrentJob() instanceof DeleteJob) {
                 maybeUpdateLinksAfterDelete(event);
             }
@@ -124,24 +136,48 @@ private void maybeUpdateLinksAfterDelete(Event event) throws RefactoringExceptio
 
     private void maybeUpdateLinksAfterRename(Event event, Object source, Object data) throws RefactoringException
     {
-        boolean updateLinks = true;
-        Predicate<EntityReference> canEdit =
-            entityReference -> this.authorization.hasAccess(Right.EDIT, entityReference);
+        DocumentRenamedEvent renameEvent = (DocumentRenamedEvent) event;
 
-        Map<EntityReference, EntityReference> updatedEntities = Map.of();
         if (source instanceof MoveJob moveJob) {
             MoveRequest request = (MoveRequest) data;
-            updateLinks = request.isUpdateLinks();
-            // Check access rights taking into account the move request.
-            canEdit = entityReference -> moveJob.hasAccess(Right.EDIT, entityReference);
-            updatedEntities = moveJob.getSelectedEntities();
+            if (request.isUpdateLinks()) {
+                // The back-links are updated all at once when the job is done moving the entities.
+                moveJob.addBackLinksToUpdate(renameEvent.getSourceReference(), renameEvent.getTargetReference());
+            }
+        } else {
+            updateBackLinks(renameEvent.getSourceReference(), renameEvent.getTargetReference(),
+                entityReference -> this.authorization.hasAccess(Right.EDIT, entityReference), Map.of());
         }
+    }
 
-        if (updateLinks) {
-            DocumentRenamedEvent renameEvent = (DocumentRenamedEvent) event;
-            updateBackLinks(renameEvent.getSourceReference(), renameEvent.getTargetReference(), canEdit,
-                updatedEntities);
+    private void updateBackLinks(MoveJob moveJob) throws RefactoringException
+    {
+        Map<DocumentReference, DocumentReference> movedDocuments = moveJob.getBackLinksToUpdate();
+        if (movedDocuments.isEmpty()) {
+            return;
         }
+
+        this.linkIndexingHelper.get().maybeWaitForLinkIndexingWithLog(10, TimeUnit.SECONDS);
+
+        // Collect the documents to update, each of them with the list of moved documents it links to.
+        Map<DocumentReference, Map<EntityReference, EntityReference>> updates = new LinkedHashMap<>();
+        for (Map.Entry<DocumentReference, DocumentReference> movedDocument : movedDocuments.entrySet()) {
+            for (DocumentReference backlinkDocumentReference : this.modelBridge
+                .getBackLinkedDocuments(movedDocument.getKey())) {
+                // The back-linking document might have been moved too, and the link index might not be up to date.
+                DocumentReference documentReference =
+                    movedDocuments.getOrDefault(backlinkDocumentReference, backlinkDocumentReference);
+                // Check access rights taking into account the move request.
+                if (moveJob.hasAccess(Right.EDIT, documentReference)) {
+                    updates.computeIfAbsent(documentReference, key -> new LinkedHashMap<>())
+                        .put(movedDocument.getKey(), movedDocument.getValue());
+                }
+            }
+        }
+
+        this.logger.info("Updating the back-links in [{}] documents.", updates.size());
+
+        this.updater.update(updates, moveJob.getSelectedEntities());
     }
 
     private void updateBackLinks(DocumentReference source, DocumentReference target,
@@ -39,6 +39,7 @@
 import org.xwiki.refactoring.event.DocumentRenamingEvent;
 import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.event.EntitiesRenamingEvent;
+import org.xwiki.refactoring.internal.event.EntitiesRenamingFailedEvent;
 import org.xwiki.refactoring.job.MoveRequest;
 import org.xwiki.refactoring.job.OverwriteQuestion;
 import org.xwiki.refactoring.job.RefactoringJobs;
@@ -51,6 +52,7 @@
 import ch.qos.logback.classic.Level;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.same;
@@ -353,6 +355,41 @@ void moveDocumentToSpace() throws Throwable
         verify(this.observationManager).notify(any(EntitiesRenamedEvent.class), same(job), same(request));
     }
 
+    @Test
+    void moveFailingPartWay() throws Throwable
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "One", "Page");
+        when(this.modelBridge.exists(documentReference)).thenReturn(true);
+        SpaceReference spaceReference = new SpaceReference("wiki", "Space");
+        DocumentReference spaceDocumentReference = new DocumentReference("Page", spaceReference);
+        when(this.modelBridge.exists(spaceDocumentReference)).thenReturn(true);
+        // The documents of the space are listed once to collect the entities and once to move them.
+        when(this.modelBridge.getDocumentReferences(spaceReference)).thenReturn(List.of(spaceDocumentReference))
+            .thenThrow(new RuntimeException("Failed to list the documents"));
+
+        SpaceReference destination = new SpaceReference("wiki", "Target");
+        DocumentReference newReference = new DocumentReference("Page", destination);
+        when(this.modelBridge.rename(documentReference, newReference)).thenReturn(true);
+
+        MoveRequest request = new MoveRequest();
+        request.setEntityReferences(List.of(documentReference, spaceReference));
+        request.setDestination(destination);
+        request.setCheckRights(false);
+        request.setCheckAuthorRights(false);
+
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> run(request));
+
+        assertEquals("Failed to list the documents", exception.getMessage());
+        assertEquals("Exception thrown during job execution", getLogCapture().getMessage(0));
+        verify(this.modelBridge).rename(documentReference, newReference);
+        verify(this.observationManager).notify(new DocumentRenamedEvent(documentReference, newReference),
+            this.moveJob, request);
+        // The failure is notified so that the back-links of the moved document are updated, but not the end event.
+        verify(this.observationManager).notify(any(EntitiesRenamingFailedEvent.class), same(this.moveJob),
+            same(request));
+        verify(this.observationManager, never()).notify(any(EntitiesRenamedEvent.class), any(), any());
+    }
+
     @Test
     void cancelEntitiesRenamingEvent() throws Throwable
     {
@@ -20,6 +20,7 @@
 package org.xwiki.refactoring.internal.listener;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -33,8 +34,10 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.refactoring.RefactoringException;
 import org.xwiki.refactoring.event.DocumentRenamedEvent;
+import org.xwiki.refactoring.event.EntitiesRenamedEvent;
 import org.xwiki.refactoring.internal.ModelBridge;
 import org.xwiki.refactoring.internal.ReferenceUpdater;
+import org.xwiki.refactoring.internal.event.EntitiesRenamingFailedEvent;
 import org.xwiki.refactoring.internal.job.DeleteJob;
 import org.xwiki.refactoring.internal.job.RenameJob;
 import org.xwiki.refactoring.job.DeleteRequest;
@@ -130,10 +133,18 @@ void onDocumentRenamedWithUpdateLinksOnFarm()
 
         this.listener.onEvent(documentRenamedEvent, renameJob, renameRequest);
 
-        verify(this.updater).update(carolReference, aliceReference, bobReference, Map.of());
-        verify(this.updater).update(denisReference, aliceReference, bobReference, Map.of());
+        // The back-links are updated only once all the entities have been renamed.
+        verify(this.renameJob).addBackLinksToUpdate(aliceReference, bobReference);
+        verify(this.updater, never()).update(any(), any());
 
-        assertEquals("Updating the back-links for document [foo:Users.Alice].", this.logCapture.getMessage(0));
+        when(this.renameJob.getBackLinksToUpdate()).thenReturn(Map.of(aliceReference, bobReference));
+
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
+
+        verify(this.updater).update(Map.of(carolReference, Map.of(aliceReference, bobReference), denisReference,
+            Map.of(aliceReference, bobReference)), Map.of());
+
+        assertEquals("Updating the back-links in [1] documents.", this.logCapture.getMessage(0));
     }
 
     @Test
@@ -145,13 +156,13 @@ void onDocumentRenamedWithUpdateLinksOnFarmAndNoEditRight()
 
         when(this.renameJob.hasAccess(Right.EDIT, carolReference)).thenReturn(true);
         when(this.renameJob.hasAccess(Right.EDIT, denisReference)).thenReturn(false);
+        when(this.renameJob.getBackLinksToUpdate()).thenReturn(Map.of(aliceReference, bobReference));
 
-        this.listener.onEvent(documentRenamedEvent, renameJob, renameRequest);
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
 
-        verify(this.updater).update(carolReference, aliceReference, bobReference, Map.of());
-        verify(this.updater, never()).update(eq(denisReference), any(DocumentReference.class), any());
+        verify(this.updater).update(Map.of(carolReference, Map.of(aliceReference, bobReference)), Map.of());
 
-        assertEquals("Updating the back-links for document [foo:Users.Alice].", this.logCapture.getMessage(0));
+        assertEquals("Updating the back-links in [1] documents.", this.logCapture.getMessage(0));
     }
 
     @Test
@@ -161,16 +172,60 @@ void onDocumentRenamedWithUpdateLinksOnWiki()
         renameRequest.setUpdateLinks(true);
 
         when(this.renameJob.hasAccess(Right.EDIT, carolReference)).thenReturn(true);
+        when(this.renameJob.getBackLinksToUpdate()).thenReturn(Map.of(aliceReference, bobReference));
 
-        this.listener.onEvent(documentRenamedEvent, renameJob, renameRequest);
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
 
-        verify(this.updater).update(carolReference, aliceReference, bobReference, Map.of());
-        verify(this.updater, never()).update(eq(denisReference), any(DocumentReference.class), any());
+        verify(this.updater).update(Map.of(carolReference, Map.of(aliceReference, bobReference)), Map.of());
 
-        assertEquals("Updating the back-links for document [foo:Users.Alice].", this.logCapture.getMessage(0));
+        assertEquals("Updating the back-links in [1] documents.", this.logCapture.getMessage(0));
         verify(this.waitingHelper).maybeWaitForLinkIndexingWithLog(10, TimeUnit.SECONDS);
     }
 
+    @Test
+    void onEntitiesRenamedUpdatesEachBackLinkingDocumentOnce() throws RefactoringException
+    {
+        DocumentReference newCarolReference = new DocumentReference("foo", "Archive", "Carol");
+        when(this.modelBridge.getBackLinkedDocuments(carolReference)).thenReturn(Set.of(carolReference));
+        when(this.modelBridge.getBackLinkedDocuments(denisReference)).thenReturn(Set.of(carolReference));
+        when(this.renameJob.hasAccess(Right.EDIT, newCarolReference)).thenReturn(true);
+
+        Map<DocumentReference, DocumentReference> movedDocuments = new LinkedHashMap<>();
+        movedDocuments.put(carolReference, newCarolReference);
+        movedDocuments.put(denisReference, aliceReference);
+        when(this.renameJob.getBackLinksToUpdate()).thenReturn(movedDocuments);
+
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
+
+        // Carol has been moved too, so its new location is updated, only once for both moved documents.
+        verify(this.updater).update(
+            Map.of(newCarolReference, Map.of(carolReference, newCarolReference, denisReference, aliceReference)),
+            Map.of());
+        assertEquals("Updating the back-links in [2] documents.", this.logCapture.getMessage(0));
+    }
+
+    @Test
+    void onEntitiesRenamingFailed()
+    {
+        when(this.renameJob.hasAccess(Right.EDIT, carolReference)).thenReturn(true);
+        when(this.renameJob.getBackLinksToUpdate()).thenReturn(Map.of(aliceReference, bobReference));
+
+        this.listener.onEvent(new EntitiesRenamingFailedEvent(), renameJob, renameRequest);
+
+        // The back-links of the documents moved before the failure are updated.
+        verify(this.updater).update(Map.of(carolReference, Map.of(aliceReference, bobReference)), Map.of());
+        assertEquals("Updating the back-links in [1] documents.", this.logCapture.getMessage(0));
+    }
+
+    @Test
+    void onEntitiesRenamedWithoutMovedDocuments()
+    {
+        this.listener.onEvent(new EntitiesRenamedEvent(), renameJob, renameRequest);
+
+        verify(this.updater, never()).update(any(), any());
+        verify(this.waitingHelper, never()).maybeWaitForLinkIndexingWithLog(10, TimeUnit.SECONDS);
+    }
+
     @Test
     void onDocumentRenamedWithoutUpdateLinks()
     {
@@ -178,6 +233,7 @@ void onDocumentRenamedWithoutUpdateLinks()
 
         this.listener.onEvent(documentRenamedEvent, renameJob, renameRequest);
 
+        verify(this.renameJob, never()).addBackLinksToUpdate(any(), any());
         verify(this.updater, never()).update(any(), any(DocumentReference.class), any());
     }
 
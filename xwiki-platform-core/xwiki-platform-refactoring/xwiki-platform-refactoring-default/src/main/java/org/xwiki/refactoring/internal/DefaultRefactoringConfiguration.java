@@ -48,6 +48,10 @@ public class DefaultRefactoringConfiguration implements RefactoringConfiguration
 
     private static final String PREFIX = "refactoring.";
 
+    private static final String BACKLINKS_UPDATE_THREADS_PROPERTY = PREFIX + "backLinksUpdate.threads";
+
+    private static final String BACKLINKS_UPDATE_BATCH_SIZE_PROPERTY = PREFIX + "backLinksUpdate.batchSize";
+
     @Inject
     @Named("refactoring")
     private ConfigurationSource currentWikiConfigurationSource;
@@ -69,6 +73,21 @@ public boolean isRecycleBinSkippingActivated()
         return defaultPropertyAccess(IS_RECYCLE_BIN_SKIPPING_ACTIVATED_PROPERTY, false);
     }
 
+    @Override
+    public int getBackLinksUpdateThreads()
+    {
+        // The number of threads is a farm level configuration, it's not overwritable at wiki level.
+        return Math.max(1, this.xwikiPropertiesSource.getProperty(BACKLINKS_UPDATE_THREADS_PROPERTY,
+            RefactoringConfiguration.super.getBackLinksUpdateThreads()));
+    }
+
+    @Override
+    public int getBackLinksUpdateBatchSize()
+    {
+        return Math.max(1, this.xwikiPropertiesSource.getProperty(BACKLINKS_UPDATE_BATCH_SIZE_PROPERTY,
+            RefactoringConfiguration.super.getBackLinksUpdateBatchSize()));
+    }
+
     /**
      * Look for the property hierarchically.
      *
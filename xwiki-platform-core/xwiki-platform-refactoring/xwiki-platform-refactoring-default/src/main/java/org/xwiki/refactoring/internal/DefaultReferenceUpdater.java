@@ -19,20 +19,30 @@
  */
 package org.xwiki.refactoring.internal;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
 import javax.inject.Singleton;
 
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
 import org.xwiki.component.manager.ComponentLookupException;
 import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
 import org.xwiki.job.Job;
 import org.xwiki.job.JobContext;
 import org.xwiki.job.event.status.JobProgressManager;
@@ -41,6 +51,7 @@
 import org.xwiki.model.reference.AttachmentReference;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.refactoring.RefactoringConfiguration;
 import org.xwiki.refactoring.ReferenceRenamer;
 import org.xwiki.rendering.block.XDOM;
 import org.xwiki.rendering.parser.ContentParser;
@@ -70,6 +81,10 @@
 @SuppressWarnings("checkstyle:ClassFanOutComplexity")
 public class DefaultReferenceUpdater implements ReferenceUpdater
 {
+    private static final String RELATIVE_LINK_SAVE_MESSAGE = "refactoring.referenceUpdater.saveMessage.relativeLink";
+
+    private static final String BACKLINKS_SAVE_MESSAGE = "refactoring.referenceUpdater.saveMessage.backlinks";
+
     @Inject
     private Provider<XWikiContext> xcontextProvider;
 
@@ -104,6 +119,15 @@ public class DefaultReferenceUpdater implements ReferenceUpdater
     @Inject
     private LocalizationManager localizationManager;
 
+    @Inject
+    private RefactoringConfiguration configuration;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
     @FunctionalInterface
     private interface RenameLambda
     {
@@ -220,12 +244,11 @@ private void maybeSaveDocumentPreservingAuthors(XWikiDocument documentToModify,
     {
         if (modified) {
             if (relative) {
-                saveDocumentPreservingAuthors(documentToModify,
-                    "refactoring.referenceUpdater.saveMessage.relativeLink");
+                saveDocumentPreservingAuthors(documentToModify, RELATIVE_LINK_SAVE_MESSAGE);
 
                 info("Updated the relative links from [{}].", currentDocumentReference);
             } else {
-                saveDocumentPreservingAuthors(documentToModify, "refactoring.referenceUpdater.saveMessage.backlinks");
+                saveDocumentPreservingAuthors(documentToModify, BACKLINKS_SAVE_MESSAGE);
 
                 info("The links from [{}] that were targeting [{}] have been updated to target [{}].",
                     documentToModify.getDocumentReferenceWithLocale(), oldTarget, newTarget);
@@ -241,6 +264,19 @@ private void maybeSaveDocumentPreservingAuthors(XWikiDocument documentToModify,
 
     private void renameLinks(XWikiDocument document, EntityReference oldTarget, EntityReference newTarget,
         XWikiContext xcontext, boolean relative, RenameLambda renameLambda) throws XWikiException
+    {
+        BlockRenderer renderer = getRenderer(document);
+        if (renderer == null) {
+            return;
+        }
+
+        XWikiDocument modifiedDocument = renameLinks(document, renderer, xcontext, relative, renameLambda);
+
+        maybeSaveDocumentPreservingAuthors(modifiedDocument, modifiedDocument != null,
+            document.getDocumentReference(), relative, oldTarget, newTarget);
+    }
+
+    private BlockRenderer getRenderer(XWikiDocument document)
     {
         DocumentReference currentDocumentReference = document.getDocumentReference();
 
@@ -252,21 +288,29 @@ private void renameLinks(XWikiDocument document, EntityReference oldTarget, Enti
                 "We can't rename the links from [{}] because there is no renderer available for its syntax [{}].",
                 currentDocumentReference, document.getSyntax());
 
-            return;
+            return null;
         }
 
         // Load the renderer
-        BlockRenderer renderer;
         try {
-            renderer = componentManager.getInstance(BlockRenderer.class, document.getSyntax().toIdString());
+            return componentManager.getInstance(BlockRenderer.class, document.getSyntax().toIdString());
         } catch (ComponentLookupException e) {
             this.logger.error(
                 "We can't rename the links from [{}] because the renderer for syntax [{}] cannot be loaded.",
                 currentDocumentReference, document.getSyntax(), e);
 
-            return;
+            return null;
         }
+    }
 
+    /**
+     * Update the links found in the content and the xobjects of the passed document, without saving it.
+     *
+     * @return the modified document, or {@code null} if there was no link to update
+     */
+    private XWikiDocument renameLinks(XWikiDocument document, BlockRenderer renderer, XWikiContext xcontext,
+        boolean relative, RenameLambda renameLambda) throws XWikiException
+    {
         // Avoid modifying the cached document
         XWikiDocument documentToModify;
         if (document.isCached()) {
@@ -287,8 +331,7 @@ private void renameLinks(XWikiDocument document, EntityReference oldTarget, Enti
             }
         }
 
-        maybeSaveDocumentPreservingAuthors(documentToModify, modified, currentDocumentReference, relative, oldTarget,
-            newTarget);
+        return modified ? documentToModify : null;
     }
 
     private void renameLinks(DocumentReference documentReference, DocumentReference oldLinkTarget,
@@ -388,4 +431,167 @@ public void update(DocumentReference documentReference, EntityReference oldTarge
         update(documentReference, oldTargetReference, newTargetReference,
             Map.of(oldTargetReference, newTargetReference));
     }
+
+    @Override
+    public void update(Map<DocumentReference, Map<EntityReference, EntityReference>> updates,
+        Map<EntityReference, EntityReference> updatedEntities)
+    {
+        List<DocumentReference> documentReferences = new ArrayList<>(updates.keySet());
+        int batchSize = this.configuration.getBackLinksUpdateBatchSize();
+
+        this.progressManager.pushLevelProgress(documentReferences.size(), this);
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.configuration.getBackLinksUpdateThreads(),
+            BasicThreadFactory.builder().namingPattern("XWiki back-links update thread %d").daemon(true).build());
+        try {
+            for (int start = 0; start < documentReferences.size(); start += batchSize) {
+                List<DocumentReference> batch =
+                    documentReferences.subList(start, Math.min(start + batchSize, documentReferences.size()));
+                if (!updateBatch(batch, updates, updatedEntities, executor)) {
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
+    private boolean updateBatch(List<DocumentReference> batch,
+        Map<DocumentReference, Map<EntityReference, EntityReference>> updates,
+        Map<EntityReference, EntityReference> updatedEntities, ExecutorService executor)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        String wikiId = xcontext.getWikiId();
+        DocumentReference userReference = xcontext.getUserReference();
+
+        // Load, parse, update and render the documents of the batch in parallel.
+        List<Future<List<XWikiDocument>>> results = new ArrayList<>(batch.size());
+        for (DocumentReference documentReference : batch) {
+            Map<EntityReference, EntityReference> renamedEntities = updates.get(documentReference);
+            results.add(executor.submit(() -> callInWorkerContext(wikiId, userReference,
+                () -> renameLinks(documentReference, renamedEntities, updatedEntities))));
+        }
+
+        // Save the modified documents from the current thread, in the order of the batch, so that the save events are
+        // fired in the context of the refactoring job.
+        for (int i = 0; i < batch.size(); i++) {
+            DocumentReference documentReference = batch.get(i);
+            this.progressManager.startStep(this);
+            try {
+                xcontext.setWikiId(documentReference.getWikiReference().getName());
+                for (XWikiDocument document : results.get(i).get()) {
+                    saveDocumentPreservingAuthors(document, BACKLINKS_SAVE_MESSAGE);
+
+                    info("The links from [{}] that were targeting [{}] have been updated.",
+                        document.getDocumentReferenceWithLocale(), updates.get(documentReference).keySet());
+                }
+            } catch (InterruptedException e) {
+                this.logger.warn("Interrupted while updating the links from [{}].", documentReference);
+                Thread.currentThread().interrupt();
+
+                return false;
+            } catch (ExecutionException | XWikiException e) {
+                this.logger.error("Failed to rename the links that target [{}] from [{}].",
+                    updates.get(documentReference).keySet(), documentReference, e);
+            } finally {
+                xcontext.setWikiId(wikiId);
+            }
+            this.progressManager.endStep(this);
+        }
+
+        return true;
+    }
+
+    /**
+     * Update the links found in the passed document and its translations, without saving them.
+     *
+     * @return the documents that have been modified
+     */
+    private List<XWikiDocument> renameLinks(DocumentReference documentReference,
+        Map<EntityReference, EntityReference> renamedEntities, Map<EntityReference, EntityReference> updatedEntities)
+        throws XWikiException
+    {
+        // All the renamed entities are handled in a single parsing and rendering of the document.
+        RenameLambda renameLambda = (xdom, currentDocumentReference, relative) -> {
+            boolean modified = false;
+            for (Map.Entry<EntityReference, EntityReference> entry : renamedEntities.entrySet()) {
+                // If the current document is the moved entity the links should be serialized relative to it
+                modified |= renameReferences(xdom, currentDocumentReference, entry.getKey(), entry.getValue(),
+                    entry.getValue().equals(currentDocumentReference), updatedEntities);
+            }
+            return modified;
+        };
+
+        List<XWikiDocument> modifiedDocuments = new ArrayList<>();
+
+        XWikiContext xcontext = this.xcontextProvider.get();
+        xcontext.setWikiId(documentReference.getWikiReference().getName());
+        XWikiDocument document = xcontext.getWiki().getDocument(documentReference, xcontext);
+        List<XWikiDocument> documents = new ArrayList<>();
+        documents.add(document);
+        if (documentReference.getLocale() == null) {
+            for (Locale locale : document.getTranslationLocales(xcontext)) {
+                documents.add(document.getTranslatedDocument(locale, xcontext));
+            }
+        }
+
+        for (XWikiDocument documentToModify : documents) {
+            // The translations don't necessarily have the same syntax
+            BlockRenderer renderer = getRenderer(documentToModify);
+            if (renderer != null) {
+                XWikiDocument modifiedDocument =
+                    renameLinks(documentToModify, renderer, xcontext, false, renameLambda);
+                if (modifiedDocument != null) {
+                    modifiedDocuments.add(modifiedDocument);
+                } else {
+                    info("No back-links to update in [{}].", documentToModify.getDocumentReferenceWithLocale());
+                }
+            }
+        }
+
+        return modifiedDocuments;
+    }
+
+    private boolean renameReferences(XDOM xdom, DocumentReference currentDocumentReference,
+        EntityReference oldTargetReference, EntityReference newTargetReference, boolean relative,
+        Map<EntityReference, EntityReference> updatedEntities)
+    {
+        // Old and new target must be of same type
+        if (oldTargetReference.getType() != newTargetReference.getType()) {
+            return false;
+        }
+
+        // Only support documents and attachments targets
+        if (oldTargetReference.getType() == EntityType.ATTACHMENT) {
+            return this.renamer.renameReferences(xdom, currentDocumentReference,
+                toAttachmentReference(oldTargetReference), toAttachmentReference(newTargetReference), relative,
+                updatedEntities);
+        } else if (oldTargetReference.getType() == EntityType.DOCUMENT) {
+            return this.renamer.renameReferences(xdom, currentDocumentReference,
+                toDocumentReference(oldTargetReference), toDocumentReference(newTargetReference), relative,
+                updatedEntities);
+        }
+
+        return false;
+    }
+
+    /**
+     * Execute the passed callable in a new execution context targeting the passed wiki and user, since the
+     * {@link XWikiContext} of the refactoring job cannot be shared between threads.
+     */
+    private <T> T callInWorkerContext(String wikiId, DocumentReference userReference, Callable<T> callable)
+        throws Exception
+    {
+        this.executionContextManager.initialize(new ExecutionContext());
+        try {
+            XWikiContext xcontext = this.xcontextProvider.get();
+            xcontext.setWikiId(wikiId);
+            xcontext.setUserReference(userReference);
+
+            return callable.call();
+        } finally {
+            this.execution.removeContext();
+        }
+    }
 }
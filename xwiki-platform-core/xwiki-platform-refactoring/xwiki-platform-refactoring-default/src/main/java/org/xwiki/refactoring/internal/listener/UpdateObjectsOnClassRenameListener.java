@@ -19,6 +19,7 @@
  */
 package org.xwiki.refactoring.internal.listener;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -63,6 +64,12 @@ public class UpdateObjectsOnClassRenameListener extends AbstractLocalEventListen
      */
     public static final String NAME = "refactoring.updateObjectsOnClassRename";
 
+    /**
+     * The number of updated documents saved in a single transaction, which is also the maximum number of updated
+     * documents kept in memory.
+     */
+    private static final int SAVE_CHUNK_SIZE = 100;
+
     @Inject
     private Logger logger;
 
@@ -140,24 +147,56 @@ private void updateObjects(List<DocumentReference> documentsToUpdate, DocumentRe
             oldClassReference, newClassReference);
         this.progressManager.pushLevelProgress(documentsToUpdate.size(), this);
 
+        String comment = String.format("Rename [%s] objects into [%s]", oldClassReference, newClassReference);
+
         try {
+            // Save the updated documents by chunks, which is a lot faster than saving them one by one.
+            List<XWikiDocument> documents = new ArrayList<>(SAVE_CHUNK_SIZE);
             for (DocumentReference documentReference : documentsToUpdate) {
                 this.progressManager.startStep(this);
                 try {
-                    updateObjects(documentReference, oldClassReference, newClassReference);
+                    documents.add(updateObjects(documentReference, oldClassReference, newClassReference));
                 } catch (XWikiException e) {
                     this.logger.error(
                         "Failed to update the xobjects from [{}] after the xclass [{}] has been renamed to [{}].",
                         documentReference, oldClassReference, newClassReference, e);
                 }
+                if (documents.size() >= SAVE_CHUNK_SIZE) {
+                    saveDocuments(documents, comment, oldClassReference, newClassReference);
+                    documents = new ArrayList<>(SAVE_CHUNK_SIZE);
+                }
                 this.progressManager.endStep(this);
             }
+            saveDocuments(documents, comment, oldClassReference, newClassReference);
         } finally {
             this.progressManager.popLevelProgress(this);
         }
     }
 
-    private void updateObjects(DocumentReference documentReference, DocumentReference oldClassReference,
+    private void saveDocuments(List<XWikiDocument> documents, String comment, DocumentReference oldClassReference,
+        DocumentReference newClassReference)
+    {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        // Note that we haven't checked if the current user has edit right on the documents we're about to save because
+        // we consider the operation of updating the objects on class rename to be a low level system operation. Also
+        // note that we haven't changed the author of the documents because we don't want to change the way the code
+        // from the updated objects is evaluated.
+        XWikiContext xcontext = this.xcontextProvider.get();
+        try {
+            xcontext.getWiki().saveDocuments(documents, comment, false, xcontext);
+        } catch (XWikiException e) {
+            // The documents which could be saved are not rolled back (see XWiki#saveDocuments).
+            this.logger.error(
+                "Failed to save the xobjects of some of [{}] after the xclass [{}] has been renamed to [{}].",
+                documents.stream().map(XWikiDocument::getDocumentReference).toList(), oldClassReference,
+                newClassReference, e);
+        }
+    }
+
+    private XWikiDocument updateObjects(DocumentReference documentReference, DocumentReference oldClassReference,
         DocumentReference newClassReference) throws XWikiException
     {
         XWikiContext xcontext = this.xcontextProvider.get();
@@ -175,11 +214,7 @@ private void updateObjects(DocumentReference documentReference, DocumentReferenc
                 document.removeXObject(oldObject);
             }
         }
-        // Note that we haven't checked if the current user has edit right on the document we're about to save because
-        // we consider the operation of updating the objects on class rename to be a low level system operation. Also
-        // note that we haven't changed the author of the document because we don't want to change the way the code from
-        // the updated objects is evaluated.
-        xcontext.getWiki().saveDocument(document,
-            String.format("Rename [%s] objects into [%s]", oldClassReference, newClassReference), xcontext);
+
+        return document;
     }
 }
@@ -28,9 +28,12 @@
 import org.xwiki.test.junit5.mockito.MockComponent;
 import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -112,4 +115,26 @@ void isRecycleBinSkippingActivatedOnSubWikiConfigurationSetOnSubWiki()
         verify(this.mainWikiConfigurationSource, never()).getProperty("isRecycleBinSkippingActivated", Boolean.class);
         verify(this.xwikiPropertiesSource, never()).getProperty("refactoring.isRecycleBinSkippingActivated", false);
     }
+
+    @Test
+    void getBackLinksUpdateThreads()
+    {
+        when(this.xwikiPropertiesSource.getProperty(eq("refactoring.backLinksUpdate.threads"), anyInt())).thenReturn(8);
+
+        assertEquals(8, this.configuration.getBackLinksUpdateThreads());
+
+        when(this.xwikiPropertiesSource.getProperty(eq("refactoring.backLinksUpdate.threads"), anyInt())).thenReturn(0);
+
+        assertEquals(1, this.configuration.getBackLinksUpdateThreads());
+    }
+
+    @Test
+    void getBackLinksUpdateBatchSize()
+    {
+        when(this.xwikiPropertiesSource.getProperty("refactoring.backLinksUpdate.batchSize", 100)).thenReturn(100);
+
+        assertEquals(100, this.configuration.getBackLinksUpdateBatchSize());
+
+        verify(this.configurationSource, never()).getProperty(any(), any());
+    }
 }
@@ -51,6 +51,7 @@
 import org.xwiki.model.reference.ObjectReference;
 import org.xwiki.model.reference.PageReferenceResolver;
 import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.refactoring.RefactoringConfiguration;
 import org.xwiki.rendering.block.Block;
 import org.xwiki.rendering.block.ImageBlock;
 import org.xwiki.rendering.block.LinkBlock;
@@ -97,7 +98,9 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -186,6 +189,9 @@
     @MockComponent
     private LocalizationManager localizationManager;
 
+    @MockComponent
+    private RefactoringConfiguration configuration;
+
     @InjectMockComponents
     private DefaultReferenceUpdater updater;
 
@@ -229,6 +235,8 @@ void beforeEach() throws Exception
         when(this.localizationManager.getTranslationPlain(SAVE_COMMENT_BACKLINK_KEY, Locale.FRENCH))
             .thenReturn(TRANSLATED_BACKLINK_COMMENT);
         when(this.userReferenceResolver.resolve(CurrentUserReference.INSTANCE)).thenReturn(currentUserReference);
+        when(this.configuration.getBackLinksUpdateThreads()).thenReturn(2);
+        when(this.configuration.getBackLinksUpdateBatchSize()).thenReturn(1);
     }
 
     private void setTextarea(XWikiDocument document, XDOM xdom)
@@ -951,6 +959,116 @@ void updateAndTranslations() throws Exception
         }
     }
 
+    @Test
+    void updateSeveralDocuments() throws Exception
+    {
+        DocumentReference oldLinkTarget = new DocumentReference("wiki", "A", "B");
+        DocumentReference newLinkTarget = new DocumentReference("wiki", "X", "Y");
+        DocumentReference otherOldLinkTarget = new DocumentReference("wiki", "C", "D");
+        DocumentReference otherNewLinkTarget = new DocumentReference("wiki", "Z", "W");
+
+        ResourceReference linkReference = new ResourceReference("A.B", ResourceType.DOCUMENT);
+        ResourceReference otherLinkReference = new ResourceReference("C.D", ResourceType.DOCUMENT);
+        when(this.defaultReferenceDocumentReferenceResolver.resolve(oldLinkTarget)).thenReturn(oldLinkTarget);
+        when(this.defaultReferenceDocumentReferenceResolver.resolve(otherOldLinkTarget))
+            .thenReturn(otherOldLinkTarget);
+        when(this.resourceReferenceResolver.resolve(linkReference, null)).thenReturn(oldLinkTarget);
+        when(this.resourceReferenceResolver.resolve(otherLinkReference, null)).thenReturn(otherOldLinkTarget);
+        when(this.relativeEntityReferenceResolver.resolve(linkReference, null, null))
+            .thenReturn(new EntityReference("B", EntityType.DOCUMENT, new EntityReference("A", EntityType.SPACE)));
+        when(this.relativeEntityReferenceResolver.resolve(otherLinkReference, null, null))
+            .thenReturn(new EntityReference("D", EntityType.DOCUMENT, new EntityReference("C", EntityType.SPACE)));
+
+        Map<DocumentReference, Map<EntityReference, EntityReference>> updates = new HashMap<>();
+        Map<XWikiDocument, List<LinkBlock>> documentLinks = new HashMap<>();
+        for (String name : List.of("Page1", "Page2", "Page3")) {
+            DocumentReference documentReference = new DocumentReference("wiki", "Space", name);
+            XWikiDocument document = mock(XWikiDocument.class);
+            DocumentAuthors authors = mock(DocumentAuthors.class);
+            when(document.getAuthors()).thenReturn(authors);
+            when(this.xcontext.getWiki().getDocument(documentReference, this.xcontext)).thenReturn(document);
+            when(document.getDocumentReference()).thenReturn(documentReference);
+            when(document.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+
+            // The document links to both renamed documents.
+            LinkBlock linkBlock = new LinkBlock(List.of(), linkReference.clone(), false);
+            LinkBlock otherLinkBlock = new LinkBlock(List.of(), otherLinkReference.clone(), false);
+            when(document.getXDOM()).thenReturn(new XDOM(List.of(linkBlock, otherLinkBlock)));
+            documentLinks.put(document, List.of(linkBlock, otherLinkBlock));
+
+            when(this.resourceReferenceResolver.resolve(linkReference, null, documentReference))
+                .thenReturn(oldLinkTarget);
+            when(this.resourceReferenceResolver.resolve(otherLinkReference, null, documentReference))
+                .thenReturn(otherOldLinkTarget);
+            when(this.compactEntityReferenceSerializer.serialize(newLinkTarget, documentReference)).thenReturn("X.Y");
+            when(this.compactEntityReferenceSerializer.serialize(otherNewLinkTarget, documentReference))
+                .thenReturn("Z.W");
+
+            updates.put(documentReference, Map.of(oldLinkTarget, newLinkTarget, otherOldLinkTarget,
+                otherNewLinkTarget));
+        }
+
+        this.updater.update(updates, Map.of());
+
+        for (Map.Entry<XWikiDocument, List<LinkBlock>> entry : documentLinks.entrySet()) {
+            // Each document is saved only once, with all its links updated.
+            XWikiDocument document = entry.getKey();
+            verify(document).setContentDirty(false);
+            verify(this.xcontext.getWiki()).saveDocument(document, TRANSLATED_BACKLINK_COMMENT, true, this.xcontext);
+            assertEquals("X.Y", entry.getValue().get(0).getReference().getReference());
+            assertEquals("Z.W", entry.getValue().get(1).getReference().getReference());
+        }
+        verify(this.progressManager).pushLevelProgress(3, this.updater);
+        verify(this.progressManager, times(3)).startStep(this.updater);
+        verify(this.progressManager, times(3)).endStep(this.updater);
+        verify(this.progressManager).popLevelProgress(this.updater);
+    }
+
+    @Test
+    void updateSeveralDocumentsWithTranslationInOtherSyntax() throws Exception
+    {
+        DocumentReference oldLinkTarget = new DocumentReference("wiki", "A", "B");
+        DocumentReference newLinkTarget = new DocumentReference("wiki", "X", "Y");
+        ResourceReference linkReference = new ResourceReference("A.B", ResourceType.DOCUMENT);
+        when(this.defaultReferenceDocumentReferenceResolver.resolve(oldLinkTarget)).thenReturn(oldLinkTarget);
+        when(this.resourceReferenceResolver.resolve(linkReference, null)).thenReturn(oldLinkTarget);
+        when(this.relativeEntityReferenceResolver.resolve(linkReference, null, null))
+            .thenReturn(new EntityReference("B", EntityType.DOCUMENT, new EntityReference("A", EntityType.SPACE)));
+
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getAuthors()).thenReturn(mock(DocumentAuthors.class));
+        when(this.xcontext.getWiki().getDocument(documentReference, this.xcontext)).thenReturn(document);
+        when(document.getDocumentReference()).thenReturn(documentReference);
+        when(document.getSyntax()).thenReturn(Syntax.MARKDOWN_1_1);
+
+        // The translation is in a syntax that can be rendered, contrary to the original document.
+        DocumentReference frenchDocumentReference = new DocumentReference(documentReference, Locale.FRENCH);
+        XWikiDocument frenchDocument = mock(XWikiDocument.class);
+        when(frenchDocument.getAuthors()).thenReturn(mock(DocumentAuthors.class));
+        when(document.getTranslationLocales(this.xcontext)).thenReturn(List.of(Locale.FRENCH));
+        when(document.getTranslatedDocument(Locale.FRENCH, this.xcontext)).thenReturn(frenchDocument);
+        when(frenchDocument.getDocumentReference()).thenReturn(frenchDocumentReference);
+        when(frenchDocument.getSyntax()).thenReturn(Syntax.XWIKI_2_1);
+        LinkBlock linkBlock = new LinkBlock(List.of(), linkReference, false);
+        when(frenchDocument.getXDOM()).thenReturn(new XDOM(List.of(linkBlock)));
+        when(this.resourceReferenceResolver.resolve(linkReference, null, frenchDocumentReference))
+            .thenReturn(oldLinkTarget);
+        when(this.compactEntityReferenceSerializer.serialize(newLinkTarget, frenchDocumentReference))
+            .thenReturn("X.Y");
+
+        this.updater.update(Map.of(documentReference, Map.of(oldLinkTarget, newLinkTarget)), Map.of());
+
+        verify(this.xcontext.getWiki()).saveDocument(frenchDocument, TRANSLATED_BACKLINK_COMMENT, true,
+            this.xcontext);
+        verify(this.xcontext.getWiki(), never()).saveDocument(same(document), any(), anyBoolean(), any());
+        assertEquals("X.Y", linkBlock.getReference().getReference());
+
+        assertEquals(1, this.logCapture.size());
+        assertEquals("We can't rename the links from [wiki:Space.Page] because there is no renderer available for"
+            + " its syntax [Markdown 1.1].", this.logCapture.getMessage(0));
+    }
+
     @Test
     void updateBlockRendererNotFound() throws XWikiException
     {
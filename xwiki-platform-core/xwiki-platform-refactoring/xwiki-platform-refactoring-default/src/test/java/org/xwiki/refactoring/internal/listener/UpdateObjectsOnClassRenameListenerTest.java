@@ -20,6 +20,7 @@
 package org.xwiki.refactoring.internal.listener;
 
 import java.util.Collections;
+import java.util.List;
 
 import javax.inject.Named;
 import javax.inject.Provider;
@@ -50,6 +51,7 @@
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -136,8 +138,8 @@ void onClassRenamed() throws Exception
 
         verify(newObject).safeput("age", newProperty);
         verify(document).removeXObject(oldObject);
-        verify(this.wiki).saveDocument(document, "Rename [foo:Code.OldClass] objects into [foo:Code.NewClass]",
-            this.xcontext);
+        verify(this.wiki).saveDocuments(List.of(document),
+            "Rename [foo:Code.OldClass] objects into [foo:Code.NewClass]", false, this.xcontext);
 
         assertEquals("Updating the xobjects of type [foo:Code.OldClass] after the xclass has been renamed to "
             + "[foo:Code.NewClass].", logCapture.getMessage(0));
@@ -151,7 +153,7 @@ void onClassMovedToDifferentWiki() throws Exception
             null);
 
         verify(this.queryManager, never()).createQuery(any(), any());
-        verify(this.wiki, never()).saveDocument(any(), any());
+        verify(this.wiki, never()).saveDocuments(any(), any(), anyBoolean(), any());
     }
 
     @Test
@@ -164,6 +166,6 @@ void onClassRenamedWithoutUpdateLinks() throws Exception
             moveRequest);
 
         verify(this.queryManager, never()).createQuery(any(), any());
-        verify(this.wiki, never()).saveDocument(any(), any());
+        verify(this.wiki, never()).saveDocuments(any(), any(), anyBoolean(), any());
     }
 }
@@ -30,6 +30,7 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.rendering.async.AsyncContext;
 import org.xwiki.rendering.async.internal.DefaultAsyncContext.ContextUse;
+import org.xwiki.rendering.async.internal.service.AsyncRendererSubscriptions;
 import org.xwiki.template.TemplateManager;
 
 import com.xpn.xwiki.internal.context.XWikiContextContextStore;
@@ -56,6 +57,9 @@ public class AsyncRendererJob extends AbstractJob<AsyncRendererJobRequest, Async
     @Inject
     private DocumentAccessBridge documentAccessBridge;
 
+    @Inject
+    private AsyncRendererSubscriptions subscriptions;
+
     @Override
     protected AsyncRendererJobStatus createNewStatus(AsyncRendererJobRequest request)
     {
@@ -119,6 +123,9 @@ protected void jobFinished(Throwable error)
 
         // Cache the result
         this.cache.put(getStatus());
+
+        // Push the result to the clients waiting for it
+        this.subscriptions.onFinished(getStatus());
     }
 
     @Override
@@ -0,0 +1,125 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.async.internal.service;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.Session;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.websocket.AbstractXWikiEndpoint;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * WebSocket end-point used by a page to receive the results of all its asynchronous renderings through a single
+ * connection, instead of long polling {@link AsyncRendererResourceReferenceHandler} for each of them.
+ * <p>
+ * Each received message is a JSON object subscribing to an asynchronous rendering:
+ * {@code {"id": "<data-xwiki-async-id>", "clientId": "<data-xwiki-async-client-id>"}}. When the rendering is finished
+ * a JSON object is sent back with the {@code clientId}, the {@code html} result and the {@code headers} extending the
+ * page head (same as the HTTP headers sent by {@link AsyncRendererResourceReferenceHandler}). The {@code html} is
+ * missing when the rendering cannot be found.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component
+@Named(AsyncRendererResourceReferenceHandler.HINT)
+@Singleton
+public class AsyncRendererEndpoint extends AbstractXWikiEndpoint
+{
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final TypeReference<Map<String, String>> MESSAGE_TYPE = new TypeReference<>()
+    {
+    };
+
+    @Inject
+    private AsyncRendererSubscriptions subscriptions;
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config)
+    {
+        session.addMessageHandler(String.class, message -> {
+            // The execution context of the session is shared with the threads sending the results (see
+            // AsyncRendererSubscriptions).
+            synchronized (session) {
+                handleMessage(session, message);
+            }
+        });
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason)
+    {
+        this.subscriptions.unsubscribe(session);
+    }
+
+    /**
+     * Handles received subscriptions.
+     *
+     * @param session the WebSocket session of the client
+     * @param message the received subscription
+     */
+    public void onMessage(Session session, String message)
+    {
+        try {
+            Map<String, String> subscription = OBJECT_MAPPER.readValue(message, MESSAGE_TYPE);
+
+            String id = subscription.get("id");
+            String clientId = subscription.get("clientId");
+            if (StringUtils.isAnyEmpty(id, clientId)) {
+                this.logger.warn("Ignoring invalid asynchronous rendering subscription [{}]", message);
+            } else {
+                this.subscriptions.subscribe(session, parseId(id), clientId);
+            }
+        } catch (IOException e) {
+            this.logger.warn("Failed to parse the asynchronous rendering subscription [{}]. Root cause is [{}].",
+                message, ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    private List<String> parseId(String path) throws UnsupportedEncodingException
+    {
+        // The path segments are double escaped (see AsyncRendererExecutorResponse#getJobIdHTTPPath())
+        String[] segments = StringUtils.split(path, '/');
+        List<String> id = new ArrayList<>(segments.length);
+        for (String segment : segments) {
+            id.add(URLDecoder.decode(URLDecoder.decode(segment, "UTF-8"), "UTF-8"));
+        }
+
+        return id;
+    }
+}
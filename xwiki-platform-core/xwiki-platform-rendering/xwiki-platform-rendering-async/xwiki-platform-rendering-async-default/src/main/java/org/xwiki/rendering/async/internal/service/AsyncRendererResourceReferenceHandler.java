@@ -22,28 +22,21 @@
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
-import javax.inject.Provider;
 import javax.inject.Singleton;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.exception.ExceptionUtils;
-import org.apache.commons.text.StringEscapeUtils;
-import org.slf4j.Logger;
 import org.xwiki.component.annotation.Component;
-import org.xwiki.component.manager.ComponentManager;
 import org.xwiki.container.Container;
 import org.xwiki.container.Response;
 import org.xwiki.container.servlet.ServletResponse;
 import org.xwiki.job.event.status.JobStatus.State;
-import org.xwiki.rendering.async.AsyncContextHandler;
 import org.xwiki.rendering.async.internal.AsyncRendererExecutor;
 import org.xwiki.rendering.async.internal.AsyncRendererJobStatus;
 import org.xwiki.resource.AbstractResourceReferenceHandler;
@@ -53,9 +46,6 @@
 import org.xwiki.resource.ResourceType;
 import org.xwiki.resource.annotations.Authenticate;
 
-import com.xpn.xwiki.XWikiContext;
-import com.xpn.xwiki.internal.context.RequestInitializer;
-
 /**
  * Async renderer resource handler.
  *
@@ -85,16 +75,7 @@ public class AsyncRendererResourceReferenceHandler extends AbstractResourceRefer
     private Container container;
 
     @Inject
-    private ComponentManager componentManager;
-
-    @Inject
-    private Provider<XWikiContext> xcontextProvider;
-
-    @Inject
-    private RequestInitializer requestInitializer;
-
-    @Inject
-    private Logger logger;
+    private AsyncRendererResultSerializer serializer;
 
     @Override
     public List<ResourceType> getSupportedResourceReferences()
@@ -161,14 +142,7 @@ private void sendFINISHEDResponse(AsyncRendererResourceReference reference, Asyn
         addUse(reference, status, response);
 
         try (OutputStream stream = response.getOutputStream()) {
-            if (status.getError() != null) {
-                IOUtils.write(toHTML(status.getError()), stream, StandardCharsets.UTF_8);
-            } else if (status.getResult() != null && status.getResult().getResult() != null) {
-                IOUtils.write(status.getResult().getResult(), stream, StandardCharsets.UTF_8);
-            } else {
-                // TODO: print more details about the status of the job ?
-                IOUtils.write("", stream, StandardCharsets.UTF_8);
-            }
+            IOUtils.write(this.serializer.getHTML(status), stream, StandardCharsets.UTF_8);
         } catch (Exception e) {
             throw new ResourceReferenceHandlerException("Failed to send content", e);
         }
@@ -176,42 +150,11 @@ private void sendFINISHEDResponse(AsyncRendererResourceReference reference, Asyn
 
     private void addUse(AsyncRendererResourceReference reference, AsyncRendererJobStatus status, Response response)
     {
-        Map<String, Collection<Object>> uses = status.getUses();
-        if (uses != null && response instanceof ServletResponse servletResponse) {
-            // Create the asynchronous HTML meta
-            StringBuilder head = new StringBuilder();
-            StringBuilder scripts = new StringBuilder();
-            for (Map.Entry<String, Collection<Object>> entry : uses.entrySet()) {
-                try {
-                    AsyncContextHandler handler =
-                        this.componentManager.getInstance(AsyncContextHandler.class, entry.getKey());
-
-                    // Setup a proper request and URL factory for the passed wiki
-                    this.requestInitializer.restoreRequest(reference.getWiki(), this.xcontextProvider.get());
-
-                    handler.addHTMLHead(head, entry.getValue(), false);
-                    handler.addHTMLScripts(scripts, entry.getValue());
-                } catch (Exception e) {
-                    this.logger.error("Failed to get HTML head for handler type [{}]", entry.getKey(), e);
-                }
-            }
-            if (!head.isEmpty()) {
-                servletResponse.getHttpServletResponse().addHeader("X-XWIKI-HTML-HEAD", head.toString());
-            }
-            if (!scripts.isEmpty()) {
-                servletResponse.getHttpServletResponse().addHeader("X-XWIKI-HTML-SCRIPTS",
-                    scripts.toString());
+        if (response instanceof ServletResponse servletResponse) {
+            for (Map.Entry<String, String> header : this.serializer.getHTMLHeaders(status, reference.getWiki())
+                .entrySet()) {
+                servletResponse.getHttpServletResponse().addHeader(header.getKey(), header.getValue());
             }
         }
     }
-
-    private String toHTML(Throwable t)
-    {
-        String content = StringEscapeUtils.escapeHtml4(ExceptionUtils.getStackTrace(t));
-
-        content = content.replace(" ", "&nbsp;");
-        content = content.replace("\n", "<br/>");
-
-        return content;
-    }
 }
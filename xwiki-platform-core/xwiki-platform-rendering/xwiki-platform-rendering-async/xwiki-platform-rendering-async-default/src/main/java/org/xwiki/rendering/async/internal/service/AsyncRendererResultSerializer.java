@@ -0,0 +1,138 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.async.internal.service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.text.StringEscapeUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.manager.ComponentManager;
+import org.xwiki.rendering.async.AsyncContextHandler;
+import org.xwiki.rendering.async.internal.AsyncRendererJobStatus;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.context.RequestInitializer;
+
+/**
+ * Produce the HTML sent to the client for a finished asynchronous rendering, whatever the way it's delivered.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = AsyncRendererResultSerializer.class)
+@Singleton
+public class AsyncRendererResultSerializer
+{
+    /**
+     * The name of the HTTP header containing the HTML to inject in the page head.
+     */
+    public static final String HEADER_HTML_HEAD = "X-XWIKI-HTML-HEAD";
+
+    /**
+     * The name of the HTTP header containing the HTML scripts to inject in the page.
+     */
+    public static final String HEADER_HTML_SCRIPTS = "X-XWIKI-HTML-SCRIPTS";
+
+    @Inject
+    private ComponentManager componentManager;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private RequestInitializer requestInitializer;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @param status the status of the finished asynchronous rendering
+     * @return the HTML result of the rendering, or the HTML version of the error if it failed
+     */
+    public String getHTML(AsyncRendererJobStatus status)
+    {
+        if (status.getError() != null) {
+            return toHTML(status.getError());
+        } else if (status.getResult() != null && status.getResult().getResult() != null) {
+            return status.getResult().getResult();
+        }
+
+        // TODO: print more details about the status of the job ?
+        return "";
+    }
+
+    /**
+     * @param status the status of the finished asynchronous rendering
+     * @param wiki the wiki of the page displaying the result
+     * @return the HTML to inject in the page head and the scripts required by the result, indexed by the name of the
+     *         HTTP header used to transport them ({@link #HEADER_HTML_HEAD} and {@link #HEADER_HTML_SCRIPTS})
+     */
+    public Map<String, String> getHTMLHeaders(AsyncRendererJobStatus status, String wiki)
+    {
+        Map<String, String> headers = new LinkedHashMap<>();
+
+        Map<String, Collection<Object>> uses = status.getUses();
+        if (uses != null) {
+            // Create the asynchronous HTML meta
+            StringBuilder head = new StringBuilder();
+            StringBuilder scripts = new StringBuilder();
+            for (Map.Entry<String, Collection<Object>> entry : uses.entrySet()) {
+                try {
+                    AsyncContextHandler handler =
+                        this.componentManager.getInstance(AsyncContextHandler.class, entry.getKey());
+
+                    // Setup a proper request and URL factory for the passed wiki
+                    this.requestInitializer.restoreRequest(wiki, this.xcontextProvider.get());
+
+                    handler.addHTMLHead(head, entry.getValue(), false);
+                    handler.addHTMLScripts(scripts, entry.getValue());
+                } catch (Exception e) {
+                    this.logger.error("Failed to get HTML head for handler type [{}]", entry.getKey(), e);
+                }
+            }
+            if (!head.isEmpty()) {
+                headers.put(HEADER_HTML_HEAD, head.toString());
+            }
+            if (!scripts.isEmpty()) {
+                headers.put(HEADER_HTML_SCRIPTS, scripts.toString());
+            }
+        }
+
+        return headers;
+    }
+
+    private String toHTML(Throwable t)
+    {
+        String content = StringEscapeUtils.escapeHtml4(ExceptionUtils.getStackTrace(t));
+
+        content = content.replace(" ", "&nbsp;");
+        content = content.replace("\n", "<br/>");
+
+        return content;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.async.internal.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import jakarta.websocket.Session;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.job.event.status.JobStatus.State;
+import org.xwiki.rendering.async.internal.AsyncRendererExecutor;
+import org.xwiki.rendering.async.internal.AsyncRendererJobStatus;
+import org.xwiki.websocket.WebSocketContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.xpn.xwiki.XWikiContext;
+
+/**
+ * Keep track of the asynchronous renderings waited by the clients connected to {@link AsyncRendererEndpoint} and push
+ * their result as soon as they are finished.
+ * <p>
+ * No thread is blocked while waiting: the result is sent by the thread finishing the rendering.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = AsyncRendererSubscriptions.class)
+@Singleton
+public class AsyncRendererSubscriptions
+{
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final class Subscription
+    {
+        private final Session session;
+
+        private final String clientId;
+
+        Subscription(Session session, String clientId)
+        {
+            this.session = session;
+            this.clientId = clientId;
+        }
+    }
+
+    /**
+     * The subscriptions indexed by the id of the asynchronous rendering job they are waiting for.
+     */
+    private final Map<List<String>, List<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    @Inject
+    private AsyncRendererExecutor executor;
+
+    @Inject
+    private AsyncRendererResultSerializer serializer;
+
+    @Inject
+    private WebSocketContext context;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * Send the result of the asynchronous rendering to the passed session when it's finished (right away if it's
+     * already the case).
+     *
+     * @param session the WebSocket session of the client
+     * @param id the identifier of the asynchronous rendering job
+     * @param clientId the identifier of the client placeholder waiting for the result
+     */
+    public void subscribe(Session session, List<String> id, String clientId)
+    {
+        AsyncRendererJobStatus status = this.executor.getAsyncStatus(id, clientId);
+
+        if (status == null) {
+            send(new Subscription(session, clientId), null);
+
+            return;
+        }
+
+        Subscription subscription = new Subscription(session, clientId);
+
+        // The state is checked while holding the lock of the job entry, so that the subscription cannot be registered
+        // after the job finished and was notified.
+        boolean[] registered = new boolean[1];
+        this.subscriptions.compute(id, (key, jobSubscriptions) -> {
+            if (status.getState() == State.FINISHED) {
+                return jobSubscriptions;
+            }
+
+            List<Subscription> result = jobSubscriptions != null ? jobSubscriptions : new ArrayList<>();
+            result.add(subscription);
+            registered[0] = true;
+
+            return result;
+        });
+
+        if (!registered[0]) {
+            send(subscription, status);
+        }
+    }
+
+    /**
+     * Forget the subscriptions of a closed session.
+     *
+     * @param session the closed WebSocket session
+     */
+    public void unsubscribe(Session session)
+    {
+        for (List<String> id : this.subscriptions.keySet()) {
+            this.subscriptions.computeIfPresent(id, (key, jobSubscriptions) -> {
+                jobSubscriptions.removeIf(subscription -> subscription.session == session);
+
+                return jobSubscriptions.isEmpty() ? null : jobSubscriptions;
+            });
+        }
+    }
+
+    /**
+     * Send the result of a finished asynchronous rendering to the clients waiting for it.
+     *
+     * @param status the status of the finished asynchronous rendering job
+     */
+    public void onFinished(AsyncRendererJobStatus status)
+    {
+        List<Subscription> jobSubscriptions = this.subscriptions.remove(status.getRequest().getId());
+
+        if (jobSubscriptions != null) {
+            for (Subscription subscription : jobSubscriptions) {
+                if (status.getClients().contains(subscription.clientId)) {
+                    send(subscription, status);
+                }
+            }
+        }
+    }
+
+    private void send(Subscription subscription, AsyncRendererJobStatus status)
+    {
+        if (!subscription.session.isOpen()) {
+            return;
+        }
+
+        // Several asynchronous renderings of the same page can finish at the same time, on different threads, and
+        // they all share the execution context of the session, which is modified while computing the result (e.g. the
+        // request is restored), so the whole execution has to be serialized, not only the sending.
+        synchronized (subscription.session) {
+            this.context.run(subscription.session, () -> {
+                Map<String, Object> message = new LinkedHashMap<>();
+                message.put("clientId", subscription.clientId);
+                if (status != null) {
+                    message.put("html", this.serializer.getHTML(status));
+                    message.put("headers",
+                        this.serializer.getHTMLHeaders(status, this.xcontextProvider.get().getWikiId()));
+                }
+
+                try {
+                    subscription.session.getBasicRemote().sendText(OBJECT_MAPPER.writeValueAsString(message));
+                } catch (IOException e) {
+                    this.logger.warn(
+                        "Failed to send the result of the asynchronous rendering [{}]. Root cause is [{}].",
+                        subscription.clientId, ExceptionUtils.getRootCauseMessage(e));
+                }
+            });
+        }
+    }
+}
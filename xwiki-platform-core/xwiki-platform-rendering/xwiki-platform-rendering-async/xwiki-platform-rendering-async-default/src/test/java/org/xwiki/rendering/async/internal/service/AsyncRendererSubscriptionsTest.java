@@ -0,0 +1,208 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rendering.async.internal.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Provider;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.Session;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.job.event.status.JobStatus.State;
+import org.xwiki.rendering.async.internal.AsyncRendererExecutor;
+import org.xwiki.rendering.async.internal.AsyncRendererJobRequest;
+import org.xwiki.rendering.async.internal.AsyncRendererJobStatus;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.websocket.WebSocketContext;
+
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate {@link AsyncRendererSubscriptions}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class AsyncRendererSubscriptionsTest
+{
+    private static final List<String> ID = List.of("job", "id");
+
+    private static final String CLIENT_ID = "client";
+
+    private static final String RESULT_MESSAGE =
+        "{\"clientId\":\"client\",\"html\":\"<p>result</p>\",\"headers\":{\"X-XWIKI-HTML-HEAD\":\"<head/>\"}}";
+
+    @InjectMockComponents
+    private AsyncRendererSubscriptions subscriptions;
+
+    @MockComponent
+    private AsyncRendererExecutor executor;
+
+    @MockComponent
+    private AsyncRendererResultSerializer serializer;
+
+    @MockComponent
+    private WebSocketContext context;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    private final Session session = mock(Session.class);
+
+    private final RemoteEndpoint.Basic remote = mock(RemoteEndpoint.Basic.class);
+
+    private final AsyncRendererJobStatus status = mock(AsyncRendererJobStatus.class);
+
+    @BeforeEach
+    void beforeEach()
+    {
+        when(this.session.isOpen()).thenReturn(true);
+        when(this.session.getBasicRemote()).thenReturn(this.remote);
+
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(this.context).run(same(this.session), any());
+
+        XWikiContext xcontext = mock(XWikiContext.class);
+        when(xcontext.getWikiId()).thenReturn("wiki");
+        when(this.xcontextProvider.get()).thenReturn(xcontext);
+
+        AsyncRendererJobRequest request = new AsyncRendererJobRequest();
+        request.setId(ID);
+        when(this.status.getRequest()).thenReturn(request);
+        when(this.status.getClients()).thenReturn(Set.of(CLIENT_ID));
+        when(this.serializer.getHTML(this.status)).thenReturn("<p>result</p>");
+        when(this.serializer.getHTMLHeaders(this.status, "wiki")).thenReturn(Map.of("X-XWIKI-HTML-HEAD", "<head/>"));
+
+        when(this.executor.getAsyncStatus(ID, CLIENT_ID)).thenReturn(this.status);
+    }
+
+    @Test
+    void subscribeToFinishedRendering() throws IOException
+    {
+        when(this.status.getState()).thenReturn(State.FINISHED);
+
+        this.subscriptions.subscribe(this.session, ID, CLIENT_ID);
+
+        verify(this.remote).sendText(RESULT_MESSAGE);
+    }
+
+    @Test
+    void subscribeToUnknownRendering() throws IOException
+    {
+        this.subscriptions.subscribe(this.session, ID, "other");
+
+        verify(this.remote).sendText("{\"clientId\":\"other\"}");
+    }
+
+    @Test
+    void subscribeToRunningRendering() throws IOException
+    {
+        when(this.status.getState()).thenReturn(State.RUNNING);
+
+        this.subscriptions.subscribe(this.session, ID, CLIENT_ID);
+
+        verify(this.remote, never()).sendText(anyString());
+
+        when(this.status.getState()).thenReturn(State.FINISHED);
+        this.subscriptions.onFinished(this.status);
+
+        verify(this.remote).sendText(RESULT_MESSAGE);
+
+        // The subscription is forgotten once the result is sent
+        this.subscriptions.onFinished(this.status);
+
+        verify(this.remote).sendText(anyString());
+    }
+
+    @Test
+    void sendConcurrentlyFinishedRenderings() throws Exception
+    {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        doAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            // Give the other thread the time to enter the session context if it's not serialized.
+            Thread.sleep(50);
+            invocation.<Runnable>getArgument(1).run();
+            running.decrementAndGet();
+            return null;
+        }).when(this.context).run(same(this.session), any());
+
+        List<String> otherId = List.of("other", "id");
+        AsyncRendererJobStatus otherStatus = mock(AsyncRendererJobStatus.class);
+        AsyncRendererJobRequest otherRequest = new AsyncRendererJobRequest();
+        otherRequest.setId(otherId);
+        when(otherStatus.getRequest()).thenReturn(otherRequest);
+        when(otherStatus.getClients()).thenReturn(Set.of("otherClient"));
+        when(otherStatus.getState()).thenReturn(State.RUNNING);
+        when(this.executor.getAsyncStatus(otherId, "otherClient")).thenReturn(otherStatus);
+        when(this.serializer.getHTML(otherStatus)).thenReturn("<p>other</p>");
+        when(this.serializer.getHTMLHeaders(otherStatus, "wiki")).thenReturn(Map.of());
+        when(this.status.getState()).thenReturn(State.RUNNING);
+
+        this.subscriptions.subscribe(this.session, ID, CLIENT_ID);
+        this.subscriptions.subscribe(this.session, otherId, "otherClient");
+
+        // Both renderings of the page finish at the same time on different job threads.
+        Thread thread = new Thread(() -> this.subscriptions.onFinished(otherStatus));
+        thread.start();
+        this.subscriptions.onFinished(this.status);
+        thread.join();
+
+        verify(this.remote).sendText(RESULT_MESSAGE);
+        verify(this.remote).sendText("{\"clientId\":\"otherClient\",\"html\":\"<p>other</p>\",\"headers\":{}}");
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    void unsubscribe() throws IOException
+    {
+        when(this.status.getState()).thenReturn(State.RUNNING);
+
+        this.subscriptions.subscribe(this.session, ID, CLIENT_ID);
+        this.subscriptions.unsubscribe(this.session);
+
+        when(this.status.getState()).thenReturn(State.FINISHED);
+        this.subscriptions.onFinished(this.status);
+
+        verify(this.remote, never()).sendText(anyString());
+    }
+}
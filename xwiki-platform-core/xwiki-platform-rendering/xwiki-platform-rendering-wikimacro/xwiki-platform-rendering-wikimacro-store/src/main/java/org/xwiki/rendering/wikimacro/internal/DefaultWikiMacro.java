@@ -50,6 +50,8 @@
 import org.xwiki.rendering.macro.wikibridge.WikiMacroParameters;
 import org.xwiki.rendering.transformation.MacroTransformationContext;
 
+import com.xpn.xwiki.internal.profile.RequestProfile;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 import com.xpn.xwiki.objects.BaseObject;
 
 /**
@@ -75,6 +77,9 @@ public class DefaultWikiMacro extends AbstractAsyncContentBaseObjectWikiComponen
     @Inject
     private MacroContentParser contentParser;
 
+    @Inject
+    private RequestProfiler profiler;
+
     /**
      * The {@link MacroDescriptor} for this macro.
      */
@@ -128,10 +133,14 @@ public List<Block> execute(WikiMacroParameters parameters, String macroContent,
 
         // Execute the renderer
         Block result;
+        long start = System.nanoTime();
         try {
             result = this.executor.execute(renderer, configuration);
         } catch (Exception e) {
             throw new MacroExecutionException("Failed to execute wiki macro", e);
+        } finally {
+            this.profiler.record(RequestProfile.MACRO_PREFIX + this.descriptor.getId().getId(),
+                System.nanoTime() - start);
         }
 
         return result instanceof CompositeBlock ? result.getChildren() : Arrays.asList(result);
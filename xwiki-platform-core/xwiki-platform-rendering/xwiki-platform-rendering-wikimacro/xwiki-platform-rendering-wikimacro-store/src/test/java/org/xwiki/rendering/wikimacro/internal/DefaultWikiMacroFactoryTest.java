@@ -55,6 +55,7 @@
 
 import com.xpn.xwiki.XWikiException;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.test.MockitoOldcore;
 import com.xpn.xwiki.test.junit5.mockito.InjectMockitoOldcore;
@@ -78,7 +79,7 @@
  */
 @OldcoreTest
 @ReferenceComponentList
-@ComponentList(DefaultWikiMacro.class)
+@ComponentList({ DefaultWikiMacro.class, RequestProfiler.class })
 class DefaultWikiMacroFactoryTest
 {
     private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("xwiki", "Macros", "Test");
@@ -29,6 +29,8 @@
 import org.xwiki.rendering.internal.macro.wikibridge.WikiMacroEventListener;
 import org.xwiki.test.annotation.ComponentList;
 
+import com.xpn.xwiki.internal.profile.RequestProfiler;
+
 import static java.lang.annotation.ElementType.ANNOTATION_TYPE;
 import static java.lang.annotation.ElementType.METHOD;
 import static java.lang.annotation.ElementType.TYPE;
@@ -52,6 +54,7 @@
     DefaultContentParser.class,
     org.xwiki.rendering.internal.parser.DefaultContentParser.class,
     DefaultWikiMacroRenderer.class,
+    RequestProfiler.class,
 })
 @Inherited
 public @interface WikiMacroFactoryComponentClass
@@ -27,6 +27,7 @@
 
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.model.jaxb.Objects;
+import org.xwiki.stability.Unstable;
 
 /**
  * @version $Id$
@@ -48,16 +49,46 @@
      *  value or {@code null} (the default) keeps the store's natural order
      * @param withPrettyNames when {@code true}, also computes human-readable display names (for example the author's
      *  display name), at some extra cost; defaults to {@code false}
+     * @param cursor the opaque position of the first object to return, as found in the {@code next} link of a previous
+     *  response made with the same order; when specified, {@code start} is ignored and the cost of the request doesn't
+     *  depend on the position of the returned objects in the list; empty by default (start from the beginning of the
+     *  list)
      * @return the objects of the given class found across the wiki that the current user is allowed to view, within the
-     *  requested pagination window
+     *  requested pagination window, with a {@code next} link pointing to the following window when the requested
+     *  window is full
      * @throws XWikiRestException if the objects cannot be retrieved from the store
+     * @since 18.8.0RC1
      */
+    @Unstable
     @GET Objects getObjects(
             @PathParam("wikiName") String wikiName,
             @PathParam("className") String className,
             @QueryParam("start") @DefaultValue("0") Integer start,
             @QueryParam("number") Integer number,
             @QueryParam("order") String order,
-            @QueryParam("prettyNames") @DefaultValue("false") Boolean withPrettyNames
+            @QueryParam("prettyNames") @DefaultValue("false") Boolean withPrettyNames,
+            @QueryParam("cursor") String cursor
     ) throws XWikiRestException;
+
+    /**
+     * Retrieves all the objects of a given class across the wiki.
+     *
+     * @param wikiName the identifier of the wiki to search in
+     * @param className the reference of the XClass whose objects are retrieved
+     * @param start the 0-based index of the first object to return
+     * @param number the maximum number of objects to return
+     * @param order the ordering of the results
+     * @param withPrettyNames when {@code true}, also computes human-readable display names
+     * @return the objects of the given class found across the wiki that the current user is allowed to view, within the
+     *  requested pagination window
+     * @throws XWikiRestException if the objects cannot be retrieved from the store
+     * @deprecated since 18.8.0RC1, use {@link #getObjects(String, String, Integer, Integer, String, Boolean, String)}
+     *             instead
+     */
+    @Deprecated
+    default Objects getObjects(String wikiName, String className, Integer start, Integer number, String order,
+        Boolean withPrettyNames) throws XWikiRestException
+    {
+        return getObjects(wikiName, className, start, number, order, withPrettyNames, null);
+    }
 }
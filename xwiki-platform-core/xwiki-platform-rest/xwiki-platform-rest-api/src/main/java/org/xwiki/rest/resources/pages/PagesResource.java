@@ -28,6 +28,7 @@
 
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.model.jaxb.Pages;
+import org.xwiki.stability.Unstable;
 
 /**
  * @version $Id$
@@ -56,9 +57,16 @@
      * @param withPrettyNames when {@code true}, also computes human-readable display names (for example the author's
      *  display name and the document title) in addition to the technical references, at some extra cost; defaults to
      *  {@code false}
-     * @return the viewable pages of the space, within the requested pagination window and matching the parent filter
+     * @param cursor the opaque position of the first page to return, as found in the {@code next} link of a previous
+     *  response made with the same order; when specified, {@code start} is ignored and the cost of the request doesn't
+     *  depend on the position of the returned pages in the list; empty by default (start from the beginning of the
+     *  list)
+     * @return the viewable pages of the space, within the requested pagination window and matching the parent filter,
+     *  with a {@code next} link pointing to the following window when the requested window is full
      * @throws XWikiRestException if the pages cannot be retrieved
+     * @since 18.8.0RC1
      */
+    @Unstable
     @GET Pages getPages(
             @PathParam("wikiName") String wikiName,
             @PathParam("spaceName") @Encoded String spaceName,
@@ -66,6 +74,31 @@
             @QueryParam("number") Integer number,
             @QueryParam("parentId") String parentFilterExpression,
             @QueryParam("order") String order,
-            @QueryParam("prettyNames") @DefaultValue("false") Boolean withPrettyNames
+            @QueryParam("prettyNames") @DefaultValue("false") Boolean withPrettyNames,
+            @QueryParam("cursor") String cursor
     ) throws XWikiRestException;
+
+    /**
+     * Returns the list of pages directly contained in a given space, restricted to those the current user is
+     * allowed to view.
+     *
+     * @param wikiName the identifier of the wiki containing the space
+     * @param spaceName the reference of the space(s) whose pages are listed, nested spaces being separated by
+     *  {@code /spaces/}
+     * @param start the 0-based index of the first page to return
+     * @param number the maximum number of pages to return
+     * @param parentFilterExpression filters the returned pages by their parent
+     * @param order the ordering of the returned pages
+     * @param withPrettyNames when {@code true}, also computes human-readable display names
+     * @return the viewable pages of the space, within the requested pagination window and matching the parent filter
+     * @throws XWikiRestException if the pages cannot be retrieved
+     * @deprecated since 18.8.0RC1, use
+     *             {@link #getPages(String, String, Integer, Integer, String, String, Boolean, String)} instead
+     */
+    @Deprecated
+    default Pages getPages(String wikiName, String spaceName, Integer start, Integer number,
+        String parentFilterExpression, String order, Boolean withPrettyNames) throws XWikiRestException
+    {
+        return getPages(wikiName, spaceName, start, number, parentFilterExpression, order, withPrettyNames, null);
+    }
 }
@@ -27,6 +27,7 @@
 
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.model.jaxb.Pages;
+import org.xwiki.stability.Unstable;
 
 /**
  * @version $Id$
@@ -49,15 +50,43 @@
      *  {@code XWiki.Admin}; empty by default (no filtering)
      * @param number the maximum number of pages to return; defaults to {@code 25}, and a value that is negative or
      *  larger than the wiki's configured REST query limit is rejected with a {@code 400} response
-     * @return the matching pages the current user is allowed to view, within the requested pagination window
+     * @param cursor the opaque position of the first page to return, as found in the {@code next} link of a previous
+     *  response; when specified, {@code start} is ignored and the cost of the request doesn't depend on the position
+     *  of the returned pages in the list; empty by default (start from the beginning of the list)
+     * @return the matching pages the current user is allowed to view, within the requested pagination window, with a
+     *  {@code next} link pointing to the following window when the requested window is full
      * @throws XWikiRestException if the pages cannot be retrieved
+     * @since 18.8.0RC1
      */
+    @Unstable
     @GET Pages getPages(
             @PathParam("wikiName") String wikiName,
             @QueryParam("start") @DefaultValue("0") Integer start,
             @QueryParam("name") @DefaultValue("") String name,
             @QueryParam("space") @DefaultValue("") String space,
             @QueryParam("author") @DefaultValue("") String author,
-            @QueryParam("number") @DefaultValue("25") Integer number
+            @QueryParam("number") @DefaultValue("25") Integer number,
+            @QueryParam("cursor") String cursor
     ) throws XWikiRestException;
+
+    /**
+     * Returns the pages stored in the given wiki, with optional filtering and pagination.
+     *
+     * @param wikiName the identifier of the wiki whose pages are listed
+     * @param start the 0-based index of the first page to return
+     * @param name keeps only pages whose full name contains this value (case-insensitive)
+     * @param space keeps only pages located in a space whose reference contains this value (case-insensitive)
+     * @param author keeps only pages whose content author contains this value (case-insensitive)
+     * @param number the maximum number of pages to return
+     * @return the matching pages the current user is allowed to view, within the requested pagination window
+     * @throws XWikiRestException if the pages cannot be retrieved
+     * @deprecated since 18.8.0RC1, use {@link #getPages(String, Integer, String, String, String, Integer, String)}
+     *             instead
+     */
+    @Deprecated
+    default Pages getPages(String wikiName, Integer start, String name, String space, String author, Integer number)
+        throws XWikiRestException
+    {
+        return getPages(wikiName, start, name, space, author, number, null);
+    }
 }
@@ -186,6 +186,13 @@
     @Unstable
     public static final String USER = "http://www.xwiki.org/rel/user";
 
+    /**
+     * Relation for links pointing to the next page of a paginated list.
+     * @since 18.8.0RC1
+     */
+    @Unstable
+    public static final String NEXT = "next";
+
     /**
      * Avoid instantiation.
      */
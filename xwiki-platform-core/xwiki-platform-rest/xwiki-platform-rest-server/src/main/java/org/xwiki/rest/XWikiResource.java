@@ -21,19 +21,29 @@
 
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HexFormat;
 import java.util.List;
 import java.util.Locale;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Provider;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.core.UriInfo;
 
+import org.apache.commons.lang3.ArrayUtils;
 import org.slf4j.Logger;
 import org.xwiki.component.annotation.InstantiationStrategy;
 import org.xwiki.component.descriptor.ComponentInstantiationStrategy;
@@ -44,14 +54,23 @@
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.SpaceReference;
 import org.xwiki.query.QueryManager;
+import org.xwiki.rest.internal.PaginationCursor;
+import org.xwiki.rest.internal.ResponseFilter;
 import org.xwiki.rest.internal.Utils;
+import org.xwiki.rest.model.jaxb.Link;
+import org.xwiki.rest.model.jaxb.LinkCollection;
 import org.xwiki.rest.model.jaxb.ObjectFactory;
 import org.xwiki.security.SecurityConfiguration;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 import org.xwiki.stability.Unstable;
 
+import com.xpn.xwiki.XWiki;
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.api.Attachment;
 import com.xpn.xwiki.api.Document;
+import com.xpn.xwiki.doc.XWikiDocument;
 
 /**
  * Base class for all XWiki-related JAX-RS resources. This class provides to subclasses a set of protected fields to
@@ -102,6 +121,15 @@ public class XWikiResource implements XWikiRestComponent, Initializable
     @Inject
     private SecurityConfiguration securityConfiguration;
 
+    @Inject
+    private Provider<ContextualAuthorizationManager> authorizationProvider;
+
+    @Context
+    private Request request;
+
+    @Context
+    private HttpHeaders httpHeaders;
+
     /**
      * Validates and returns the query limit based on the provided limit and the system's configuration.
      * If the provided limit is null, the method returns the configured default limit.
@@ -133,6 +161,150 @@ protected int validateAndGetLimit(Integer limit)
         }
     }
 
+    /**
+     * Add a link to the next page of the requested list, using the passed cursor to locate that page.
+     *
+     * @param links the list of results to add the link to
+     * @param cursor the serialized cursor of the next page, nothing is added if {@code null}
+     * @since 18.8.0RC1
+     */
+    @Unstable
+    protected void addNextLink(LinkCollection links, String cursor)
+    {
+        if (cursor != null) {
+            Link link = this.objectFactory.createLink();
+            link.setHref(this.uriInfo.getRequestUriBuilder().replaceQueryParam("start")
+                .replaceQueryParam(PaginationCursor.PARAMETER, cursor).build().toString());
+            link.setRel(Relations.NEXT);
+            links.getLinks().add(link);
+        }
+    }
+
+    /**
+     * Evaluate the conditional headers of the request ({@code If-None-Match} and {@code If-Modified-Since}) against the
+     * current version of the passed document, before building the representation of the requested resource. When the
+     * client doesn't already have the current representation, the validators are added to the response so that it can
+     * use them in its next request.
+     * <p>
+     * Besides the version of the document, the validators cover its translations, the existence of its parent, its
+     * display title, the versions of the classes of its objects and the right of the current user to see the password
+     * properties. They don't cover the pretty names, the rights checked on demand or the rendered content, which can
+     * change without a new version of the document: don't call this method when the representation includes them.
+     *
+     * @param document the document from which the representation of the requested resource is built
+     * @throws WebApplicationException with a {@code 304} response when the client already has the current
+     *             representation of the requested resource
+     * @throws XWikiException when failing to load the translations or the classes of the document
+     * @since 18.8.0RC1
+     */
+    @Unstable
+    protected void evaluatePreconditions(Document document) throws XWikiException
+    {
+        if (!isConditionalRequestSupported()) {
+            return;
+        }
+
+        XWikiContext xcontext = getXWikiContext();
+        XWiki xwiki = xcontext.getWiki();
+
+        List<String> validators = new ArrayList<>();
+        validators.add(String.valueOf(document.getDocumentReferenceWithLocale()));
+        validators.add(String.valueOf(document.getRealLocale()));
+        validators.add(document.getVersion());
+
+        // The translations listed in the representation, starting with the default one.
+        DocumentReference documentReference = document.getDocumentReference();
+        XWikiDocument defaultDocument = xwiki.getDocument(documentReference, xcontext);
+        validators.add(defaultDocument.getVersion());
+        for (Locale locale : document.getTranslationLocales()) {
+            validators.add(locale.toString());
+            validators.add(xwiki.getDocument(new DocumentReference(documentReference, locale), xcontext).getVersion());
+        }
+
+        DocumentReference parentReference = document.getParentReference();
+        validators.add(String.valueOf(parentReference != null && xwiki.exists(parentReference, xcontext)));
+        validators.add(document.getDisplayTitle());
+
+        // The objects are displayed using the current definition of their class.
+        for (DocumentReference classReference : defaultDocument.getXObjects().keySet()) {
+            validators.add(String.valueOf(classReference));
+            validators.add(xwiki.getDocument(classReference, xcontext).getVersion());
+        }
+        validators.add(String.valueOf(
+            this.authorizationProvider.get().hasAccess(Right.ADMIN, xcontext.getWikiReference())));
+
+        evaluatePreconditions(document.getDate(), validators.toArray(new String[0]));
+    }
+
+    /**
+     * Evaluate the conditional headers of the request ({@code If-None-Match} and {@code If-Modified-Since}) against the
+     * current version of the passed attachment, before loading its content.
+     *
+     * @param attachment the attachment from which the representation of the requested resource is built
+     * @throws WebApplicationException with a {@code 304} response when the client already has the current
+     *             representation of the requested resource
+     * @since 18.8.0RC1
+     * @see #evaluatePreconditions(Document)
+     */
+    @Unstable
+    protected void evaluatePreconditions(Attachment attachment)
+    {
+        evaluatePreconditions(attachment.getDate(), String.valueOf(attachment.getReference()),
+            attachment.getVersion());
+    }
+
+    private boolean isConditionalRequestSupported()
+    {
+        // Only the requests going through the JAX-RS runtime can be conditional.
+        return this.request != null && HttpMethod.GET.equals(this.request.getMethod());
+    }
+
+    private void evaluatePreconditions(Date date, String... validators)
+    {
+        if (!isConditionalRequestSupported()) {
+            return;
+        }
+
+        XWikiContext xcontext = getXWikiContext();
+
+        // The representation also depends on the request parameters, on the negotiated media type and on the rights of
+        // the current user.
+        EntityTag entityTag = new EntityTag(digest(ArrayUtils.addAll(validators,
+            String.valueOf(this.uriInfo.getRequestUri()), this.httpHeaders.getHeaderString(HttpHeaders.ACCEPT),
+            String.valueOf(xcontext.getUserReference()))), true);
+        // HTTP dates have a one second precision.
+        Date lastModified = date != null ? new Date(date.getTime() / 1000 * 1000) : null;
+
+        Response.ResponseBuilder builder = lastModified != null
+            ? this.request.evaluatePreconditions(lastModified, entityTag)
+            : this.request.evaluatePreconditions(entityTag);
+        if (builder != null) {
+            throw new WebApplicationException(builder.tag(entityTag).lastModified(lastModified).build());
+        }
+
+        xcontext.put(ResponseFilter.ENTITY_TAG, entityTag);
+        if (lastModified != null) {
+            xcontext.put(ResponseFilter.LAST_MODIFIED, lastModified);
+        }
+    }
+
+    private static String digest(String... values)
+    {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String value : values) {
+                digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+                // Separate the values to avoid collisions between different splits of the same characters.
+                digest.update((byte) 0);
+            }
+
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+
     /**
      * A wrapper class for returning an XWiki document enriched with information about its status.
      */
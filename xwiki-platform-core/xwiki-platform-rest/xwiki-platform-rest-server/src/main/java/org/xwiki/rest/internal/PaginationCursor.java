@@ -0,0 +1,245 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+
+/**
+ * An opaque position in a list of results, used to retrieve the next page of results without having to skip all the
+ * results of the previous pages (keyset pagination).
+ * <p>
+ * The cursor holds the values of the sort keys of the last returned result, and the number of returned results sharing
+ * these values. The next page is made of the results whose sort keys are greater than or equal to these values, minus
+ * the results already returned. Since only the results sharing the same sort keys are skipped, retrieving a deep page
+ * costs the same as retrieving the first one.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public final class PaginationCursor
+{
+    /**
+     * The name of the query parameter holding the cursor.
+     */
+    public static final String PARAMETER = "cursor";
+
+    private static final char TYPE_STRING = 's';
+
+    private static final char TYPE_INTEGER = 'i';
+
+    private static final char TYPE_DATE = 'd';
+
+    private static final char LENGTH_SEPARATOR = ':';
+
+    private static final char SKIP_SEPARATOR = ';';
+
+    private final List<Object> keys;
+
+    private final int skip;
+
+    /**
+     * Keep track of the sort keys of the results of a page to produce the cursor of the next page.
+     *
+     * @version $Id$
+     */
+    public static final class Tracker
+    {
+        private final int limit;
+
+        private List<Object> keys;
+
+        private int skip;
+
+        private int count;
+
+        /**
+         * @param previous the cursor used to retrieve the current page, {@code null} for the first page
+         * @param limit the maximum number of results in the page
+         */
+        public Tracker(PaginationCursor previous, int limit)
+        {
+            this.limit = limit;
+            if (previous != null) {
+                this.keys = previous.keys;
+                this.skip = previous.skip;
+            }
+        }
+
+        /**
+         * Indicate the sort keys of the next result of the page.
+         *
+         * @param sortKeys the values of the sort keys of the result
+         */
+        public void next(Object... sortKeys)
+        {
+            List<Object> resultKeys = new ArrayList<>(sortKeys.length);
+            for (Object sortKey : sortKeys) {
+                // Dates coming from the database are often Timestamp instances, which are never equal to a Date.
+                resultKeys.add(sortKey instanceof Date date ? new Date(date.getTime()) : sortKey);
+            }
+            if (resultKeys.equals(this.keys)) {
+                this.skip++;
+            } else {
+                this.keys = resultKeys;
+                this.skip = 1;
+            }
+            this.count++;
+        }
+
+        /**
+         * @return the serialized cursor of the next page, or {@code null} if the current page is the last one
+         */
+        public String getNextCursor()
+        {
+            if (this.limit <= 0 || this.count < this.limit) {
+                return null;
+            }
+
+            return new PaginationCursor(this.keys, this.skip).serialize();
+        }
+    }
+
+    /**
+     * @param keys the values of the sort keys of the last returned result
+     * @param skip the number of returned results sharing the same sort keys
+     */
+    public PaginationCursor(List<Object> keys, int skip)
+    {
+        this.keys = Collections.unmodifiableList(keys);
+        this.skip = skip;
+    }
+
+    /**
+     * @param value the serialized cursor
+     * @return the cursor, or {@code null} if the passed value is empty
+     * @throws WebApplicationException when the passed value is not a valid cursor
+     */
+    public static PaginationCursor parse(String value)
+    {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+
+            int index = decoded.indexOf(SKIP_SEPARATOR);
+            int skip = Integer.parseInt(decoded.substring(0, index));
+            if (skip < 0) {
+                throw new IllegalArgumentException("Negative skip");
+            }
+
+            List<Object> keys = new ArrayList<>();
+            index++;
+            while (index < decoded.length()) {
+                char type = decoded.charAt(index);
+                int separator = decoded.indexOf(LENGTH_SEPARATOR, index);
+                int start = separator + 1;
+                int end = start + Integer.parseInt(decoded.substring(index + 1, separator));
+                keys.add(parseKey(type, decoded.substring(start, end)));
+                index = end;
+            }
+
+            return new PaginationCursor(keys, skip);
+        } catch (RuntimeException e) {
+            throw invalidCursor(value);
+        }
+    }
+
+    private static Object parseKey(char type, String value)
+    {
+        switch (type) {
+            case TYPE_STRING:
+                return value;
+            case TYPE_INTEGER:
+                return Integer.valueOf(value);
+            case TYPE_DATE:
+                return new Date(Long.parseLong(value));
+            default:
+                throw new IllegalArgumentException("Unknown key type [" + type + "]");
+        }
+    }
+
+    private static WebApplicationException invalidCursor(String value)
+    {
+        return new WebApplicationException(Response.status(Status.BAD_REQUEST)
+            .entity("Invalid cursor value: %s.".formatted(value)).type("text/plain").build());
+    }
+
+    /**
+     * @param index the index of the sort key
+     * @param type the expected type of the sort key value
+     * @param <T> the expected type of the sort key value
+     * @return the value of the sort key
+     * @throws WebApplicationException when the cursor doesn't have such a sort key (e.g. when it was produced by
+     *             another resource or with another order)
+     */
+    public <T> T getKey(int index, Class<T> type)
+    {
+        if (index < this.keys.size() && type.isInstance(this.keys.get(index))) {
+            return type.cast(this.keys.get(index));
+        }
+
+        throw invalidCursor(serialize());
+    }
+
+    /**
+     * @return the number of results to skip among the ones sharing the sort keys of the cursor
+     */
+    public int getSkip()
+    {
+        return this.skip;
+    }
+
+    /**
+     * @return the serialized cursor
+     */
+    public String serialize()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(this.skip).append(SKIP_SEPARATOR);
+        for (Object key : this.keys) {
+            String value;
+            if (key instanceof Date date) {
+                builder.append(TYPE_DATE);
+                value = String.valueOf(date.getTime());
+            } else if (key instanceof Integer) {
+                builder.append(TYPE_INTEGER);
+                value = key.toString();
+            } else {
+                builder.append(TYPE_STRING);
+                value = String.valueOf(key);
+            }
+            builder.append(value.length()).append(LENGTH_SEPARATOR).append(value);
+        }
+
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
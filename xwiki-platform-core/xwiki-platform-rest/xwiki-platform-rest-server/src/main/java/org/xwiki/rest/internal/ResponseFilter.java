@@ -27,6 +27,8 @@
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response.Status;
 import javax.ws.rs.ext.Provider;
 
 import org.xwiki.component.annotation.Component;
@@ -42,6 +44,7 @@
  * <li>Set in user in the response header. The user is expected to be authenticate in a preceding filter along with the
  * XWikiContext initialization</li>
  * <li>Make sure a CRSF is provided for form based requests</li>
+ * <li>Set the validators of the returned representation, when the resource provided them</li>
  * </ul>
  * 
  * @version $Id$
@@ -53,6 +56,20 @@
 @Provider
 public class ResponseFilter implements ContainerResponseFilter, XWikiRestComponent
 {
+    /**
+     * The name of the XWiki context property holding the entity tag of the returned representation.
+     *
+     * @since 18.8.0RC1
+     */
+    public static final String ENTITY_TAG = "rest.entityTag";
+
+    /**
+     * The name of the XWiki context property holding the last modification date of the returned representation.
+     *
+     * @since 18.8.0RC1
+     */
+    public static final String LAST_MODIFIED = "rest.lastModified";
+
     private static final String FORM_TOKEN_HEADER = "XWiki-Form-Token";
 
     @Inject
@@ -76,5 +93,17 @@ public void filter(ContainerRequestContext requestContext, ContainerResponseCont
         if (this.csrfToken != null) {
             responseContext.getHeaders().addFirst(FORM_TOKEN_HEADER, this.csrfToken.getToken());
         }
+
+        // Only successful responses represent the resource the validators were computed for.
+        if (responseContext.getStatus() == Status.OK.getStatusCode()) {
+            Object entityTag = xcontext.get(ENTITY_TAG);
+            if (entityTag != null) {
+                responseContext.getHeaders().putSingle(HttpHeaders.ETAG, entityTag);
+            }
+            Object lastModified = xcontext.get(LAST_MODIFIED);
+            if (lastModified != null) {
+                responseContext.getHeaders().putSingle(HttpHeaders.LAST_MODIFIED, lastModified);
+            }
+        }
     }
 }
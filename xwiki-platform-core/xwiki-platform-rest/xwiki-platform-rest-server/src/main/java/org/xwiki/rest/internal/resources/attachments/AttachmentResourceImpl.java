@@ -52,7 +52,12 @@ public Response getAttachment(String wikiName, String spaceName, String pageName
         try {
             DocumentInfo documentInfo = getDocumentInfo(wikiName, spaceName, pageName, null, null, true, false);
             Document doc = documentInfo.getDocument();
-            return answerWithAttachment(doc.getAttachment(attachmentName));
+            Attachment attachment = doc.getAttachment(attachmentName);
+            if (attachment != null) {
+                // Avoid loading the content when the client already has it.
+                evaluatePreconditions(attachment);
+            }
+            return answerWithAttachment(attachment);
         } catch (XWikiException e) {
             throw new XWikiRestException(e);
         }
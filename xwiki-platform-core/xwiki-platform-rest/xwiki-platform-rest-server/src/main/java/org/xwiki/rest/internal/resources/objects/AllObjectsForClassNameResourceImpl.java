@@ -19,6 +19,7 @@
  */
 package org.xwiki.rest.internal.resources.objects;
 
+import java.util.Date;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -29,6 +30,7 @@
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.PaginationCursor;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.ObjectSummary;
 import org.xwiki.rest.model.jaxb.Objects;
@@ -47,15 +49,19 @@
 @Named("org.xwiki.rest.internal.resources.objects.AllObjectsForClassNameResourceImpl")
 public class AllObjectsForClassNameResourceImpl extends XWikiResource implements AllObjectsForClassNameResource
 {
+    private static final String CURSOR_FULL_NAME = "cursorFullName";
+
     @Inject
     private ContextualAuthorizationManager authorization;
 
     @Override
     public Objects getObjects(String wikiName, String className, Integer start, Integer number, String order,
-            Boolean withPrettyNames) throws XWikiRestException
+            Boolean withPrettyNames, String cursor) throws XWikiRestException
     {
         String database = Utils.getXWikiContext(componentManager).getWikiId();
         int limit = validateAndGetLimit(number);
+        PaginationCursor paginationCursor = PaginationCursor.parse(cursor);
+        boolean orderByDate = "date".equals(order);
 
         try {
             Objects objects = new Objects();
@@ -64,25 +70,48 @@ public Objects getObjects(String wikiName, String className, Integer start, Inte
 
             String query = "select doc, obj from BaseObject as obj, XWikiDocument as doc "
                 + "where obj.name=doc.fullName and obj.className=:className";
+            // Keyset pagination: start from the document of the last returned object instead of skipping all the
+            // previous objects.
+            if (paginationCursor != null) {
+                query += orderByDate
+                    ? " and (doc.date < :cursorDate or (doc.date = :cursorDate and doc.fullName >= :cursorFullName))"
+                    : " and doc.fullName >= :cursorFullName";
+            }
             // Always order by a unique key (document full name + object number) so that pagination via limit/offset
             // returns a stable, deterministic order. Without it, the database is free to return rows in an arbitrary
             // order that can differ between queries (observed on PostgreSQL), breaking paginated retrieval.
-            if ("date".equals(order)) {
+            if (orderByDate) {
                 query += " order by doc.date desc, doc.fullName asc, obj.number asc";
             } else {
                 query += " order by doc.fullName asc, obj.number asc";
             }
 
-            List<Object> queryResult = null;
-            queryResult =
-                this.queryManager.createQuery(query, Query.XWQL).bindValue("className", className)
-                    .setLimit(limit)
-                    .setOffset(start).execute();
+            Query xwikiQuery = this.queryManager.createQuery(query, Query.XWQL).bindValue("className", className)
+                .setLimit(limit);
+            if (paginationCursor != null) {
+                if (orderByDate) {
+                    xwikiQuery.bindValue("cursorDate", paginationCursor.getKey(0, Date.class));
+                    xwikiQuery.bindValue(CURSOR_FULL_NAME, paginationCursor.getKey(1, String.class));
+                } else {
+                    xwikiQuery.bindValue(CURSOR_FULL_NAME, paginationCursor.getKey(0, String.class));
+                }
+                xwikiQuery.setOffset(paginationCursor.getSkip());
+            } else {
+                xwikiQuery.setOffset(start);
+            }
+
+            List<Object> queryResult = xwikiQuery.execute();
 
+            PaginationCursor.Tracker cursorTracker = new PaginationCursor.Tracker(paginationCursor, limit);
             for (Object object : queryResult) {
                 Object[] fields = (Object[]) object;
                 XWikiDocument xwikiDocument = (XWikiDocument) fields[0];
                 xwikiDocument.setDatabase(wikiName);
+                if (orderByDate) {
+                    cursorTracker.next(xwikiDocument.getDate(), xwikiDocument.getFullName());
+                } else {
+                    cursorTracker.next(xwikiDocument.getFullName());
+                }
 
                 if (authorization.hasAccess(Right.VIEW, xwikiDocument.getDocumentReference())) {
 
@@ -99,6 +128,8 @@ public Objects getObjects(String wikiName, String className, Integer start, Inte
                 }
             }
 
+            addNextLink(objects, cursorTracker.getNextCursor());
+
             return objects;
         } catch (Exception e) {
             throw new XWikiRestException(e);
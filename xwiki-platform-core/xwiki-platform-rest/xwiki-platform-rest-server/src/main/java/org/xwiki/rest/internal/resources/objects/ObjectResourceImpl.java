@@ -64,6 +64,11 @@ public Object getObject(String wikiName, String spaceName, String pageName, Stri
                 throw new WebApplicationException(Status.NOT_FOUND);
             }
 
+            // Pretty names can change without a new version of the document.
+            if (!withPrettyNames) {
+                evaluatePreconditions(doc);
+            }
+
             return this.factory.toRestObject(this.uriInfo.getBaseUri(), doc, baseObject, false, withPrettyNames);
         } catch (XWikiException e) {
             throw new XWikiRestException(e);
@@ -61,6 +61,11 @@ public Objects getObjects(String wikiName, String spaceName, String pageName, In
 
             Document doc = documentInfo.getDocument();
 
+            // Pretty names can change without a new version of the document.
+            if (!withPrettyNames) {
+                evaluatePreconditions(doc);
+            }
+
             Objects objects = objectFactory.createObjects();
 
             List<BaseObject> objectList = getBaseObjects(doc.getDocumentReference());
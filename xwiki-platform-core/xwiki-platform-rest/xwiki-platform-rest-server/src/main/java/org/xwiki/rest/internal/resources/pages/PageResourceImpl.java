@@ -76,6 +76,12 @@ public Page getPage(String wikiName, String spaceName, String pageName, Boolean
                 }
             ).toList();
 
+            // Pretty names, checked rights and rendered content can change without a new version of the document.
+            if (!withPrettyNames && parsedRights.isEmpty()
+                && (supportedSyntaxes.isEmpty() || supportedSyntaxes.contains(doc.getSyntax().toIdString()))) {
+                evaluatePreconditions(doc);
+            }
+
             return this.factory.toRestPage(baseUri, uriInfo.getAbsolutePath(), doc, false, withPrettyNames, withObjects,
                 withXClass, withAttachments, parsedRights, supportedSyntaxes);
         } catch (XWikiException e) {
@@ -46,6 +46,11 @@ public Page getPageTranslation(String wikiName, String spaceName, String pageNam
 
             Document doc = documentInfo.getDocument();
 
+            // Pretty names can change without a new version of the document.
+            if (!withPrettyNames) {
+                evaluatePreconditions(doc);
+            }
+
             return this.factory.toRestPage(this.uriInfo.getBaseUri(), this.uriInfo.getAbsolutePath(), doc, false,
                 withPrettyNames, false, false, false);
         } catch (XWikiException e) {
@@ -19,6 +19,7 @@
  */
 package org.xwiki.rest.internal.resources.pages;
 
+import java.util.Date;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -26,10 +27,12 @@
 
 import org.xwiki.component.annotation.Component;
 import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryFilter;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
 import org.xwiki.rest.internal.DomainObjectFactory;
+import org.xwiki.rest.internal.PaginationCursor;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Pages;
 import org.xwiki.rest.resources.pages.PagesResource;
@@ -43,9 +46,13 @@
 @Named("org.xwiki.rest.internal.resources.pages.PagesResourceImpl")
 public class PagesResourceImpl extends XWikiResource implements PagesResource
 {
+    private static final String CURSOR_NAME = "cursorName";
+
+    private static final String CURSOR_DATE = "cursorDate";
+
     @Override
     public Pages getPages(String wikiName, String spaceName, Integer start, Integer number,
-            String parentFilterExpression, String order, Boolean withPrettyNames)
+            String parentFilterExpression, String order, Boolean withPrettyNames, String cursor)
             throws XWikiRestException
     {
         String database = Utils.getXWikiContext(componentManager).getWikiId();
@@ -54,27 +61,19 @@ public Pages getPages(String wikiName, String spaceName, Integer start, Integer
 
         Pages pages = objectFactory.createPages();
         int limit = validateAndGetLimit(number);
+        PaginationCursor paginationCursor = PaginationCursor.parse(cursor);
+        boolean orderByDate = "date".equals(order);
 
         try {
             Utils.getXWikiContext(componentManager).setWikiId(wikiName);
 
-            // The locale condition accepts null as Oracle stores the empty string as null, so a plain
-            // "language = ''" matches no document at all there.
-            // The name is added to the date ordering as several documents can share the same date (e.g. when they
-            // have been imported together). Only ordering by a unique key makes pagination via limit/offset
-            // deterministic, as the database is otherwise free to return tied rows in an arbitrary order that can
-            // differ between queries. The named query used for the default order already orders by name.
-            Query query = ("date".equals(order)) ? queryManager.createQuery(
-                    "select doc.name from Document doc where doc.space=:space"
-                        + " and (doc.language = '' or doc.language is null)"
-                        + " order by doc.date desc, doc.name asc",
-                    "xwql") : queryManager.getNamedQuery("getSpaceDocsName");
+            Query query = createQuery(orderByDate, paginationCursor);
 
             /* Use an explicit query to improve performance */
-            List<String> pageNames =
+            List<Object> rows =
                 query.addFilter(componentManager.<QueryFilter>getInstance(QueryFilter.class, "hidden"))
                     .bindValue("space", spaceId)
-                    .setOffset(start)
+                    .setOffset(paginationCursor != null ? paginationCursor.getSkip() : start)
                     .setLimit(limit)
                     .execute();
 
@@ -87,15 +86,26 @@ public Pages getPages(String wikiName, String spaceName, Integer start, Integer
                 }
             }
 
-            for (String pageName : pageNames) {
+            PaginationCursor.Tracker cursorTracker = new PaginationCursor.Tracker(paginationCursor, limit);
+            for (Object row : rows) {
+                String pageName;
+                if (orderByDate) {
+                    Object[] values = (Object[]) row;
+                    pageName = (String) values[0];
+                    cursorTracker.next(values[1], pageName);
+                } else {
+                    pageName = (String) row;
+                    cursorTracker.next(pageName);
+                }
+
                 String pageFullName = Utils.getPageId(wikiName, spaces, pageName);
 
-                if (!Utils.getXWikiApi(componentManager).exists(pageFullName)) {
+                // Load the document directly instead of checking its existence first, which would load it twice.
+                Document doc = Utils.getXWikiApi(componentManager).getDocument(pageFullName);
+                if (doc != null && doc.isNew()) {
                     getLogger().warn("Page [{}] appears to be in space [{}] but no information is available.", pageName,
                         spaceId);
                 } else {
-                    Document doc = Utils.getXWikiApi(componentManager).getDocument(pageFullName);
-
                     /* We only add pages we have the right to access */
                     if (doc != null) {
                         boolean add = true;
@@ -117,6 +127,8 @@ public Pages getPages(String wikiName, String spaceName, Integer start, Integer
                     }
                 }
             }
+
+            addNextLink(pages, cursorTracker.getNextCursor());
         } catch (Exception e) {
             throw new XWikiRestException(e);
         } finally {
@@ -125,4 +137,37 @@ public Pages getPages(String wikiName, String spaceName, Integer start, Integer
 
         return pages;
     }
+
+    private Query createQuery(boolean orderByDate, PaginationCursor cursor) throws QueryException
+    {
+        Query query;
+        if (orderByDate) {
+            // The locale condition accepts null as Oracle stores the empty string as null, so a plain
+            // "language = ''" matches no document at all there.
+            // The name is added to the date ordering as several documents can share the same date (e.g. when they
+            // have been imported together). Only ordering by a unique key makes pagination via limit/offset
+            // deterministic, as the database is otherwise free to return tied rows in an arbitrary order that can
+            // differ between queries. The date is selected to be able to produce the cursor of the next page.
+            String cursorCondition =
+                cursor != null ? " and (doc.date < :cursorDate or (doc.date = :cursorDate and doc.name >= :cursorName))"
+                    : "";
+            query = queryManager.createQuery("select doc.name, doc.date from Document doc where doc.space=:space"
+                + " and (doc.language = '' or doc.language is null)" + cursorCondition
+                + " order by doc.date desc, doc.name asc", Query.XWQL);
+            if (cursor != null) {
+                query.bindValue(CURSOR_DATE, cursor.getKey(0, Date.class));
+                query.bindValue(CURSOR_NAME, cursor.getKey(1, String.class));
+            }
+        } else if (cursor != null) {
+            // Same as the getSpaceDocsName named query, starting from the last returned document.
+            query = queryManager.createQuery("select distinct doc.name from Document doc where doc.space=:space"
+                + " and doc.name >= :cursorName order by doc.name asc", Query.XWQL);
+            query.bindValue(CURSOR_NAME, cursor.getKey(0, String.class));
+        } else {
+            // The named query used for the default order already orders by name.
+            query = queryManager.getNamedQuery("getSpaceDocsName");
+        }
+
+        return query;
+    }
 }
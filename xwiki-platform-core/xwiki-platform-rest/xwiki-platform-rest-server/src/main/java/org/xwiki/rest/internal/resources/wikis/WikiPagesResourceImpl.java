@@ -35,6 +35,7 @@
 import org.xwiki.rest.Relations;
 import org.xwiki.rest.XWikiResource;
 import org.xwiki.rest.XWikiRestException;
+import org.xwiki.rest.internal.PaginationCursor;
 import org.xwiki.rest.internal.Utils;
 import org.xwiki.rest.model.jaxb.Link;
 import org.xwiki.rest.model.jaxb.PageSummary;
@@ -60,9 +61,11 @@ public class WikiPagesResourceImpl extends XWikiResource implements WikiPagesRes
     private ContextualAuthorizationManager contextualAuthorizationManager;
 
     @Override
-    public Pages getPages(String wikiName, Integer start, String name, String space, String author, Integer number)
-            throws XWikiRestException
+    public Pages getPages(String wikiName, Integer start, String name, String space, String author, Integer number,
+        String cursor) throws XWikiRestException
     {
+        PaginationCursor paginationCursor = PaginationCursor.parse(cursor);
+
         XWikiContext context = Utils.getXWikiContext(componentManager);
         WikiReference wikiReference = context.getWikiReference();
         context.setWikiReference(new WikiReference(wikiName));
@@ -107,6 +110,12 @@ public Pages getPages(String wikiName, Integer start, String name, String space,
                 stringBuilder.append(")");
             }
 
+            if (paginationCursor != null) {
+                // Keyset pagination: start from the last returned document instead of skipping all the previous ones.
+                stringBuilder.append(filters.isEmpty() ? " where " : " and ");
+                stringBuilder.append("doc.fullName >= :cursorFullName");
+            }
+
             // Always order by a unique key (document full name + locale) so that pagination via limit/offset returns a
             // stable, deterministic order. Without it, the database is free to return rows in an arbitrary order that
             // can differ between queries (observed on Oracle), breaking paginated retrieval.
@@ -116,10 +125,16 @@ public Pages getPages(String wikiName, Integer start, String name, String space,
 
             /* Execute the query by filling the parameters */
             List<Object> queryResult = null;
+            int limit = validateAndGetLimit(number);
             Query query = queryManager.createQuery(queryString, Query.XWQL)
                 .setWiki(wikiName)
-                .setLimit(validateAndGetLimit(number))
-                .setOffset(start);
+                .setLimit(limit);
+            if (paginationCursor != null) {
+                query.bindValue("cursorFullName", paginationCursor.getKey(0, String.class));
+                query.setOffset(paginationCursor.getSkip());
+            } else {
+                query.setOffset(start);
+            }
 
             for (Map.Entry<String, String> filterEntry : filters.entrySet()) {
                 query.bindValue(filterEntry.getKey(), String.format("%%%s%%", filterEntry.getValue().toUpperCase()));
@@ -127,10 +142,12 @@ public Pages getPages(String wikiName, Integer start, String name, String space,
 
             queryResult = query.execute();
             XWikiURLFactory urlFactory = context.getURLFactory();
+            PaginationCursor.Tracker cursorTracker = new PaginationCursor.Tracker(paginationCursor, limit);
 
             /* Get the results and populate the returned representation */
             for (Object object : queryResult) {
                 XWikiDocument xwikiDocument = (XWikiDocument) object;
+                cursorTracker.next(xwikiDocument.getFullName());
 
                 Document doc = new Document(xwikiDocument, context);
                 if (this.contextualAuthorizationManager.hasAccess(Right.VIEW, doc.getDocumentReference())) {
@@ -167,6 +184,8 @@ public Pages getPages(String wikiName, Integer start, String name, String space,
                     pages.getPageSummaries().add(pageSummary);
                 }
             }
+
+            addNextLink(pages, cursorTracker.getNextCursor());
         } catch (QueryException e) {
             throw new XWikiRestException(e);
         } finally {
@@ -19,23 +19,55 @@
  */
 package org.xwiki.rest;
 
+import java.net.URI;
 import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 
+import javax.inject.Provider;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
 
+import org.apache.commons.lang3.reflect.FieldUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.rest.internal.ResponseFilter;
 import org.xwiki.security.SecurityConfiguration;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.api.Document;
+import com.xpn.xwiki.doc.XWikiDocument;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -46,16 +78,68 @@
 @ComponentTest
 class XWikiResourceTest
 {
+    private static final WikiReference WIKI_REFERENCE = new WikiReference("xwiki");
+
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("xwiki", "Space", "Page");
+
+    private static final DocumentReference PARENT_REFERENCE = new DocumentReference("xwiki", "Space", "Parent");
+
+    private static final DocumentReference CLASS_REFERENCE = new DocumentReference("xwiki", "Space", "Class");
+
     @InjectMockComponents
     private XWikiResource xwikiResource;
 
     @MockComponent
     private SecurityConfiguration securityConfiguration;
 
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    private ContextualAuthorizationManager authorization;
+
+    @Mock
+    private Request request;
+
+    @Mock
+    private HttpHeaders httpHeaders;
+
+    @Mock
+    private UriInfo uriInfo;
+
+    @Mock
+    private XWikiContext xcontext;
+
+    @Mock
+    private XWiki xwiki;
+
+    private XWikiDocument defaultDocument;
+
+    private XWikiDocument classDocument;
+
     @BeforeEach
-    void setUp()
+    void setUp() throws Exception
     {
         when(this.securityConfiguration.getQueryItemsLimit()).thenReturn(1000);
+
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "User"));
+        when(this.xcontext.getWiki()).thenReturn(this.xwiki);
+        when(this.xcontext.getWikiReference()).thenReturn(WIKI_REFERENCE);
+
+        this.defaultDocument = mock(XWikiDocument.class);
+        when(this.defaultDocument.getVersion()).thenReturn("1.1");
+        when(this.xwiki.getDocument(DOCUMENT_REFERENCE, this.xcontext)).thenReturn(this.defaultDocument);
+        this.classDocument = mock(XWikiDocument.class);
+        when(this.classDocument.getVersion()).thenReturn("1.1");
+        when(this.xwiki.getDocument(CLASS_REFERENCE, this.xcontext)).thenReturn(this.classDocument);
+        when(this.defaultDocument.getXObjects()).thenReturn(Map.of(CLASS_REFERENCE, List.of()));
+        when(this.request.getMethod()).thenReturn(HttpMethod.GET);
+        when(this.httpHeaders.getHeaderString(HttpHeaders.ACCEPT)).thenReturn("application/json");
+        when(this.uriInfo.getRequestUri()).thenReturn(new URI("https://test/rest/wikis/xwiki/spaces/Space/pages/Page"));
+        FieldUtils.writeField(this.xwikiResource, "request", this.request, true);
+        FieldUtils.writeField(this.xwikiResource, "httpHeaders", this.httpHeaders, true);
+        FieldUtils.writeField(this.xwikiResource, "uriInfo", this.uriInfo, true);
     }
 
     @Test
@@ -123,5 +207,112 @@ void validateAndGetLimitWithNoLimitSet(Integer input, int expected)
 
         assertEquals(expected, this.xwikiResource.validateAndGetLimit(input));
     }
+
+    @Test
+    void evaluatePreconditionsWhenModified() throws Exception
+    {
+        Document document = mockDocument("1.1");
+
+        this.xwikiResource.evaluatePreconditions(document);
+
+        ArgumentCaptor<EntityTag> entityTagCaptor = ArgumentCaptor.forClass(EntityTag.class);
+        verify(this.request).evaluatePreconditions(eq(new Date(1000)), entityTagCaptor.capture());
+        assertTrue(entityTagCaptor.getValue().isWeak());
+        verify(this.xcontext).put(ResponseFilter.ENTITY_TAG, entityTagCaptor.getValue());
+        verify(this.xcontext).put(ResponseFilter.LAST_MODIFIED, new Date(1000));
+    }
+
+    @Test
+    void evaluatePreconditionsWhenNotModified() throws Exception
+    {
+        when(this.request.evaluatePreconditions(any(Date.class), any(EntityTag.class)))
+            .thenReturn(Response.notModified());
+
+        WebApplicationException exception = assertThrows(WebApplicationException.class,
+            () -> this.xwikiResource.evaluatePreconditions(mockDocument("1.1")));
+        assertEquals(304, exception.getResponse().getStatus());
+        verify(this.xcontext, never()).put(eq(ResponseFilter.ENTITY_TAG), any());
+    }
+
+    @Test
+    void evaluatePreconditionsDependsOnVersionAndUser() throws Exception
+    {
+        this.xwikiResource.evaluatePreconditions(mockDocument("1.1"));
+        this.xwikiResource.evaluatePreconditions(mockDocument("1.2"));
+        when(this.xcontext.getUserReference()).thenReturn(new DocumentReference("xwiki", "XWiki", "Other"));
+        this.xwikiResource.evaluatePreconditions(mockDocument("1.2"));
+
+        ArgumentCaptor<EntityTag> entityTagCaptor = ArgumentCaptor.forClass(EntityTag.class);
+        verify(this.request, times(3)).evaluatePreconditions(any(Date.class), entityTagCaptor.capture());
+        assertEquals(3, new HashSet<>(entityTagCaptor.getAllValues()).size());
+    }
+
+    @Test
+    void evaluatePreconditionsDependsOnRepresentationInputs() throws Exception
+    {
+        // The version of the document never changes below, only the other inputs of its representation.
+        Document document = mockDocument("1.1");
+        this.xwikiResource.evaluatePreconditions(document);
+
+        // A translation is added, then modified.
+        XWikiDocument translation = mock(XWikiDocument.class);
+        when(translation.getVersion()).thenReturn("1.1");
+        when(this.xwiki.getDocument(new DocumentReference(DOCUMENT_REFERENCE, Locale.FRENCH), this.xcontext))
+            .thenReturn(translation);
+        when(document.getTranslationLocales()).thenReturn(List.of(Locale.FRENCH));
+        this.xwikiResource.evaluatePreconditions(document);
+        when(translation.getVersion()).thenReturn("1.2");
+        this.xwikiResource.evaluatePreconditions(document);
+
+        // The parent is created.
+        when(document.getParentReference()).thenReturn(PARENT_REFERENCE);
+        this.xwikiResource.evaluatePreconditions(document);
+        when(this.xwiki.exists(PARENT_REFERENCE, this.xcontext)).thenReturn(true);
+        this.xwikiResource.evaluatePreconditions(document);
+
+        // The display title is computed from another document.
+        when(document.getDisplayTitle()).thenReturn("Other title");
+        this.xwikiResource.evaluatePreconditions(document);
+
+        // The class of the objects is modified.
+        when(this.classDocument.getVersion()).thenReturn("1.2");
+        this.xwikiResource.evaluatePreconditions(document);
+
+        // The current user is granted the right to see the password properties.
+        when(this.authorization.hasAccess(Right.ADMIN, WIKI_REFERENCE)).thenReturn(true);
+        this.xwikiResource.evaluatePreconditions(document);
+
+        ArgumentCaptor<EntityTag> entityTagCaptor = ArgumentCaptor.forClass(EntityTag.class);
+        verify(this.request, times(8)).evaluatePreconditions(any(Date.class), entityTagCaptor.capture());
+        assertEquals(8, new HashSet<>(entityTagCaptor.getAllValues()).size());
+    }
+
+    @Test
+    void evaluatePreconditionsOutsideOfGETRequests() throws Exception
+    {
+        when(this.request.getMethod()).thenReturn(HttpMethod.PUT);
+
+        Document document = mockDocument("1.1");
+        this.xwikiResource.evaluatePreconditions(document);
+
+        verify(this.request, never()).evaluatePreconditions(any(Date.class), any(EntityTag.class));
+        verify(this.xcontext, never()).put(eq(ResponseFilter.ENTITY_TAG), any());
+        // The inputs of the representation are not computed when they are not needed.
+        verify(document, never()).getDisplayTitle();
+    }
+
+    private Document mockDocument(String version)
+    {
+        Document document = mock(Document.class);
+        when(document.getDocumentReference()).thenReturn(DOCUMENT_REFERENCE);
+        when(document.getDocumentReferenceWithLocale())
+            .thenReturn(new DocumentReference(DOCUMENT_REFERENCE, Locale.ROOT));
+        when(document.getDisplayTitle()).thenReturn("Title");
+        when(document.getRealLocale()).thenReturn(Locale.ROOT);
+        when(document.getVersion()).thenReturn(version);
+        // The milliseconds are not part of HTTP dates.
+        when(document.getDate()).thenReturn(new Date(1234));
+        return document;
+    }
 }
 
@@ -0,0 +1,106 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.rest.internal;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.List;
+
+import javax.ws.rs.WebApplicationException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Validate {@link PaginationCursor}.
+ *
+ * @version $Id$
+ */
+class PaginationCursorTest
+{
+    @Test
+    void serializeAndParse()
+    {
+        Date date = new Date(1234567890123L);
+        PaginationCursor cursor =
+            PaginationCursor.parse(new PaginationCursor(List.of(date, "Space.Pa:ge;\u00e9", 7), 3).serialize());
+
+        assertEquals(date, cursor.getKey(0, Date.class));
+        assertEquals("Space.Pa:ge;\u00e9", cursor.getKey(1, String.class));
+        assertEquals(7, cursor.getKey(2, Integer.class));
+        assertEquals(3, cursor.getSkip());
+    }
+
+    @Test
+    void parseEmpty()
+    {
+        assertNull(PaginationCursor.parse(null));
+        assertNull(PaginationCursor.parse(""));
+    }
+
+    @Test
+    void parseInvalid()
+    {
+        WebApplicationException exception =
+            assertThrows(WebApplicationException.class, () -> PaginationCursor.parse("not a cursor"));
+        assertEquals(400, exception.getResponse().getStatus());
+    }
+
+    @Test
+    void getKeyWithWrongType()
+    {
+        PaginationCursor cursor = new PaginationCursor(List.of("Space.Page"), 1);
+
+        assertThrows(WebApplicationException.class, () -> cursor.getKey(0, Date.class));
+        assertThrows(WebApplicationException.class, () -> cursor.getKey(1, String.class));
+    }
+
+    @Test
+    void tracker()
+    {
+        PaginationCursor.Tracker tracker = new PaginationCursor.Tracker(null, 3);
+        tracker.next("A");
+        tracker.next("B");
+        assertNull(tracker.getNextCursor());
+
+        tracker.next("B");
+        PaginationCursor next = PaginationCursor.parse(tracker.getNextCursor());
+        assertEquals("B", next.getKey(0, String.class));
+        assertEquals(2, next.getSkip());
+    }
+
+    @Test
+    void trackerContinuesPreviousCursor()
+    {
+        Date date = new Date(1000);
+        PaginationCursor previous = new PaginationCursor(List.of(date, "A"), 2);
+
+        // The database usually returns timestamps.
+        PaginationCursor.Tracker tracker = new PaginationCursor.Tracker(previous, 1);
+        tracker.next(new Timestamp(1000), "A");
+
+        PaginationCursor next = PaginationCursor.parse(tracker.getNextCursor());
+        assertEquals(date, next.getKey(0, Date.class));
+        assertEquals(3, next.getSkip());
+    }
+}
@@ -26,6 +26,7 @@
 
 import javax.inject.Named;
 import javax.inject.Provider;
+import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
 
 import org.apache.commons.lang3.reflect.FieldUtils;
@@ -38,7 +39,9 @@
 import org.xwiki.query.Query;
 import org.xwiki.query.QueryException;
 import org.xwiki.query.QueryManager;
+import org.xwiki.rest.Relations;
 import org.xwiki.rest.XWikiRestException;
+import org.xwiki.rest.internal.PaginationCursor;
 import org.xwiki.rest.model.jaxb.PageSummary;
 import org.xwiki.rest.model.jaxb.Pages;
 import org.xwiki.security.SecurityConfiguration;
@@ -58,6 +61,7 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -123,6 +127,9 @@ void setUp(MockitoComponentManager componentManager)
         when(this.context.getURLFactory()).thenReturn(this.urlFactory);
 
         when(this.securityConfiguration.getQueryItemsLimit()).thenReturn(1000);
+        UriBuilder requestUriBuilder = mock(UriBuilder.class, RETURNS_SELF);
+        when(this.uriInfo.getRequestUriBuilder()).thenReturn(requestUriBuilder);
+        when(requestUriBuilder.build()).thenReturn(new URI("https://test/next"));
     }
 
     @Test
@@ -193,7 +200,7 @@ void getPages() throws QueryException, MalformedURLException, XWikiRestException
             .thenReturn(doc3AbsoluteURL);
         when(this.urlFactory.getURL(doc3AbsoluteURL, this.context)).thenReturn(doc3RelativeURL);
 
-        Pages pages = this.wikiPagesResource.getPages(wikiName, start, name, space, author, number);
+        Pages pages = this.wikiPagesResource.getPages(wikiName, start, name, space, author, number, null);
         List<PageSummary> pageSummaries = pages.getPageSummaries();
         assertEquals(2, pageSummaries.size());
 
@@ -228,4 +235,44 @@ void getPages() throws QueryException, MalformedURLException, XWikiRestException
         verify(mockQuery).bindValue("name", "%BAR%");
         verify(mockQuery).bindValue("author", "%BUZ%");
     }
+
+    @Test
+    void getPagesWithCursor() throws QueryException, XWikiRestException
+    {
+        Query mockQuery = mock(Query.class);
+        when(this.queryManager.createQuery(any(), eq(Query.XWQL))).thenReturn(mockQuery);
+        when(mockQuery.setOffset(anyInt())).thenReturn(mockQuery);
+        when(mockQuery.setLimit(anyInt())).thenReturn(mockQuery);
+        when(mockQuery.setWiki(any())).thenReturn(mockQuery);
+
+        XWikiDocument mockDoc1 = mock(XWikiDocument.class, "doc1");
+        XWikiDocument mockDoc2 = mock(XWikiDocument.class, "doc2");
+        when(mockDoc1.getFullName()).thenReturn("Space1.Doc1");
+        when(mockDoc2.getFullName()).thenReturn("Space1.Doc1");
+        when(mockDoc1.getDocumentReference()).thenReturn(new DocumentReference("foo", "Space1", "Doc1"));
+        when(mockDoc2.getDocumentReference()).thenReturn(new DocumentReference("foo", "Space1", "Doc1"));
+        when(mockQuery.execute()).thenReturn(List.of(mockDoc1, mockDoc2));
+
+        UriBuilder uriBuilder = mock(UriBuilder.class, RETURNS_SELF);
+        when(this.uriInfo.getRequestUriBuilder()).thenReturn(uriBuilder);
+        when(uriBuilder.build()).thenReturn(URI.create("https://test/next"));
+
+        // The cursor of a page ending with a document in the default locale.
+        String cursor = new PaginationCursor(List.of("Space1.Doc0"), 1).serialize();
+        Pages pages = this.wikiPagesResource.getPages("foo", 42, "", "", "", 2, cursor);
+
+        verify(this.queryManager).createQuery("select doc from XWikiDocument as doc"
+            + " where doc.fullName >= :cursorFullName order by doc.fullName asc, doc.language asc", Query.XWQL);
+        verify(mockQuery).bindValue("cursorFullName", "Space1.Doc0");
+        verify(mockQuery).setOffset(1);
+        verify(mockQuery).setLimit(2);
+
+        // Both results are translations of the same document so the next page has to skip both of them.
+        String nextCursor = new PaginationCursor(List.of("Space1.Doc1"), 2).serialize();
+        verify(uriBuilder).replaceQueryParam("start");
+        verify(uriBuilder).replaceQueryParam("cursor", nextCursor);
+        assertEquals(1, pages.getLinks().size());
+        assertEquals(Relations.NEXT, pages.getLinks().get(0).getRel());
+        assertEquals("https://test/next", pages.getLinks().get(0).getHref());
+    }
 }
@@ -67,9 +67,11 @@
 import com.xpn.xwiki.objects.BaseObject;
 import com.xpn.xwiki.plugin.XWikiDefaultPlugin;
 import com.xpn.xwiki.plugin.XWikiPluginInterface;
+import com.xpn.xwiki.plugin.scheduler.internal.ClusterTriggerListener;
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulerJobClassDocumentInitializer;
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulerJobsInitializedEvent;
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulerJobsInitializingEvent;
+import com.xpn.xwiki.plugin.scheduler.internal.SchedulerLeaseManager;
 import com.xpn.xwiki.plugin.scheduler.internal.SchedulersClassLoaderManager;
 import com.xpn.xwiki.plugin.scheduler.internal.StatusListener;
 import com.xpn.xwiki.web.Utils;
@@ -128,6 +130,8 @@ public class SchedulerPlugin extends XWikiDefaultPlugin implements EventListener
 
     private boolean enabled;
 
+    private boolean clusterEnabled;
+
     private SchedulersClassLoaderManager schedulersClassLoaderManager;
 
     /**
@@ -144,8 +148,10 @@ public SchedulerPlugin(String name, String className, XWikiContext context)
     public void init(XWikiContext context)
     {
         // Check if the Scheduler plugin is enabled
-        this.enabled =
-            Utils.getComponent(ConfigurationSource.class, "xwikiproperties").getProperty("scheduler.enabled", true);
+        ConfigurationSource configuration = Utils.getComponent(ConfigurationSource.class, "xwikiproperties");
+        this.enabled = configuration.getProperty("scheduler.enabled", true);
+        // Check if each job fire should be executed by a single node of the cluster
+        this.clusterEnabled = configuration.getProperty("scheduler.cluster.enabled", false);
         this.schedulersClassLoaderManager = Utils.getComponent(SchedulersClassLoaderManager.class);
         this.schedulersClassLoaderManager.setSchedulerPlugin(this);
 
@@ -208,6 +214,9 @@ private void initAsync()
 
             setScheduler(getDefaultSchedulerInstance());
             setStatusListener();
+            if (this.clusterEnabled) {
+                setClusterListener();
+            }
             getScheduler().start();
 
             // Restore jobs
@@ -813,6 +822,27 @@ private void setStatusListener() throws SchedulerPluginException
         }
     }
 
+    /**
+     * Associates the scheduler with a {@link ClusterTriggerListener} so that each job fire is executed by a single
+     * node of the cluster.
+     * 
+     * @throws SchedulerPluginException if the cluster listener failed to be set properly
+     */
+    private void setClusterListener() throws SchedulerPluginException
+    {
+        SchedulerLeaseManager leaseManager = Utils.getComponent(SchedulerLeaseManager.class);
+        try {
+            getScheduler().getListenerManager().addTriggerListener(new ClusterTriggerListener(leaseManager));
+        } catch (SchedulerException e) {
+            throw new SchedulerPluginException(
+                SchedulerPluginException.ERROR_SCHEDULERPLUGIN_INITIALIZE_STATUS_LISTENER,
+                "Error while initializing the cluster listener", e);
+        }
+
+        LOGGER.info("Cluster mode enabled: each job fire is executed by a single cluster node (this node is [{}])",
+            leaseManager.getNode());
+    }
+
     private void saveStatus(String status, BaseObject object, XWikiContext context) throws XWikiException
     {
         XWikiDocument jobHolder = context.getWiki().getDocument(object.getDocumentReference(), context);
@@ -0,0 +1,80 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger;
+import org.quartz.Trigger.CompletedExecutionInstruction;
+import org.quartz.TriggerListener;
+
+/**
+ * Veto the execution of the jobs which were already fired by another node of the cluster.
+ * <p>
+ * All the cluster nodes schedule all the jobs and fire them at the same (cron) time, but only the first node to take
+ * the lease of a given fire actually executes the job. This also spreads the jobs across the nodes, since the least
+ * busy node is usually the first one to take the lease.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class ClusterTriggerListener implements TriggerListener
+{
+    private final SchedulerLeaseManager leaseManager;
+
+    /**
+     * @param leaseManager the component used to take the job leases
+     */
+    public ClusterTriggerListener(SchedulerLeaseManager leaseManager)
+    {
+        this.leaseManager = leaseManager;
+    }
+
+    @Override
+    public String getName()
+    {
+        return "ClusterTriggerListener";
+    }
+
+    @Override
+    public void triggerFired(Trigger trigger, JobExecutionContext context)
+    {
+        // Nothing to do.
+    }
+
+    @Override
+    public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context)
+    {
+        return !this.leaseManager.acquire(context.getJobDetail().getKey().getName(),
+            context.getScheduledFireTime());
+    }
+
+    @Override
+    public void triggerMisfired(Trigger trigger)
+    {
+        // Nothing to do.
+    }
+
+    @Override
+    public void triggerComplete(Trigger trigger, JobExecutionContext context,
+        CompletedExecutionInstruction triggerInstructionCode)
+    {
+        // Nothing to do.
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.util.Date;
+
+/**
+ * The lease taken by a cluster node on a given fire of a scheduler job, stored in the main wiki database so that each
+ * fire is executed by a single node of the cluster.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+public class SchedulerLease
+{
+    private String id;
+
+    private String jobId;
+
+    private Date fireTime;
+
+    private String node;
+
+    /**
+     * Default constructor used by Hibernate.
+     */
+    public SchedulerLease()
+    {
+    }
+
+    /**
+     * @param jobId the identifier of the job
+     * @param fireTime the scheduled fire time of the job
+     * @param node the identifier of the cluster node executing the job
+     */
+    public SchedulerLease(String jobId, Date fireTime, String node)
+    {
+        this.id = jobId + '@' + fireTime.getTime();
+        this.jobId = jobId;
+        this.fireTime = fireTime;
+        this.node = node;
+    }
+
+    /**
+     * @return the unique identifier of the lease, combining the job identifier and the fire time
+     */
+    public String getId()
+    {
+        return this.id;
+    }
+
+    /**
+     * @param id the unique identifier of the lease
+     */
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    /**
+     * @return the identifier of the job
+     */
+    public String getJobId()
+    {
+        return this.jobId;
+    }
+
+    /**
+     * @param jobId the identifier of the job
+     */
+    public void setJobId(String jobId)
+    {
+        this.jobId = jobId;
+    }
+
+    /**
+     * @return the scheduled fire time of the job
+     */
+    public Date getFireTime()
+    {
+        return this.fireTime;
+    }
+
+    /**
+     * @param fireTime the scheduled fire time of the job
+     */
+    public void setFireTime(Date fireTime)
+    {
+        this.fireTime = fireTime;
+    }
+
+    /**
+     * @return the identifier of the cluster node executing the job
+     */
+    public String getNode()
+    {
+        return this.node;
+    }
+
+    /**
+     * @param node the identifier of the cluster node executing the job
+     */
+    public void setNode(String node)
+    {
+        this.node = node;
+    }
+}
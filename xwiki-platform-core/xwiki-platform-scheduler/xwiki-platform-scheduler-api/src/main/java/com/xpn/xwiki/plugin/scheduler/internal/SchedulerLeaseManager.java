@@ -0,0 +1,208 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.hibernate.HibernateException;
+import org.hibernate.boot.Metadata;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextException;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.store.hibernate.HibernateAdapter;
+import org.xwiki.store.hibernate.HibernateStoreException;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore;
+import com.xpn.xwiki.store.XWikiStoreInterface;
+
+/**
+ * Make sure each fire of a scheduler job is executed by a single node of the cluster, by storing a lease in the main
+ * wiki database: the first node to insert the lease of a given fire executes the job, the other ones skip it.
+ * <p>
+ * The leases are only needed in the main wiki database, so their mapping is not part of the Hibernate configuration
+ * (which would create the table in the database of each wiki): the table is created in the main wiki database the
+ * first time a lease is taken, and accessed with native SQL queries.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = SchedulerLeaseManager.class)
+@Singleton
+public class SchedulerLeaseManager
+{
+    /**
+     * The leases older than this are removed from the database.
+     */
+    private static final long LEASE_RETENTION = TimeUnit.DAYS.toMillis(1);
+
+    private static final String MAPPING = "/scheduler.hbm.xml";
+
+    private static final String FIRE_TIME = "fireTime";
+
+    private final String node = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * The name of the lease table, set once the table has been created in the main wiki database.
+     */
+    private volatile String tableName;
+
+    /**
+     * Note that we use a Provider since the store is not ready when the scheduler plugin is initialized.
+     */
+    @Inject
+    @Named("hibernate")
+    private Provider<XWikiStoreInterface> hibernateStoreProvider;
+
+    @Inject
+    private Provider<HibernateStore> hibernateProvider;
+
+    @Inject
+    private Provider<XWikiContext> xcontextProvider;
+
+    @Inject
+    private Execution execution;
+
+    @Inject
+    private ExecutionContextManager executionContextManager;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @return the identifier of the current cluster node, as stored in the leases
+     */
+    public String getNode()
+    {
+        return this.node;
+    }
+
+    /**
+     * Try to take the lease of a job fire.
+     *
+     * @param jobId the identifier of the job
+     * @param fireTime the scheduled fire time of the job, which is the same on all the cluster nodes
+     * @return {@code true} if the current node should execute the job, {@code false} if another node already took the
+     *         lease of this fire
+     */
+    public boolean acquire(String jobId, Date fireTime)
+    {
+        // This is called from the Quartz threads, which are not associated with any execution context.
+        boolean newContext = this.execution.getContext() == null;
+        try {
+            if (newContext) {
+                this.executionContextManager.initialize(new ExecutionContext());
+            }
+
+            return acquire(new SchedulerLease(jobId, fireTime, this.node));
+        } catch (ExecutionContextException e) {
+            this.logger.warn("Failed to initialize the execution context to acquire the lease of job [{}]: [{}]",
+                jobId, ExceptionUtils.getRootCauseMessage(e));
+
+            // Better execute the job twice than not at all.
+            return true;
+        } finally {
+            if (newContext) {
+                this.execution.removeContext();
+            }
+        }
+    }
+
+    private boolean acquire(SchedulerLease lease)
+    {
+        XWikiContext xcontext = this.xcontextProvider.get();
+        XWikiHibernateBaseStore store = (XWikiHibernateBaseStore) this.hibernateStoreProvider.get();
+
+        // The leases are shared by the whole cluster so they are stored in the main wiki.
+        String currentWiki = xcontext.getWikiId();
+        xcontext.setWikiId(xcontext.getMainXWiki());
+        try {
+            String table = getTableName(xcontext.getMainXWiki());
+
+            store.executeWrite(xcontext, session -> {
+                session.createNativeQuery("delete from " + table + " where XWSL_FIRE_TIME < :fireTime")
+                    .setParameter(FIRE_TIME, new Timestamp(lease.getFireTime().getTime() - LEASE_RETENTION))
+                    .executeUpdate();
+                // The unicity of the lease is checked right away since the statement is executed immediately.
+                session
+                    .createNativeQuery("insert into " + table + " (XWSL_ID, XWSL_JOB_ID, XWSL_FIRE_TIME, XWSL_NODE)"
+                        + " values (:id, :jobId, :fireTime, :node)")
+                    .setParameter("id", lease.getId()).setParameter("jobId", lease.getJobId())
+                    .setParameter(FIRE_TIME, new Timestamp(lease.getFireTime().getTime()))
+                    .setParameter("node", lease.getNode()).executeUpdate();
+                return null;
+            });
+
+            return true;
+        } catch (XWikiException | HibernateStoreException | HibernateException e) {
+            if (ExceptionUtils.indexOfThrowable(e, ConstraintViolationException.class) >= 0) {
+                this.logger.debug("Job [{}] fired at [{}] is executed by another cluster node", lease.getJobId(),
+                    lease.getFireTime());
+
+                return false;
+            }
+
+            this.logger.warn("Failed to acquire the lease of job [{}] fired at [{}]: [{}]", lease.getJobId(),
+                lease.getFireTime(), ExceptionUtils.getRootCauseMessage(e));
+
+            // Better execute the job twice than not at all.
+            return true;
+        } finally {
+            xcontext.setWikiId(currentWiki);
+        }
+    }
+
+    private String getTableName(String mainWiki) throws HibernateStoreException
+    {
+        if (this.tableName == null) {
+            synchronized (this) {
+                if (this.tableName == null) {
+                    // Create the lease table in the main wiki database the first time it's needed
+                    HibernateStore hibernate = this.hibernateProvider.get();
+                    HibernateAdapter adapter = hibernate.getAdapter();
+
+                    Metadata metadata =
+                        hibernate.getMetadata(SchedulerLeaseManager.class.getResource(MAPPING), mainWiki);
+                    adapter.updateDatabase(metadata);
+
+                    this.tableName =
+                        adapter.getTableName(metadata.getEntityBinding(SchedulerLease.class.getName()));
+                }
+            }
+        }
+
+        return this.tableName;
+    }
+}
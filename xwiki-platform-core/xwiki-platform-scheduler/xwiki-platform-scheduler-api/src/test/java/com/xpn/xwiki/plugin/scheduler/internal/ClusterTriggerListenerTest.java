@@ -0,0 +1,164 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.util.Date;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.quartz.Job;
+import org.quartz.JobBuilder;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobListener;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.TriggerBuilder;
+import org.quartz.impl.StdSchedulerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ClusterTriggerListener}, simulating a cluster with two embedded schedulers sharing the same
+ * leases.
+ *
+ * @version $Id$
+ */
+class ClusterTriggerListenerTest
+{
+    private static final AtomicInteger EXECUTIONS = new AtomicInteger();
+
+    private Scheduler scheduler1;
+
+    private Scheduler scheduler2;
+
+    /**
+     * Job counting its executions.
+     *
+     * @version $Id$
+     */
+    public static class CountingJob implements Job
+    {
+        @Override
+        public void execute(JobExecutionContext context)
+        {
+            EXECUTIONS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Count down when a job is executed or vetoed.
+     *
+     * @version $Id$
+     */
+    private static final class LatchJobListener implements JobListener
+    {
+        private final CountDownLatch latch;
+
+        LatchJobListener(CountDownLatch latch)
+        {
+            this.latch = latch;
+        }
+
+        @Override
+        public String getName()
+        {
+            return "LatchJobListener";
+        }
+
+        @Override
+        public void jobToBeExecuted(JobExecutionContext context)
+        {
+            // Nothing to do.
+        }
+
+        @Override
+        public void jobExecutionVetoed(JobExecutionContext context)
+        {
+            this.latch.countDown();
+        }
+
+        @Override
+        public void jobWasExecuted(JobExecutionContext context, JobExecutionException jobException)
+        {
+            this.latch.countDown();
+        }
+    }
+
+    @AfterEach
+    void afterEach() throws SchedulerException
+    {
+        this.scheduler1.shutdown(true);
+        this.scheduler2.shutdown(true);
+    }
+
+    private Scheduler createScheduler(String name, SchedulerLeaseManager leaseManager, CountDownLatch latch)
+        throws SchedulerException
+    {
+        Properties properties = new Properties();
+        properties.setProperty(StdSchedulerFactory.PROP_SCHED_INSTANCE_NAME, name);
+        properties.setProperty("org.quartz.threadPool.threadCount", "1");
+        properties.setProperty(StdSchedulerFactory.PROP_JOB_STORE_CLASS, "org.quartz.simpl.RAMJobStore");
+
+        Scheduler scheduler = new StdSchedulerFactory(properties).getScheduler();
+        scheduler.getListenerManager().addTriggerListener(new ClusterTriggerListener(leaseManager));
+        scheduler.getListenerManager().addJobListener(new LatchJobListener(latch));
+
+        return scheduler;
+    }
+
+    @Test
+    void eachFireIsExecutedOnce() throws Exception
+    {
+        EXECUTIONS.set(0);
+
+        // The leases shared by the two nodes.
+        Set<String> leases = ConcurrentHashMap.newKeySet();
+        SchedulerLeaseManager leaseManager = mock(SchedulerLeaseManager.class);
+        when(leaseManager.acquire(any(), any())).thenAnswer(invocation -> leases
+            .add(invocation.getArgument(0) + "@" + invocation.<Date>getArgument(1).getTime()));
+
+        CountDownLatch latch = new CountDownLatch(2);
+        this.scheduler1 = createScheduler("node1", leaseManager, latch);
+        this.scheduler2 = createScheduler("node2", leaseManager, latch);
+
+        // Both nodes schedule the same job at the same time.
+        Date fireTime = new Date(System.currentTimeMillis() + 500);
+        for (Scheduler scheduler : new Scheduler[] { this.scheduler1, this.scheduler2 }) {
+            scheduler.scheduleJob(JobBuilder.newJob(CountingJob.class).withIdentity("xwiki:Space.Job_0").build(),
+                TriggerBuilder.newTrigger().withIdentity("xwiki:Space.Job_0").startAt(fireTime).build());
+            scheduler.start();
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(1, EXECUTIONS.get());
+        assertEquals(Set.of("xwiki:Space.Job_0@" + fireTime.getTime()), leases);
+    }
+}
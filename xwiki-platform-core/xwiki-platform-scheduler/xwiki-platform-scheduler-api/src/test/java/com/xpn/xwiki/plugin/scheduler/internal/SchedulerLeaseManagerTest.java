@@ -0,0 +1,182 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package com.xpn.xwiki.plugin.scheduler.internal;
+
+import java.net.URL;
+import java.sql.SQLException;
+import java.util.Date;
+
+import javax.inject.Provider;
+
+import org.hibernate.Session;
+import org.hibernate.boot.Metadata;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.query.NativeQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.xwiki.context.Execution;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.store.hibernate.HibernateAdapter;
+import org.xwiki.test.LogLevel;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.LogCaptureExtension;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectComponentManager;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.internal.store.hibernate.HibernateStore;
+import com.xpn.xwiki.store.XWikiHibernateBaseStore.HibernateCallback;
+import com.xpn.xwiki.store.XWikiHibernateStore;
+import com.xpn.xwiki.store.XWikiStoreInterface;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SchedulerLeaseManager}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SchedulerLeaseManagerTest
+{
+    private static final Date FIRE_TIME = new Date(1000000);
+
+    @InjectMockComponents
+    private SchedulerLeaseManager leaseManager;
+
+    @InjectComponentManager
+    private MockitoComponentManager componentManager;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    private Execution execution;
+
+    @MockComponent
+    private ExecutionContextManager executionContextManager;
+
+    @MockComponent
+    private HibernateStore hibernateStore;
+
+    @RegisterExtension
+    private LogCaptureExtension logCapture = new LogCaptureExtension(LogLevel.WARN);
+
+    private XWikiHibernateStore store;
+
+    private XWikiContext xcontext;
+
+    private Session session;
+
+    private HibernateAdapter adapter;
+
+    private Metadata metadata;
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        this.store = mock(XWikiHibernateStore.class);
+        this.componentManager.registerComponent(XWikiStoreInterface.class, "hibernate", this.store);
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        this.xcontext = mock(XWikiContext.class);
+        when(this.xcontextProvider.get()).thenReturn(this.xcontext);
+        when(this.xcontext.getWikiId()).thenReturn("subwiki");
+        when(this.xcontext.getMainXWiki()).thenReturn("xwiki");
+        when(this.execution.getContext()).thenReturn(new ExecutionContext());
+
+        this.adapter = mock(HibernateAdapter.class);
+        when(this.hibernateStore.getAdapter()).thenReturn(this.adapter);
+        this.metadata = mock(Metadata.class);
+        when(this.hibernateStore.getMetadata(any(URL.class), eq("xwiki"))).thenReturn(this.metadata);
+        PersistentClass persistentClass = mock(PersistentClass.class);
+        when(this.metadata.getEntityBinding(SchedulerLease.class.getName())).thenReturn(persistentClass);
+        when(this.adapter.getTableName(persistentClass)).thenReturn("xwikischedulerlease");
+
+        this.session = mock(Session.class);
+        NativeQuery query = mock(NativeQuery.class);
+        when(this.session.createNativeQuery(anyString())).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(this.store.executeWrite(any(), any())).thenAnswer(
+            invocation -> invocation.<HibernateCallback<?>>getArgument(1).doInHibernate(this.session));
+    }
+
+    @Test
+    void acquire()
+    {
+        assertTrue(this.leaseManager.acquire("xwiki:Space.Job_0", FIRE_TIME));
+
+        verify(this.session).createNativeQuery("insert into xwikischedulerlease"
+            + " (XWSL_ID, XWSL_JOB_ID, XWSL_FIRE_TIME, XWSL_NODE) values (:id, :jobId, :fireTime, :node)");
+        verify(this.xcontext).setWikiId("xwiki");
+        verify(this.xcontext).setWikiId("subwiki");
+    }
+
+    @Test
+    void acquireCreatesTheLeaseTableOnlyOnceInTheMainWiki() throws Exception
+    {
+        this.leaseManager.acquire("xwiki:Space.Job_0", FIRE_TIME);
+        this.leaseManager.acquire("xwiki:Space.Job_1", FIRE_TIME);
+
+        verify(this.adapter).updateDatabase(this.metadata);
+        verify(this.hibernateStore, never()).getMetadata(any(URL.class), eq("subwiki"));
+    }
+
+    @Test
+    void acquireWhenTakenByAnotherNode() throws Exception
+    {
+        when(this.store.executeWrite(any(), any())).thenThrow(new XWikiException("Failed",
+            new ConstraintViolationException("Duplicate key", new SQLException(), "PRIMARY")));
+
+        assertFalse(this.leaseManager.acquire("xwiki:Space.Job_0", FIRE_TIME));
+    }
+
+    @Test
+    void acquireWhenDatabaseFails() throws Exception
+    {
+        when(this.store.executeWrite(any(), any())).thenThrow(new XWikiException("Failed", new SQLException("Down")));
+
+        // Better execute the job twice than not at all.
+        assertTrue(this.leaseManager.acquire("xwiki:Space.Job_0", FIRE_TIME));
+
+        assertEquals(1, this.logCapture.size());
+        assertEquals("Failed to acquire the lease of job [xwiki:Space.Job_0] fired at [" + FIRE_TIME
+            + "]: [SQLException: Down]", this.logCapture.getMessage(0));
+    }
+}
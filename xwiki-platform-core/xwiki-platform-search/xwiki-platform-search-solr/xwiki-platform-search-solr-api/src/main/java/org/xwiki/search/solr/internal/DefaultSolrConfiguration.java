@@ -163,6 +163,83 @@ public class DefaultSolrConfiguration implements SolrConfiguration
      */
     public static final String SOLR_SYNCHRONIZE_BATCH_SIZE = "solr.synchronizeBatchSize";
 
+    /**
+     * The name of the configuration property indicating if the search results should be filtered inside the query
+     * based on the view right.
+     */
+    public static final String SOLR_QUERY_VIEWRIGHTSFILTER = "solr.query.viewRightsFilter";
+
+    /**
+     * The default value of {@link #SOLR_QUERY_VIEWRIGHTSFILTER}.
+     */
+    public static final boolean SOLR_QUERY_VIEWRIGHTSFILTER_DEFAULT = false;
+
+    /**
+     * The name of the configuration property containing the maximum number of view rights domains to exclude in the
+     * query.
+     */
+    public static final String SOLR_QUERY_VIEWRIGHTSFILTER_MAXDOMAINS = "solr.query.viewRightsFilter.maxDomains";
+
+    /**
+     * The default value of {@link #SOLR_QUERY_VIEWRIGHTSFILTER_MAXDOMAINS}.
+     */
+    public static final int SOLR_QUERY_VIEWRIGHTSFILTER_MAXDOMAINS_DEFAULT = 500;
+
+    /**
+     * The name of the configuration property containing the maximum number of documents per second sent to the indexer
+     * by the indexing jobs.
+     */
+    public static final String SOLR_INDEXER_JOB_MAXRATE = "solr.indexer.job.maxRate";
+
+    /**
+     * The default value of {@link #SOLR_INDEXER_JOB_MAXRATE}.
+     */
+    public static final int SOLR_INDEXER_JOB_MAXRATE_DEFAULT = 0;
+
+    /**
+     * The name of the configuration property containing the size of the indexer queue above which the indexing jobs
+     * wait.
+     */
+    public static final String SOLR_INDEXER_JOB_MAXQUEUESIZE = "solr.indexer.job.maxQueueSize";
+
+    /**
+     * The default value of {@link #SOLR_INDEXER_JOB_MAXQUEUESIZE}.
+     */
+    public static final int SOLR_INDEXER_JOB_MAXQUEUESIZE_DEFAULT = 10000;
+
+    /**
+     * The name of the configuration property containing the average duration of the recent requests above which the
+     * indexing jobs wait.
+     */
+    public static final String SOLR_INDEXER_JOB_MAXREQUESTDURATION = "solr.indexer.job.maxRequestDuration";
+
+    /**
+     * The default value of {@link #SOLR_INDEXER_JOB_MAXREQUESTDURATION}.
+     */
+    public static final long SOLR_INDEXER_JOB_MAXREQUESTDURATION_DEFAULT = 0;
+
+    /**
+     * The name of the configuration property containing the maximum size (in bytes) of the text extracted from the
+     * attachments and kept in the permanent directory.
+     */
+    public static final String SOLR_INDEXER_ATTACHMENTTEXTCACHE_MAXSIZE = "solr.indexer.attachmentTextCache.maxSize";
+
+    /**
+     * The default value of {@link #SOLR_INDEXER_ATTACHMENTTEXTCACHE_MAXSIZE}.
+     */
+    public static final long SOLR_INDEXER_ATTACHMENTTEXTCACHE_MAXSIZE_DEFAULT = 500L * 1024 * 1024;
+
+    /**
+     * The name of the configuration property containing the delay (in milliseconds) during which a new indexing of an
+     * entity which was just indexed is postponed.
+     */
+    public static final String SOLR_INDEXER_QUEUE_DEBOUNCEDELAY = "solr.indexer.queue.debounceDelay";
+
+    /**
+     * The default value of {@link #SOLR_INDEXER_QUEUE_DEBOUNCEDELAY}.
+     */
+    public static final long SOLR_INDEXER_QUEUE_DEBOUNCEDELAY_DEFAULT = 1000;
+
     /**
      * Indicate which mode to use for synchronize at startup by default.
      */
@@ -283,4 +360,50 @@ public int getSynchronizationBatchSize()
     {
         return this.configuration.getProperty(SOLR_SYNCHRONIZE_BATCH_SIZE, SOLR_SYNCHRONIZE_BATCH_SIZE_DEFAULT);
     }
+
+    @Override
+    public boolean isViewRightsFilterEnabled()
+    {
+        return this.configuration.getProperty(SOLR_QUERY_VIEWRIGHTSFILTER, SOLR_QUERY_VIEWRIGHTSFILTER_DEFAULT);
+    }
+
+    @Override
+    public int getViewRightsFilterMaxDomains()
+    {
+        return this.configuration.getProperty(SOLR_QUERY_VIEWRIGHTSFILTER_MAXDOMAINS,
+            SOLR_QUERY_VIEWRIGHTSFILTER_MAXDOMAINS_DEFAULT);
+    }
+
+    @Override
+    public int getIndexerJobMaxRate()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_JOB_MAXRATE, SOLR_INDEXER_JOB_MAXRATE_DEFAULT);
+    }
+
+    @Override
+    public int getIndexerJobMaxQueueSize()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_JOB_MAXQUEUESIZE, SOLR_INDEXER_JOB_MAXQUEUESIZE_DEFAULT);
+    }
+
+    @Override
+    public long getIndexerJobMaxRequestDuration()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_JOB_MAXREQUESTDURATION,
+            SOLR_INDEXER_JOB_MAXREQUESTDURATION_DEFAULT);
+    }
+
+    @Override
+    public long getAttachmentTextCacheMaxSize()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_ATTACHMENTTEXTCACHE_MAXSIZE,
+            SOLR_INDEXER_ATTACHMENTTEXTCACHE_MAXSIZE_DEFAULT);
+    }
+
+    @Override
+    public long getIndexerDebounceDelay()
+    {
+        return this.configuration.getProperty(SOLR_INDEXER_QUEUE_DEBOUNCEDELAY,
+            SOLR_INDEXER_QUEUE_DEBOUNCEDELAY_DEFAULT);
+    }
 }
@@ -21,13 +21,19 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -79,6 +85,10 @@
  * This implementation does not directly process the given leaf-references, but adds them to a processing queue, in the
  * order they were received. The {@link Runnable} part of this implementation is the one that sequentially reads and
  * processes the queue.
+ * <p>
+ * The indexing of an entity which is already waiting in the queue is skipped, and a new indexing of an entity which was
+ * just indexed is postponed for {@link SolrConfiguration#getIndexerDebounceDelay()} so that the requests received in
+ * the meantime are merged. Deletions and ready markers are never reordered with the indexing requested before them.
  * 
  * @version $Id$
  * @since 5.1M2
@@ -224,6 +234,12 @@ public ResolveQueueEntry(EntityReference reference, boolean recurse, IndexOperat
      */
     private final class Resolver extends AbstractXWikiRunnable
     {
+        /**
+         * The date at which the recently indexed references were added to the index queue, ordered by date. Only
+         * accessed from the resolver thread.
+         */
+        private final Map<EntityReference, Long> recentlyQueuedReferences = new LinkedHashMap<>();
+
         @Override
         public void runInternal()
         {
@@ -232,6 +248,11 @@ public void runInternal()
             while (!Thread.interrupted()) {
                 ResolveQueueEntry queueEntry = getQueueEntry();
 
+                if (queueEntry == null) {
+                    // The delay of some postponed references expired.
+                    continue;
+                }
+
                 if (queueEntry == RESOLVE_QUEUE_ENTRY_STOP) {
                     // Stop the index thread: clear the queue and send the stop signal without blocking.
                     stopIndexerThread();
@@ -260,19 +281,27 @@ private void dispatchQueueEntry(ResolveQueueEntry queueEntry)
         {
             switch (queueEntry.operation) {
                 case READY_MARKER:
+                    // The entities indexed before the marker must be indexed when the marker is reached.
+                    releasePostponedReferences(true);
                     queueEntry.readyIndicator.switchToIndexQueue();
                     DefaultSolrIndexer.this.indexQueue.put(new IndexQueueEntry(queueEntry.readyIndicator));
                     break;
                 case INDEX:
                     Iterable<EntityReference> references = retrieveReferences(queueEntry);
 
+                    long debounceDelay = configuration.getIndexerDebounceDelay();
                     for (EntityReference reference : references) {
-                        indexQueue.put(new IndexQueueEntry(
-                            DefaultSolrIndexer.this.entityReferenceFactory.getReference(reference),
-                            queueEntry.operation));
+                        queueIndex(DefaultSolrIndexer.this.entityReferenceFactory.getReference(reference),
+                            debounceDelay);
                     }
                     break;
                 default:
+                    // Keep the order between the deletions and the indexing of the same entities: the indexing
+                    // requested before the deletion is performed before it and is not merged with the indexing
+                    // requested after it.
+                    releasePostponedReferences(true);
+                    pendingIndexReferences.clear();
+
                     if (queueEntry.recurse) {
                         indexQueue.put(new IndexQueueEntry(solrRefereceResolver.getQuery(queueEntry.reference),
                             queueEntry.operation));
@@ -284,6 +313,64 @@ private void dispatchQueueEntry(ResolveQueueEntry queueEntry)
             }
         }
 
+        /**
+         * Add an entity to the index queue, unless it's already waiting to be indexed. The indexing of an entity
+         * which was indexed recently is postponed.
+         */
+        private void queueIndex(EntityReference reference, long debounceDelay) throws InterruptedException
+        {
+            if (!pendingIndexReferences.add(reference)) {
+                // The entity is already waiting to be indexed, and its latest version will be indexed.
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+            Long lastIndexDate = this.recentlyQueuedReferences.get(reference);
+            if (debounceDelay > 0 && lastIndexDate != null && now - lastIndexDate < debounceDelay) {
+                postponedReferences.put(reference, now + debounceDelay);
+            } else {
+                putIndex(reference, now, debounceDelay);
+            }
+        }
+
+        private void putIndex(EntityReference reference, long now, long debounceDelay) throws InterruptedException
+        {
+            indexQueue.put(new IndexQueueEntry(reference, IndexOperation.INDEX));
+
+            if (debounceDelay > 0) {
+                // Move the reference at the end of the map, which is ordered by date.
+                this.recentlyQueuedReferences.remove(reference);
+                this.recentlyQueuedReferences.put(reference, now);
+                // Forget the references which are not recent anymore.
+                Iterator<Long> iterator = this.recentlyQueuedReferences.values().iterator();
+                while (iterator.hasNext() && now - iterator.next() >= debounceDelay) {
+                    iterator.remove();
+                }
+            } else {
+                this.recentlyQueuedReferences.clear();
+            }
+        }
+
+        /**
+         * @param all {@code true} to add all the postponed references to the index queue, {@code false} to add only
+         *            the ones whose delay expired
+         */
+        private void releasePostponedReferences(boolean all) throws InterruptedException
+        {
+            long now = System.currentTimeMillis();
+            long debounceDelay = configuration.getIndexerDebounceDelay();
+            Iterator<Map.Entry<EntityReference, Long>> iterator = postponedReferences.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<EntityReference, Long> entry = iterator.next();
+                if (all || entry.getValue() <= now) {
+                    putIndex(entry.getKey(), now, debounceDelay);
+                    // Remove the reference after adding it to the index queue so that it's always counted in the
+                    // queue size.
+                    iterator.remove();
+                }
+            }
+        }
+
         private Iterable<EntityReference> retrieveReferences(ResolveQueueEntry queueEntry) throws SolrIndexerException
         {
             Iterable<EntityReference> references;
@@ -295,11 +382,27 @@ private Iterable<EntityReference> retrieveReferences(ResolveQueueEntry queueEntr
             return references;
         }
 
+        /**
+         * @return the next entry of the resolve queue, {@code null} if the delay of a postponed reference expired
+         *         before
+         */
         private ResolveQueueEntry getQueueEntry()
         {
             ResolveQueueEntry queueEntry;
             try {
-                queueEntry = resolveQueue.take();
+                releasePostponedReferences(false);
+
+                if (postponedReferences.isEmpty()) {
+                    queueEntry = resolveQueue.take();
+                } else {
+                    long timeout =
+                        postponedReferences.values().stream().mapToLong(Long::longValue).min().orElse(0)
+                            - System.currentTimeMillis();
+                    queueEntry = resolveQueue.poll(Math.max(timeout, 1), TimeUnit.MILLISECONDS);
+                    if (queueEntry == null) {
+                        return null;
+                    }
+                }
                 DefaultSolrIndexer.this.resolveQueueRemovalCounter.incrementAndGet();
             } catch (InterruptedException e) {
                 logger.warn("The SOLR resolve thread has been interrupted", e);
@@ -385,6 +488,18 @@ private ResolveQueueEntry getQueueEntry()
      */
     private BlockingQueue<ResolveQueueEntry> resolveQueue;
 
+    /**
+     * The references of the entities waiting in the index queue or postponed to be indexed. A new indexing of these
+     * entities is skipped since it's the latest version of the entity which is indexed anyway.
+     */
+    private final Set<EntityReference> pendingIndexReferences = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The references of the entities which were indexed recently and whose new indexing is postponed, with the date at
+     * which they should be added to the index queue.
+     */
+    private final Map<EntityReference, Long> postponedReferences = new ConcurrentHashMap<>();
+
     /**
      * The executor for Solr client operations.
      */
@@ -551,6 +666,12 @@ private boolean processBatch(IndexQueueEntry queueEntry)
         for (IndexQueueEntry batchEntry = queueEntry; batchEntry != null; batchEntry = this.indexQueue.poll()) {
             this.indexQueueRemovalCounter.incrementAndGet();
 
+            if (batchEntry.operation == IndexOperation.INDEX) {
+                // A new indexing of the entity requested from now on needs to be performed since the entity might be
+                // modified after it's loaded.
+                this.pendingIndexReferences.remove(batchEntry.reference);
+            }
+
             if (batchEntry == INDEX_QUEUE_ENTRY_STOP) {
                 // Handle the shutdown of the executor here to avoid that the executor is shut down before the batch
                 // processing finished.
@@ -801,7 +922,8 @@ private void addToQueue(EntityReference reference, boolean recurse, IndexOperati
     @Override
     public int getQueueSize()
     {
-        return this.indexQueue.size() + this.pendingResolveItems.get() + this.batchSize + this.committingBatchSize;
+        return this.indexQueue.size() + this.pendingResolveItems.get() + this.postponedReferences.size()
+            + this.batchSize + this.committingBatchSize;
     }
 
     @Override
@@ -41,6 +41,7 @@
 import org.xwiki.observation.EventListener;
 import org.xwiki.observation.event.Event;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.metadata.AttachmentTextCache;
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.XWikiException;
@@ -92,6 +93,9 @@ public class SolrIndexEventListener implements EventListener
     @Inject
     private Provider<SolrIndexer> solrIndexer;
 
+    @Inject
+    private Provider<AttachmentTextCache> attachmentTextCache;
+
     @Override
     public List<Event> getEvents()
     {
@@ -133,6 +137,10 @@ public void onEvent(Event event, Object source, Object data)
                 XWikiDocument document = ((XWikiDocument) source).getOriginalDocument();
 
                 this.solrIndexer.get().delete(document.getDocumentReferenceWithLocale(), false);
+
+                for (XWikiAttachment attachment : document.getAttachmentList()) {
+                    this.attachmentTextCache.get().remove(attachment.getReference());
+                }
             } else if (event instanceof AttachmentUpdatedEvent || event instanceof AttachmentAddedEvent) {
                 XWikiDocument document = (XWikiDocument) source;
                 String fileName = ((AbstractAttachmentEvent) event).getName();
@@ -145,6 +153,7 @@ public void onEvent(Event event, Object source, Object data)
                 XWikiAttachment attachment = document.getAttachment(fileName);
 
                 this.solrIndexer.get().delete(attachment.getReference(), false);
+                this.attachmentTextCache.get().remove(attachment.getReference());
             } else if (event instanceof XObjectUpdatedEvent || event instanceof XObjectAddedEvent) {
                 EntityEvent entityEvent = (EntityEvent) event;
 
@@ -166,6 +175,7 @@ public void onEvent(Event event, Object source, Object data)
                 WikiReference wikiReference = new WikiReference(wikiName);
 
                 this.solrIndexer.get().delete(wikiReference, false);
+                this.attachmentTextCache.get().remove(wikiReference);
             } else if (event instanceof GeneralMailConfigurationUpdatedEvent) {
                 // Refresh the index when the mail configuration is changed because the mail configuration is used to
                 // decide if emails shall be indexed or not.
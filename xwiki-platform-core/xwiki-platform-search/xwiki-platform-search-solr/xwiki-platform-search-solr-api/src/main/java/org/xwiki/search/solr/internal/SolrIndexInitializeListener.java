@@ -39,6 +39,7 @@
 import org.xwiki.search.solr.internal.api.SolrConfiguration;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.search.solr.internal.api.SolrIndexerException;
+import org.xwiki.search.solr.internal.job.IndexerCheckpointStore;
 import org.xwiki.search.solr.internal.job.IndexerRequest;
 import org.xwiki.wiki.descriptor.WikiDescriptorManager;
 import org.xwiki.wiki.manager.WikiManagerException;
@@ -84,6 +85,9 @@ public class SolrIndexInitializeListener implements EventListener
     @Inject
     private WikiDescriptorManager wikiDescriptorManager;
 
+    @Inject
+    private IndexerCheckpointStore checkpointStore;
+
     @Override
     public List<Event> getEvents()
     {
@@ -99,6 +103,10 @@ public String getName()
     @Override
     public void onEvent(Event event, Object source, Object data)
     {
+        if (event instanceof ApplicationReadyEvent) {
+            resumeInterruptedIndexing();
+        }
+
         if (this.configuration.synchronizeAtStartup()) {
             SolrConfiguration.SynchronizeAtStartupMode startupMode =
                 this.configuration.synchronizeAtStartupMode();
@@ -139,4 +147,19 @@ public void onEvent(Event event, Object source, Object data)
             }
         }
     }
+
+    private void resumeInterruptedIndexing()
+    {
+        // Continue the full indexing jobs which were interrupted by the restart
+        for (WikiReference wikiReference : this.checkpointStore.getInterrupted()) {
+            try {
+                this.logger.info("Resuming the interrupted Solr indexing of [{}]",
+                    wikiReference != null ? wikiReference.getName() : "the farm");
+
+                this.solrIndexer.get().startIndex(IndexerRequest.createOverwriteRequest(wikiReference, true));
+            } catch (SolrIndexerException e) {
+                this.logger.error("Failed to resume the Solr indexing of [{}]", wikiReference, e);
+            }
+        }
+    }
 }
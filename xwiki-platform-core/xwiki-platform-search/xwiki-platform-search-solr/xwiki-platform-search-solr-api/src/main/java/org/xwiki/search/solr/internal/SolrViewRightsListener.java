@@ -0,0 +1,190 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal;
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.bridge.event.DocumentCreatedEvent;
+import org.xwiki.bridge.event.DocumentDeletedEvent;
+import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.SpaceReferenceResolver;
+import org.xwiki.observation.EventListener;
+import org.xwiki.observation.event.Event;
+import org.xwiki.query.Query;
+import org.xwiki.query.QueryException;
+import org.xwiki.query.QueryManager;
+import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.metadata.ViewRightsDomainResolver;
+import org.xwiki.security.authorization.Right;
+
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.mandatory.XWikiGlobalRightsDocumentInitializer;
+import com.xpn.xwiki.internal.mandatory.XWikiRightsDocumentInitializer;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.classes.LevelsClass;
+
+/**
+ * Update the view rights domain of the indexed entities when security rules affecting the view right are added to or
+ * removed from a document or a space.
+ * <p>
+ * Only the presence of such rules matters: the rules themselves are evaluated when searching. There is nothing to do
+ * for the wiki rules since the wiki is always the last possible domain.
+ * 
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component
+@Named(SolrViewRightsListener.NAME)
+@Singleton
+public class SolrViewRightsListener implements EventListener
+{
+    /**
+     * The name of the listener.
+     */
+    public static final String NAME = "solr.viewrights";
+
+    private static final String SPACE_PREFERENCES = "WebPreferences";
+
+    private static final String LEVELS_FIELD_NAME = "levels";
+
+    /**
+     * The events to listen to that trigger the index update.
+     */
+    private static final List<Event> EVENTS =
+        Arrays.<Event>asList(new DocumentUpdatedEvent(), new DocumentCreatedEvent(), new DocumentDeletedEvent());
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The solr index.
+     * <p>
+     * Lazily initialize the {@link SolrIndexer} to not initialize it too early.
+     */
+    @Inject
+    private Provider<SolrIndexer> solrIndexer;
+
+    @Inject
+    private ViewRightsDomainResolver viewRightsDomainResolver;
+
+    @Inject
+    private QueryManager queryManager;
+
+    @Inject
+    @Named("local")
+    private EntityReferenceSerializer<String> localSerializer;
+
+    @Inject
+    private SpaceReferenceResolver<String> spaceResolver;
+
+    @Override
+    public List<Event> getEvents()
+    {
+        return EVENTS;
+    }
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void onEvent(Event event, Object source, Object data)
+    {
+        XWikiDocument document = (XWikiDocument) source;
+        XWikiDocument originalDocument = document.getOriginalDocument();
+        DocumentReference documentReference = document.getDocumentReference();
+
+        try {
+            // The document rules: the updated document itself is indexed again by the standard listener, but not its
+            // attachments and objects. The entities of a created or deleted document are handled by the standard
+            // listener too.
+            if (event instanceof DocumentUpdatedEvent && hasViewRightsChanged(document, originalDocument,
+                XWikiRightsDocumentInitializer.CLASS_REFERENCE)) {
+                this.solrIndexer.get().index(documentReference, true);
+            }
+
+            // The space rules.
+            if (SPACE_PREFERENCES.equals(documentReference.getName()) && hasViewRightsChanged(document,
+                originalDocument, XWikiGlobalRightsDocumentInitializer.CLASS_REFERENCE)) {
+                indexSpace(documentReference.getLastSpaceReference());
+            }
+        } catch (Exception e) {
+            // Build the String on purpose: log arguments are kept as objects in the captured LogEvent and
+            // XStream-serialized into the job log (see SafeMessageConverter in xwiki-commons), and the source is
+            // an arbitrary object whose graph would be written out and read back as null if it cannot be resolved.
+            this.logger.error("Failed to handle event [{}] with source [{}]", event, String.valueOf(source), e);
+        }
+    }
+
+    private boolean hasViewRightsChanged(XWikiDocument document, XWikiDocument originalDocument,
+        EntityReference classReference)
+    {
+        return hasViewRights(document, classReference) != hasViewRights(originalDocument, classReference);
+    }
+
+    private boolean hasViewRights(XWikiDocument document, EntityReference classReference)
+    {
+        if (document == null || document.isNew()) {
+            return false;
+        }
+
+        for (BaseObject rightsObject : document.getXObjects(classReference)) {
+            if (rightsObject != null) {
+                for (String level : LevelsClass.getListFromString(rightsObject.getStringValue(LEVELS_FIELD_NAME))) {
+                    if (this.viewRightsDomainResolver.isViewRight(Right.toRight(level))) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private void indexSpace(SpaceReference spaceReference) throws QueryException
+    {
+        SolrIndexer indexer = this.solrIndexer.get();
+
+        // The documents of the nested spaces are in the same domain, unless they have their own rules.
+        indexer.index(spaceReference, true);
+
+        Query query =
+            this.queryManager.createQuery("select reference from XWikiSpace where reference like :prefix", Query.HQL);
+        query.setWiki(spaceReference.getWikiReference().getName());
+        query.bindValue("prefix").literal(this.localSerializer.serialize(spaceReference) + '.').anyChars();
+        for (Object nestedSpace : query.execute()) {
+            indexer.index(this.spaceResolver.resolve((String) nestedSpace, spaceReference.getWikiReference()), true);
+        }
+    }
+}
@@ -57,6 +57,14 @@
      */
     public static final String DOC_ID = "docid";
 
+    /**
+     * The serialized reference (of the form type:reference) of the closest entity holding security rules which affect
+     * the view right of the document.
+     * 
+     * @since 18.8.0RC1
+     */
+    public static final String VIEW_RIGHTS_DOMAIN = "view_rights_domain";
+
     /**
      * The reference of the entity, including the parameters and the entity type.
      * 
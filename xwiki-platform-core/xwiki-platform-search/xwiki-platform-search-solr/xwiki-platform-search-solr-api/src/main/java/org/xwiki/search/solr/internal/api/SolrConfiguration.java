@@ -129,4 +129,54 @@
      * @since 16.4.7
      */
     int getSynchronizationBatchSize();
+
+    /**
+     * @return true if the search results should be filtered inside the Solr query based on the view right of the
+     *         current user (the results are still checked after the search), false by default
+     * @since 18.8.0RC1
+     */
+    boolean isViewRightsFilterEnabled();
+
+    /**
+     * @return the maximum number of view rights domains the Solr query can exclude, the filter is skipped above
+     * @since 18.8.0RC1
+     */
+    int getViewRightsFilterMaxDomains();
+
+    /**
+     * @return the maximum number of documents per second sent to the indexer by the indexing and synchronization jobs,
+     *         0 for no limit
+     * @since 18.8.0RC1
+     */
+    int getIndexerJobMaxRate();
+
+    /**
+     * @return the size of the indexer queue above which the indexing and synchronization jobs wait before sending more
+     *         documents, 0 for no limit
+     * @since 18.8.0RC1
+     */
+    int getIndexerJobMaxQueueSize();
+
+    /**
+     * Only the requests handled by the wiki actions are measured (e.g. not the REST requests).
+     *
+     * @return the average duration (in milliseconds) of the recent requests above which the indexing and
+     *         synchronization jobs wait before sending more documents, 0 for no limit
+     * @since 18.8.0RC1
+     */
+    long getIndexerJobMaxRequestDuration();
+
+    /**
+     * @return the maximum size (in bytes) of the text extracted from the attachments kept in the permanent directory to
+     *         avoid extracting it again when reindexing attachments whose content did not change, 0 to disable it
+     * @since 18.8.0RC1
+     */
+    long getAttachmentTextCacheMaxSize();
+
+    /**
+     * @return the delay (in milliseconds) during which a new indexing of an entity which was just indexed is postponed,
+     *         so that the indexing requests received in the meantime for the same entity are merged, 0 to disable it
+     * @since 18.8.0RC1
+     */
+    long getIndexerDebounceDelay();
 }
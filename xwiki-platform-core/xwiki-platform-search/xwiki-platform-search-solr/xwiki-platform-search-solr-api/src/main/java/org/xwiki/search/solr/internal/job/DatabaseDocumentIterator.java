@@ -113,11 +113,31 @@ public class DatabaseDocumentIterator extends AbstractDocumentIterator<DocumentI
      */
     private Query query;
 
+    /**
+     * The query used to fetch the documents located after {@link #startDocumentId} in {@link #startWiki}.
+     */
+    private Query startQuery;
+
     /**
      * The query used to count the documents from the database.
      */
     private Query countQuery;
 
+    /**
+     * The query used to count the documents located after {@link #startDocumentId} in {@link #startWiki}.
+     */
+    private Query startCountQuery;
+
+    /**
+     * The wiki of the last document to skip.
+     */
+    private String startWiki;
+
+    /**
+     * The identifier of the last document to skip.
+     */
+    private long startDocumentId;
+
     /**
      * The query filter used to count the documents from the database.
      */
@@ -125,6 +145,20 @@ public class DatabaseDocumentIterator extends AbstractDocumentIterator<DocumentI
     @Named("count")
     private QueryFilter countFilter;
 
+    /**
+     * Skip the documents located before the specified document, and the specified document itself. The wikis are
+     * iterated in alphabetical order and the documents of a wiki by identifier.
+     * 
+     * @param wiki the wiki of the last document to skip
+     * @param documentId the identifier of the last document to skip
+     * @since 18.8.0RC1
+     */
+    public void setStart(String wiki, long documentId)
+    {
+        this.startWiki = wiki;
+        this.startDocumentId = documentId;
+    }
+
     @Override
     public boolean hasNext()
     {
@@ -166,10 +200,10 @@ public long size()
         long size = 0;
 
         try {
-            getQuery();
-
-            for (String wikiName : getWikis()) {
-                size += (long) countQuery.setWiki(wikiName).execute().get(0);
+            // Only count the documents which remain to be iterated
+            for (String wikiName : getIteratedWikis()) {
+                Query currentCountQuery = wikiName.equals(this.startWiki) ? getStartCountQuery() : getCountQuery();
+                size += (long) currentCountQuery.setWiki(wikiName).execute().get(0);
             }
         } catch (QueryException e) {
             throw new IllegalStateException("Failed to count the documents.", e);
@@ -212,7 +246,8 @@ private void fetchNextResults()
             // We use basic pagination (absolute offset) because we don't expect the database to change too much while
             // the synchronization takes place. Also, the database is used as the reference store, meaning that we
             // update the Solr index to match the database, not the other way around.
-            results = getQuery().setWiki(wiki).setOffset(offset).execute();
+            Query currentQuery = wiki.equals(this.startWiki) ? getStartQuery() : getQuery();
+            results = currentQuery.setWiki(wiki).setOffset(offset).execute();
             offset += getLimit();
         } catch (QueryException e) {
             throw new IllegalStateException("Failed to query the database.", e);
@@ -226,40 +261,97 @@ private void fetchNextResults()
     private Query getQuery() throws QueryException
     {
         if (query == null) {
-            String select = "select doc.space, doc.name, doc.language, doc.version, doc.id from XWikiDocument doc";
-            // This iterator must have the same order as the SolrDocumentIterator, otherwise the synchronization fails.
-            String orderBy = " order by doc.id asc";
-
-            EntityReference spaceReference = null;
-            EntityReference documentReference = null;
-            if (rootReference != null) {
-                spaceReference = rootReference.extractReference(EntityType.SPACE);
-                documentReference = rootReference.extractReference(EntityType.DOCUMENT);
-            }
+            String whereClause = getWhereClause();
 
-            String whereClause = "";
-            if (spaceReference != null) {
-                whereClause += " where doc.space = :space";
-                if (documentReference != null) {
-                    whereClause += " and doc.name = :name";
-                }
+            query = createQuery(whereClause);
+            countQuery = createCountQuery(whereClause, query);
+        }
+        return query;
+    }
+
+    /**
+     * @return the query used to count the documents from the database
+     * @throws QueryException if creating the query fails
+     */
+    private Query getCountQuery() throws QueryException
+    {
+        getQuery();
+
+        return countQuery;
+    }
+
+    /**
+     * @return the query used to fetch the documents located after the start document
+     * @throws QueryException if creating the query fails
+     */
+    private Query getStartQuery() throws QueryException
+    {
+        if (startQuery == null) {
+            String whereClause = getWhereClause();
+            whereClause += (whereClause.isEmpty() ? " where" : " and") + " doc.id > :startDocumentId";
+
+            startQuery = createQuery(whereClause);
+            startQuery.bindValue("startDocumentId", this.startDocumentId);
+            startCountQuery = createCountQuery(whereClause, startQuery);
+        }
+        return startQuery;
+    }
+
+    /**
+     * @return the query used to count the documents located after the start document
+     * @throws QueryException if creating the query fails
+     */
+    private Query getStartCountQuery() throws QueryException
+    {
+        getStartQuery();
+
+        return startCountQuery;
+    }
+
+    private String getWhereClause()
+    {
+        String whereClause = "";
+        if (rootReference != null && rootReference.extractReference(EntityType.SPACE) != null) {
+            whereClause += " where doc.space = :space";
+            if (rootReference.extractReference(EntityType.DOCUMENT) != null) {
+                whereClause += " and doc.name = :name";
             }
+        }
+
+        return whereClause;
+    }
+
+    private Query createCountQuery(String whereClause, Query documentQuery) throws QueryException
+    {
+        Query documentCountQuery = queryManager.createQuery(whereClause, Query.HQL).addFilter(countFilter);
 
-            query = queryManager.createQuery(select + whereClause + orderBy, Query.HQL).setLimit(getLimit());
-            countQuery = queryManager.createQuery(whereClause, Query.HQL).addFilter(countFilter);
+        for (Map.Entry<String, Object> parameter : documentQuery.getNamedParameters().entrySet()) {
+            documentCountQuery.bindValue(parameter.getKey(), parameter.getValue());
+        }
 
+        return documentCountQuery;
+    }
+
+    private Query createQuery(String whereClause) throws QueryException
+    {
+        String select = "select doc.space, doc.name, doc.language, doc.version, doc.id from XWikiDocument doc";
+        // This iterator must have the same order as the SolrDocumentIterator, otherwise the synchronization fails.
+        String orderBy = " order by doc.id asc";
+
+        Query documentQuery = queryManager.createQuery(select + whereClause + orderBy, Query.HQL).setLimit(getLimit());
+
+        if (rootReference != null) {
+            EntityReference spaceReference = rootReference.extractReference(EntityType.SPACE);
             if (spaceReference != null) {
-                query.bindValue("space", this.localEntityReferenceSerializer.serialize(spaceReference));
+                documentQuery.bindValue("space", this.localEntityReferenceSerializer.serialize(spaceReference));
+                EntityReference documentReference = rootReference.extractReference(EntityType.DOCUMENT);
                 if (documentReference != null) {
-                    query.bindValue("name", documentReference.getName());
+                    documentQuery.bindValue("name", documentReference.getName());
                 }
             }
-
-            for (Map.Entry<String, Object> parameter : query.getNamedParameters().entrySet()) {
-                countQuery.bindValue(parameter.getKey(), parameter.getValue());
-            }
         }
-        return query;
+
+        return documentQuery;
     }
 
     /**
@@ -268,13 +360,26 @@ private Query getQuery() throws QueryException
     private String getNextWiki()
     {
         if (wikisIterator == null) {
-            List<String> wikis = getWikis();
-            Collections.sort(wikis);
-            wikisIterator = wikis.iterator();
+            wikisIterator = getIteratedWikis().iterator();
         }
         return wikisIterator.hasNext() ? wikisIterator.next() : null;
     }
 
+    /**
+     * @return the wikis to iterate, in alphabetical order
+     */
+    private List<String> getIteratedWikis()
+    {
+        List<String> wikis = new ArrayList<>(getWikis());
+        Collections.sort(wikis);
+        if (this.startWiki != null) {
+            // Skip the wikis located before the start document
+            wikis.removeIf(wikiId -> wikiId.compareTo(this.startWiki) < 0);
+        }
+
+        return wikis;
+    }
+
     /**
      * If the root entity is not specified then all the available wikis are returned. Otherwise only the wiki
      * corresponding to the root entity is returned.
@@ -0,0 +1,157 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.job;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.configuration.ConfigurationSaveException;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.model.reference.WikiReference;
+
+/**
+ * Store in the permanent directory the position reached by the indexing jobs of the full farm or of a full wiki, so
+ * that they can be resumed after a restart.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = IndexerCheckpointStore.class)
+@Singleton
+public class IndexerCheckpointStore
+{
+    private static final String PREFIX = "solr.indexer.job.checkpoint";
+
+    private static final String BEGINNING = "*";
+
+    private static final char SEPARATOR = ':';
+
+    /**
+     * The position reached by an indexing job.
+     *
+     * @param wiki the wiki of the last indexed document, {@code null} if no document has been indexed yet
+     * @param documentId the identifier of the last indexed document
+     * @version $Id$
+     */
+    public record IndexerCheckpoint(String wiki, long documentId)
+    {
+    }
+
+    @Inject
+    @Named("permanent")
+    private ConfigurationSource permanentConfiguration;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @param rootReference the wiki indexed by the job, {@code null} for the full farm
+     * @return the position reached by the job, {@code null} if the job was not interrupted
+     */
+    public synchronized IndexerCheckpoint get(WikiReference rootReference)
+    {
+        String value = this.permanentConfiguration.getProperty(getKey(rootReference), String.class);
+
+        if (StringUtils.isEmpty(value)) {
+            return null;
+        }
+
+        int index = value.lastIndexOf(SEPARATOR);
+        if (index < 0) {
+            return new IndexerCheckpoint(null, 0);
+        }
+
+        try {
+            return new IndexerCheckpoint(value.substring(0, index), Long.parseLong(value.substring(index + 1)));
+        } catch (NumberFormatException e) {
+            this.logger.warn("Ignoring invalid Solr indexer checkpoint [{}]", value);
+
+            return null;
+        }
+    }
+
+    /**
+     * Remember that the job started, but did not index any document yet.
+     *
+     * @param rootReference the wiki indexed by the job, {@code null} for the full farm
+     */
+    public void start(WikiReference rootReference)
+    {
+        setProperty(rootReference, BEGINNING);
+    }
+
+    /**
+     * @param rootReference the wiki indexed by the job, {@code null} for the full farm
+     * @param checkpoint the position reached by the job
+     */
+    public void set(WikiReference rootReference, IndexerCheckpoint checkpoint)
+    {
+        setProperty(rootReference, checkpoint.wiki() + SEPARATOR + checkpoint.documentId());
+    }
+
+    /**
+     * Forget the position of a job which completed.
+     *
+     * @param rootReference the wiki indexed by the job, {@code null} for the full farm
+     */
+    public void remove(WikiReference rootReference)
+    {
+        setProperty(rootReference, null);
+    }
+
+    /**
+     * @return the wikis indexed by the jobs which were interrupted, {@code null} standing for the full farm
+     */
+    public synchronized List<WikiReference> getInterrupted()
+    {
+        List<WikiReference> references = new ArrayList<>();
+        for (String key : this.permanentConfiguration.getKeys()) {
+            if (key.equals(PREFIX)) {
+                references.add(null);
+            } else if (key.startsWith(PREFIX + '.')) {
+                references.add(new WikiReference(key.substring(PREFIX.length() + 1)));
+            }
+        }
+
+        return references;
+    }
+
+    private synchronized void setProperty(WikiReference rootReference, String value)
+    {
+        try {
+            this.permanentConfiguration.setProperty(getKey(rootReference), value);
+        } catch (ConfigurationSaveException e) {
+            this.logger.warn("Failed to save the Solr indexer checkpoint for [{}]: {}", rootReference,
+                e.getMessage());
+        }
+    }
+
+    private String getKey(WikiReference rootReference)
+    {
+        return rootReference != null ? PREFIX + '.' + rootReference.getName() : PREFIX;
+    }
+}
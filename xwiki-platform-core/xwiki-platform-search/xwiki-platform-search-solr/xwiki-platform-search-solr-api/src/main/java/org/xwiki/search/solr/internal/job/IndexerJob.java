@@ -35,16 +35,20 @@
 import org.xwiki.job.DefaultJobStatus;
 import org.xwiki.job.GroupedJob;
 import org.xwiki.job.JobGroupPath;
+import org.xwiki.model.EntityType;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.search.solr.internal.api.FieldUtils;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.search.solr.internal.api.SolrIndexerException;
 import org.xwiki.search.solr.internal.api.SolrInstance;
 import org.xwiki.search.solr.internal.job.AbstractDocumentIterator.DocumentIteratorEntry;
 import org.xwiki.search.solr.internal.job.DiffDocumentIterator.Action;
+import org.xwiki.search.solr.internal.job.IndexerCheckpointStore.IndexerCheckpoint;
 import org.xwiki.search.solr.internal.reference.SolrReferenceResolver;
+import org.xwiki.store.ReadyIndicator;
 
 /**
  * Provide progress information and store logging of an advanced indexing.
@@ -69,6 +73,11 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
 
     private static final String AND = " AND ";
 
+    /**
+     * The number of documents sent to the indexer between two checkpoints of a full indexing.
+     */
+    private static final int CHECKPOINT_INTERVAL = 1000;
+
     /**
      * Used to send documents to index or delete to/from Solr index.
      */
@@ -95,6 +104,12 @@ public class IndexerJob extends AbstractJob<IndexerRequest, DefaultJobStatus<Ind
     @Inject
     private SolrReferenceResolver solrReferenceResolver;
 
+    @Inject
+    private IndexerCheckpointStore checkpointStore;
+
+    @Inject
+    private IndexerThrottle throttle;
+
     @Override
     public String getType()
     {
@@ -117,12 +132,76 @@ protected void runInternal() throws Exception
         if (getRequest().isOverwrite()) {
             EntityReference rootReference = getRequest().getRootReference();
             this.logger.info("Index documents in [{}].", rootReference);
-            this.indexer.index(rootReference, true);
+            if (rootReference == null || rootReference.getType() == EntityType.WIKI) {
+                indexDocuments(rootReference != null ? new WikiReference(rootReference) : null);
+            } else {
+                this.indexer.index(rootReference, true);
+            }
         } else {
             updateSolrIndex();
         }
     }
 
+    /**
+     * Send all the documents of the farm or of a wiki to the indexer, document by document, and remember the position
+     * reached so that the indexing can be resumed after a restart.
+     */
+    private void indexDocuments(WikiReference rootReference) throws Exception
+    {
+        this.databaseIterator.setRootReference(rootReference);
+
+        IndexerCheckpoint checkpoint = getRequest().isResume() ? this.checkpointStore.get(rootReference) : null;
+        // Only the database iterator knows how to start from a specific document.
+        if (checkpoint != null && checkpoint.wiki() != null
+            && this.databaseIterator instanceof DatabaseDocumentIterator resumableIterator) {
+            this.logger.info("Resume the indexing after document [{}] of wiki [{}].", checkpoint.documentId(),
+                checkpoint.wiki());
+            resumableIterator.setStart(checkpoint.wiki(), checkpoint.documentId());
+        } else {
+            this.checkpointStore.start(rootReference);
+        }
+
+        // When resuming, the size only includes the documents located after the start document.
+        this.progressManager.pushLevelProgress((int) this.databaseIterator.size(), this);
+
+        try {
+            long count = 0;
+            // The documents are only queued by the indexer, so the position of a document is saved only once all the
+            // entries queued before it have been processed.
+            ReadyIndicator pendingIndicator = null;
+            IndexerCheckpoint pendingCheckpoint = null;
+
+            while (this.databaseIterator.hasNext()) {
+                this.progressManager.startStep(this);
+
+                this.throttle.waitForCapacity();
+
+                Pair<DocumentReference, DocumentIteratorEntry> entry = this.databaseIterator.next();
+                this.indexer.index(entry.getKey(), true);
+
+                if (++count % CHECKPOINT_INTERVAL == 0) {
+                    if (pendingIndicator != null && pendingIndicator.isDone()) {
+                        this.checkpointStore.set(rootReference, pendingCheckpoint);
+                        pendingIndicator = null;
+                    }
+                    if (pendingIndicator == null) {
+                        pendingIndicator = this.indexer.waitReady();
+                        pendingCheckpoint =
+                            new IndexerCheckpoint(entry.getValue().getWiki().getName(), entry.getValue().getDocId());
+                    }
+                }
+
+                this.progressManager.endStep(this);
+            }
+
+            this.checkpointStore.remove(rootReference);
+
+            this.logger.info("[{}] documents sent to the indexer.", count);
+        } finally {
+            this.progressManager.popLevelProgress(this);
+        }
+    }
+
     /**
      * Update the Solr index to match the current state of the database.
      */
@@ -162,6 +241,8 @@ private void updateSolrIndex(int progressSize, DiffDocumentIterator iterator) th
 
                 Pair<DocumentReference, Action> entry = iterator.next();
                 if (entry.getValue() == Action.ADD || entry.getValue() == Action.UPDATE) {
+                    this.throttle.waitForCapacity();
+
                     // The database entry has not been indexed or the indexed version doesn't match the latest
                     // version
                     // from the database.
@@ -179,6 +260,8 @@ private void updateSolrIndex(int progressSize, DiffDocumentIterator iterator) th
                     // case.
                     && !this.documentAccessBridge.exists(entry.getKey()))
                 {
+                    this.throttle.waitForCapacity();
+
                     // The index entry doesn't exist anymore in the database.
                     this.indexer.delete(entry.getKey(), true);
                     counter[Action.DELETE.ordinal()]++;
@@ -19,11 +19,15 @@
  */
 package org.xwiki.search.solr.internal.job;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.xwiki.job.AbstractRequest;
 import org.xwiki.job.Request;
 import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.WikiReference;
 
 /**
  * The request used to configure {@link IndexerJob}.
@@ -58,6 +62,11 @@ public class IndexerRequest extends AbstractRequest
      */
     private boolean cleanInvalid;
 
+    /**
+     * @see #isResume()
+     */
+    private boolean resume;
+
     /**
      * The default constructor.
      */
@@ -73,6 +82,30 @@ public IndexerRequest(Request request)
         super(request);
     }
 
+    /**
+     * Create a request to send all the documents of a wiki or of the full farm to the indexer.
+     *
+     * @param wikiReference the wiki to index, {@code null} for the full farm
+     * @param resume see {@link #isResume()}
+     * @return the request
+     * @since 18.8.0RC1
+     */
+    public static IndexerRequest createOverwriteRequest(WikiReference wikiReference, boolean resume)
+    {
+        IndexerRequest request = new IndexerRequest();
+
+        List<String> id = new ArrayList<>(List.of("solr", "indexer", "overwrite"));
+        if (wikiReference != null) {
+            request.setRootReference(wikiReference);
+            id.add(wikiReference.getName());
+        }
+        request.setId(id);
+        request.setOverwrite(true);
+        request.setResume(resume);
+
+        return request;
+    }
+
     /**
      * @return the reference from which to work
      */
@@ -141,6 +174,28 @@ public void setCleanInvalid(boolean cleanInvalid)
         this.cleanInvalid = cleanInvalid;
     }
 
+    /**
+     * @return if true and {@link #isOverwrite()} is true, the indexing of the farm or of a wiki continues from the
+     *         position reached by the previous job which was interrupted (e.g. by a restart), if false all the
+     *         documents are indexed
+     * @since 18.8.0RC1
+     */
+    public boolean isResume()
+    {
+        return this.resume;
+    }
+
+    /**
+     * @param resume if true and {@link #isOverwrite()} is true, the indexing of the farm or of a wiki continues from
+     *            the position reached by the previous job which was interrupted (e.g. by a restart), if false all the
+     *            documents are indexed
+     * @since 18.8.0RC1
+     */
+    public void setResume(boolean resume)
+    {
+        this.resume = resume;
+    }
+
     @Override
     public boolean equals(Object o)
     {
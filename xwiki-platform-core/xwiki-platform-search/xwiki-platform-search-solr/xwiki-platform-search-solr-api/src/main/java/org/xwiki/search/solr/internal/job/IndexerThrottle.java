@@ -0,0 +1,132 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.job;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.search.solr.internal.api.SolrIndexer;
+
+import com.xpn.xwiki.internal.profile.RequestProfileStatistics;
+
+/**
+ * Limit the speed at which the indexing jobs send documents to the indexer, so that a full reindex does not compete at
+ * full speed with the user requests.
+ * <p>
+ * The limit is shared by all the indexing jobs. The jobs wait when the indexer queue is too big, when the recent
+ * requests are too slow, and when sending one more document would exceed the configured rate. The recent requests are
+ * the ones measured by {@link RequestProfileStatistics}, i.e. only the requests handled by the wiki actions.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = IndexerThrottle.class)
+@Singleton
+public class IndexerThrottle
+{
+    /**
+     * The time (in milliseconds) to wait before checking again the indexer queue and the recent requests.
+     */
+    private static final long PAUSE = 1000;
+
+    @Inject
+    private SolrConfiguration configuration;
+
+    /**
+     * Lazily get the indexer to not initialize it too early.
+     */
+    @Inject
+    private Provider<SolrIndexer> indexerProvider;
+
+    @Inject
+    private RequestProfileStatistics requestStatistics;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * The time (as returned by {@link System#nanoTime()}) from which the next document can be sent.
+     */
+    private long nextTime = System.nanoTime();
+
+    /**
+     * Wait until a new document can be sent to the indexer.
+     *
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void waitForCapacity() throws InterruptedException
+    {
+        waitForQueue();
+        waitForRequests();
+        waitForRate();
+    }
+
+    private void waitForQueue() throws InterruptedException
+    {
+        int maxQueueSize = this.configuration.getIndexerJobMaxQueueSize();
+        if (maxQueueSize > 0) {
+            SolrIndexer indexer = this.indexerProvider.get();
+            while (indexer.getQueueSize() > maxQueueSize) {
+                this.logger.debug("Waiting for the Solr indexer queue to go below [{}] entries", maxQueueSize);
+
+                Thread.sleep(PAUSE);
+            }
+        }
+    }
+
+    private void waitForRequests() throws InterruptedException
+    {
+        long maxRequestDuration = this.configuration.getIndexerJobMaxRequestDuration();
+        if (maxRequestDuration > 0) {
+            while (this.requestStatistics.getRecentRequestDuration() > maxRequestDuration) {
+                this.logger.debug("Waiting for the recent requests to take less than [{}] ms", maxRequestDuration);
+
+                Thread.sleep(PAUSE);
+            }
+        }
+    }
+
+    private void waitForRate() throws InterruptedException
+    {
+        int maxRate = this.configuration.getIndexerJobMaxRate();
+        if (maxRate > 0) {
+            long interval = TimeUnit.SECONDS.toNanos(1) / maxRate;
+
+            // Reserve the next slot
+            long delay;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = this.nextTime - now > 0 ? this.nextTime : now;
+                this.nextTime = slot + interval;
+                delay = slot - now;
+            }
+
+            if (delay > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+        }
+    }
+}
@@ -122,6 +122,12 @@ public abstract class AbstractSolrMetadataExtractor implements SolrMetadataExtra
     @Inject
     protected SolrLinkSerializer linkSerializer;
 
+    @Inject
+    private ViewRightsDomainResolver viewRightsDomainResolver;
+
+    @Inject
+    private AttachmentTextCache attachmentTextCache;
+
     private int shortTextLimit = -1;
 
     /**
@@ -265,6 +271,12 @@ protected boolean setDocumentFields(DocumentReference documentReference, SolrInp
         solrDocument.setField(FieldUtils.DOC_ID, new XWikiDocument(documentReference,
             documentReference.getLocale() != null ? documentReference.getLocale() : Locale.ROOT).getId());
 
+        // Set the field used to filter the search results based on the view right.
+        String viewRightsDomain = this.viewRightsDomainResolver.getDomain(documentReference);
+        if (viewRightsDomain != null) {
+            solrDocument.setField(FieldUtils.VIEW_RIGHTS_DOMAIN, viewRightsDomain);
+        }
+
         return true;
     }
 
@@ -514,6 +526,21 @@ protected void addFieldValueOnce(XWikiSolrInputDocument solrDocument, String fie
      * @return the text representation of the attachment's content
      */
     protected String getContentAsText(XWikiAttachment attachment)
+    {
+        String text = this.attachmentTextCache.get(attachment);
+
+        if (text == null) {
+            text = extractContentAsText(attachment);
+
+            if (text != null) {
+                this.attachmentTextCache.set(attachment, text);
+            }
+        }
+
+        return text;
+    }
+
+    private String extractContentAsText(XWikiAttachment attachment)
     {
         try {
             Metadata metadata = new Metadata();
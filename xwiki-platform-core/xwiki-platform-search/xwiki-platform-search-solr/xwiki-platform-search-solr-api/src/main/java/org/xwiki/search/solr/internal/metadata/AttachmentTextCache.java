@@ -0,0 +1,277 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.metadata;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.component.phase.Initializable;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.AttachmentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+
+/**
+ * Stores in the permanent directory the text extracted from the attachments, so that reindexing an attachment whose
+ * content did not change (e.g. after an unrelated modification of its document or during a full reindex) does not
+ * extract it again.
+ * <p>
+ * There is one file per attachment, in one directory per wiki. The first line of the file is a fingerprint of the
+ * attachment content (version, date and size): a stored text is only returned when its fingerprint still matches. The
+ * least recently used files are removed when the total size of the cache exceeds
+ * {@link SolrConfiguration#getAttachmentTextCacheMaxSize()}, and the files of deleted attachments, documents and wikis
+ * are removed by {@link org.xwiki.search.solr.internal.SolrIndexEventListener}.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = AttachmentTextCache.class)
+@Singleton
+public class AttachmentTextCache implements Initializable
+{
+    private static final String CACHE_DIRECTORY = "cache/solr/attachments";
+
+    private static final String FILE_EXTENSION = "txt";
+
+    private static final char FINGERPRINT_SEPARATOR = '\n';
+
+    /**
+     * The ratio of the maximum size to which the cache is reduced when the maximum size is exceeded, to avoid removing
+     * files on each new entry.
+     */
+    private static final double EVICTION_RATIO = 0.9;
+
+    @Inject
+    private Environment environment;
+
+    @Inject
+    private SolrConfiguration configuration;
+
+    @Inject
+    private EntityReferenceSerializer<String> serializer;
+
+    @Inject
+    private Logger logger;
+
+    private File cacheDirectory;
+
+    /**
+     * The total size of the files of the cache, -1 until it's computed.
+     */
+    private long size = -1;
+
+    @Override
+    public void initialize()
+    {
+        this.cacheDirectory = new File(this.environment.getPermanentDirectory(), CACHE_DIRECTORY);
+    }
+
+    /**
+     * Get the text previously extracted from an attachment.
+     *
+     * @param attachment the attachment
+     * @return the stored text or {@code null} if there is none or if the content of the attachment changed since
+     */
+    public String get(XWikiAttachment attachment)
+    {
+        String fingerprint = getFingerprint(attachment);
+        if (fingerprint == null || this.configuration.getAttachmentTextCacheMaxSize() <= 0) {
+            return null;
+        }
+
+        File file = getFile(attachment.getReference());
+        if (file.exists()) {
+            try {
+                String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+                int index = content.indexOf(FINGERPRINT_SEPARATOR);
+                if (index > 0 && content.substring(0, index).equals(fingerprint)) {
+                    // Remember that the entry has been used recently.
+                    file.setLastModified(System.currentTimeMillis());
+
+                    return content.substring(index + 1);
+                }
+            } catch (IOException e) {
+                this.logger.warn("Failed to read the stored text of the attachment [{}]: [{}]",
+                    attachment.getReference(), ExceptionUtils.getRootCauseMessage(e));
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Store the text extracted from an attachment.
+     *
+     * @param attachment the attachment
+     * @param text the text extracted from the content of the attachment
+     */
+    public void set(XWikiAttachment attachment, String text)
+    {
+        String fingerprint = getFingerprint(attachment);
+        long maxSize = this.configuration.getAttachmentTextCacheMaxSize();
+        if (fingerprint == null || maxSize <= 0) {
+            return;
+        }
+
+        byte[] content = (fingerprint + FINGERPRINT_SEPARATOR + text).getBytes(StandardCharsets.UTF_8);
+        if (content.length > maxSize) {
+            return;
+        }
+
+        File file = getFile(attachment.getReference());
+        try {
+            // Write a temporary file first so that a concurrent reader never sees a partially written text.
+            Files.createDirectories(file.getParentFile().toPath());
+            File temporaryFile = File.createTempFile(file.getName(), null, file.getParentFile());
+            try {
+                FileUtils.writeByteArrayToFile(temporaryFile, content);
+                long previousLength = file.length();
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+
+                updateSize(content.length - previousLength, maxSize);
+            } finally {
+                Files.deleteIfExists(temporaryFile.toPath());
+            }
+        } catch (IOException e) {
+            this.logger.warn("Failed to store the text of the attachment [{}]: [{}]", attachment.getReference(),
+                ExceptionUtils.getRootCauseMessage(e));
+        }
+    }
+
+    /**
+     * Remove the text extracted from an attachment, e.g. when the attachment is deleted.
+     *
+     * @param reference the reference of the attachment
+     */
+    public void remove(AttachmentReference reference)
+    {
+        File file = getFile(reference);
+        long length = file.length();
+        if (file.delete()) {
+            decreaseSize(length);
+        }
+    }
+
+    /**
+     * Remove the texts extracted from the attachments of a wiki, e.g. when the wiki is deleted.
+     *
+     * @param wikiReference the reference of the wiki
+     */
+    public void remove(WikiReference wikiReference)
+    {
+        File wikiDirectory = getWikiDirectory(wikiReference);
+        if (wikiDirectory.exists()) {
+            try {
+                FileUtils.deleteDirectory(wikiDirectory);
+            } catch (IOException e) {
+                this.logger.warn("Failed to remove the stored texts of the attachments of wiki [{}]: [{}]",
+                    wikiReference.getName(), ExceptionUtils.getRootCauseMessage(e));
+            }
+
+            // Compute the size again on the next storage.
+            synchronized (this) {
+                this.size = -1;
+            }
+        }
+    }
+
+    private synchronized void decreaseSize(long length)
+    {
+        if (this.size >= 0) {
+            this.size -= length;
+        }
+    }
+
+    private synchronized void updateSize(long delta, long maxSize)
+    {
+        if (this.size < 0) {
+            this.size = 0;
+            for (File file : listFiles()) {
+                this.size += file.length();
+            }
+        } else {
+            this.size += delta;
+        }
+
+        if (this.size > maxSize) {
+            // Remove the least recently used files.
+            List<File> files = listFiles();
+            files.sort(Comparator.comparingLong(File::lastModified));
+            for (int i = 0; i < files.size() && this.size > maxSize * EVICTION_RATIO; i++) {
+                long length = files.get(i).length();
+                if (files.get(i).delete()) {
+                    this.size -= length;
+                }
+            }
+        }
+    }
+
+    private List<File> listFiles()
+    {
+        if (!this.cacheDirectory.isDirectory()) {
+            return new ArrayList<>();
+        }
+
+        return new ArrayList<>(FileUtils.listFiles(this.cacheDirectory, new String[] {FILE_EXTENSION}, true));
+    }
+
+    private File getWikiDirectory(WikiReference wikiReference)
+    {
+        return new File(this.cacheDirectory, URLEncoder.encode(wikiReference.getName(), StandardCharsets.UTF_8));
+    }
+
+    private File getFile(AttachmentReference reference)
+    {
+        return new File(getWikiDirectory(reference.getDocumentReference().getWikiReference()),
+            DigestUtils.sha256Hex(this.serializer.serialize(reference)) + '.' + FILE_EXTENSION);
+    }
+
+    private String getFingerprint(XWikiAttachment attachment)
+    {
+        String version = attachment.getVersion();
+        Date date = attachment.getDate();
+        if (version == null || date == null) {
+            // Not enough information to make sure the content did not change.
+            return null;
+        }
+
+        return version + ':' + date.getTime() + ':' + attachment.getLongSize();
+    }
+}
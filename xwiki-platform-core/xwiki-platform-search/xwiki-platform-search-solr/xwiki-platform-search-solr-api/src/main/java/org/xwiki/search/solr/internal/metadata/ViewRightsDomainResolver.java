@@ -0,0 +1,158 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.metadata;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.inject.Inject;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.EntityType;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.SecurityReferenceFactory;
+import org.xwiki.security.authorization.AuthorizationException;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.security.authorization.SecurityEntryReader;
+import org.xwiki.security.authorization.SecurityRule;
+import org.xwiki.security.authorization.SecurityRuleEntry;
+import org.xwiki.security.authorization.cache.SecurityCache;
+
+/**
+ * Compute the view rights domain of the indexed entities.
+ * <p>
+ * The view rights domain of a document is the closest entity, starting from the document itself and going up to the
+ * wiki, holding security rules which affect the {@link Right#VIEW view right}. Since no entity between the document and
+ * its domain holds such a rule, a user can view the document if and only if they can view its domain. This allows to
+ * filter the search results inside the Solr query by checking the view right only once per domain, instead of once per
+ * result.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = ViewRightsDomainResolver.class)
+@Singleton
+public class ViewRightsDomainResolver
+{
+    private static final char TYPE_SEPARATOR = ':';
+
+    @Inject
+    private SecurityReferenceFactory securityReferenceFactory;
+
+    @Inject
+    private SecurityCache securityCache;
+
+    @Inject
+    private SecurityEntryReader securityEntryReader;
+
+    @Inject
+    @Named("withparameters")
+    private EntityReferenceSerializer<String> parametersSerializer;
+
+    @Inject
+    private Logger logger;
+
+    /**
+     * @param documentReference the reference of the document
+     * @return the serialized view rights domain of the document, or {@code null} if it cannot be computed
+     */
+    public String getDomain(DocumentReference documentReference)
+    {
+        EntityReference domain = null;
+        try {
+            Set<Right> rights = getViewRights();
+            SecurityReference securityReference =
+                this.securityReferenceFactory.newEntityReference(documentReference.withoutLocale());
+            for (SecurityReference entity = securityReference; entity != null && domain == null;
+                entity = entity.getParentSecurityReference()) {
+                // The wiki is the last possible domain: the farm rules apply the same way to all its entities.
+                if (entity.getType() == EntityType.WIKI || hasRules(entity, rights)) {
+                    domain = entity.getOriginalReference();
+                }
+            }
+        } catch (AuthorizationException e) {
+            this.logger.warn("Failed to compute the view rights domain of document [{}]. Root cause is [{}].",
+                documentReference, ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+
+        return domain != null ? serialize(domain) : null;
+    }
+
+    /**
+     * @param right the right to check
+     * @return {@code true} if a rule on the given right affects the view right
+     */
+    public boolean isViewRight(Right right)
+    {
+        return getViewRights().contains(right);
+    }
+
+    private String serialize(EntityReference entityReference)
+    {
+        // Same format as the reference field.
+        return entityReference.getType().getLowerCase() + TYPE_SEPARATOR
+            + this.parametersSerializer.serialize(entityReference);
+    }
+
+    private boolean hasRules(SecurityReference entity, Set<Right> rights) throws AuthorizationException
+    {
+        SecurityRuleEntry entry = this.securityCache.get(entity);
+        if (entry == null) {
+            entry = this.securityEntryReader.read(entity);
+        }
+
+        if (entry != null && !entry.isEmpty()) {
+            for (SecurityRule rule : entry.getRules()) {
+                for (Right right : rights) {
+                    if (rule.match(right)) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private Set<Right> getViewRights()
+    {
+        // The rights implying the view right (e.g. admin and programming) are affecting it too. The list is computed
+        // each time since new rights can be registered at runtime.
+        Set<Right> rights = new HashSet<>();
+        rights.add(Right.VIEW);
+        for (Right right : Right.values()) {
+            Set<Right> impliedRights = right.getImpliedRights();
+            if (impliedRights != null && impliedRights.contains(Right.VIEW)) {
+                rights.add(right);
+            }
+        }
+
+        return rights;
+    }
+}
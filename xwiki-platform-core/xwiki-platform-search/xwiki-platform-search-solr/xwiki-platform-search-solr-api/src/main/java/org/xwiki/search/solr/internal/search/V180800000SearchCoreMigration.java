@@ -0,0 +1,61 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.search;
+
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.xwiki.component.annotation.Component;
+import org.xwiki.search.solr.SolrException;
+import org.xwiki.search.solr.XWikiSolrCore;
+import org.xwiki.search.solr.internal.api.FieldUtils;
+
+/**
+ * Add fields introduced in XWiki 18.8.0:
+ * <ul>
+ * <li>{@code view_rights_domain}.</li>
+ * </ul>
+ * 
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component
+@Named("180800000")
+@Singleton
+public class V180800000SearchCoreMigration extends AbstractSearchCoreMigration
+{
+    @Override
+    public long getVersion()
+    {
+        return 180800000;
+    }
+
+    @Override
+    public void migrate(XWikiSolrCore core) throws SolrException
+    {
+        if (this.solrSchema.getFields(core, false).get(FieldUtils.VIEW_RIGHTS_DOMAIN) == null) {
+            // Add the view_rights_domain field to the schema
+            this.solrSchema.setStringField(core, FieldUtils.VIEW_RIGHTS_DOMAIN, false, false);
+        }
+
+        // The documents indexed before this migration don't have a view rights domain: they are never excluded by the
+        // view rights filter query and are still filtered after the search, until they are indexed again.
+    }
+}
@@ -36,9 +36,12 @@
 import org.xwiki.model.reference.DocumentReferenceResolver;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.script.service.ScriptService;
 import org.xwiki.search.solr.internal.api.FieldUtils;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.api.SolrIndexerException;
+import org.xwiki.search.solr.internal.job.IndexerRequest;
 import org.xwiki.security.authorization.AccessDeniedException;
 import org.xwiki.security.authorization.AuthorizationManager;
 import org.xwiki.security.authorization.ContextualAuthorizationManager;
@@ -116,7 +119,7 @@ public void index(EntityReference reference)
         try {
             checkAccessToWikiIndex(reference);
 
-            this.solrIndexer.index(reference, true);
+            indexInternal(reference);
         } catch (Exception e) {
             error(e);
         }
@@ -137,7 +140,7 @@ public void index(List<EntityReference> references)
             checkAccessToWikiIndex(references);
 
             for (EntityReference reference : references) {
-                this.solrIndexer.index(reference, true);
+                indexInternal(reference);
             }
         } catch (Exception e) {
             error(e);
@@ -249,6 +252,24 @@ public EntityReference resolve(SolrDocument document, EntityType type, Object...
         return this.solrEntityReferenceResolver.resolve(document, type, parameters);
     }
 
+    /**
+     * Index the given entity, using a resumable throttled indexing job when the whole farm or a whole wiki is
+     * targeted.
+     * 
+     * @param reference the entity to index, {@code null} for the whole farm
+     * @throws SolrIndexerException when failing to start the indexing
+     */
+    private void indexInternal(EntityReference reference) throws SolrIndexerException
+    {
+        if (reference == null || reference.getType() == EntityType.WIKI) {
+            // Use a throttled job which can be resumed if interrupted for the big reindexes.
+            WikiReference wikiReference = reference != null ? new WikiReference(reference) : null;
+            this.solrIndexer.startIndex(IndexerRequest.createOverwriteRequest(wikiReference, false));
+        } else {
+            this.solrIndexer.index(reference, true);
+        }
+    }
+
     /**
      * Log exception and store the exception in the context.
      * 
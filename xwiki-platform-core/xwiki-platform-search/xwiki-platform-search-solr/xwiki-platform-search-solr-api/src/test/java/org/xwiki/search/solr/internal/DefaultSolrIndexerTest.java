@@ -0,0 +1,258 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.xwiki.bridge.internal.DocumentContextExecutor;
+import org.xwiki.context.ExecutionContext;
+import org.xwiki.context.ExecutionContextManager;
+import org.xwiki.model.internal.reference.EntityReferenceFactory;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.search.solr.internal.metadata.SolrMetadataExtractor;
+import org.xwiki.search.solr.internal.metadata.XWikiSolrInputDocument;
+import org.xwiki.search.solr.internal.reference.SolrReferenceResolver;
+import org.xwiki.test.annotation.BeforeComponent;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.XWiki;
+import com.xpn.xwiki.XWikiContext;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Validate the queue management of {@link DefaultSolrIndexer}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class DefaultSolrIndexerTest
+{
+    private static final long TIMEOUT = 10;
+
+    private static final long LONG_DEBOUNCE_DELAY = 3600000;
+
+    private static final DocumentReference BLOCKING_REFERENCE = new DocumentReference("wiki", "Space", "Blocking");
+
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    @MockComponent
+    private SolrConfiguration configuration;
+
+    @MockComponent
+    private EntityReferenceFactory entityReferenceFactory;
+
+    @MockComponent
+    private ExecutionContextManager ecim;
+
+    @MockComponent
+    private Provider<XWikiContext> xcontextProvider;
+
+    @MockComponent
+    private DocumentContextExecutor documentContextExecutor;
+
+    @MockComponent
+    private SolrReferenceResolver solrReferenceResolver;
+
+    @MockComponent
+    @Named("document")
+    private SolrMetadataExtractor documentExtractor;
+
+    @InjectMockComponents
+    private DefaultSolrIndexer indexer;
+
+    private final CountDownLatch blockingStarted = new CountDownLatch(1);
+
+    private final CountDownLatch blockingReleased = new CountDownLatch(1);
+
+    @BeforeComponent
+    void beforeComponent() throws Exception
+    {
+        when(this.configuration.getIndexerQueueCapacity()).thenReturn(100);
+        when(this.configuration.getIndexerBatchSize()).thenReturn(50);
+        when(this.configuration.getIndexerBatchMaxLengh()).thenReturn(10000);
+
+        when(this.entityReferenceFactory.getReference(any())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        XWikiContext xcontext = mock();
+        XWiki xwiki = mock();
+        when(xcontext.getWiki()).thenReturn(xwiki);
+        when(this.xcontextProvider.get()).thenReturn(xcontext);
+        doAnswer(invocation -> {
+            invocation.<ExecutionContext>getArgument(0).setProperty(XWikiContext.EXECUTIONCONTEXT_KEY, xcontext);
+            return null;
+        }).when(this.ecim).initialize(any());
+        when(this.documentContextExecutor.call(any(), any()))
+            .thenAnswer(invocation -> invocation.<Callable<?>>getArgument(0).call());
+
+        when(this.documentExtractor.getSolrDocument(any())).thenAnswer(invocation -> new XWikiSolrInputDocument());
+        when(this.documentExtractor.getSolrDocument(BLOCKING_REFERENCE)).thenAnswer(invocation -> {
+            this.blockingStarted.countDown();
+            this.blockingReleased.await(TIMEOUT, TimeUnit.SECONDS);
+            return new XWikiSolrInputDocument();
+        });
+        when(this.solrReferenceResolver.getId(DOCUMENT_REFERENCE)).thenReturn("wiki:Space.Page");
+    }
+
+    @AfterEach
+    void afterEach() throws Exception
+    {
+        this.blockingReleased.countDown();
+        this.indexer.dispose();
+    }
+
+    /**
+     * Block the index thread until {@link #blockingReleased} is released so that the next requests stay in the queue.
+     */
+    private void blockIndexThread() throws Exception
+    {
+        this.indexer.index(BLOCKING_REFERENCE, false);
+        assertTrue(this.blockingStarted.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    private void waitReady() throws Exception
+    {
+        this.indexer.waitReady().get(TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws Exception
+    {
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < timeout, "Timeout while waiting for the indexer");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Index the document twice so that its second indexing is postponed.
+     */
+    private void postponeIndex() throws Exception
+    {
+        when(this.configuration.getIndexerDebounceDelay()).thenReturn(LONG_DEBOUNCE_DELAY);
+
+        this.indexer.index(DOCUMENT_REFERENCE, false);
+        waitReady();
+        this.indexer.index(DOCUMENT_REFERENCE, false);
+
+        Map<?, ?> postponedReferences = (Map<?, ?>) FieldUtils.readField(this.indexer, "postponedReferences", true);
+        waitUntil(() -> !postponedReferences.isEmpty());
+    }
+
+    @Test
+    void mergeRepeatedIndexRequests() throws Exception
+    {
+        blockIndexThread();
+
+        this.indexer.index(DOCUMENT_REFERENCE, false);
+        this.indexer.index(DOCUMENT_REFERENCE, false);
+        this.indexer.index(DOCUMENT_REFERENCE, false);
+
+        // Only one indexing of the document is waiting in the queue.
+        waitUntil(() -> this.indexer.getQueueSize() == 1);
+
+        this.blockingReleased.countDown();
+        waitReady();
+
+        verify(this.documentExtractor).getSolrDocument(DOCUMENT_REFERENCE);
+    }
+
+    @Test
+    void waitReadyReleasesPostponedIndex() throws Exception
+    {
+        postponeIndex();
+
+        // The postponed indexing is performed before the indexer is ready, without waiting for the debounce delay.
+        waitReady();
+
+        verify(this.documentExtractor, times(2)).getSolrDocument(DOCUMENT_REFERENCE);
+    }
+
+    @Test
+    void deleteReleasesPostponedIndex() throws Exception
+    {
+        postponeIndex();
+
+        this.indexer.delete(DOCUMENT_REFERENCE, false);
+        waitReady();
+
+        // The postponed indexing is performed before the deletion.
+        InOrder inOrder = inOrder(this.documentExtractor, this.solrReferenceResolver);
+        inOrder.verify(this.documentExtractor, times(2)).getSolrDocument(DOCUMENT_REFERENCE);
+        inOrder.verify(this.solrReferenceResolver).getId(DOCUMENT_REFERENCE);
+    }
+
+    @Test
+    void indexRequestsAreNotMergedAcrossDelete() throws Exception
+    {
+        blockIndexThread();
+
+        this.indexer.index(DOCUMENT_REFERENCE, false);
+        this.indexer.delete(DOCUMENT_REFERENCE, false);
+        this.indexer.index(DOCUMENT_REFERENCE, false);
+
+        this.blockingReleased.countDown();
+        waitReady();
+
+        InOrder inOrder = inOrder(this.documentExtractor, this.solrReferenceResolver);
+        inOrder.verify(this.documentExtractor).getSolrDocument(DOCUMENT_REFERENCE);
+        inOrder.verify(this.solrReferenceResolver).getId(DOCUMENT_REFERENCE);
+        inOrder.verify(this.documentExtractor).getSolrDocument(DOCUMENT_REFERENCE);
+    }
+
+    @Test
+    void getQueueSizeCountsPostponedIndex() throws Exception
+    {
+        postponeIndex();
+
+        waitUntil(() -> this.indexer.getQueueSize() == 1);
+
+        waitReady();
+
+        assertEquals(0, this.indexer.getQueueSize());
+    }
+}
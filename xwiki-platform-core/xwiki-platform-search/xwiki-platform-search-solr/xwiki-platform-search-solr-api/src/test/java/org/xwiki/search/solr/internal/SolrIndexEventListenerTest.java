@@ -28,17 +28,22 @@
 import org.xwiki.bridge.event.DocumentCreatedEvent;
 import org.xwiki.bridge.event.DocumentDeletedEvent;
 import org.xwiki.bridge.event.DocumentUpdatedEvent;
+import org.xwiki.bridge.event.WikiDeletedEvent;
 import org.xwiki.mail.GeneralMailConfigurationUpdatedEvent;
+import org.xwiki.model.reference.AttachmentReference;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.WikiReference;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
+import org.xwiki.search.solr.internal.metadata.AttachmentTextCache;
 import org.xwiki.test.junit5.mockito.ComponentTest;
 import org.xwiki.test.junit5.mockito.InjectMockComponents;
 import org.xwiki.test.junit5.mockito.MockComponent;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.doc.XWikiAttachment;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.event.AttachmentDeletedEvent;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -60,6 +65,9 @@
     @MockComponent
     private SolrIndexer indexer;
 
+    @MockComponent
+    private AttachmentTextCache attachmentTextCache;
+
     @Test
     void onDocumentDeleted()
     {
@@ -68,10 +76,15 @@ void onDocumentDeleted()
         when(document.getOriginalDocument()).thenReturn(document);
         when(document.getDocumentReferenceWithLocale()).thenReturn(documentReference);
         when(document.getRealLocale()).thenReturn(Locale.FRENCH);
+        XWikiAttachment attachment = mock(XWikiAttachment.class);
+        AttachmentReference attachmentReference = new AttachmentReference("file.pdf", documentReference);
+        when(attachment.getReference()).thenReturn(attachmentReference);
+        when(document.getAttachmentList()).thenReturn(List.of(attachment));
 
         this.listener.onEvent(new DocumentDeletedEvent(), document, null);
 
         verify(this.indexer).delete(documentReference, false);
+        verify(this.attachmentTextCache).remove(attachmentReference);
 
         documentReference = new DocumentReference("aWiki", "aSpace", "aPage", Locale.GERMAN);
         when(document.getDocumentReferenceWithLocale()).thenReturn(documentReference);
@@ -148,4 +161,30 @@ void onGeneralMailConfigurationUpdatedEvent()
         this.listener.onEvent(new GeneralMailConfigurationUpdatedEvent(otherWiki), otherWiki, null);
         verify(this.indexer).index(new WikiReference(otherWiki), true);
     }
+
+    @Test
+    void onAttachmentDeleted()
+    {
+        DocumentReference documentReference = new DocumentReference("wiki", "Space", "Page");
+        XWikiDocument document = mock(XWikiDocument.class);
+        when(document.getOriginalDocument()).thenReturn(document);
+        XWikiAttachment attachment = mock(XWikiAttachment.class);
+        AttachmentReference attachmentReference = new AttachmentReference("file.pdf", documentReference);
+        when(attachment.getReference()).thenReturn(attachmentReference);
+        when(document.getAttachment("file.pdf")).thenReturn(attachment);
+
+        this.listener.onEvent(new AttachmentDeletedEvent(documentReference.toString(), "file.pdf"), document, null);
+
+        verify(this.indexer).delete(attachmentReference, false);
+        verify(this.attachmentTextCache).remove(attachmentReference);
+    }
+
+    @Test
+    void onWikiDeleted()
+    {
+        this.listener.onEvent(new WikiDeletedEvent("wiki"), "wiki", null);
+
+        verify(this.indexer).delete(new WikiReference("wiki"), false);
+        verify(this.attachmentTextCache).remove(new WikiReference("wiki"));
+    }
 }
@@ -56,6 +56,7 @@
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -193,6 +194,61 @@ void iterateAllWikis() throws Exception
         assertEquals(expectedResults, actualResults);
     }
 
+    @Test
+    void iterateFromStart() throws Exception
+    {
+        int batchSize = 83;
+        when(this.configuration.getSynchronizationBatchSize()).thenReturn(batchSize);
+        Query emptyQuery = mock(Query.class);
+        when(emptyQuery.execute()).thenReturn(List.of());
+
+        Query tennisQuery = mock(Query.class);
+        when(tennisQuery.setOffset(0)).thenReturn(tennisQuery);
+        when(tennisQuery.setOffset(batchSize)).thenReturn(emptyQuery);
+        when(tennisQuery.execute())
+            .thenReturn(Collections.singletonList(new Object[] { "XWiki.Syntax", "Links", "fr", "1.3", 2L }));
+
+        DocumentReference tennisXWikiSyntaxLinks =
+            createDocumentReference("tennis", List.of("XWiki", "Syntax"), "Links", Locale.FRENCH);
+
+        Query startQuery = mock(Query.class);
+        when(startQuery.setLimit(anyInt())).thenReturn(startQuery);
+        when(startQuery.getNamedParameters()).thenReturn(Map.of("startDocumentId", 1L));
+        when(startQuery.setWiki("tennis")).thenReturn(tennisQuery);
+
+        Query tennisCountQuery = mock(Query.class);
+        when(tennisCountQuery.execute()).thenReturn(List.of(1L));
+
+        Query startCountQuery = mock(Query.class);
+        when(startCountQuery.addFilter(this.countQueryFilter)).thenReturn(startCountQuery);
+        when(startCountQuery.setWiki("tennis")).thenReturn(tennisCountQuery);
+
+        when(this.queryManager.createQuery(
+            "select doc.space, doc.name, doc.language, doc.version, doc.id from XWikiDocument doc"
+                + " where doc.id > :startDocumentId" + ORDER_CLAUSE,
+            Query.HQL)).thenReturn(startQuery);
+        when(this.queryManager.createQuery(" where doc.id > :startDocumentId", Query.HQL)).thenReturn(startCountQuery);
+
+        this.databaseIterator.setStart("tennis", 1);
+        DocumentIterator<DocumentIteratorEntry> iterator = this.databaseIterator;
+
+        // Only the documents located after the start document are counted.
+        assertEquals(1L, iterator.size());
+
+        List<Pair<DocumentReference, DocumentIteratorEntry>> actualResults = new ArrayList<>();
+        while (iterator.hasNext()) {
+            actualResults.add(iterator.next());
+        }
+
+        // The documents of the wiki "chess" are located before the start document.
+        assertEquals(List.of(entry(tennisXWikiSyntaxLinks, 2, "1.3")), actualResults);
+
+        verify(startQuery).bindValue("startDocumentId", 1L);
+        verify(startQuery, never()).setWiki("chess");
+        verify(startCountQuery).bindValue("startDocumentId", 1L);
+        verify(startCountQuery, never()).setWiki("chess");
+    }
+
     @Test
     void iterateOneWiki() throws Exception
     {
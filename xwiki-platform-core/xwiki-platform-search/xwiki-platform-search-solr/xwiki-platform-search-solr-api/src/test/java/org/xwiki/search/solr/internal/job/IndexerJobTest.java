@@ -32,12 +32,15 @@
 import org.junit.jupiter.params.provider.ValueSource;
 import org.xwiki.bridge.DocumentAccessBridge;
 import org.xwiki.job.JobGroupPath;
+import org.xwiki.job.event.status.JobProgressManager;
 import org.xwiki.model.reference.DocumentReference;
 import org.xwiki.model.reference.EntityReference;
 import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
 import org.xwiki.search.solr.internal.api.SolrIndexer;
 import org.xwiki.search.solr.internal.api.SolrInstance;
 import org.xwiki.search.solr.internal.job.AbstractDocumentIterator.DocumentIteratorEntry;
+import org.xwiki.search.solr.internal.job.IndexerCheckpointStore.IndexerCheckpoint;
 import org.xwiki.test.LogLevel;
 import org.xwiki.test.junit5.LogCaptureExtension;
 import org.xwiki.test.junit5.mockito.ComponentTest;
@@ -45,6 +48,10 @@
 import org.xwiki.test.junit5.mockito.MockComponent;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
@@ -81,7 +88,7 @@
     @MockComponent
     private SolrIndexer mockIndexer;
 
-    @MockComponent
+    @MockComponent(classToMock = DatabaseDocumentIterator.class)
     @Named("database")
     private DocumentIterator<DocumentIteratorEntry> mockDatabaseIterator;
 
@@ -98,6 +105,15 @@
     @MockComponent
     private SolrInstance mockSolrInstance;
 
+    @MockComponent
+    private IndexerCheckpointStore mockCheckpointStore;
+
+    @MockComponent
+    private IndexerThrottle mockThrottle;
+
+    @MockComponent
+    private JobProgressManager mockProgressManager;
+
     @InjectMockComponents
     private IndexerJob indexerJob;
 
@@ -125,6 +141,52 @@ void runInternalOverwrite() throws Exception
         assertEquals(DOCUMENT_ONE, this.logCapture.getLogEvent(0).getArgumentArray()[0]);
     }
 
+    @Test
+    void runInternalOverwriteWiki() throws Exception
+    {
+        WikiReference wikiReference = DOCUMENT_ONE.getWikiReference();
+        this.request.setOverwrite(true);
+        this.request.setRootReference(wikiReference);
+        mockIterator(this.mockDatabaseIterator, Pair.of(DOCUMENT_ONE, ENTRY_ONE), Pair.of(DOCUMENT_TWO, ENTRY_TWO));
+
+        this.indexerJob.runInternal();
+
+        verify(this.mockDatabaseIterator).setRootReference(wikiReference);
+        verify(this.mockCheckpointStore).start(wikiReference);
+        verify(this.mockThrottle, times(2)).waitForCapacity();
+        verify(this.mockIndexer).index(DOCUMENT_ONE, true);
+        verify(this.mockIndexer).index(DOCUMENT_TWO, true);
+        verify(this.mockCheckpointStore).remove(wikiReference);
+        verify((DatabaseDocumentIterator) this.mockDatabaseIterator, never()).setStart(any(), anyLong());
+
+        assertEquals("Index documents in [{}].", this.logCapture.getLogEvent(0).getMessage());
+        assertEquals("[2] documents sent to the indexer.", this.logCapture.getLogEvent(1).getFormattedMessage());
+    }
+
+    @Test
+    void runInternalOverwriteFarmResume() throws Exception
+    {
+        this.request.setOverwrite(true);
+        this.request.setResume(true);
+        when(this.mockCheckpointStore.get(null)).thenReturn(new IndexerCheckpoint(WIKI, 42));
+        mockIterator(this.mockDatabaseIterator, Pair.of(DOCUMENT_TWO, ENTRY_TWO));
+        when(this.mockDatabaseIterator.size()).thenReturn(1L);
+
+        this.indexerJob.runInternal();
+
+        verify((DatabaseDocumentIterator) this.mockDatabaseIterator).setStart(WIKI, 42);
+        // The progress only covers the documents located after the start document.
+        verify(this.mockProgressManager).pushLevelProgress(1, this.indexerJob);
+        verify(this.mockCheckpointStore, never()).start(any());
+        verify(this.mockIndexer).index(DOCUMENT_TWO, true);
+        verify(this.mockCheckpointStore).remove(null);
+
+        assertEquals("Index documents in [{}].", this.logCapture.getLogEvent(0).getMessage());
+        assertEquals("Resume the indexing after document [42] of wiki [wiki].",
+            this.logCapture.getLogEvent(1).getFormattedMessage());
+        assertEquals("[1] documents sent to the indexer.", this.logCapture.getLogEvent(2).getFormattedMessage());
+    }
+
     @Test
     void runInternalUpdateSolrIndexNoChanges() throws Exception
     {
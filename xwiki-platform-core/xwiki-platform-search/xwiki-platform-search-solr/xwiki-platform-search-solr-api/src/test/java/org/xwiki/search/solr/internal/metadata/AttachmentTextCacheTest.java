@@ -0,0 +1,191 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.metadata;
+
+import java.io.File;
+import java.util.Date;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.xwiki.environment.Environment;
+import org.xwiki.model.reference.AttachmentReference;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.test.junit5.XWikiTempDir;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import com.xpn.xwiki.doc.XWikiAttachment;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for {@link AttachmentTextCache}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class AttachmentTextCacheTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE = new DocumentReference("wiki", "Space", "Page");
+
+    @InjectMockComponents
+    private AttachmentTextCache cache;
+
+    @MockComponent
+    private Environment environment;
+
+    @MockComponent
+    private SolrConfiguration configuration;
+
+    @MockComponent
+    private EntityReferenceSerializer<String> serializer;
+
+    @XWikiTempDir
+    private File permanentDirectory;
+
+    @Mock
+    private XWikiAttachment attachment;
+
+    @BeforeEach
+    void setUp()
+    {
+        when(this.environment.getPermanentDirectory()).thenReturn(this.permanentDirectory);
+        this.cache.initialize();
+
+        when(this.configuration.getAttachmentTextCacheMaxSize()).thenReturn(1000L);
+
+        mockAttachment(this.attachment, "file.pdf", "1.1");
+    }
+
+    private void mockAttachment(XWikiAttachment mockAttachment, String name, String version)
+    {
+        AttachmentReference reference = new AttachmentReference(name, DOCUMENT_REFERENCE);
+        when(mockAttachment.getReference()).thenReturn(reference);
+        when(this.serializer.serialize(reference)).thenReturn("wiki:Space.Page@" + name);
+        when(mockAttachment.getVersion()).thenReturn(version);
+        when(mockAttachment.getDate()).thenReturn(new Date(42));
+        when(mockAttachment.getLongSize()).thenReturn(100L);
+    }
+
+    @Test
+    void setAndGet()
+    {
+        assertNull(this.cache.get(this.attachment));
+
+        this.cache.set(this.attachment, "first line\nsecond line");
+
+        assertEquals("first line\nsecond line", this.cache.get(this.attachment));
+    }
+
+    @Test
+    void getWhenContentChanged()
+    {
+        this.cache.set(this.attachment, "text");
+
+        when(this.attachment.getVersion()).thenReturn("1.2");
+
+        assertNull(this.cache.get(this.attachment));
+    }
+
+    @Test
+    void getWhenDisabled()
+    {
+        this.cache.set(this.attachment, "text");
+
+        when(this.configuration.getAttachmentTextCacheMaxSize()).thenReturn(0L);
+
+        assertNull(this.cache.get(this.attachment));
+    }
+
+    @Test
+    void setWithoutVersion()
+    {
+        when(this.attachment.getVersion()).thenReturn(null);
+
+        this.cache.set(this.attachment, "text");
+
+        when(this.attachment.getVersion()).thenReturn("1.1");
+
+        assertNull(this.cache.get(this.attachment));
+    }
+
+    @Test
+    void setEvictsLeastRecentlyUsed()
+    {
+        XWikiAttachment otherAttachment = mock(XWikiAttachment.class);
+        mockAttachment(otherAttachment, "other.pdf", "1.1");
+        XWikiAttachment thirdAttachment = mock(XWikiAttachment.class);
+        mockAttachment(thirdAttachment, "third.pdf", "1.1");
+
+        this.cache.set(this.attachment, "a".repeat(400));
+        this.cache.set(otherAttachment, "b".repeat(400));
+
+        // Make sure the first attachment is the least recently used one.
+        File cacheDirectory = new File(this.permanentDirectory, "cache/solr/attachments/wiki");
+        new File(cacheDirectory, DigestUtils.sha256Hex("wiki:Space.Page@file.pdf") + ".txt").setLastModified(1000);
+        new File(cacheDirectory, DigestUtils.sha256Hex("wiki:Space.Page@other.pdf") + ".txt").setLastModified(2000);
+
+        this.cache.set(thirdAttachment, "c".repeat(400));
+
+        assertNull(this.cache.get(this.attachment));
+        assertEquals("b".repeat(400), this.cache.get(otherAttachment));
+        assertEquals("c".repeat(400), this.cache.get(thirdAttachment));
+    }
+
+    @Test
+    void removeAttachment()
+    {
+        XWikiAttachment otherAttachment = mock(XWikiAttachment.class);
+        mockAttachment(otherAttachment, "other.pdf", "1.1");
+
+        this.cache.set(this.attachment, "text");
+        this.cache.set(otherAttachment, "other text");
+
+        this.cache.remove(this.attachment.getReference());
+
+        assertNull(this.cache.get(this.attachment));
+        assertEquals("other text", this.cache.get(otherAttachment));
+    }
+
+    @Test
+    void removeWiki()
+    {
+        this.cache.set(this.attachment, "text");
+
+        this.cache.remove(new WikiReference("otherwiki"));
+
+        assertEquals("text", this.cache.get(this.attachment));
+
+        this.cache.remove(DOCUMENT_REFERENCE.getWikiReference());
+
+        assertNull(this.cache.get(this.attachment));
+        assertFalse(new File(this.permanentDirectory, "cache/solr/attachments/wiki").exists());
+    }
+}
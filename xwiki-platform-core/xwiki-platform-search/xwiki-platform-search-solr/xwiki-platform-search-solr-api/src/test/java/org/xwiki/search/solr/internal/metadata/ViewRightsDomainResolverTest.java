@@ -0,0 +1,163 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.search.solr.internal.metadata;
+
+import java.util.List;
+import java.util.Locale;
+
+import javax.inject.Named;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.SecurityReferenceFactory;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.security.authorization.SecurityEntryReader;
+import org.xwiki.security.authorization.SecurityRule;
+import org.xwiki.security.authorization.SecurityRuleEntry;
+import org.xwiki.security.authorization.cache.SecurityCache;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ViewRightsDomainResolver}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class ViewRightsDomainResolverTest
+{
+    private static final DocumentReference DOCUMENT_REFERENCE =
+        new DocumentReference("wiki", List.of("A", "B"), "Page");
+
+    @InjectMockComponents
+    private ViewRightsDomainResolver resolver;
+
+    @MockComponent
+    private SecurityReferenceFactory securityReferenceFactory;
+
+    @MockComponent
+    private SecurityCache securityCache;
+
+    @MockComponent
+    private SecurityEntryReader securityEntryReader;
+
+    @MockComponent
+    @Named("withparameters")
+    private EntityReferenceSerializer<String> parametersSerializer;
+
+    private SecurityReference documentSecurityReference;
+
+    private SecurityReference spaceBSecurityReference;
+
+    private SecurityReference spaceASecurityReference;
+
+    private SecurityReference wikiSecurityReference;
+
+    @BeforeEach
+    void beforeEach()
+    {
+        this.wikiSecurityReference = mockSecurityReference(DOCUMENT_REFERENCE.getWikiReference(), null);
+        this.spaceASecurityReference = mockSecurityReference(
+            DOCUMENT_REFERENCE.getLastSpaceReference().getParent(), this.wikiSecurityReference);
+        this.spaceBSecurityReference =
+            mockSecurityReference(DOCUMENT_REFERENCE.getLastSpaceReference(), this.spaceASecurityReference);
+        this.documentSecurityReference = mockSecurityReference(DOCUMENT_REFERENCE, this.spaceBSecurityReference);
+        when(this.securityReferenceFactory.newEntityReference(DOCUMENT_REFERENCE))
+            .thenReturn(this.documentSecurityReference);
+
+        when(this.parametersSerializer.serialize(any()))
+            .then(invocation -> invocation.<EntityReference>getArgument(0).getName());
+    }
+
+    private SecurityReference mockSecurityReference(EntityReference reference, SecurityReference parent)
+    {
+        SecurityReference securityReference = mock(SecurityReference.class);
+        when(securityReference.getType()).thenReturn(reference.getType());
+        when(securityReference.getOriginalReference()).thenReturn(reference);
+        when(securityReference.getParentSecurityReference()).thenReturn(parent);
+
+        return securityReference;
+    }
+
+    private void mockRule(SecurityReference securityReference, Right right, boolean cached) throws Exception
+    {
+        SecurityRule rule = mock(SecurityRule.class);
+        when(rule.match(right)).thenReturn(true);
+        SecurityRuleEntry entry = mock(SecurityRuleEntry.class);
+        when(entry.getRules()).thenReturn(List.of(rule));
+        if (cached) {
+            when(this.securityCache.get(securityReference)).thenReturn(entry);
+        } else {
+            when(this.securityEntryReader.read(securityReference)).thenReturn(entry);
+        }
+    }
+
+    @Test
+    void getDomainWithoutRules()
+    {
+        assertEquals("wiki:wiki", this.resolver.getDomain(DOCUMENT_REFERENCE));
+    }
+
+    @Test
+    void getDomainWithSpaceRules() throws Exception
+    {
+        // Rules which don't affect the view right are ignored.
+        mockRule(this.spaceBSecurityReference, Right.EDIT, false);
+        mockRule(this.spaceASecurityReference, Right.VIEW, true);
+
+        assertEquals("space:A", this.resolver.getDomain(DOCUMENT_REFERENCE));
+    }
+
+    @Test
+    void getDomainWithDocumentRules() throws Exception
+    {
+        mockRule(this.spaceASecurityReference, Right.VIEW, true);
+        // The rights implying the view right are affecting it.
+        mockRule(this.documentSecurityReference, Right.ADMIN, false);
+
+        assertEquals("document:Page", this.resolver.getDomain(DOCUMENT_REFERENCE));
+    }
+
+    @Test
+    void getDomainOfTranslation()
+    {
+        assertEquals("wiki:wiki", this.resolver.getDomain(new DocumentReference(DOCUMENT_REFERENCE, Locale.FRENCH)));
+    }
+
+    @Test
+    void isViewRight()
+    {
+        assertTrue(this.resolver.isViewRight(Right.VIEW));
+        assertTrue(this.resolver.isViewRight(Right.PROGRAM));
+        assertFalse(this.resolver.isViewRight(Right.EDIT));
+    }
+}
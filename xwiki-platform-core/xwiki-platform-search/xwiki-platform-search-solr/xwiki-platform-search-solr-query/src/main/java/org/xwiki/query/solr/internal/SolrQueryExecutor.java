@@ -48,6 +48,8 @@
 import org.xwiki.security.authorization.Right;
 
 import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.internal.profile.RequestProfile;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 
 /**
  * Executes Solr queries.
@@ -104,6 +106,12 @@ public class SolrQueryExecutor extends AbstractQueryExecutor
     @Inject
     private JobProgressManager progress;
 
+    @Inject
+    private SolrViewRightsFilter viewRightsFilter;
+
+    @Inject
+    private RequestProfiler profiler;
+
     @Override
     @SuppressWarnings("unchecked")
     public <T> List<T> execute(Query query) throws QueryException
@@ -116,30 +124,33 @@ public <T> List<T> execute(Query query) throws QueryException
 
             SolrQuery solrQuery = createSolrQuery(filterQuery(query, SOLR));
 
+            List<DocumentReference> usersToCheck = getUsersToCheck(query);
+
+            // Exclude the results the users cannot view inside the query so that the number of results, the facets
+            // and the pagination are right.
+            if (!usersToCheck.isEmpty()) {
+                String viewRightsFilterQuery = this.viewRightsFilter.getFilterQuery(usersToCheck);
+                if (viewRightsFilterQuery != null) {
+                    solrQuery.addFilterQuery(viewRightsFilterQuery);
+                }
+            }
+
             this.progress.startStep(query, "query.solr.progress.execute.execute", "Execute");
 
-            QueryResponse response = this.solrInstance.query(solrQuery);
+            long start = System.nanoTime();
+            QueryResponse response;
+            try {
+                response = this.solrInstance.query(solrQuery);
+            } finally {
+                this.profiler.record(RequestProfile.SOLR, System.nanoTime() - start);
+            }
 
             this.progress.startStep(query, "query.solr.progress.execute.filter", "Filter");
 
             // Check access rights need to be checked before returning the response.
-            // FIXME: this is not really the best way, mostly because at this point all grouping operations
-            // have already been performed and any change on the result will not ensure that the grouping
-            // information (facets, highlighting, maxScore, etc.) is still relevant.
-            // A better way would be using a PostFilter as described in this article:
-            // http://java.dzone.com/articles/custom-security-filtering-solr
-            List<DocumentReference> usersToCheck = new ArrayList<>(2);
-            if (query instanceof SecureQuery secureQuery) {
-                if (secureQuery.isCurrentUserChecked()) {
-                    usersToCheck.add(xcontextProvider.get().getUserReference());
-                }
-                if (secureQuery.isCurrentAuthorChecked()) {
-                    usersToCheck.add(xcontextProvider.get().getAuthorReference());
-                }
-            } else {
-                usersToCheck.add(xcontextProvider.get().getUserReference());
-                usersToCheck.add(xcontextProvider.get().getAuthorReference());
-            }
+            // The filter query above excludes most of the results the users cannot view, but it relies on the indexed
+            // view rights domains, which might not be up to date yet (or missing for entities indexed with an older
+            // version), so the results are still checked one by one.
             if (!usersToCheck.isEmpty()) {
                 filterResponse(response, usersToCheck);
             }
@@ -153,6 +164,24 @@ public <T> List<T> execute(Query query) throws QueryException
         }
     }
 
+    private List<DocumentReference> getUsersToCheck(Query query)
+    {
+        List<DocumentReference> usersToCheck = new ArrayList<>(2);
+        if (query instanceof SecureQuery secureQuery) {
+            if (secureQuery.isCurrentUserChecked()) {
+                usersToCheck.add(xcontextProvider.get().getUserReference());
+            }
+            if (secureQuery.isCurrentAuthorChecked()) {
+                usersToCheck.add(xcontextProvider.get().getAuthorReference());
+            }
+        } else {
+            usersToCheck.add(xcontextProvider.get().getUserReference());
+            usersToCheck.add(xcontextProvider.get().getAuthorReference());
+        }
+
+        return usersToCheck;
+    }
+
     private SolrQuery createSolrQuery(Query query)
     {
         SolrQuery solrQuery = new SolrQuery(query.getStatement());
@@ -0,0 +1,187 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.solr.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.FacetField;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.slf4j.Logger;
+import org.xwiki.component.annotation.Component;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.search.solr.SolrUtils;
+import org.xwiki.search.solr.internal.api.FieldUtils;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.search.solr.internal.api.SolrInstance;
+import org.xwiki.security.authorization.AuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+/**
+ * Produce the Solr filter query excluding the search results the users cannot view.
+ * <p>
+ * Each indexed entity has a view rights domain: the closest entity holding security rules which affect the view right.
+ * The view right is checked once per known domain and the denied domains are excluded from the query, which keeps the
+ * number of results, the facets and the pagination right. The entities indexed without a domain are never excluded.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@Component(roles = SolrViewRightsFilter.class)
+@Singleton
+public class SolrViewRightsFilter
+{
+    /**
+     * The time (in milliseconds) during which the list of indexed domains is reused.
+     */
+    private static final long DOMAINS_CACHE_DURATION = 60000L;
+
+    private static final String OR = " OR ";
+
+    private record Domains(List<String> values, long timestamp)
+    {
+    }
+
+    @Inject
+    private SolrInstance solrInstance;
+
+    @Inject
+    private SolrConfiguration configuration;
+
+    @Inject
+    private AuthorizationManager authorization;
+
+    @Inject
+    private SolrUtils solrUtils;
+
+    @Inject
+    @Named("withparameters")
+    private EntityReferenceResolver<String> referenceResolver;
+
+    @Inject
+    private Logger logger;
+
+    private volatile Domains domains;
+
+    /**
+     * @param users the users who should be able to view the results
+     * @return the filter query excluding the results the passed users cannot view, or {@code null} if there is nothing
+     *         to exclude or if the filter is disabled
+     */
+    public String getFilterQuery(List<DocumentReference> users)
+    {
+        if (users.isEmpty() || !this.configuration.isViewRightsFilterEnabled()) {
+            return null;
+        }
+
+        List<String> indexedDomains = getDomains();
+        if (indexedDomains == null) {
+            return null;
+        }
+
+        // The current user is generally also the current author.
+        List<DocumentReference> distinctUsers = users.stream().distinct().toList();
+        List<String> deniedDomains = new ArrayList<>();
+        for (String domain : indexedDomains) {
+            if (!isAllowed(domain, distinctUsers)) {
+                deniedDomains.add(domain);
+            }
+        }
+
+        if (deniedDomains.isEmpty()) {
+            return null;
+        }
+
+        return deniedDomains.stream().map(this.solrUtils::toCompleteFilterQueryString)
+            .collect(Collectors.joining(OR, '-' + FieldUtils.VIEW_RIGHTS_DOMAIN + ":(", ")"));
+    }
+
+    private boolean isAllowed(String domain, List<DocumentReference> users)
+    {
+        try {
+            EntityReference domainReference = this.referenceResolver.resolve(domain, null);
+            for (DocumentReference user : users) {
+                if (!this.authorization.hasAccess(Right.VIEW, user, domainReference)) {
+                    return false;
+                }
+            }
+
+            return true;
+        } catch (Exception e) {
+            // The results of this domain are checked after the search anyway.
+            this.logger.debug("Failed to check the view right on domain [{}]", domain, e);
+
+            return true;
+        }
+    }
+
+    private List<String> getDomains()
+    {
+        long now = System.currentTimeMillis();
+        Domains currentDomains = this.domains;
+        if (currentDomains == null || now - currentDomains.timestamp() > DOMAINS_CACHE_DURATION) {
+            currentDomains = new Domains(searchDomains(), now);
+            this.domains = currentDomains;
+        }
+
+        return currentDomains.values();
+    }
+
+    private List<String> searchDomains()
+    {
+        int maxDomains = this.configuration.getViewRightsFilterMaxDomains();
+        if (maxDomains <= 0) {
+            return null;
+        }
+
+        SolrQuery solrQuery = new SolrQuery("*:*");
+        solrQuery.setRows(0);
+        solrQuery.setFacet(true);
+        solrQuery.addFacetField(FieldUtils.VIEW_RIGHTS_DOMAIN);
+        solrQuery.setFacetMinCount(1);
+        // Ask one more domain to know when there are too many of them.
+        solrQuery.setFacetLimit(maxDomains + 1);
+
+        try {
+            QueryResponse response = this.solrInstance.query(solrQuery);
+            FacetField facetField = response.getFacetField(FieldUtils.VIEW_RIGHTS_DOMAIN);
+            if (facetField == null || facetField.getValueCount() > maxDomains) {
+                // Too many domains to filter in the query: only check the results after the search.
+                return null;
+            }
+
+            return facetField.getValues().stream().map(FacetField.Count::getName).toList();
+        } catch (Exception e) {
+            this.logger.warn("Failed to get the indexed view rights domains. Root cause is [{}].",
+                ExceptionUtils.getRootCauseMessage(e));
+
+            return null;
+        }
+    }
+}
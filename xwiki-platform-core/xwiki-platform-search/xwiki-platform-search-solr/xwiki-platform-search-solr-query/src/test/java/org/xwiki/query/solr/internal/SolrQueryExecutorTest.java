@@ -29,6 +29,7 @@
 import org.apache.solr.common.params.SolrParams;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.ArgumentCaptor;
 import org.xwiki.component.internal.ContextComponentManagerProvider;
 import org.xwiki.job.event.status.JobProgressManager;
 import org.xwiki.model.reference.DocumentReference;
@@ -59,6 +60,7 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -113,6 +115,9 @@
     @MockComponent
     private JobProgressManager progress;
 
+    @MockComponent
+    private SolrViewRightsFilter viewRightsFilter;
+
     @InjectComponentManager
     private MockitoComponentManager componentManager;
 
@@ -224,6 +229,31 @@ void filterResponse(MockitoOldcore oldcore) throws Exception
         assertEquals(List.of(alice, bob), results);
     }
 
+    @Test
+    void viewRightsFilterQuery(MockitoOldcore oldcore) throws Exception
+    {
+        DocumentReference currentUserReference = new DocumentReference("xwiki", "XWiki", "currentuser");
+        oldcore.getXWikiContext().setUserReference(currentUserReference);
+
+        String viewRightsFilterQuery = "-view_rights_domain:(space\\:wiki\\:Private)";
+        when(this.viewRightsFilter.getFilterQuery(List.of(currentUserReference))).thenReturn(viewRightsFilterQuery);
+
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.getResults()).thenReturn(new SolrDocumentList());
+        when(this.solrInstance.query(any(SolrParams.class))).thenReturn(response);
+
+        DefaultQuery query = new DefaultQuery("", null);
+        query.checkCurrentUser(true);
+        query.bindValue("fq", "type:DOCUMENT");
+
+        this.solrQueryExecutor.execute(query);
+
+        ArgumentCaptor<SolrQuery> solrQueryCaptor = ArgumentCaptor.forClass(SolrQuery.class);
+        verify(this.solrInstance).query(solrQueryCaptor.capture());
+        assertArrayEquals(new String[] {"type:DOCUMENT", viewRightsFilterQuery},
+            solrQueryCaptor.getValue().getFilterQueries());
+    }
+
     @Test
     void filterResponseWithException(MockitoOldcore oldcore) throws Exception
     {
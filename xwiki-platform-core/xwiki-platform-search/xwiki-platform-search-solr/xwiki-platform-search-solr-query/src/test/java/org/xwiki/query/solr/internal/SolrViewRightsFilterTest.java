@@ -0,0 +1,169 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.query.solr.internal;
+
+import java.util.List;
+
+import jakarta.inject.Named;
+
+import org.apache.solr.client.solrj.SolrQuery;
+import org.apache.solr.client.solrj.response.FacetField;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReferenceResolver;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.search.solr.SolrUtils;
+import org.xwiki.search.solr.internal.api.FieldUtils;
+import org.xwiki.search.solr.internal.api.SolrConfiguration;
+import org.xwiki.search.solr.internal.api.SolrInstance;
+import org.xwiki.security.authorization.AuthorizationManager;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.junit5.mockito.ComponentTest;
+import org.xwiki.test.junit5.mockito.InjectMockComponents;
+import org.xwiki.test.junit5.mockito.MockComponent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link SolrViewRightsFilter}.
+ *
+ * @version $Id$
+ */
+@ComponentTest
+class SolrViewRightsFilterTest
+{
+    private static final DocumentReference USER = new DocumentReference("wiki", "XWiki", "User");
+
+    private static final String WIKI_DOMAIN = "wiki:wiki";
+
+    private static final String PRIVATE_DOMAIN = "space:wiki:Private";
+
+    private static final String PUBLIC_DOMAIN = "document:wiki:Public.WebHome";
+
+    @InjectMockComponents
+    private SolrViewRightsFilter viewRightsFilter;
+
+    @MockComponent
+    private SolrInstance solrInstance;
+
+    @MockComponent
+    private SolrConfiguration configuration;
+
+    @MockComponent
+    private AuthorizationManager authorization;
+
+    @MockComponent
+    private SolrUtils solrUtils;
+
+    @MockComponent
+    @Named("withparameters")
+    private EntityReferenceResolver<String> referenceResolver;
+
+    @BeforeEach
+    void beforeEach() throws Exception
+    {
+        when(this.configuration.isViewRightsFilterEnabled()).thenReturn(true);
+        when(this.configuration.getViewRightsFilterMaxDomains()).thenReturn(10);
+
+        when(this.solrUtils.toCompleteFilterQueryString(anyString()))
+            .then(invocation -> '"' + invocation.<String>getArgument(0) + '"');
+
+        WikiReference wikiReference = new WikiReference("wiki");
+        SpaceReference privateReference = new SpaceReference("Private", wikiReference);
+        DocumentReference publicReference = new DocumentReference("wiki", "Public", "WebHome");
+        when(this.referenceResolver.resolve(WIKI_DOMAIN, null)).thenReturn(wikiReference);
+        when(this.referenceResolver.resolve(PRIVATE_DOMAIN, null)).thenReturn(privateReference);
+        when(this.referenceResolver.resolve(PUBLIC_DOMAIN, null)).thenReturn(publicReference);
+        when(this.authorization.hasAccess(Right.VIEW, USER, wikiReference)).thenReturn(true);
+        when(this.authorization.hasAccess(Right.VIEW, USER, publicReference)).thenReturn(true);
+
+        mockDomains(WIKI_DOMAIN, PRIVATE_DOMAIN, PUBLIC_DOMAIN);
+    }
+
+    private void mockDomains(String... domains) throws Exception
+    {
+        FacetField facetField = new FacetField(FieldUtils.VIEW_RIGHTS_DOMAIN);
+        for (String domain : domains) {
+            facetField.add(domain, 1);
+        }
+        QueryResponse response = mock(QueryResponse.class);
+        when(response.getFacetField(FieldUtils.VIEW_RIGHTS_DOMAIN)).thenReturn(facetField);
+        when(this.solrInstance.query(any(SolrQuery.class))).thenReturn(response);
+    }
+
+    @Test
+    void getFilterQuery() throws Exception
+    {
+        assertEquals("-view_rights_domain:(\"space:wiki:Private\")",
+            this.viewRightsFilter.getFilterQuery(List.of(USER)));
+
+        // The indexed domains are reused.
+        assertEquals("-view_rights_domain:(\"space:wiki:Private\")",
+            this.viewRightsFilter.getFilterQuery(List.of(USER)));
+        verify(this.solrInstance, times(1)).query(any(SolrQuery.class));
+    }
+
+    @Test
+    void getFilterQueryWhenAllowed() throws Exception
+    {
+        mockDomains(WIKI_DOMAIN, PUBLIC_DOMAIN);
+
+        assertNull(this.viewRightsFilter.getFilterQuery(List.of(USER)));
+    }
+
+    @Test
+    void getFilterQueryWithTooManyDomains() throws Exception
+    {
+        when(this.configuration.getViewRightsFilterMaxDomains()).thenReturn(2);
+
+        assertNull(this.viewRightsFilter.getFilterQuery(List.of(USER)));
+    }
+
+    @Test
+    void getFilterQueryWhenDisabled() throws Exception
+    {
+        when(this.configuration.isViewRightsFilterEnabled()).thenReturn(false);
+
+        assertNull(this.viewRightsFilter.getFilterQuery(List.of(USER)));
+        verify(this.solrInstance, never()).query(any(SolrQuery.class));
+    }
+
+    @Test
+    void getFilterQueryWhenUserIsAuthor() throws Exception
+    {
+        assertEquals("-view_rights_domain:(\"space:wiki:Private\")",
+            this.viewRightsFilter.getFilterQuery(List.of(USER, USER)));
+
+        // The right of the same user is checked once per domain.
+        verify(this.authorization, times(3)).hasAccess(eq(Right.VIEW), eq(USER), any());
+    }
+}
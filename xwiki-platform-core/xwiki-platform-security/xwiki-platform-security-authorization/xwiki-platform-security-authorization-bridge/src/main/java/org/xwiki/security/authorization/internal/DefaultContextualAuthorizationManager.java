@@ -45,6 +45,8 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.profile.RequestProfile;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 
 /**
  * Default implementation of the {@link ContextualAuthorizationManager}.
@@ -77,6 +79,9 @@ public class DefaultContextualAuthorizationManager implements ContextualAuthoriz
     @Inject
     private DocumentAuthorizationManager documentAuthorizationManager;
 
+    @Inject
+    private RequestProfiler profiler;
+
     @Inject
     private Logger logger;
 
@@ -104,7 +109,12 @@ private void checkAccess(Right right, DocumentReference user, EntityReference en
             throw new AccessDeniedException(right, user, entity);
         }
 
-        this.authorizationManager.checkAccess(right, user, getFullReference(entity));
+        long start = System.nanoTime();
+        try {
+            this.authorizationManager.checkAccess(right, user, getFullReference(entity));
+        } finally {
+            this.profiler.record(RequestProfile.RIGHTS, System.nanoTime() - start);
+        }
     }
 
     @Override
@@ -127,7 +137,16 @@ public boolean hasAccess(Right right, EntityReference entity)
 
     private boolean hasAccess(Right right, DocumentReference user, EntityReference entity)
     {
-        return checkPreAccess(right) && this.authorizationManager.hasAccess(right, user, getFullReference(entity));
+        if (!checkPreAccess(right)) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        try {
+            return this.authorizationManager.hasAccess(right, user, getFullReference(entity));
+        } finally {
+            this.profiler.record(RequestProfile.RIGHTS, System.nanoTime() - start);
+        }
     }
 
     private EntityReference getFullReference(EntityReference reference)
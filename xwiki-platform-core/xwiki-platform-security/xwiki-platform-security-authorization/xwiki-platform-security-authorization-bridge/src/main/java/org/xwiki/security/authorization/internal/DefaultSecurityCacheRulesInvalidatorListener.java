@@ -50,9 +50,10 @@
 
 import com.xpn.xwiki.XWikiContext;
 import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.internal.doc.DocumentChangeSet;
+import com.xpn.xwiki.internal.doc.DocumentChangeSetManager;
 import com.xpn.xwiki.internal.mandatory.XWikiGroupsDocumentInitializer;
 import com.xpn.xwiki.objects.BaseObject;
-import com.xpn.xwiki.objects.ObjectDiff;
 
 /**
  * This class monitors updates and invalidates right cache entries whenever necessary.
@@ -103,6 +104,9 @@ public class DefaultSecurityCacheRulesInvalidatorListener extends AbstractEventL
     @Inject
     private ObservationManager observation;
 
+    @Inject
+    private DocumentChangeSetManager changeSetManager;
+
     /**
      * Default constructor.
      */
@@ -175,22 +179,24 @@ public void onEvent(Event event, Object source, Object data)
         // Make sure to send the RightUpdatedEvent event after the security cache is cleaned
         // FIXME: for some reason if one of the event that listen to RightUpdatedEvent check the right it can put the
         // cache in a bad state. See https://jira.xwiki.org/browse/XWIKI-16381.
-        if (shouldSendRightUpdatedEvent(document, (XWikiContext) data)) {
+        if (shouldSendRightUpdatedEvent(document)) {
             // Notify that a right may have changed
             this.observation.notify(new RightUpdatedEvent(), source);
         }
     }
 
-    private boolean shouldSendRightUpdatedEvent(XWikiDocument document, XWikiContext xcontext)
+    private boolean shouldSendRightUpdatedEvent(XWikiDocument document)
     {
-        List<List<ObjectDiff>> documentDiff =
-            document.getObjectDiff(document.getOriginalDocument(), document, xcontext);
+        DocumentChangeSet changeSet = this.changeSetManager.getChangeSet(document);
 
-        for (List<ObjectDiff> objecstDiff : documentDiff) {
-            for (ObjectDiff objectDiff : objecstDiff) {
-                if (RIGHT_OBJECTS.contains(objectDiff.getXClassReference().getLocalDocumentReference())) {
-                    return true;
-                }
+        return containsRightObject(changeSet.getChangedObjects()) || containsRightObject(changeSet.getRemovedObjects());
+    }
+
+    private boolean containsRightObject(List<BaseObject> objects)
+    {
+        for (BaseObject object : objects) {
+            if (RIGHT_OBJECTS.contains(object.getXClassReference().getLocalDocumentReference())) {
+                return true;
             }
         }
 
@@ -0,0 +1,213 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.test.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.rendering.block.XDOM;
+import org.xwiki.rendering.syntax.Syntax;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.XWikiException;
+import com.xpn.xwiki.doc.XWikiDocument;
+import com.xpn.xwiki.objects.BaseObject;
+import com.xpn.xwiki.objects.classes.BaseClass;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Benchmarks of the {@link XWikiDocument} hot paths: XML serialization and parsing, content parsing and rendering.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentBenchmark
+{
+    /**
+     * A representative wiki page, mixing the most common syntax elements.
+     */
+    private static final String CONTENT = """
+        = Introduction =
+
+        This is a **representative** page used to //measure// the performance of the __document__ hot paths, \
+        with some ##monospace## text and a [[link to the XWiki site>>https://www.xwiki.org]].
+
+        == Lists ==
+
+        * first item
+        ** nested item with **bold** text
+        * second item
+        1. first numbered item
+        1. second numbered item
+
+        == Table ==
+
+        |=Name|=Description|=Value
+        |first|the first row|1
+        |second|the second row with //emphasis//|2
+        |third|the third row with a [[link>>https://www.xwiki.org/xwiki/bin/view/Main/]]|3
+
+        == Formatting ==
+
+        (% class="box" %)
+        (((
+        Paragraph in a group, with a line break\\and some text after it.
+        )))
+
+        {{{verbatim **content** that is not parsed}}}
+
+        ----
+
+        Last paragraph of the page.
+        """;
+
+    /**
+     * The document used by the benchmarks.
+     *
+     * @version $Id$
+     */
+    @State(Scope.Benchmark)
+    public static class DocumentState
+    {
+        private XWikiContext xcontext;
+
+        private DocumentReference documentReference;
+
+        private XWikiDocument document;
+
+        private String xml;
+
+        /**
+         * Create the document used by the benchmarks.
+         *
+         * @param oldcoreState the oldcore environment
+         * @throws XWikiException when failing to create the document
+         */
+        @Setup(Level.Trial)
+        public void setUp(OldcoreState oldcoreState) throws XWikiException
+        {
+            this.xcontext = oldcoreState.getXWikiContext();
+            this.documentReference = new DocumentReference("xwiki", "Benchmark", "Page");
+
+            this.document = new XWikiDocument(this.documentReference);
+            this.document.setSyntax(Syntax.XWIKI_2_1);
+            this.document.setTitle("Benchmark page");
+            this.document.setContent(CONTENT);
+            this.document.setNew(false);
+
+            BaseClass xclass = this.document.getXClass();
+            xclass.addTextField("string", "String", 30);
+            xclass.addTextAreaField("area", "Area", 10, 10);
+            xclass.addBooleanField("boolean", "Boolean", "yesno");
+            xclass.addNumberField("int", "Int", 10, "integer");
+            xclass.addStaticListField("list", "List", "value1|value2|value3");
+            doReturn(xclass).when(oldcoreState.getOldcore().getSpyXWiki()).getXClass(any(), any());
+
+            for (int i = 0; i < 5; i++) {
+                BaseObject xobject = this.document.newXObject(this.documentReference, this.xcontext);
+                xobject.setStringValue("string", "string " + i);
+                xobject.setLargeStringValue("area", CONTENT);
+                xobject.setIntValue("boolean", i % 2);
+                xobject.setIntValue("int", i);
+                xobject.setStringValue("list", "value" + (i % 3 + 1));
+            }
+
+            this.xcontext.setDoc(this.document);
+
+            this.xml = this.document.toXML(this.xcontext);
+        }
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the XML serialization of the document
+     * @throws XWikiException when failing to serialize the document
+     */
+    @Benchmark
+    public String toXML(DocumentState state) throws XWikiException
+    {
+        return state.document.toXML(state.xcontext);
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the document parsed from its XML serialization
+     * @throws XWikiException when failing to parse the document
+     */
+    @Benchmark
+    public XWikiDocument fromXML(DocumentState state) throws XWikiException
+    {
+        XWikiDocument document = new XWikiDocument(state.documentReference);
+        document.fromXML(state.xml);
+        return document;
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the XDOM of the content of a document that was never parsed before
+     */
+    @Benchmark
+    public XDOM getXDOM(DocumentState state)
+    {
+        XWikiDocument document = new XWikiDocument(state.documentReference);
+        document.setSyntax(Syntax.XWIKI_2_1);
+        document.setContent(CONTENT);
+        return document.getXDOM();
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return a copy of the already parsed XDOM of the document content
+     */
+    @Benchmark
+    public XDOM getCachedXDOM(DocumentState state)
+    {
+        return state.document.getXDOM();
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the document content rendered to XHTML
+     * @throws XWikiException when failing to render the document
+     */
+    @Benchmark
+    public String renderToXHTML(DocumentState state) throws XWikiException
+    {
+        return state.document.getRenderedContent(Syntax.XHTML_1_0, state.xcontext);
+    }
+}
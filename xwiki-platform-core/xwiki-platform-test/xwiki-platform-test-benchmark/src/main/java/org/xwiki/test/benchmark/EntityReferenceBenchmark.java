@@ -0,0 +1,134 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.test.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.component.manager.ComponentLookupException;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.DocumentReferenceResolver;
+import org.xwiki.model.reference.EntityReferenceSerializer;
+
+/**
+ * Benchmarks of the string serialization and resolution of entity references.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityReferenceBenchmark
+{
+    /**
+     * The resolver and serializer used by the benchmarks.
+     *
+     * @version $Id$
+     */
+    @State(Scope.Benchmark)
+    public static class ReferenceState
+    {
+        /**
+         * The serialized reference to resolve, covering a simple reference, a nested page and escaped characters.
+         */
+        @Param({ "Space.Page", "xwiki:Space1.Space2.Space3.WebHome", "wiki:Sp\\.ace.Pa\\:ge" })
+        private String reference;
+
+        private DocumentReferenceResolver<String> resolver;
+
+        private EntityReferenceSerializer<String> serializer;
+
+        private EntityReferenceSerializer<String> localSerializer;
+
+        private DocumentReference documentReference;
+
+        /**
+         * Lookup the resolver and the serializers.
+         *
+         * @param oldcoreState the oldcore environment
+         * @throws ComponentLookupException when failing to lookup the components
+         */
+        @Setup(Level.Trial)
+        public void setUp(OldcoreState oldcoreState) throws ComponentLookupException
+        {
+            this.resolver = oldcoreState.getComponentManager().getInstance(DocumentReferenceResolver.TYPE_STRING,
+                "current");
+            this.serializer = oldcoreState.getComponentManager().getInstance(EntityReferenceSerializer.TYPE_STRING);
+            this.localSerializer =
+                oldcoreState.getComponentManager().getInstance(EntityReferenceSerializer.TYPE_STRING, "local");
+
+            this.documentReference = this.resolver.resolve(this.reference);
+        }
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the resolved reference
+     */
+    @Benchmark
+    public DocumentReference resolve(ReferenceState state)
+    {
+        return state.resolver.resolve(state.reference);
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the serialized reference
+     */
+    @Benchmark
+    public String serialize(ReferenceState state)
+    {
+        return state.serializer.serialize(state.documentReference);
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the reference serialized without its wiki
+     */
+    @Benchmark
+    public String serializeLocal(ReferenceState state)
+    {
+        return state.localSerializer.serialize(state.documentReference);
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the reference after a resolve/serialize round-trip
+     */
+    @Benchmark
+    public String roundTrip(ReferenceState state)
+    {
+        return state.serializer.serialize(state.resolver.resolve(state.reference));
+    }
+}
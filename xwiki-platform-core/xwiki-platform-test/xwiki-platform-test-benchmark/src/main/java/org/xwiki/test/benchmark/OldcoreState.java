@@ -0,0 +1,129 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.test.benchmark;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.xwiki.configuration.ConfigurationSource;
+import org.xwiki.display.internal.DisplayConfiguration;
+import org.xwiki.rendering.transformation.RenderingContext;
+import org.xwiki.security.authorization.Right;
+import org.xwiki.test.mockito.MockitoComponentManager;
+
+import com.xpn.xwiki.XWikiContext;
+import com.xpn.xwiki.test.MockitoOldcore;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shared benchmark fixture: an oldcore environment backed by {@link MockitoOldcore}, with all the components available
+ * in the classpath and the documents stored in memory.
+ * <p>
+ * The XWiki context is not thread safe so the benchmarks using this state are expected to run with a single thread
+ * (the JMH default).
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@State(Scope.Benchmark)
+public class OldcoreState
+{
+    private MockitoComponentManager componentManager;
+
+    private MockitoOldcore oldcore;
+
+    /**
+     * Initialize the component manager and the oldcore environment.
+     *
+     * @throws Exception when failing to initialize the environment
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        this.componentManager = new MockitoComponentManager();
+        // Same as @AllComponents: register all the components found in the classpath.
+        this.componentManager.initialize(getClass().getClassLoader());
+
+        this.oldcore = new MockitoOldcore(this.componentManager);
+        this.oldcore.before(getClass());
+
+        DisplayConfiguration displayConfiguration =
+            this.componentManager.registerMockComponent(DisplayConfiguration.class);
+        when(displayConfiguration.getDocumentDisplayerHint()).thenReturn("default");
+        when(displayConfiguration.getTitleHeadingDepth()).thenReturn(2);
+
+        this.componentManager.registerComponent(ConfigurationSource.class, "xwikicfg",
+            this.oldcore.getConfigurationSource());
+
+        // Grant all rights, except script and programming rights in restricted mode.
+        when(this.oldcore.getMockAuthorizationManager().hasAccess(any(), any(), any())).thenReturn(true);
+        when(this.oldcore.getMockDocumentAuthorizationManager().hasAccess(any(), any(), any(), any()))
+            .thenReturn(true);
+        when(this.oldcore.getMockContextualAuthorizationManager().hasAccess(any())).thenAnswer(invocation -> {
+            if (List.of(Right.SCRIPT, Right.PROGRAM).contains(invocation.getArgument(0))) {
+                RenderingContext renderingContext = this.componentManager.getInstance(RenderingContext.class);
+                return !renderingContext.isRestricted();
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Dispose the oldcore environment.
+     *
+     * @throws Exception when failing to dispose the environment
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        this.oldcore.after();
+        this.componentManager.dispose();
+    }
+
+    /**
+     * @return the component manager
+     */
+    public MockitoComponentManager getComponentManager()
+    {
+        return this.componentManager;
+    }
+
+    /**
+     * @return the oldcore environment
+     */
+    public MockitoOldcore getOldcore()
+    {
+        return this.oldcore;
+    }
+
+    /**
+     * @return the XWiki context
+     */
+    public XWikiContext getXWikiContext()
+    {
+        return this.oldcore.getXWikiContext();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.test.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.SpaceReference;
+import org.xwiki.model.reference.WikiReference;
+import org.xwiki.security.SecurityReference;
+import org.xwiki.security.SecurityReferenceFactory;
+import org.xwiki.security.UserSecurityReference;
+import org.xwiki.security.authorization.SecurityAccess;
+import org.xwiki.security.authorization.SecurityAccessEntry;
+import org.xwiki.security.authorization.SecurityRule;
+import org.xwiki.security.authorization.SecurityRuleEntry;
+import org.xwiki.security.authorization.cache.internal.SecurityCache;
+import org.xwiki.security.authorization.internal.AbstractSecurityAccessEntry;
+import org.xwiki.security.authorization.internal.AbstractSecurityRuleEntry;
+import org.xwiki.security.authorization.internal.XWikiSecurityAccess;
+
+/**
+ * Benchmarks of the lookups in the security cache, which are performed for each right check.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityCacheBenchmark
+{
+    /**
+     * A rule entry without any rule.
+     *
+     * @version $Id$
+     */
+    private static final class RuleEntry extends AbstractSecurityRuleEntry
+    {
+        private final SecurityReference reference;
+
+        RuleEntry(SecurityReference reference)
+        {
+            this.reference = reference;
+        }
+
+        @Override
+        public SecurityReference getReference()
+        {
+            return this.reference;
+        }
+
+        @Override
+        public Collection<SecurityRule> getRules()
+        {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * An access entry granting the default access.
+     *
+     * @version $Id$
+     */
+    private static final class AccessEntry extends AbstractSecurityAccessEntry
+    {
+        private final UserSecurityReference userReference;
+
+        private final SecurityReference reference;
+
+        AccessEntry(UserSecurityReference userReference, SecurityReference reference)
+        {
+            this.userReference = userReference;
+            this.reference = reference;
+        }
+
+        @Override
+        public UserSecurityReference getUserReference()
+        {
+            return this.userReference;
+        }
+
+        @Override
+        public SecurityReference getReference()
+        {
+            return this.reference;
+        }
+
+        @Override
+        public SecurityAccess getAccess()
+        {
+            return XWikiSecurityAccess.getDefaultAccess();
+        }
+    }
+
+    /**
+     * The security cache filled with the entries of a set of documents and users.
+     *
+     * @version $Id$
+     */
+    @State(Scope.Benchmark)
+    public static class CacheState
+    {
+        /**
+         * The number of documents.
+         */
+        @Param("1000")
+        private int documents;
+
+        /**
+         * The number of users.
+         */
+        @Param("10")
+        private int users;
+
+        private SecurityCache securityCache;
+
+        private List<SecurityReference> documentReferences;
+
+        private List<UserSecurityReference> userReferences;
+
+        private SecurityReference missingReference;
+
+        /**
+         * Fill the security cache.
+         *
+         * @param oldcoreState the oldcore environment
+         * @throws Exception when failing to fill the cache
+         */
+        @Setup(Level.Trial)
+        public void setUp(OldcoreState oldcoreState) throws Exception
+        {
+            this.securityCache = oldcoreState.getComponentManager().getInstance(SecurityCache.class);
+            SecurityReferenceFactory factory =
+                oldcoreState.getComponentManager().getInstance(SecurityReferenceFactory.class);
+
+            WikiReference wikiReference = new WikiReference("xwiki");
+            SpaceReference spaceReference = new SpaceReference("Space", wikiReference);
+            SpaceReference usersSpaceReference = new SpaceReference("XWiki", wikiReference);
+
+            add(factory.newEntityReference(wikiReference));
+            add(factory.newEntityReference(spaceReference));
+            add(factory.newEntityReference(usersSpaceReference));
+
+            this.userReferences = new ArrayList<>(this.users);
+            for (int i = 0; i < this.users; i++) {
+                UserSecurityReference userReference =
+                    factory.newUserReference(new DocumentReference("User" + i, usersSpaceReference));
+                this.securityCache.add(new RuleEntry(userReference), Collections.emptyList(),
+                    this.securityCache.getInvalidationCounter());
+                this.userReferences.add(userReference);
+            }
+
+            this.documentReferences = new ArrayList<>(this.documents);
+            for (int i = 0; i < this.documents; i++) {
+                SecurityReference documentReference =
+                    factory.newEntityReference(new DocumentReference("Page" + i, spaceReference));
+                add(documentReference);
+                for (UserSecurityReference userReference : this.userReferences) {
+                    this.securityCache.add(new AccessEntry(userReference, documentReference),
+                        this.securityCache.getInvalidationCounter());
+                }
+                this.documentReferences.add(documentReference);
+            }
+
+            this.missingReference = factory.newEntityReference(new DocumentReference("Missing", spaceReference));
+        }
+
+        private void add(SecurityReference reference) throws Exception
+        {
+            this.securityCache.add(new RuleEntry(reference), this.securityCache.getInvalidationCounter());
+        }
+
+        private SecurityReference randomDocument()
+        {
+            return this.documentReferences.get(ThreadLocalRandom.current().nextInt(this.documentReferences.size()));
+        }
+
+        private UserSecurityReference randomUser()
+        {
+            return this.userReferences.get(ThreadLocalRandom.current().nextInt(this.userReferences.size()));
+        }
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the cached access of a user on a document
+     */
+    @Benchmark
+    public SecurityAccessEntry getAccessEntry(CacheState state)
+    {
+        return state.securityCache.get(state.randomUser(), state.randomDocument());
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the cached rules of a document
+     */
+    @Benchmark
+    public SecurityRuleEntry getRuleEntry(CacheState state)
+    {
+        return state.securityCache.get(state.randomDocument());
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return {@code null}, the access of a user on a document which is not in the cache
+     */
+    @Benchmark
+    public SecurityAccessEntry getMissingAccessEntry(CacheState state)
+    {
+        return state.securityCache.get(state.randomUser(), state.missingReference);
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package org.xwiki.test.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xwiki.model.reference.DocumentReference;
+import org.xwiki.model.reference.EntityReference;
+import org.xwiki.query.QueryFilter;
+import org.xwiki.security.authorization.AccessDeniedException;
+import org.xwiki.security.authorization.ContextualAuthorizationManager;
+import org.xwiki.security.authorization.Right;
+
+/**
+ * Benchmark of the filtering of query results by the "viewable" {@link QueryFilter}.
+ * <p>
+ * The authorization manager is replaced by a set lookup so that the benchmark measures the cost of the filter itself
+ * and not the one of the right checks, which is covered by {@link SecurityCacheBenchmark}.
+ *
+ * @version $Id$
+ * @since 18.8.0RC1
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViewableQueryFilterBenchmark
+{
+    /**
+     * Grant view right on all the entities except the ones explicitly denied.
+     *
+     * @version $Id$
+     */
+    private static final class DenySetAuthorizationManager implements ContextualAuthorizationManager
+    {
+        private final Set<EntityReference> denied;
+
+        DenySetAuthorizationManager(Set<EntityReference> denied)
+        {
+            this.denied = denied;
+        }
+
+        @Override
+        public void checkAccess(Right right) throws AccessDeniedException
+        {
+            // Everything is allowed.
+        }
+
+        @Override
+        public boolean hasAccess(Right right)
+        {
+            return true;
+        }
+
+        @Override
+        public void checkAccess(Right right, EntityReference entityReference) throws AccessDeniedException
+        {
+            if (!hasAccess(right, entityReference)) {
+                throw new AccessDeniedException(right, null, entityReference);
+            }
+        }
+
+        @Override
+        public boolean hasAccess(Right right, EntityReference entityReference)
+        {
+            return !this.denied.contains(entityReference);
+        }
+    }
+
+    /**
+     * The query results to filter.
+     *
+     * @version $Id$
+     */
+    @State(Scope.Benchmark)
+    public static class ResultsState
+    {
+        /**
+         * The number of query results.
+         */
+        @Param("1000")
+        private int size;
+
+        /**
+         * Whether each result is a single reference or a row of several columns starting with a reference.
+         */
+        @Param({ "reference", "row" })
+        private String resultType;
+
+        private QueryFilter filter;
+
+        private List<Object> results;
+
+        /**
+         * Create the query results and the filter.
+         *
+         * @param oldcoreState the oldcore environment
+         * @throws Exception when failing to create the filter
+         */
+        @Setup(Level.Trial)
+        public void setUp(OldcoreState oldcoreState) throws Exception
+        {
+            Set<EntityReference> denied = new HashSet<>();
+            this.results = new ArrayList<>(this.size);
+            for (int i = 0; i < this.size; i++) {
+                DocumentReference reference = new DocumentReference("xwiki", List.of("Space", "Sub" + (i % 10)),
+                    "Page" + i);
+                // Deny one result out of ten.
+                if (i % 10 == 0) {
+                    denied.add(reference);
+                }
+                if ("row".equals(this.resultType)) {
+                    this.results.add(new Object[] { reference, "Title " + i, i });
+                } else {
+                    this.results.add(reference);
+                }
+            }
+
+            oldcoreState.getComponentManager().registerComponent(ContextualAuthorizationManager.class,
+                new DenySetAuthorizationManager(denied));
+            this.filter = oldcoreState.getComponentManager().getInstance(QueryFilter.class, "viewable");
+        }
+    }
+
+    /**
+     * @param state the benchmark state
+     * @return the viewable results
+     */
+    @Benchmark
+    public List<?> filterResults(ResultsState state)
+    {
+        return state.filter.filterResults(state.results);
+    }
+}
@@ -108,6 +108,7 @@
 import com.xpn.xwiki.doc.DefaultDocumentAccessBridge;
 import com.xpn.xwiki.internal.DefaultXWikiStubContextProvider;
 import com.xpn.xwiki.internal.localization.XWikiLocalizationContext;
+import com.xpn.xwiki.internal.profile.RequestProfiler;
 import com.xpn.xwiki.internal.security.authorization.DefaultAuthorExecutor;
 import com.xpn.xwiki.internal.sheet.ClassSheetBinder;
 import com.xpn.xwiki.internal.sheet.DefaultModelBridge;
@@ -288,6 +289,9 @@
     TemplateAsyncRenderer.class,
     DefaultCacheControl.class,
 
+    // Request profile (used when evaluating templates)
+    RequestProfiler.class,
+
     // Required rights (needed for Document/Object API)
     DocumentRequiredRightsReader.class,
 
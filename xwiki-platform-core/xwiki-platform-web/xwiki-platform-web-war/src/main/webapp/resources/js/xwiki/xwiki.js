@@ -1815,6 +1815,9 @@ document.observe("xwiki:dom:loaded", function() {
   // Intercept right away, as early as possible, in order to be sure we catch all requests.
   interceptXMLHttpRequest();
   interceptFetch();
+
+  // Allow the content received by other means than HTTP (e.g. a WebSocket) to extend the page head in the same way.
+  XWiki.handleResponseHeaders = handleResponseHeaders;
 })();
 
 /**
@@ -18,6 +18,18 @@
  * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
  */
 require(["jquery", 'xwiki-meta'], function($, xm) {
+  // The URL of the WebSocket used to receive the results of all the asynchronous renderings of the page at once
+  var webSocketURL = $jsontool.serialize($services.websocket.url('asyncrenderer'));
+
+  var inject = function(element, html)
+  {
+    // Replace the element by the asynchronous result. Note that the X-XWIKI-HTML-HEAD and X-XWIKI-HTML-SCRIPTS
+    // custom HTTP response headers that contain the required stylesheets and JavaScript files are handled
+    // automatically by xwiki.js
+    element.replaceWith(html);
+    $(document).trigger('xwiki:dom:updated', {elements: element.toArray()});
+  };
+
   var update = function(element, url)
   {
     // TODO: show progress
@@ -26,11 +38,7 @@ require(["jquery", 'xwiki-meta'], function($, xm) {
       complete: function(xhr, textStatus) {
         switch (xhr.status) {
           case 200:
-            // Replace the element by the asynchronous result. Note that the X-XWIKI-HTML-HEAD and X-XWIKI-HTML-SCRIPTS
-            // custom HTTP response headers that contain the required stylesheets and JavaScript files are handled
-            // automatically by xwiki.js
-            element.replaceWith(xhr.responseText);
-            $(document).trigger('xwiki:dom:updated', {elements: element.toArray()});
+            inject(element, xhr.responseText);
             break;
 
           case 202:
@@ -50,6 +58,87 @@ require(["jquery", 'xwiki-meta'], function($, xm) {
     });
   };
 
+  // The asynchronous renderings waiting for their result on the WebSocket, indexed by client id
+  var subscriptions = {};
+  var channel;
+
+  var getChannel = function()
+  {
+    if (!channel && webSocketURL && window.WebSocket) {
+      var socket = channel = new WebSocket(webSocketURL);
+      socket.pending = [];
+      socket.onopen = function() {
+        socket.pending.forEach(function(message) {
+          socket.send(message);
+        });
+        socket.pending = [];
+      };
+      socket.onmessage = function(event) {
+        var message = JSON.parse(event.data);
+        var subscription = subscriptions[message.clientId];
+        if (subscription) {
+          delete subscriptions[message.clientId];
+          if (typeof message.html === 'string') {
+            inject(subscription.element, message.html);
+            XWiki.handleResponseHeaders(function(name) {
+              return message.headers[name];
+            });
+          } else {
+            // The asynchronous rendering cannot be found anymore
+            subscription.element.remove();
+          }
+        }
+        if (Object.keys(subscriptions).length === 0) {
+          // Don't keep the connection open once all the asynchronous renderings of the page received their result. A
+          // new one is opened if more asynchronous renderings are injected in the page later.
+          socket.completed = true;
+          channel = null;
+          socket.close();
+        }
+      };
+      socket.onclose = function() {
+        if (socket.completed) {
+          return;
+        }
+        // Fallback on long polling for the asynchronous renderings still waiting for their result
+        webSocketURL = null;
+        channel = null;
+        var waiting = subscriptions;
+        subscriptions = {};
+        Object.values(waiting).forEach(function(subscription) {
+          update(subscription.element, subscription.url);
+        });
+      };
+    }
+
+    return channel;
+  };
+
+  var subscribe = function(element, id, clientId, url)
+  {
+    var channel = getChannel();
+    if (!channel) {
+      return false;
+    }
+
+    subscriptions[clientId] = {element: element, url: url};
+    var message = JSON.stringify({id: id, clientId: clientId});
+    if (channel.readyState === WebSocket.OPEN) {
+      channel.send(message);
+    } else {
+      channel.pending.push(message);
+    }
+
+    // Display the spinner only if we wait more than the long polling timeout
+    setTimeout(function() {
+      if (subscriptions[clientId]) {
+        showSpinner(element);
+      }
+    }, 500);
+
+    return true;
+  };
+
   var showSpinner = function(element)
   {
     if (element.tagName == 'div') {
@@ -62,11 +151,11 @@ require(["jquery", 'xwiki-meta'], function($, xm) {
   var activateAsyncPlaceHolder = function(element)
   {
     var url = element.dataset.xwikiAsyncUrl;
+    var id = element.dataset.xwikiAsyncId;
 
     // If the URL is not provided calculate it based on the id
+    var customURL = !!url;
     if (!url) {
-        var id = element.dataset.xwikiAsyncId;
-
         if (id) {
           url = "${request.contextPath}/asyncrenderer/" + id;
         }
@@ -89,7 +178,10 @@ require(["jquery", 'xwiki-meta'], function($, xm) {
 
     element = $(element);
 
-    update(element, url);
+    // Receive the result through the WebSocket shared by all the asynchronous renderings of the page when possible
+    if (customURL || !id || !clientId || !subscribe(element, id, clientId, url)) {
+      update(element, url);
+    }
   };
 
   var onMutations = function(mutations)